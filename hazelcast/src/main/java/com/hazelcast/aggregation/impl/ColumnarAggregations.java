@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+/**
+ * Loops over the columns given to a {@link ColumnarAggregator}, each of them
+ * combines the values in the same order the aggregators do.
+ */
+final class ColumnarAggregations {
+
+    private ColumnarAggregations() {
+    }
+
+    static long sum(long[] values, int[] positions, int count) {
+        long sum = 0;
+        if (positions == null) {
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sum += values[positions[i]];
+            }
+        }
+        return sum;
+    }
+
+    static long sumAsLongs(double[] values, int[] positions, int count) {
+        long sum = 0;
+        if (positions == null) {
+            for (int i = 0; i < count; i++) {
+                sum += (long) values[i];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sum += (long) values[positions[i]];
+            }
+        }
+        return sum;
+    }
+
+    static double sum(double initial, double[] values, int[] positions, int count) {
+        double sum = initial;
+        if (positions == null) {
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sum += values[positions[i]];
+            }
+        }
+        return sum;
+    }
+
+    static double sumAsDoubles(double initial, long[] values, int[] positions, int count) {
+        double sum = initial;
+        if (positions == null) {
+            for (int i = 0; i < count; i++) {
+                sum += (double) values[i];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sum += (double) values[positions[i]];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the minimum, or the maximum if {@code max} is {@code true}, of
+     * the values boxed into the given class, {@code null} if there are none
+     */
+    static Comparable extreme(boolean max, Class<?> valueClass, long[] values, int[] positions, int count) {
+        if (count == 0) {
+            return null;
+        }
+        long extreme = values[positions == null ? 0 : positions[0]];
+        for (int i = 1; i < count; i++) {
+            long value = values[positions == null ? i : positions[i]];
+            if (max ? value > extreme : value < extreme) {
+                extreme = value;
+            }
+        }
+
+        if (valueClass == Integer.class) {
+            return (int) extreme;
+        } else if (valueClass == Short.class) {
+            return (short) extreme;
+        } else if (valueClass == Byte.class) {
+            return (byte) extreme;
+        } else {
+            return extreme;
+        }
+    }
+
+    /**
+     * @return the minimum, or the maximum if {@code max} is {@code true}, of
+     * the values boxed into the given class, {@code null} if there are none.
+     * The values are ordered as {@link Double#compareTo} does.
+     */
+    static Comparable extreme(boolean max, Class<?> valueClass, double[] values, int[] positions, int count) {
+        if (count == 0) {
+            return null;
+        }
+        double extreme = values[positions == null ? 0 : positions[0]];
+        for (int i = 1; i < count; i++) {
+            double value = values[positions == null ? i : positions[i]];
+            int result = Double.compare(value, extreme);
+            if (max ? result > 0 : result < 0) {
+                extreme = value;
+            }
+        }
+        return valueClass == Float.class ? (Comparable) (float) extreme : (Comparable) extreme;
+    }
+}
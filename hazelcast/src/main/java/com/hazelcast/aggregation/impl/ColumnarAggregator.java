@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+/**
+ * An aggregator which can accumulate the values of its attribute read from
+ * a primitive column, instead of extracting the value from each entry.
+ * <p>
+ * A column holds a single non-null value per entry and all its values were
+ * extracted as instances of the same class. The values to accumulate are
+ * given by their positions in the column, or, if the positions are
+ * {@code null}, they are the first {@code count} values of the column.
+ * <p>
+ * The accumulating methods return {@code false} without accumulating
+ * anything if the aggregator would reject or convert the values differently
+ * than when accumulating them one by one, the caller falls back to the
+ * regular accumulation then.
+ */
+public interface ColumnarAggregator {
+
+    /**
+     * @return the attribute path whose values are accumulated, or
+     * {@code null} if the aggregator accumulates the values of the entries
+     */
+    String getAttributePath();
+
+    /**
+     * Accumulates the given number of entries without looking at their
+     * values.
+     *
+     * @param count the number of entries
+     * @return {@code true} if the entries were accumulated, {@code false} if
+     * the aggregator needs the values of its attribute
+     */
+    default boolean accumulateEntries(int count) {
+        return false;
+    }
+
+    /**
+     * Accumulates the values of a column holding integral numbers.
+     *
+     * @param valueClass the class of the values as they were extracted,
+     *                   one of byte, short, int and long wrappers
+     * @param values     the values of the column
+     * @param positions  the positions of the values to accumulate, or
+     *                   {@code null} to accumulate the first {@code count}
+     *                   values
+     * @param count      the number of values to accumulate
+     * @return {@code true} if the values were accumulated, {@code false} if
+     * the aggregator can't accumulate values of the given class this way
+     */
+    default boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        return false;
+    }
+
+    /**
+     * Accumulates the values of a column holding floating point numbers.
+     *
+     * @param valueClass the class of the values as they were extracted,
+     *                   either float or double wrapper
+     * @param values     the values of the column
+     * @param positions  the positions of the values to accumulate, or
+     *                   {@code null} to accumulate the first {@code count}
+     *                   values
+     * @param count      the number of values to accumulate
+     * @return {@code true} if the values were accumulated, {@code false} if
+     * the aggregator can't accumulate values of the given class this way
+     */
+    default boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        return false;
+    }
+}
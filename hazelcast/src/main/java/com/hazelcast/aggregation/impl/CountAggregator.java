@@ -24,7 +24,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 import java.util.Objects;
 
-public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long> implements IdentifiedDataSerializable {
+public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long>
+        implements IdentifiedDataSerializable, ColumnarAggregator {
     private long count;
 
     public CountAggregator() {
@@ -40,6 +41,27 @@ public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long
         count++;
     }
 
+    @Override
+    public boolean accumulateEntries(int count) {
+        if (attributePath != null) {
+            return false;
+        }
+        this.count += count;
+        return true;
+    }
+
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        this.count += count;
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        this.count += count;
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         CountAggregator countAggregator = (CountAggregator) aggregator;
@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -46,6 +46,23 @@ public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Numb
         sum += Numbers.asDoubleExactly(value);
     }
 
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        if (valueClass == Long.class) {
+            return false;
+        }
+        this.count += count;
+        sum = ColumnarAggregations.sumAsDoubles(sum, values, positions, count);
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        this.count += count;
+        sum = ColumnarAggregations.sum(sum, values, positions, count);
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         DoubleAverageAggregator doubleAverageAggregator = (DoubleAverageAggregator) aggregator;
@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class DoubleSumAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -43,6 +43,21 @@ public final class DoubleSumAggregator<I> extends AbstractAggregator<I, Number,
         sum += Numbers.asDoubleExactly(value);
     }
 
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        if (valueClass == Long.class) {
+            return false;
+        }
+        sum = ColumnarAggregations.sumAsDoubles(sum, values, positions, count);
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        sum = ColumnarAggregations.sum(sum, values, positions, count);
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         DoubleSumAggregator longSumAggregator = (DoubleSumAggregator) aggregator;
@@ -24,7 +24,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 import java.util.Objects;
 
-public final class FixedSumAggregator<I> extends AbstractAggregator<I, Number, Long> implements IdentifiedDataSerializable {
+public final class FixedSumAggregator<I> extends AbstractAggregator<I, Number, Long>
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private long sum;
 
@@ -41,6 +42,18 @@ public final class FixedSumAggregator<I> extends AbstractAggregator<I, Number, L
         sum += value.longValue();
     }
 
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        sum += ColumnarAggregations.sum(values, positions, count);
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        sum += ColumnarAggregations.sumAsLongs(values, positions, count);
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         FixedSumAggregator longSumAggregator = (FixedSumAggregator) aggregator;
@@ -25,7 +25,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class FloatingPointSumAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -42,6 +42,18 @@ public final class FloatingPointSumAggregator<I> extends AbstractAggregator<I, N
         sum += value.doubleValue();
     }
 
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        sum = ColumnarAggregations.sumAsDoubles(sum, values, positions, count);
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        sum = ColumnarAggregations.sum(sum, values, positions, count);
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         FloatingPointSumAggregator longSumAggregator = (FloatingPointSumAggregator) aggregator;
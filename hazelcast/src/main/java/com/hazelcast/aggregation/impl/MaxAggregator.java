@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class MaxAggregator<I, R extends Comparable> extends AbstractAggregator<I, R, R>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private R max;
 
@@ -45,6 +45,26 @@ public final class MaxAggregator<I, R extends Comparable> extends AbstractAggreg
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        R value = (R) ColumnarAggregations.extreme(true, valueClass, values, positions, count);
+        if (isCurrentlyLessThan(value)) {
+            max = value;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        R value = (R) ColumnarAggregations.extreme(true, valueClass, values, positions, count);
+        if (isCurrentlyLessThan(value)) {
+            max = value;
+        }
+        return true;
+    }
+
     private boolean isCurrentlyLessThan(R otherValue) {
         if (otherValue == null) {
             return false;
@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class MinAggregator<I, R extends Comparable> extends AbstractAggregator<I, R, R>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private R min;
 
@@ -45,6 +45,26 @@ public final class MinAggregator<I, R extends Comparable> extends AbstractAggreg
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        R value = (R) ColumnarAggregations.extreme(false, valueClass, values, positions, count);
+        if (isCurrentlyGreaterThan(value)) {
+            min = value;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        R value = (R) ColumnarAggregations.extreme(false, valueClass, values, positions, count);
+        if (isCurrentlyGreaterThan(value)) {
+            min = value;
+        }
+        return true;
+    }
+
     private boolean isCurrentlyGreaterThan(R otherValue) {
         if (otherValue == null) {
             return false;
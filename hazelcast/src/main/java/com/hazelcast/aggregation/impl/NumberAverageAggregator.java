@@ -25,7 +25,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 public final class NumberAverageAggregator<I> extends AbstractAggregator<I, Number, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -45,6 +45,20 @@ public final class NumberAverageAggregator<I> extends AbstractAggregator<I, Numb
         sum += value.doubleValue();
     }
 
+    @Override
+    public boolean accumulateLongs(Class<?> valueClass, long[] values, int[] positions, int count) {
+        this.count += count;
+        sum = ColumnarAggregations.sumAsDoubles(sum, values, positions, count);
+        return true;
+    }
+
+    @Override
+    public boolean accumulateDoubles(Class<?> valueClass, double[] values, int[] positions, int count) {
+        this.count += count;
+        sum = ColumnarAggregations.sum(sum, values, positions, count);
+        return true;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         NumberAverageAggregator doubleAverageAggregator = (NumberAverageAggregator) aggregator;
@@ -371,6 +371,12 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         return evicted;
     }
 
+    private void recordAccess(Data key) {
+        if (evictionPolicyEvaluator != null) {
+            evictionPolicyEvaluator.recordAccess(key, records.size());
+        }
+    }
+
     @Override
     public void sampleAndForceRemoveEntries(int entryCountToRemove) {
         assertRunningOnPartitionThread();
@@ -1107,6 +1113,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     }
 
     protected R doPutRecord(Data key, R record, UUID source, boolean updateJournal) {
+        recordAccess(key);
         markExpirable(record.getExpirationTime());
         R oldRecord = records.put(key, record);
         if (updateJournal) {
@@ -1148,6 +1155,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         long start = isStatisticsEnabled() ? System.nanoTime() : 0;
         long now = Clock.currentTimeMillis();
         Object value = null;
+        recordAccess(key);
         R record = records.get(key);
         expiryPolicy = getExpiryPolicy(record, expiryPolicy);
         boolean isExpired = processExpiredEntry(key, record, now);
@@ -19,6 +19,7 @@ package com.hazelcast.client.impl.protocol.task.queue;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.QueueOfferCodec;
 import com.hazelcast.client.impl.protocol.task.AbstractPartitionMessageTask;
+import com.hazelcast.collection.impl.queue.QueueOperationBatcher;
 import com.hazelcast.collection.impl.queue.QueueService;
 import com.hazelcast.collection.impl.queue.operations.OfferOperation;
 import com.hazelcast.instance.impl.Node;
@@ -28,6 +29,7 @@ import com.hazelcast.security.permission.QueuePermission;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
 import java.security.Permission;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -41,6 +43,18 @@ public class QueueOfferMessageTask
         super(clientMessage, node, connection);
     }
 
+    @Override
+    protected CompletableFuture<Object> processInternal() {
+        if (parameters.timeoutMillis == 0) {
+            QueueService service = getService(QueueService.SERVICE_NAME);
+            QueueOperationBatcher batcher = service.getOperationBatcher(parameters.name);
+            if (batcher != null) {
+                return batcher.offer(parameters.value);
+            }
+        }
+        return super.processInternal();
+    }
+
     @Override
     protected Operation prepareOperation() {
         return new OfferOperation(parameters.name, parameters.timeoutMillis, parameters.value);
@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.impl.proxy;
 
+import com.hazelcast.client.impl.clientside.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.QueueAddAllCodec;
 import com.hazelcast.client.impl.protocol.codec.QueueAddListenerCodec;
@@ -56,6 +57,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.internal.util.CollectionUtil.objectToDataCollection;
@@ -69,6 +71,11 @@ import static java.lang.Thread.currentThread;
  */
 public final class ClientQueueProxy<E> extends PartitionSpecificClientProxy implements IQueue<E> {
 
+    private static final ClientMessageDecoder OFFER_ASYNC_RESPONSE_DECODER =
+            clientMessage -> QueueOfferCodec.decodeResponse(clientMessage).response;
+    private static final ClientMessageDecoder POLL_ASYNC_RESPONSE_DECODER =
+            clientMessage -> QueuePollCodec.decodeResponse(clientMessage).response;
+
     public ClientQueueProxy(String serviceName, String name, ClientContext context) {
         super(serviceName, name, context);
     }
@@ -190,6 +197,21 @@ public final class ClientQueueProxy<E> extends PartitionSpecificClientProxy impl
         return resultParameters.response;
     }
 
+    @Override
+    public CompletionStage<Boolean> offerAsync(@Nonnull E e) {
+        checkNotNull(e, "Null item is not allowed!");
+
+        Data data = toData(e);
+        ClientMessage request = QueueOfferCodec.encodeRequest(name, data, 0);
+        return invokeOnPartitionAsync(request, OFFER_ASYNC_RESPONSE_DECODER);
+    }
+
+    @Override
+    public CompletionStage<E> pollAsync() {
+        ClientMessage request = QueuePollCodec.encodeRequest(name, 0);
+        return invokeOnPartitionAsync(request, POLL_ASYNC_RESPONSE_DECODER);
+    }
+
     @Nonnull
     @Override
     public E take() throws InterruptedException {
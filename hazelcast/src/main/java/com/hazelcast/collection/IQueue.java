@@ -20,6 +20,8 @@ import com.hazelcast.transaction.TransactionalQueue;
 
 import javax.annotation.Nonnull;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -64,6 +66,48 @@ public interface IQueue<E> extends BlockingQueue<E>, BaseQueue<E>, ICollection<E
     @Nonnull
     E take() throws InterruptedException;
 
+    /**
+     * Asynchronously inserts the specified element into this queue if it is
+     * possible to do so immediately without violating capacity restrictions.
+     * The returned stage completes with {@code true} if the element was
+     * added and {@code false} if there was no space available, like
+     * {@link #offer(Object)}.
+     * <p>
+     * The offers and polls without timeout of the queues listed in the
+     * {@code hazelcast.queue.batching.queue.names} property are coalesced
+     * into batches on the member, which lets the queue serve many
+     * concurrent asynchronous offers and polls with a backup per batch
+     * instead of per item.
+     * <p>
+     * The default implementation calls {@link #offer(Object)} and returns a
+     * completed stage; the Hazelcast queue proxies override it.
+     *
+     * @param e the element to add
+     * @return the stage completed with the result of the offer
+     * @throws NullPointerException if the specified element is null
+     */
+    default CompletionStage<Boolean> offerAsync(@Nonnull E e) {
+        return CompletableFuture.completedFuture(offer(e));
+    }
+
+    /**
+     * Asynchronously retrieves and removes the head of this queue. The
+     * returned stage completes with the head of the queue or with
+     * {@code null} if the queue is empty, like {@link #poll()}.
+     * <p>
+     * The polls are coalesced the same way as the offers of
+     * {@link #offerAsync(Object)}.
+     * <p>
+     * The default implementation calls {@link #poll()} and returns a
+     * completed stage; the Hazelcast queue proxies override it.
+     *
+     * @return the stage completed with the head of this queue, or
+     * {@code null} if this queue is empty
+     */
+    default CompletionStage<E> pollAsync() {
+        return CompletableFuture.completedFuture(poll());
+    }
+
     /**
      * Returns LocalQueueStats for this queue.
      * LocalQueueStats is the statistics for the local portion of this
@@ -30,8 +30,10 @@ import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.transaction.TransactionException;
 import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,9 +50,11 @@ import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.collection.impl.collection.CollectionContainer.ID_PROMOTION_OFFSET;
+import static com.hazelcast.internal.config.ConfigUtils.matchesNames;
 import static com.hazelcast.internal.util.MapUtil.createHashMap;
 import static com.hazelcast.internal.util.MapUtil.createLinkedHashMap;
 import static com.hazelcast.internal.util.SetUtil.createHashSet;
+import static com.hazelcast.spi.properties.ClusterProperty.QUEUE_ARRAY_STORAGE_QUEUE_NAMES;
 
 /**
  * The {@code QueueContainer} contains the actual queue and provides functionalities such as :
@@ -59,6 +63,11 @@ import static com.hazelcast.internal.util.SetUtil.createHashSet;
  * <li>transactional operation functionalities</li>
  * <li>schedules queue destruction if it is configured to be destroyed once empty</li>
  * </ul>
+ * The items are kept in a linked list on the partition owner and in a hash
+ * map on the backup replicas. The queues listed in
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUEUE_ARRAY_STORAGE_QUEUE_NAMES}
+ * use a growable circular array and primitive {@code long} keyed hash maps
+ * instead, which don't allocate a node per item.
  */
 @SuppressWarnings("checkstyle:methodcount")
 public class QueueContainer implements IdentifiedDataSerializable {
@@ -66,17 +75,18 @@ public class QueueContainer implements IdentifiedDataSerializable {
     /**
      * Contains item ID to queue item mappings for current transactions
      */
-    private final Map<Long, TxQueueItem> txMap = new HashMap<Long, TxQueueItem>();
+    private Map<Long, TxQueueItem> txMap = new HashMap<Long, TxQueueItem>();
     private final Map<Long, Data> dataMap = new HashMap<Long, Data>();
     private QueueWaitNotifyKey pollWaitNotifyKey;
     private QueueWaitNotifyKey offerWaitNotifyKey;
-    private LinkedList<QueueItem> itemQueue;
+    private Deque<QueueItem> itemQueue;
     private Map<Long, QueueItem> backupMap;
     private QueueConfig config;
     private QueueStoreWrapper store;
     private NodeEngine nodeEngine;
     private QueueService service;
     private ILogger logger;
+    private boolean arrayStorage;
     /**
      * The ID of the last item, used for generating unique IDs for queue items
      */
@@ -277,7 +287,12 @@ public class QueueContainer implements IdentifiedDataSerializable {
 
     @SuppressWarnings("unchecked")
     private void addTxItemOrdered(TxQueueItem txQueueItem) {
-        ListIterator<QueueItem> iterator = ((List<QueueItem>) getItemQueue()).listIterator();
+        Deque<QueueItem> queue = getItemQueue();
+        if (!(queue instanceof List)) {
+            addTxItemOrdered(queue, txQueueItem);
+            return;
+        }
+        ListIterator<QueueItem> iterator = ((List<QueueItem>) queue).listIterator();
         while (iterator.hasNext()) {
             QueueItem queueItem = iterator.next();
             if (txQueueItem.itemId < queueItem.itemId) {
@@ -288,6 +303,26 @@ public class QueueContainer implements IdentifiedDataSerializable {
         iterator.add(txQueueItem);
     }
 
+    /**
+     * Inserts the item into a queue which does not support positional
+     * insertion by moving the items with lower IDs to the front again.
+     */
+    private static void addTxItemOrdered(Deque<QueueItem> queue, TxQueueItem txQueueItem) {
+        QueueItem last = queue.peekLast();
+        if (last == null || last.itemId < txQueueItem.itemId) {
+            queue.offerLast(txQueueItem);
+            return;
+        }
+        List<QueueItem> lowerItems = new ArrayList<QueueItem>();
+        while (!queue.isEmpty() && queue.peekFirst().itemId < txQueueItem.itemId) {
+            lowerItems.add(queue.pollFirst());
+        }
+        queue.offerFirst(txQueueItem);
+        for (int i = lowerItems.size() - 1; i >= 0; i--) {
+            queue.offerFirst(lowerItems.get(i));
+        }
+    }
+
     // TX Offer
 
     /**
@@ -889,7 +924,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
      */
     public Deque<QueueItem> getItemQueue() {
         if (itemQueue == null) {
-            itemQueue = new LinkedList<QueueItem>();
+            itemQueue = arrayStorage ? new ArrayDeque<QueueItem>() : new LinkedList<QueueItem>();
             if (backupMap != null && !backupMap.isEmpty()) {
                 List<QueueItem> values = new ArrayList<QueueItem>(backupMap.values());
                 Collections.sort(values);
@@ -924,14 +959,16 @@ public class QueueContainer implements IdentifiedDataSerializable {
     public Map<Long, QueueItem> getBackupMap() {
         if (backupMap == null) {
             if (itemQueue != null) {
-                backupMap = createHashMap(itemQueue.size());
+                backupMap = arrayStorage
+                        ? new Long2ObjectHashMap<QueueItem>(itemQueue.size())
+                        : createHashMap(itemQueue.size());
                 for (QueueItem item : itemQueue) {
                     backupMap.put(item.getItemId(), item);
                 }
                 itemQueue.clear();
                 itemQueue = null;
             } else {
-                backupMap = new HashMap<Long, QueueItem>();
+                backupMap = arrayStorage ? new Long2ObjectHashMap<QueueItem>() : new HashMap<Long, QueueItem>();
             }
         }
         return backupMap;
@@ -951,6 +988,33 @@ public class QueueContainer implements IdentifiedDataSerializable {
         SerializationService serializationService = nodeEngine.getSerializationService();
         ClassLoader classLoader = nodeEngine.getConfigClassLoader();
         this.store = QueueStoreWrapper.create(name, storeConfig, serializationService, classLoader);
+        if (!arrayStorage && isArrayStorageQueue(nodeEngine)) {
+            useArrayStorage();
+        }
+    }
+
+    private boolean isArrayStorageQueue(NodeEngine nodeEngine) {
+        return matchesNames(nodeEngine.getConfig().getConfigPatternMatcher(), nodeEngine.getProperties(),
+                QUEUE_ARRAY_STORAGE_QUEUE_NAMES, name);
+    }
+
+    /**
+     * Switches to the array based storage, moving the items which were
+     * already read by {@link #readData(ObjectDataInput)}.
+     */
+    private void useArrayStorage() {
+        arrayStorage = true;
+        Map<Long, TxQueueItem> txItems = txMap;
+        txMap = new Long2ObjectHashMap<TxQueueItem>(Math.max(txItems.size(), 1));
+        txMap.putAll(txItems);
+        if (itemQueue != null) {
+            itemQueue = new ArrayDeque<QueueItem>(itemQueue);
+        }
+        if (backupMap != null) {
+            Map<Long, QueueItem> backupItems = backupMap;
+            backupMap = new Long2ObjectHashMap<QueueItem>(Math.max(backupItems.size(), 1));
+            backupMap.putAll(backupItems);
+        }
     }
 
     /**
@@ -30,6 +30,8 @@ import com.hazelcast.collection.impl.queue.operations.IsEmptyOperation;
 import com.hazelcast.collection.impl.queue.operations.IteratorOperation;
 import com.hazelcast.collection.impl.queue.operations.OfferBackupOperation;
 import com.hazelcast.collection.impl.queue.operations.OfferOperation;
+import com.hazelcast.collection.impl.queue.operations.OfferPollBatchBackupOperation;
+import com.hazelcast.collection.impl.queue.operations.OfferPollBatchOperation;
 import com.hazelcast.collection.impl.queue.operations.PeekOperation;
 import com.hazelcast.collection.impl.queue.operations.PollBackupOperation;
 import com.hazelcast.collection.impl.queue.operations.PollOperation;
@@ -127,6 +129,9 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
     public static final int MERGE = 44;
     public static final int MERGE_BACKUP = 45;
 
+    public static final int OFFER_POLL_BATCH = 46;
+    public static final int OFFER_POLL_BATCH_BACKUP = 47;
+
     public int getFactoryId() {
         return F_ID;
     }
@@ -134,7 +139,8 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
     public DataSerializableFactory createFactory() {
 
         //noinspection unchecked
-        ConstructorFunction<Integer, IdentifiedDataSerializable>[] constructors = new ConstructorFunction[MERGE_BACKUP + 1];
+        ConstructorFunction<Integer, IdentifiedDataSerializable>[] constructors =
+                new ConstructorFunction[OFFER_POLL_BATCH_BACKUP + 1];
         constructors[OFFER] = arg -> new OfferOperation();
         constructors[OFFER_BACKUP] = arg -> new OfferBackupOperation();
         constructors[POLL] = arg -> new PollOperation();
@@ -180,6 +186,8 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
         constructors[TXN_COMMIT_BACKUP] = arg -> new TxnCommitBackupOperation();
         constructors[MERGE] = arg -> new QueueMergeOperation();
         constructors[MERGE_BACKUP] = arg -> new QueueMergeBackupOperation();
+        constructors[OFFER_POLL_BATCH] = arg -> new OfferPollBatchOperation();
+        constructors[OFFER_POLL_BATCH_BACKUP] = arg -> new OfferPollBatchBackupOperation();
 
         return new ArrayDataSerializableFactory(constructors);
     }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue;
+
+import com.hazelcast.collection.impl.queue.operations.OfferPollBatchOperation;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.SerializableList;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces the offers and polls without timeout submitted concurrently
+ * on this member for a queue into {@link OfferPollBatchOperation}s, which
+ * mutate the queue and back up the mutations once per batch instead of
+ * once per item.
+ * <p>
+ * At most one batch is in flight per queue. The offers and polls submitted
+ * while it runs form the next batch, so an idle queue doesn't wait for a
+ * batch to fill up and a busy queue gets batches of up to
+ * {@value #MAX_BATCH_SIZE} items. The items of a batch are offered and
+ * polled in their submission order.
+ */
+public class QueueOperationBatcher {
+
+    /**
+     * Maximum number of offers and polls in a batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final String name;
+    private final int partitionId;
+    private final NodeEngine nodeEngine;
+    // the next batch can't be invoked from the response threads
+    private final Executor asyncExecutor;
+    private final Queue<PendingOperation> pending = new ConcurrentLinkedQueue<PendingOperation>();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    public QueueOperationBatcher(String name, int partitionId, NodeEngine nodeEngine) {
+        this.name = name;
+        this.partitionId = partitionId;
+        this.nodeEngine = nodeEngine;
+        this.asyncExecutor = nodeEngine.getExecutionService().getExecutor(ExecutionService.ASYNC_EXECUTOR);
+    }
+
+    /**
+     * Offers the item with the next batch.
+     *
+     * @param data the item to offer
+     * @return the future completed with {@code true} if the item was
+     * offered, {@code false} if the queue was full
+     */
+    public CompletableFuture<Object> offer(Data data) {
+        return submit(data);
+    }
+
+    /**
+     * Polls an item with the next batch.
+     *
+     * @return the future completed with the polled item, or with
+     * {@code null} if the queue was empty
+     */
+    public CompletableFuture<Object> poll() {
+        return submit(null);
+    }
+
+    private CompletableFuture<Object> submit(Data data) {
+        PendingOperation operation = new PendingOperation(data);
+        pending.offer(operation);
+        flushIfIdle();
+        return operation.future;
+    }
+
+    private void flushIfIdle() {
+        // the pending operations are checked after releasing the in-flight
+        // flag, so an operation submitted meanwhile is flushed by one side
+        while (!pending.isEmpty() && inFlight.compareAndSet(false, true)) {
+            List<PendingOperation> batch = new ArrayList<PendingOperation>();
+            for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                PendingOperation operation = pending.poll();
+                if (operation == null) {
+                    break;
+                }
+                batch.add(operation);
+            }
+            if (batch.isEmpty()) {
+                inFlight.set(false);
+                continue;
+            }
+            invoke(batch);
+            return;
+        }
+    }
+
+    private void invoke(List<PendingOperation> batch) {
+        List<Data> items = new ArrayList<Data>(batch.size());
+        for (PendingOperation operation : batch) {
+            items.add(operation.data);
+        }
+        try {
+            nodeEngine.getOperationService()
+                      .invokeOnPartitionAsync(QueueService.SERVICE_NAME, new OfferPollBatchOperation(name, items), partitionId)
+                      .whenCompleteAsync((response, throwable) -> complete(batch, response, throwable), asyncExecutor);
+        } catch (Throwable t) {
+            complete(batch, null, t);
+        }
+    }
+
+    private void complete(List<PendingOperation> batch, Object response, Throwable throwable) {
+        try {
+            if (throwable != null) {
+                for (PendingOperation operation : batch) {
+                    operation.future.completeExceptionally(throwable);
+                }
+            } else {
+                List<Data> results = ((SerializableList) response).getCollection();
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingOperation operation = batch.get(i);
+                    Data result = results.get(i);
+                    operation.future.complete(operation.data != null ? nodeEngine.toObject(result) : result);
+                }
+            }
+        } finally {
+            inFlight.set(false);
+            flushIfIdle();
+        }
+    }
+
+    private static final class PendingOperation {
+
+        // null for a poll
+        private final Data data;
+        private final CompletableFuture<Object> future = new CompletableFuture<Object>();
+
+        PendingOperation(Data data) {
+            this.data = data;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.internal.util.Preconditions.checkFalse;
@@ -85,6 +86,21 @@ public class QueueProxyImpl<E> extends QueueProxySupport<E> implements IQueue<E>
         return offerInternal(data, timeUnit.toMillis(timeout));
     }
 
+    @Override
+    public CompletionStage<Boolean> offerAsync(@Nonnull E e) {
+        checkNotNull(e, "Null item is not allowed!");
+
+        final NodeEngine nodeEngine = getNodeEngine();
+        final Data data = nodeEngine.toData(e);
+        return offerAsyncInternal(data).thenApply(Boolean.class::cast);
+    }
+
+    @Override
+    public CompletionStage<E> pollAsync() {
+        final NodeEngine nodeEngine = getNodeEngine();
+        return pollAsyncInternal().thenApply(nodeEngine::toObject);
+    }
+
     @Nonnull
     @Override
     public E take() throws InterruptedException {
@@ -48,6 +48,7 @@ import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
@@ -100,6 +101,16 @@ abstract class QueueProxySupport<E> extends AbstractDistributedObject<QueueServi
         return (Boolean) invokeAndGet(operation, InterruptedException.class);
     }
 
+    CompletableFuture<Object> offerAsyncInternal(Data data) {
+        checkObjectNotNull(data);
+
+        QueueOperationBatcher batcher = getService().getOperationBatcher(name);
+        if (batcher != null) {
+            return batcher.offer(data);
+        }
+        return invoke(new OfferOperation(name, 0, data));
+    }
+
     public boolean isEmpty() {
         IsEmptyOperation operation = new IsEmptyOperation(name);
         return (Boolean) invokeAndGet(operation);
@@ -130,6 +141,14 @@ abstract class QueueProxySupport<E> extends AbstractDistributedObject<QueueServi
         return invokeAndGet(operation, InterruptedException.class);
     }
 
+    CompletableFuture<Object> pollAsyncInternal() {
+        QueueOperationBatcher batcher = getService().getOperationBatcher(name);
+        if (batcher != null) {
+            return batcher.poll();
+        }
+        return invoke(new PollOperation(name, 0));
+    }
+
     boolean removeInternal(Data data) {
         checkObjectNotNull(data);
 
@@ -82,6 +82,7 @@ import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.internal.config.ConfigValidator.checkQueueConfig;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.QUEUE_PREFIX;
+import static com.hazelcast.internal.config.ConfigUtils.matchesNames;
 import static com.hazelcast.internal.metrics.impl.ProviderHelper.provide;
 import static com.hazelcast.internal.util.ConcurrencyUtil.CALLER_RUNS;
 import static com.hazelcast.internal.util.ConcurrencyUtil.getOrPutSynchronized;
@@ -104,6 +105,10 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
 
     private final ConcurrentMap<String, QueueContainer> containerMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, LocalQueueStatsImpl> statsMap = new ConcurrentHashMap<>(1000);
+    private final ConcurrentMap<String, QueueOperationBatcher> operationBatcherMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> batchingQueueMap = new ConcurrentHashMap<>();
+    private final ConstructorFunction<String, QueueOperationBatcher> operationBatcherConstructorFunction =
+        name -> new QueueOperationBatcher(name, getPartitionId(name), getNodeEngine());
     private final ConstructorFunction<String, LocalQueueStatsImpl> localQueueStatsConstructorFunction =
         key -> new LocalQueueStatsImpl();
 
@@ -276,6 +281,8 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
         if (container != null) {
             container.destroy();
         }
+        operationBatcherMap.remove(name);
+        batchingQueueMap.remove(name);
         nodeEngine.getEventService().deregisterAllListeners(SERVICE_NAME, name);
         splitBrainProtectionConfigCache.remove(name);
     }
@@ -408,6 +415,29 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
         return new Merger(collector);
     }
 
+    /**
+     * Returns the batcher of the offers and polls without timeout of the
+     * given queue on this member.
+     *
+     * @param name the queue name
+     * @return the batcher or {@code null} if the queue is not listed in
+     * {@link ClusterProperty#QUEUE_BATCHING_QUEUE_NAMES}
+     */
+    public QueueOperationBatcher getOperationBatcher(String name) {
+        QueueOperationBatcher batcher = operationBatcherMap.get(name);
+        if (batcher != null || !isBatchingQueue(name)) {
+            return batcher;
+        }
+        return ConcurrencyUtil.getOrPutIfAbsent(operationBatcherMap, name, operationBatcherConstructorFunction);
+    }
+
+    private boolean isBatchingQueue(String name) {
+        // the queue names are matched only once, not by every offer and poll of a queue which is not batched
+        return batchingQueueMap.computeIfAbsent(name, queueName -> matchesNames(
+                nodeEngine.getConfig().getConfigPatternMatcher(), nodeEngine.getProperties(),
+                ClusterProperty.QUEUE_BATCHING_QUEUE_NAMES, queueName));
+    }
+
     private int getPartitionId(String name) {
         Data keyData = serializationService.toData(name, StringPartitioningStrategy.INSTANCE);
         return partitionService.getPartitionId(keyData);
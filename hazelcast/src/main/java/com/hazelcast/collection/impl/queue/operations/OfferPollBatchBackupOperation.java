@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue.operations;
+
+import com.hazelcast.collection.impl.queue.QueueContainer;
+import com.hazelcast.collection.impl.queue.QueueDataSerializerHook;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.operationservice.BackupOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides backup functionality for {@link OfferPollBatchOperation}.
+ * Replays the successful offers and polls in their order, a {@code null}
+ * item stands for a poll of the item with the same index in the item IDs.
+ */
+public class OfferPollBatchBackupOperation extends QueueOperation implements BackupOperation {
+
+    private long[] itemIds;
+    private List<Data> items;
+
+    public OfferPollBatchBackupOperation() {
+    }
+
+    public OfferPollBatchBackupOperation(String name, long[] itemIds, List<Data> items) {
+        super(name);
+        this.itemIds = itemIds;
+        this.items = items;
+    }
+
+    @Override
+    public void run() throws Exception {
+        QueueContainer queueContainer = getContainer();
+        for (int i = 0; i < items.size(); i++) {
+            Data data = items.get(i);
+            if (data != null) {
+                queueContainer.offerBackup(data, itemIds[i]);
+            } else {
+                queueContainer.pollBackup(itemIds[i]);
+            }
+        }
+    }
+
+    @Override
+    public int getClassId() {
+        return QueueDataSerializerHook.OFFER_POLL_BATCH_BACKUP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            out.writeLong(itemIds[i]);
+            IOUtil.writeData(out, items.get(i));
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int size = in.readInt();
+        itemIds = new long[size];
+        items = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            itemIds[i] = in.readLong();
+            items.add(IOUtil.readData(in));
+        }
+    }
+}
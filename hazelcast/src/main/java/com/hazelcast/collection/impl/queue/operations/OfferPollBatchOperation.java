@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue.operations;
+
+import com.hazelcast.collection.impl.queue.QueueContainer;
+import com.hazelcast.collection.impl.queue.QueueDataSerializerHook;
+import com.hazelcast.collection.impl.queue.QueueItem;
+import com.hazelcast.core.ItemEventType;
+import com.hazelcast.internal.monitor.impl.LocalQueueStatsImpl;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.SerializableList;
+import com.hazelcast.spi.impl.operationparker.OperationParker;
+import com.hazelcast.spi.impl.operationservice.MutatingOperation;
+import com.hazelcast.spi.impl.operationservice.Notifier;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.WaitNotifyKey;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a batch of offers and polls which were coalesced by a
+ * {@link com.hazelcast.collection.impl.queue.QueueOperationBatcher}, in
+ * their submission order, and backs them up with a single
+ * {@link OfferPollBatchBackupOperation}.
+ * <p>
+ * A {@code null} item stands for a poll. The response is a
+ * {@link SerializableList} with one element per item: the serialized
+ * {@link Boolean} result of an offer, or the polled item, {@code null}
+ * when the queue was empty.
+ */
+public class OfferPollBatchOperation extends QueueBackupAwareOperation implements Notifier, MutatingOperation {
+
+    private List<Data> items;
+    private transient Data offerAccepted;
+    private transient long[] backupItemIds;
+    private transient List<Data> backupItems;
+    private transient int offerCount;
+    private transient int pollCount;
+
+    public OfferPollBatchOperation() {
+    }
+
+    public OfferPollBatchOperation(String name, List<Data> items) {
+        super(name);
+        this.items = items;
+    }
+
+    @Override
+    public void run() {
+        QueueContainer queueContainer = getContainer();
+        offerAccepted = getNodeEngine().toData(true);
+        Data offerRejected = getNodeEngine().toData(false);
+        List<Data> results = new ArrayList<Data>(items.size());
+        backupItemIds = new long[items.size()];
+        backupItems = new ArrayList<Data>(items.size());
+        for (Data data : items) {
+            if (data != null) {
+                boolean offered = queueContainer.hasEnoughCapacity();
+                if (offered) {
+                    addBackupItem(queueContainer.offer(data), data);
+                    offerCount++;
+                }
+                results.add(offered ? offerAccepted : offerRejected);
+            } else {
+                QueueItem item = queueContainer.poll();
+                if (item != null) {
+                    addBackupItem(item.getItemId(), null);
+                    pollCount++;
+                }
+                results.add(item != null ? item.getData() : null);
+            }
+        }
+        response = new SerializableList(results);
+    }
+
+    private void addBackupItem(long itemId, Data data) {
+        backupItemIds[backupItems.size()] = itemId;
+        backupItems.add(data);
+    }
+
+    @Override
+    public void afterRun() throws Exception {
+        LocalQueueStatsImpl stats = getQueueService().getLocalQueueStatsImpl(name);
+        List<Data> results = ((SerializableList) response).getCollection();
+        for (int i = 0; i < items.size(); i++) {
+            Data data = items.get(i);
+            Data result = results.get(i);
+            if (data == null && result != null) {
+                stats.incrementPolls();
+                publishEvent(ItemEventType.REMOVED, result);
+            } else if (data == null) {
+                stats.incrementEmptyPolls();
+            } else if (result == offerAccepted) {
+                stats.incrementOffers();
+                publishEvent(ItemEventType.ADDED, data);
+            } else {
+                stats.incrementRejectedOffers();
+            }
+        }
+        if (offerCount > 0 && pollCount > 0) {
+            // the runner only notifies the waiters of the pollers
+            OperationParker operationParker = getNodeEngine().getService(OperationParker.SERVICE_NAME);
+            operationParker.unpark(new OfferWaitNotifier(getContainer().getOfferWaitNotifyKey()));
+        }
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return !backupItems.isEmpty();
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        return new OfferPollBatchBackupOperation(name, backupItemIds, backupItems);
+    }
+
+    @Override
+    public boolean shouldNotify() {
+        return offerCount > 0 || pollCount > 0;
+    }
+
+    @Override
+    public WaitNotifyKey getNotifiedKey() {
+        QueueContainer queueContainer = getContainer();
+        return offerCount > 0 ? queueContainer.getPollWaitNotifyKey() : queueContainer.getOfferWaitNotifyKey();
+    }
+
+    @Override
+    public int getClassId() {
+        return QueueDataSerializerHook.OFFER_POLL_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(items.size());
+        for (Data data : items) {
+            IOUtil.writeData(out, data);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int size = in.readInt();
+        items = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(IOUtil.readData(in));
+        }
+    }
+
+    private static final class OfferWaitNotifier implements Notifier {
+
+        private final WaitNotifyKey offerWaitNotifyKey;
+
+        OfferWaitNotifier(WaitNotifyKey offerWaitNotifyKey) {
+            this.offerWaitNotifyKey = offerWaitNotifyKey;
+        }
+
+        @Override
+        public boolean shouldNotify() {
+            return true;
+        }
+
+        @Override
+        public WaitNotifyKey getNotifiedKey() {
+            return offerWaitNotifyKey;
+        }
+    }
+}
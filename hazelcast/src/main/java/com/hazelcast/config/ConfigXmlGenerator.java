@@ -1501,6 +1501,7 @@ public class ConfigXmlGenerator {
                 .node("uncommitted-entry-count-to-reject-new-appends",
                         raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends())
                 .node("append-request-backoff-timeout-in-millis", raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis())
+                .node("append-request-max-inflight-count", raftAlgorithmConfig.getAppendRequestMaxInflightCount())
                 .close();
 
         gen.open("semaphores");
@@ -35,7 +35,14 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM(3);
+    RANDOM(3),
+    /**
+     * Window TinyLFU: recently accessed entries are kept in a small window,
+     * the remaining entries are evicted by their access frequency. The
+     * frequencies are estimated by a sketch which also remembers recently
+     * evicted keys and periodically ages all counts.
+     */
+    TINY_LFU(4);
 
     private static final EvictionPolicy[] VALUES = values();
 
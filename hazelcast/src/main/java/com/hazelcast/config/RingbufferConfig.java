@@ -24,10 +24,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 import java.util.Objects;
 
-import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.internal.util.Preconditions.checkAsyncBackupCount;
 import static com.hazelcast.internal.util.Preconditions.checkBackupCount;
-import static com.hazelcast.internal.util.Preconditions.checkFalse;
 import static com.hazelcast.internal.util.Preconditions.checkHasText;
 import static com.hazelcast.internal.util.Preconditions.checkNotNegative;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
@@ -270,6 +268,9 @@ public class RingbufferConfig implements IdentifiedDataSerializable, NamedConfig
      * format (a regular object)</li>
      * <li>{@link InMemoryFormat#BINARY}: the item is stored in serialized format
      * (a binary blob) </li>
+     * <li>{@link InMemoryFormat#NATIVE}: the item is stored in serialized format
+     * in native memory outside of the java heap. The items are kept on the heap
+     * if native memory is not available</li>
      * </ol>
      * <p>
      * The default is binary. The object InMemoryFormat is useful when:
@@ -294,6 +295,9 @@ public class RingbufferConfig implements IdentifiedDataSerializable, NamedConfig
      * format (a regular object)</li>
      * <li>{@link InMemoryFormat#BINARY}: the item is stored in serialized format
      * (a binary blob) </li>
+     * <li>{@link InMemoryFormat#NATIVE}: the item is stored in serialized format
+     * in native memory outside of the java heap. The items are kept on the heap
+     * if native memory is not available</li>
      * </ol>
      * <p>
      * The default is binary. The object InMemoryFormat is useful when:
@@ -306,13 +310,10 @@ public class RingbufferConfig implements IdentifiedDataSerializable, NamedConfig
      *
      * @param inMemoryFormat the new in memory format
      * @return the updated Config
-     * @throws NullPointerException     if inMemoryFormat is {@code null}
-     * @throws IllegalArgumentException if {@link InMemoryFormat#NATIVE} in-memory
-     *                                  format is selected
+     * @throws NullPointerException if inMemoryFormat is {@code null}
      */
     public RingbufferConfig setInMemoryFormat(InMemoryFormat inMemoryFormat) {
         checkNotNull(inMemoryFormat, "inMemoryFormat can't be null");
-        checkFalse(inMemoryFormat == NATIVE, "InMemoryFormat " + NATIVE + " is not supported");
         this.inMemoryFormat = inMemoryFormat;
         return this;
     }
@@ -63,6 +63,12 @@ public class RaftAlgorithmConfig {
      */
     public static final long DEFAULT_APPEND_REQUEST_BACKOFF_TIMEOUT_IN_MILLIS = 100;
 
+    /**
+     * The default maximum number of append requests in flight per follower.
+     * See {@link #appendRequestMaxInflightCount}.
+     */
+    public static final int DEFAULT_APPEND_REQUEST_MAX_INFLIGHT_COUNT = 4;
+
 
     /**
      * Leader election timeout in milliseconds. If a candidate cannot win
@@ -98,11 +104,23 @@ public class RaftAlgorithmConfig {
      * in a single append entries request. In Hazelcast's Raft consensus
      * algorithm implementation, a Raft leader maintains a separate replication
      * pipeline for each follower. It sends a new batch of Raft log entries to
-     * a follower after the follower acknowledges the last append entries
-     * request sent by the leader.
+     * a follower without waiting for the acknowledgement of the previous
+     * batches, as long as {@link #appendRequestMaxInflightCount} is not
+     * reached.
      */
     private int appendRequestMaxEntryCount = DEFAULT_APPEND_REQUEST_MAX_ENTRY_COUNT;
 
+    /**
+     * Maximum number of append entries requests carrying Raft log entries
+     * a Raft leader sends to a follower without receiving their responses.
+     * Once the leader learns up to which log entry a follower's log matches
+     * its own, it pipelines the append entries requests to the follower so
+     * that the follower's round trips do not bound the throughput. If set
+     * to 1, the leader waits for the response of every append entries request
+     * before sending the next one.
+     */
+    private int appendRequestMaxInflightCount = DEFAULT_APPEND_REQUEST_MAX_INFLIGHT_COUNT;
+
     /**
      * Number of new commits to initiate a new snapshot after the last snapshot
      * taken by the local Raft node. This value must be configured wisely as it
@@ -150,6 +168,7 @@ public class RaftAlgorithmConfig {
         this.uncommittedEntryCountToRejectNewAppends = config.uncommittedEntryCountToRejectNewAppends;
         this.maxMissedLeaderHeartbeatCount = config.maxMissedLeaderHeartbeatCount;
         this.appendRequestBackoffTimeoutInMillis = config.appendRequestBackoffTimeoutInMillis;
+        this.appendRequestMaxInflightCount = config.appendRequestMaxInflightCount;
     }
 
     public long getLeaderElectionTimeoutInMillis() {
@@ -227,6 +246,17 @@ public class RaftAlgorithmConfig {
         return this;
     }
 
+    public int getAppendRequestMaxInflightCount() {
+        return appendRequestMaxInflightCount;
+    }
+
+    public RaftAlgorithmConfig setAppendRequestMaxInflightCount(int appendRequestMaxInflightCount) {
+        checkPositive(appendRequestMaxInflightCount, "append request max inflight count: " + appendRequestMaxInflightCount
+                + " must be positive!");
+        this.appendRequestMaxInflightCount = appendRequestMaxInflightCount;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "RaftAlgorithmConfig{" + "leaderElectionTimeoutInMillis=" + leaderElectionTimeoutInMillis
@@ -234,6 +264,7 @@ public class RaftAlgorithmConfig {
                 + maxMissedLeaderHeartbeatCount + ", appendRequestMaxEntryCount=" + appendRequestMaxEntryCount
                 + ", commitIndexAdvanceCountToSnapshot=" + commitIndexAdvanceCountToSnapshot
                 + ", uncommittedEntryCountToRejectNewAppends=" + uncommittedEntryCountToRejectNewAppends
-                + ", appendRequestBackoffTimeoutInMillis=" + appendRequestBackoffTimeoutInMillis + '}';
+                + ", appendRequestBackoffTimeoutInMillis=" + appendRequestBackoffTimeoutInMillis
+                + ", appendRequestMaxInflightCount=" + appendRequestMaxInflightCount + '}';
     }
 }
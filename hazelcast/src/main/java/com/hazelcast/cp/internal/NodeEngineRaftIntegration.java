@@ -25,6 +25,8 @@ import com.hazelcast.cp.internal.operation.integration.AsyncRaftOp;
 import com.hazelcast.cp.internal.operation.integration.InstallSnapshotOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteResponseOp;
+import com.hazelcast.cp.internal.operation.integration.ReadIndexRequestOp;
+import com.hazelcast.cp.internal.operation.integration.ReadIndexResponseOp;
 import com.hazelcast.cp.internal.operation.integration.TriggerLeaderElectionOp;
 import com.hazelcast.cp.internal.operation.integration.VoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.VoteResponseOp;
@@ -38,6 +40,8 @@ import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.InstallSnapshot;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteResponse;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.TriggerLeaderElection;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteResponse;
@@ -211,6 +215,16 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
         return send(new TriggerLeaderElectionOp(groupId, request), target);
     }
 
+    @Override
+    public boolean send(ReadIndexRequest request, RaftEndpoint target) {
+        return send(new ReadIndexRequestOp(groupId, request), target);
+    }
+
+    @Override
+    public boolean send(ReadIndexResponse response, RaftEndpoint target) {
+        return send(new ReadIndexResponseOp(groupId, response), target);
+    }
+
     @Override
     public Object runOperation(Object op, long commitIndex) {
         RaftOp operation = (RaftOp) op;
@@ -48,15 +48,21 @@ import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
 import com.hazelcast.spi.impl.operationservice.impl.RaftInvocation;
 import com.hazelcast.spi.impl.operationservice.impl.RaftInvocationContext;
 import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.hazelcast.cp.internal.RaftService.CP_SUBSYSTEM_EXECUTOR;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LEASE;
 import static com.hazelcast.cp.internal.raft.QueryPolicy.LINEARIZABLE;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.READ_INDEX;
 import static java.util.Collections.shuffle;
 
 /**
@@ -66,6 +72,24 @@ import static java.util.Collections.shuffle;
 @SuppressWarnings({"unchecked", "checkstyle:classdataabstractioncoupling"})
 public class RaftInvocationManager {
 
+    /**
+     * Comma separated list of the service names of the CP data structures,
+     * such as {@code hz:raft:atomicLongService}, whose linearizable queries
+     * are run with {@link QueryPolicy#READ_INDEX}, so that they can be served
+     * by any member of the CP group. If the caller is a member of the CP
+     * group, the query is run locally.
+     */
+    public static final HazelcastProperty READ_INDEX_QUERY_SERVICES
+            = new HazelcastProperty("hazelcast.raft.read.index.query.services", "");
+
+    /**
+     * Comma separated list of the service names of the CP data structures
+     * whose linearizable queries are run with {@link QueryPolicy#LEADER_LEASE}.
+     * Takes precedence over {@link #READ_INDEX_QUERY_SERVICES}.
+     */
+    public static final HazelcastProperty LEADER_LEASE_QUERY_SERVICES
+            = new HazelcastProperty("hazelcast.raft.leader.lease.query.services", "");
+
     private static final int RANDOM_RAFT_GROUP_INDEX_RANGE = 10000;
 
     private final NodeEngineImpl nodeEngine;
@@ -77,6 +101,7 @@ public class RaftInvocationManager {
     private final int invocationMaxRetryCount;
     private final long invocationRetryPauseMillis;
     private final boolean cpSubsystemEnabled;
+    private final Map<String, QueryPolicy> linearizableQueryPolicies = new HashMap<>();
 
     RaftInvocationManager(NodeEngine nodeEngine, RaftService raftService) {
         this.nodeEngine = (NodeEngineImpl) nodeEngine;
@@ -88,6 +113,18 @@ public class RaftInvocationManager {
         this.invocationRetryPauseMillis = nodeEngine.getProperties().getMillis(ClusterProperty.INVOCATION_RETRY_PAUSE);
         this.operationCallTimeout = nodeEngine.getProperties().getMillis(ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS);
         this.cpSubsystemEnabled = raftService.isCpSubsystemEnabled();
+        HazelcastProperties properties = nodeEngine.getProperties();
+        putLinearizableQueryPolicy(properties.getString(READ_INDEX_QUERY_SERVICES), READ_INDEX);
+        putLinearizableQueryPolicy(properties.getString(LEADER_LEASE_QUERY_SERVICES), LEADER_LEASE);
+    }
+
+    private void putLinearizableQueryPolicy(String serviceNames, QueryPolicy queryPolicy) {
+        for (String serviceName : serviceNames.split(",")) {
+            serviceName = serviceName.trim();
+            if (!serviceName.isEmpty()) {
+                linearizableQueryPolicies.put(serviceName, queryPolicy);
+            }
+        }
     }
 
     void reset() {
@@ -227,9 +264,18 @@ public class RaftInvocationManager {
 
     public <T> InternalCompletableFuture<T> query(CPGroupId groupId, RaftOp raftOp, QueryPolicy queryPolicy) {
         if (cpSubsystemEnabled) {
+            if (queryPolicy == LINEARIZABLE) {
+                queryPolicy = linearizableQueryPolicies.getOrDefault(raftOp.getServiceName(), LINEARIZABLE);
+            }
             RaftQueryOp operation = new RaftQueryOp(groupId, raftOp, queryPolicy);
+            // queries which can be served by any group member are run locally if this member is in the group
+            CPMember preferredTarget = null;
+            if ((queryPolicy == READ_INDEX || queryPolicy == LEADER_LEASE) && raftService.getRaftNode(groupId) != null) {
+                preferredTarget = raftService.getLocalCPMember();
+            }
             Invocation invocation = new RaftInvocation(operationService.getInvocationContext(), raftInvocationContext,
-                    groupId, operation, invocationMaxRetryCount, invocationRetryPauseMillis, operationCallTimeout);
+                    groupId, operation, invocationMaxRetryCount, invocationRetryPauseMillis, operationCallTimeout,
+                    preferredTarget);
             return invocation.invoke();
         }
         return invokeOnPartition(new UnsafeRaftQueryOp(groupId, raftOp));
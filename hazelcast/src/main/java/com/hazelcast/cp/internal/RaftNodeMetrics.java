@@ -19,8 +19,11 @@ package com.hazelcast.cp.internal;
 import com.hazelcast.internal.metrics.Probe;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_APPEND_BATCHES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_APPEND_BATCH_ENTRIES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_AVAILABLE_LOG_CAPACITY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_COMMIT_INDEX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_INFLIGHT_APPEND_REQUESTS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_LAST_APPLIED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_LAST_LOG_INDEX;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.CP_METRIC_RAFT_NODE_LAST_LOG_TERM;
@@ -55,6 +58,26 @@ public class RaftNodeMetrics {
     @Probe(name = CP_METRIC_RAFT_NODE_AVAILABLE_LOG_CAPACITY)
     public volatile long availableLogCapacity;
 
+    /**
+     * Number of append requests pipelined to the followers and not
+     * acknowledged yet, if the node is the leader.
+     */
+    @Probe(name = CP_METRIC_RAFT_NODE_INFLIGHT_APPEND_REQUESTS)
+    public volatile int inflightAppendRequests;
+
+    /**
+     * Number of batches of new entries broadcast to the followers.
+     * Divide {@link #appendBatchEntries} by it for the average batch size.
+     */
+    @Probe(name = CP_METRIC_RAFT_NODE_APPEND_BATCHES)
+    public volatile long appendBatches;
+
+    /**
+     * Total number of new entries broadcast to the followers in batches.
+     */
+    @Probe(name = CP_METRIC_RAFT_NODE_APPEND_BATCH_ENTRIES)
+    public volatile long appendBatchEntries;
+
     void update(int term, long commitIndex, long lastApplied, long lastLogTerm, long snapshotIndex,
             long lastLogIndex, long availableLogCapacity) {
         this.term = term;
@@ -65,4 +88,10 @@ public class RaftNodeMetrics {
         this.lastLogIndex = lastLogIndex;
         this.availableLogCapacity = availableLogCapacity;
     }
+
+    void updateReplication(int inflightAppendRequests, long appendBatches, long appendBatchEntries) {
+        this.inflightAppendRequests = inflightAppendRequests;
+        this.appendBatches = appendBatches;
+        this.appendBatchEntries = appendBatchEntries;
+    }
 }
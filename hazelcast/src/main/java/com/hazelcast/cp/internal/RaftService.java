@@ -42,6 +42,8 @@ import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.InstallSnapshot;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteResponse;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.TriggerLeaderElection;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteResponse;
@@ -49,6 +51,7 @@ import com.hazelcast.cp.internal.raft.impl.log.RaftLog;
 import com.hazelcast.cp.internal.raft.impl.persistence.LogFileStructure;
 import com.hazelcast.cp.internal.raft.impl.persistence.RaftStateStore;
 import com.hazelcast.cp.internal.raft.impl.persistence.RestoredRaftState;
+import com.hazelcast.cp.internal.raft.impl.state.LeaderState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
 import com.hazelcast.cp.internal.raftop.GetInitialRaftGroupMembersIfCurrentGroupMemberOp;
 import com.hazelcast.cp.internal.raftop.metadata.AddCPMemberOp;
@@ -671,6 +674,20 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
         }
     }
 
+    public void handleReadIndexRequest(CPGroupId groupId, ReadIndexRequest request, RaftEndpoint target) {
+        RaftNode node = getOrInitRaftNodeIfTargetLocalCPMember(groupId, request, target);
+        if (node != null) {
+            node.handleReadIndexRequest(request);
+        }
+    }
+
+    public void handleReadIndexResponse(CPGroupId groupId, ReadIndexResponse response, RaftEndpoint target) {
+        RaftNode node = getOrInitRaftNodeIfTargetLocalCPMember(groupId, response, target);
+        if (node != null) {
+            node.handleReadIndexResponse(response);
+        }
+    }
+
     public Collection<RaftNode> getAllRaftNodes() {
         return new ArrayList<>(nodes.values());
     }
@@ -1441,6 +1458,9 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
                     metrics.update(state.term(), state.commitIndex(), state.lastApplied(),
                             log.lastLogOrSnapshotTerm(), log.snapshotIndex(),
                             log.lastLogOrSnapshotIndex(), log.availableCapacity());
+                    LeaderState leaderState = state.leaderState();
+                    metrics.updateReplication(leaderState != null ? leaderState.inflightAppendRequestCount() : 0,
+                            raftNode.appendBatchCount(), raftNode.appendBatchEntryCount());
                 });
             }
         }
@@ -34,6 +34,8 @@ import com.hazelcast.cp.internal.operation.integration.AppendSuccessResponseOp;
 import com.hazelcast.cp.internal.operation.integration.InstallSnapshotOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteResponseOp;
+import com.hazelcast.cp.internal.operation.integration.ReadIndexRequestOp;
+import com.hazelcast.cp.internal.operation.integration.ReadIndexResponseOp;
 import com.hazelcast.cp.internal.operation.integration.TriggerLeaderElectionOp;
 import com.hazelcast.cp.internal.operation.integration.VoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.VoteResponseOp;
@@ -124,6 +126,8 @@ public final class RaftServiceDataSerializerHook implements DataSerializerHook {
     public static final int TRIGGER_LEADER_ELECTION_OP = 50;
     public static final int UNSAFE_MODE_PARTITION_STATE = 51;
     public static final int UNSAFE_STATE_REPLICATE_OP = 52;
+    public static final int READ_INDEX_REQUEST_OP = 53;
+    public static final int READ_INDEX_RESPONSE_OP = 54;
 
     @Override
     public int getFactoryId() {
@@ -238,6 +242,10 @@ public final class RaftServiceDataSerializerHook implements DataSerializerHook {
                     return new UnsafeModePartitionState();
                 case UNSAFE_STATE_REPLICATE_OP:
                     return new UnsafeStateReplicationOp();
+                case READ_INDEX_REQUEST_OP:
+                    return new ReadIndexRequestOp();
+                case READ_INDEX_RESPONSE_OP:
+                    return new ReadIndexResponseOp();
                 default:
                     throw new IllegalArgumentException("Undefined type: " + typeId);
             }
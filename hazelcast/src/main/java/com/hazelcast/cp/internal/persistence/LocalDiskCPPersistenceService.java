@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.internal.CPMemberInfo;
+import com.hazelcast.cp.internal.MetadataRaftGroupManager;
+import com.hazelcast.cp.internal.RaftGroupId;
+import com.hazelcast.cp.internal.RaftService;
+import com.hazelcast.cp.internal.raft.impl.persistence.LogFileStructure;
+import com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateLoader;
+import com.hazelcast.cp.internal.raft.impl.persistence.OnDiskRaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RestoredRaftState;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.logging.ILogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static com.hazelcast.internal.util.UuidUtil.newUnsecureUUID;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persists the CP state of the local member under the
+ * {@link com.hazelcast.config.cp.CPSubsystemConfig#getBaseDir() base
+ * directory} of CP Subsystem.
+ * <p>
+ * Every member works in a directory of its own in the base directory, which
+ * it locks while it is running, so several members can share the same base
+ * directory. On restart a member picks the unlocked directory that was used
+ * by a CP member with its address, or any other unlocked directory. The
+ * directory holds the files of the {@link OnDiskCPMetadataStore} and a
+ * directory per CP group, written by {@link OnDiskRaftStateStore}.
+ * <p>
+ * {@link #restore(RaftService)} must be called before the member joins the
+ * cluster. It restores the CP identity of the local member, the active CP
+ * members and the Raft nodes of its CP groups.
+ */
+public class LocalDiskCPPersistenceService implements CPPersistenceService {
+
+    static final String MEMBER_DIR_PREFIX = "cp-";
+    static final String LOCK_FILE = "lock";
+
+    private static final String GROUP_ID_SEPARATOR = "@";
+
+    private final Node node;
+    private final File baseDir;
+    private final ILogger logger;
+    private File memberDir;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private OnDiskCPMetadataStore metadataStore;
+
+    public LocalDiskCPPersistenceService(Node node) {
+        this.node = node;
+        this.baseDir = node.getConfig().getCPSubsystemConfig().getBaseDir().getAbsoluteFile();
+        this.logger = node.getLogger(getClass());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public CPMetadataStore getCPMetadataStore() {
+        ensureMemberDir();
+        return metadataStore;
+    }
+
+    @Override
+    public RaftStateStore createRaftStateStore(@Nonnull RaftGroupId groupId, @Nullable LogFileStructure logFileStructure) {
+        ensureMemberDir();
+        return new OnDiskRaftStateStore(getGroupDir(groupId), getSerializationService(), logFileStructure);
+    }
+
+    @Override
+    public void removeRaftStateStore(@Nonnull RaftGroupId groupId) {
+        ensureMemberDir();
+        delete(getGroupDir(groupId));
+    }
+
+    @Override
+    public void reset() {
+        ensureMemberDir();
+        for (File file : listFiles(memberDir)) {
+            if (!file.getName().equals(LOCK_FILE)) {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * Restores the persisted CP state of the local member, if it was a CP
+     * member before, and starts the restored Raft nodes. Raft groups of an
+     * older CP Subsystem incarnation are deleted.
+     */
+    public void restore(RaftService raftService) throws IOException {
+        ensureMemberDir();
+        CPMember localMember = metadataStore.readLocalCPMember();
+        if (localMember == null) {
+            return;
+        }
+
+        MetadataRaftGroupManager metadataGroupManager = raftService.getMetadataGroupManager();
+        RaftGroupId metadataGroupId = metadataStore.readMetadataGroupId();
+        if (metadataGroupId != null) {
+            metadataGroupManager.restoreMetadataGroupId(metadataGroupId);
+        }
+        long seed = metadataGroupManager.getMetadataGroupId().getSeed();
+        metadataGroupManager.restoreLocalCPMember((CPMemberInfo) localMember);
+
+        List<CPMember> activeMembers = new ArrayList<>();
+        long membersCommitIndex = metadataStore.readActiveCPMembers(activeMembers);
+        if (!activeMembers.isEmpty()) {
+            raftService.updateInvocationManagerMembers(seed, membersCommitIndex, activeMembers);
+        }
+
+        int restoredGroupCount = 0;
+        for (File groupDir : listFiles(memberDir)) {
+            RaftGroupId groupId = parseGroupId(groupDir);
+            if (groupId == null) {
+                continue;
+            }
+            if (groupId.getSeed() != seed || !OnDiskRaftStateLoader.containsRaftState(groupDir)) {
+                delete(groupDir);
+                continue;
+            }
+            OnDiskRaftStateLoader loader = new OnDiskRaftStateLoader(groupDir, getSerializationService());
+            RestoredRaftState restoredState = loader.load();
+            raftService.restoreRaftNode(groupId, restoredState, loader.logFileStructure());
+            restoredGroupCount++;
+        }
+
+        logger.info("Restored local CP member: " + localMember + " with " + restoredGroupCount + " CP groups from "
+                + memberDir);
+    }
+
+    /**
+     * Releases the lock of the member directory.
+     */
+    public synchronized void shutdown() {
+        if (lock != null) {
+            closeResource(lockChannel);
+            lock = null;
+            lockChannel = null;
+        }
+    }
+
+    private synchronized void ensureMemberDir() {
+        if (memberDir != null) {
+            return;
+        }
+        if (!baseDir.isDirectory() && !baseDir.mkdirs()) {
+            throw new HazelcastException("Cannot create CP base directory " + baseDir);
+        }
+
+        try {
+            for (File dir : candidateMemberDirs()) {
+                if (tryLock(dir)) {
+                    useMemberDir(dir);
+                    logger.info("Using CP persistence directory " + dir);
+                    return;
+                }
+            }
+
+            File dir = new File(baseDir, MEMBER_DIR_PREFIX + newUnsecureUUID());
+            if (!dir.mkdirs() || !tryLock(dir)) {
+                throw new HazelcastException("Cannot create CP persistence directory " + dir);
+            }
+            useMemberDir(dir);
+            logger.info("Created CP persistence directory " + dir);
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+    }
+
+    private void useMemberDir(File dir) {
+        memberDir = dir;
+        metadataStore = new OnDiskCPMetadataStore(dir, getSerializationService());
+    }
+
+    /**
+     * Returns the member directories in the base directory; the ones of a CP
+     * member with the address of the local member come first.
+     */
+    private List<File> candidateMemberDirs() throws IOException {
+        Address thisAddress = node.getThisAddress();
+        List<File> matching = new ArrayList<>();
+        List<File> others = new ArrayList<>();
+        for (File dir : listFiles(baseDir)) {
+            if (!dir.isDirectory() || !dir.getName().startsWith(MEMBER_DIR_PREFIX)) {
+                continue;
+            }
+            CPMember member = new OnDiskCPMetadataStore(dir, getSerializationService()).readLocalCPMember();
+            if (member != null && member.getAddress().equals(thisAddress)) {
+                matching.add(dir);
+            } else {
+                others.add(dir);
+            }
+        }
+        matching.addAll(others);
+        return matching;
+    }
+
+    private boolean tryLock(File dir) throws IOException {
+        FileChannel channel = FileChannel.open(new File(dir, LOCK_FILE).toPath(), CREATE, WRITE);
+        FileLock fileLock = null;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // locked by another member of this JVM
+            fileLock = null;
+        } finally {
+            if (fileLock == null) {
+                closeResource(channel);
+            }
+        }
+        if (fileLock == null) {
+            return false;
+        }
+        lockChannel = channel;
+        lock = fileLock;
+        return true;
+    }
+
+    private File getGroupDir(RaftGroupId groupId) {
+        return new File(memberDir, groupId.getName() + GROUP_ID_SEPARATOR + groupId.getSeed() + GROUP_ID_SEPARATOR
+                + groupId.getId());
+    }
+
+    private static RaftGroupId parseGroupId(File dir) {
+        String[] parts = dir.getName().split(GROUP_ID_SEPARATOR);
+        if (!dir.isDirectory() || parts.length != 3) {
+            return null;
+        }
+        try {
+            return new RaftGroupId(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<File> listFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new HazelcastException("Cannot list " + dir);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private InternalSerializationService getSerializationService() {
+        return node.getSerializationService();
+    }
+}
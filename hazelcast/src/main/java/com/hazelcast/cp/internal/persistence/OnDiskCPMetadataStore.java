@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.internal.RaftGroupId;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.readIfExists;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.writeAtomically;
+
+/**
+ * A {@link CPMetadataStore} which keeps the CP identity of the local member
+ * in small files of its persistence directory. Every file is replaced
+ * atomically, so a crash leaves either the old or the new content behind.
+ */
+public class OnDiskCPMetadataStore implements CPMetadataStore {
+
+    static final String AP_MARKER_FILE = "ap-member";
+    static final String LOCAL_MEMBER_FILE = "cp-member";
+    static final String ACTIVE_MEMBERS_FILE = "active-members";
+    static final String METADATA_GROUP_ID_FILE = "metadata-group-id";
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+
+    public OnDiskCPMetadataStore(File dir, InternalSerializationService serializationService) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public boolean isMarkedAPMember() {
+        return new File(dir, AP_MARKER_FILE).isFile();
+    }
+
+    @Override
+    public synchronized boolean tryMarkAPMember() throws IOException {
+        if (containsLocalMemberFile()) {
+            return false;
+        }
+        if (!isMarkedAPMember()) {
+            writeAtomically(new File(dir, AP_MARKER_FILE), new byte[0]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsLocalMemberFile() {
+        return new File(dir, LOCAL_MEMBER_FILE).isFile();
+    }
+
+    @Override
+    public synchronized void persistLocalCPMember(CPMember member) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        try {
+            out.writeObject(member);
+            writeAtomically(new File(dir, LOCAL_MEMBER_FILE), out.toByteArray());
+        } finally {
+            out.close();
+        }
+        // an AP member can be promoted to CP member
+        Files.deleteIfExists(new File(dir, AP_MARKER_FILE).toPath());
+    }
+
+    @Override
+    public CPMember readLocalCPMember() throws IOException {
+        byte[] bytes = readIfExists(new File(dir, LOCAL_MEMBER_FILE));
+        return bytes != null ? serializationService.createObjectDataInput(bytes).readObject() : null;
+    }
+
+    @Override
+    public synchronized void persistActiveCPMembers(Collection<? extends CPMember> members, long commitIndex)
+            throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        try {
+            out.writeLong(commitIndex);
+            out.writeInt(members.size());
+            for (CPMember member : members) {
+                out.writeObject(member);
+            }
+            writeAtomically(new File(dir, ACTIVE_MEMBERS_FILE), out.toByteArray());
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public long readActiveCPMembers(Collection<CPMember> members) throws IOException {
+        byte[] bytes = readIfExists(new File(dir, ACTIVE_MEMBERS_FILE));
+        if (bytes == null) {
+            return 0;
+        }
+        BufferObjectDataInput in = serializationService.createObjectDataInput(bytes);
+        long commitIndex = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            members.add(in.readObject());
+        }
+        return commitIndex;
+    }
+
+    @Override
+    public synchronized void persistMetadataGroupId(RaftGroupId groupId) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        try {
+            out.writeObject(groupId);
+            writeAtomically(new File(dir, METADATA_GROUP_ID_FILE), out.toByteArray());
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public RaftGroupId readMetadataGroupId() throws IOException {
+        byte[] bytes = readIfExists(new File(dir, METADATA_GROUP_ID_FILE));
+        return bytes != null ? serializationService.createObjectDataInput(bytes).readObject() : null;
+    }
+}
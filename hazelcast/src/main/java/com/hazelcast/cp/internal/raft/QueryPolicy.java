@@ -50,5 +50,30 @@ public enum QueryPolicy {
      * <i>6.4 Processing read-only queries more efficiently</i>
      * section of Raft dissertation.
      */
-    LINEARIZABLE
+    LINEARIZABLE,
+
+    /**
+     * Query Raft state in a linearizable manner on any Raft group member.
+     * <p>
+     * A follower asks the leader for its commit index, which the leader
+     * returns after confirming its leadership with a heartbeat round, and
+     * runs the query locally once it applies the log up to that index.
+     * On the leader, it works the same way as {@link #LINEARIZABLE}.
+     * See <i>6.4 Processing read-only queries more efficiently</i>
+     * section of Raft dissertation.
+     */
+    READ_INDEX,
+
+    /**
+     * Query Raft state in a linearizable manner on any Raft group member,
+     * relying on the leader lease.
+     * <p>
+     * Works the same way as {@link #READ_INDEX}, but the leader skips the
+     * heartbeat round while its lease is valid. The lease is extended by
+     * each heartbeat round acknowledged by the majority and lasts shorter
+     * than the leader election timeout, so that no other leader can be
+     * elected before it expires. Linearizability depends on bounded clock
+     * drift between the members.
+     */
+    LEADER_LEASE
 }
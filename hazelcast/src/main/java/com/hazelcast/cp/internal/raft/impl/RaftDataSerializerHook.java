@@ -24,6 +24,8 @@ import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.InstallSnapshot;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteResponse;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.TriggerLeaderElection;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteResponse;
@@ -54,6 +56,8 @@ public final class RaftDataSerializerHook implements DataSerializerHook {
     public static final int DESTROY_RAFT_GROUP_COMMAND = 11;
     public static final int UPDATE_RAFT_GROUP_MEMBERS_COMMAND = 12;
     public static final int TRIGGER_LEADER_ELECTION = 13;
+    public static final int READ_INDEX_REQUEST = 14;
+    public static final int READ_INDEX_RESPONSE = 15;
 
     @Override
     public int getFactoryId() {
@@ -90,6 +94,10 @@ public final class RaftDataSerializerHook implements DataSerializerHook {
                     return new UpdateRaftGroupMembersCmd();
                 case TRIGGER_LEADER_ELECTION:
                     return new TriggerLeaderElection();
+                case READ_INDEX_REQUEST:
+                    return new ReadIndexRequest();
+                case READ_INDEX_RESPONSE:
+                    return new ReadIndexResponse();
                 default:
                     throw new IllegalArgumentException("Undefined type: " + typeId);
             }
@@ -24,6 +24,8 @@ import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.InstallSnapshot;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteResponse;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.TriggerLeaderElection;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteResponse;
@@ -146,6 +148,24 @@ public interface RaftIntegration {
      */
     boolean send(TriggerLeaderElection request, RaftEndpoint target);
 
+    /**
+     * Sends the given {@link ReadIndexRequest} DTO to target endpoint
+     * to be handled via {@link RaftNode#handleReadIndexRequest(ReadIndexRequest)}.
+     *
+     * @return true if request is sent or scheduled to be sent to target,
+     *         false otherwise
+     */
+    boolean send(ReadIndexRequest request, RaftEndpoint target);
+
+    /**
+     * Sends the given {@link ReadIndexResponse} DTO to target endpoint
+     * to be handled via {@link RaftNode#handleReadIndexResponse(ReadIndexResponse)}.
+     *
+     * @return true if response is sent or scheduled to be sent to target,
+     *         false otherwise
+     */
+    boolean send(ReadIndexResponse response, RaftEndpoint target);
+
     /**
      * Executes the operation on underlying operation execution mechanism
      * and returns its return value.
@@ -20,6 +20,7 @@ import com.hazelcast.config.cp.RaftAlgorithmConfig;
 import com.hazelcast.cp.CPGroupId;
 import com.hazelcast.cp.CPMember;
 import com.hazelcast.cp.exception.LeaderDemotedException;
+import com.hazelcast.cp.exception.NotLeaderException;
 import com.hazelcast.cp.exception.StaleAppendRequestException;
 import com.hazelcast.cp.internal.raft.MembershipChangeMode;
 import com.hazelcast.cp.internal.raft.QueryPolicy;
@@ -32,6 +33,8 @@ import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.InstallSnapshot;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteResponse;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
 import com.hazelcast.cp.internal.raft.impl.dto.TriggerLeaderElection;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteRequest;
 import com.hazelcast.cp.internal.raft.impl.dto.VoteResponse;
@@ -41,6 +44,8 @@ import com.hazelcast.cp.internal.raft.impl.handler.AppendSuccessResponseHandlerT
 import com.hazelcast.cp.internal.raft.impl.handler.InstallSnapshotHandlerTask;
 import com.hazelcast.cp.internal.raft.impl.handler.PreVoteRequestHandlerTask;
 import com.hazelcast.cp.internal.raft.impl.handler.PreVoteResponseHandlerTask;
+import com.hazelcast.cp.internal.raft.impl.handler.ReadIndexRequestHandlerTask;
+import com.hazelcast.cp.internal.raft.impl.handler.ReadIndexResponseHandlerTask;
 import com.hazelcast.cp.internal.raft.impl.handler.TriggerLeaderElectionHandlerTask;
 import com.hazelcast.cp.internal.raft.impl.handler.VoteRequestHandlerTask;
 import com.hazelcast.cp.internal.raft.impl.handler.VoteResponseHandlerTask;
@@ -55,6 +60,7 @@ import com.hazelcast.cp.internal.raft.impl.state.LeaderState;
 import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftGroupMembers;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.cp.internal.raft.impl.state.ReadIndexState;
 import com.hazelcast.cp.internal.raft.impl.task.InitLeadershipTransferTask;
 import com.hazelcast.cp.internal.raft.impl.task.MembershipChangeTask;
 import com.hazelcast.cp.internal.raft.impl.task.PreVoteTask;
@@ -103,6 +109,8 @@ public final class RaftNodeImpl implements RaftNode {
     private static final int LEADER_ELECTION_TIMEOUT_RANGE = 1000;
     private static final long RAFT_NODE_INIT_DELAY_MILLIS = 500;
     private static final float RATIO_TO_KEEP_LOGS_AFTER_SNAPSHOT = 0.1f;
+    // leaves a safety margin for the clock drift between the leader and the followers
+    private static final float RATIO_OF_LEADER_LEASE_TO_LEADER_ELECTION_TIMEOUT = 0.8f;
 
     private final CPGroupId groupId;
     private final ILogger logger;
@@ -114,16 +122,23 @@ public final class RaftNodeImpl implements RaftNode {
     private final int leaderElectionTimeout;
     private final int maxUncommittedEntryCount;
     private final int appendRequestMaxEntryCount;
+    private final int appendRequestMaxInflightCount;
     private final int commitIndexAdvanceCountToSnapshot;
     private final int maxMissedLeaderHeartbeatCount;
     private final long appendRequestBackoffTimeoutInMillis;
     private final int maxNumberOfLogsToKeepAfterSnapshot;
+    private final long leaderLeaseDurationInMillis;
     private final Runnable appendRequestBackoffResetTask;
     private final Runnable flushTask;
+    private final Runnable broadcastTask;
 
     private long lastAppendEntriesTimestamp;
     private boolean appendRequestBackoffResetTaskScheduled;
     private boolean flushTaskSubmitted;
+    private boolean broadcastTaskSubmitted;
+    private int pendingBatchEntryCount;
+    private long appendBatchCount;
+    private long appendBatchEntryCount;
     private volatile RaftNodeStatus status = INITIAL;
 
     @SuppressWarnings("checkstyle:executablestatementcount")
@@ -139,16 +154,19 @@ public final class RaftNodeImpl implements RaftNode {
         this.raftIntegration = raftIntegration;
         this.maxUncommittedEntryCount = raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends();
         this.appendRequestMaxEntryCount = raftAlgorithmConfig.getAppendRequestMaxEntryCount();
+        this.appendRequestMaxInflightCount = raftAlgorithmConfig.getAppendRequestMaxInflightCount();
         this.commitIndexAdvanceCountToSnapshot = raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot();
         this.leaderElectionTimeout = (int) raftAlgorithmConfig.getLeaderElectionTimeoutInMillis();
         this.heartbeatPeriodInMillis = raftAlgorithmConfig.getLeaderHeartbeatPeriodInMillis();
         this.maxMissedLeaderHeartbeatCount = raftAlgorithmConfig.getMaxMissedLeaderHeartbeatCount();
         this.maxNumberOfLogsToKeepAfterSnapshot = (int) (commitIndexAdvanceCountToSnapshot * RATIO_TO_KEEP_LOGS_AFTER_SNAPSHOT);
+        this.leaderLeaseDurationInMillis = (long) (leaderElectionTimeout * RATIO_OF_LEADER_LEASE_TO_LEADER_ELECTION_TIMEOUT);
         this.appendRequestBackoffTimeoutInMillis = raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis();
         int logCapacity = commitIndexAdvanceCountToSnapshot + maxUncommittedEntryCount + maxNumberOfLogsToKeepAfterSnapshot;
         this.state = newRaftState(groupId, localMember, members, logCapacity, stateStore);
         this.logger = getLogger(RaftNode.class);
         this.appendRequestBackoffResetTask = new AppendRequestBackoffResetTask();
+        this.broadcastTask = new BroadcastAppendRequestTask();
         if (stateStore instanceof NopRaftStateStore) {
            this.flushTask = null;
            this.flushTaskSubmitted = true;
@@ -168,16 +186,22 @@ public final class RaftNodeImpl implements RaftNode {
         this.raftIntegration = raftIntegration;
         this.maxUncommittedEntryCount = config.getUncommittedEntryCountToRejectNewAppends();
         this.appendRequestMaxEntryCount = config.getAppendRequestMaxEntryCount();
+        this.appendRequestMaxInflightCount = config.getAppendRequestMaxInflightCount();
         this.commitIndexAdvanceCountToSnapshot = config.getCommitIndexAdvanceCountToSnapshot();
         this.leaderElectionTimeout = (int) config.getLeaderElectionTimeoutInMillis();
         this.heartbeatPeriodInMillis = config.getLeaderHeartbeatPeriodInMillis();
         this.maxMissedLeaderHeartbeatCount = config.getMaxMissedLeaderHeartbeatCount();
         this.maxNumberOfLogsToKeepAfterSnapshot = (int) (commitIndexAdvanceCountToSnapshot * RATIO_TO_KEEP_LOGS_AFTER_SNAPSHOT);
+        this.leaderLeaseDurationInMillis = (long) (leaderElectionTimeout * RATIO_OF_LEADER_LEASE_TO_LEADER_ELECTION_TIMEOUT);
         this.appendRequestBackoffTimeoutInMillis = config.getAppendRequestBackoffTimeoutInMillis();
         int logCapacity = commitIndexAdvanceCountToSnapshot + maxUncommittedEntryCount + maxNumberOfLogsToKeepAfterSnapshot;
         this.state = restoreRaftState(groupId, restoredState, logCapacity, stateStore);
+        // We might have acknowledged the leader lease just before the restart.
+        // The leader stickiness keeps us from voting before it expires.
+        this.lastAppendEntriesTimestamp = Clock.currentTimeMillis();
         this.logger = getLogger(RaftNode.class);
         this.appendRequestBackoffResetTask = new AppendRequestBackoffResetTask();
+        this.broadcastTask = new BroadcastAppendRequestTask();
         if (stateStore instanceof NopRaftStateStore) {
             this.flushTask = null;
             this.flushTaskSubmitted = true;
@@ -289,6 +313,7 @@ public final class RaftNodeImpl implements RaftNode {
                     for (BiTuple<Object, InternalCompletableFuture> t : leaderState.queryState().operations()) {
                         t.element2.completeExceptionally(new LeaderDemotedException(state.localEndpoint(), null));
                     }
+                    rejectReadIndexRequests(leaderState.queryState());
                 }
                 state.completeLeadershipTransfer(new LeaderDemotedException(state.localEndpoint(), null));
                 setStatus(TERMINATED);
@@ -415,6 +440,16 @@ public final class RaftNodeImpl implements RaftNode {
         execute(new TriggerLeaderElectionHandlerTask(this, request));
     }
 
+    @Override
+    public void handleReadIndexRequest(ReadIndexRequest request) {
+        execute(new ReadIndexRequestHandlerTask(this, request));
+    }
+
+    @Override
+    public void handleReadIndexResponse(ReadIndexResponse response) {
+        execute(new ReadIndexResponseHandlerTask(this, response));
+    }
+
     @Override
     public InternalCompletableFuture replicate(Object operation) {
         InternalCompletableFuture resultFuture = raftIntegration.newCompletableFuture();
@@ -471,6 +506,7 @@ public final class RaftNodeImpl implements RaftNode {
                 level = Level.INFO;
             } else if ((newStatus == TERMINATED || newStatus == STEPPED_DOWN) && prevStatus != INITIAL) {
                 closeStateStore();
+                failReadIndexQueries(state.readIndexState().removeAllQueries());
             }
             logger.log(level, "Status is set to: " + newStatus);
         }
@@ -482,6 +518,7 @@ public final class RaftNodeImpl implements RaftNode {
         if (status != TERMINATED) {
             status = TERMINATED;
             closeStateStore();
+            failReadIndexQueries(state.readIndexState().removeAllQueries());
             logger.warning("Status is set to: " + TERMINATED);
         }
         raftIntegration.onGroupDestroyed(groupId);
@@ -634,6 +671,14 @@ public final class RaftNodeImpl implements RaftNode {
         raftIntegration.send(request, target);
     }
 
+    public void send(ReadIndexRequest request, RaftEndpoint target) {
+        raftIntegration.send(request, target);
+    }
+
+    public void send(ReadIndexResponse response, RaftEndpoint target) {
+        raftIntegration.send(response, target);
+    }
+
     /**
      * Broadcasts append-entries request to all group members according to their nextIndex parameters.
      */
@@ -654,6 +699,10 @@ public final class RaftNodeImpl implements RaftNode {
      * <p>
      * If leader doesn't know follower's matchIndex (if {@code matchIndex == 0}), then an empty append-entries is sent
      * to save bandwidth until leader learns the matchIndex of the follower.
+     * <p>
+     * Once the matchIndex is known, append requests are pipelined: follower's nextIndex is moved past the sent entries
+     * without waiting for the response, until {@link RaftAlgorithmConfig#getAppendRequestMaxInflightCount()} append
+     * requests are in flight.
      */
     @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity", "checkstyle:methodlength"})
     public void sendAppendRequest(RaftEndpoint follower) {
@@ -696,6 +745,7 @@ public final class RaftNodeImpl implements RaftNode {
         long prevEntryIndex = 0;
         LogEntry[] entries;
         boolean shouldBackoff = true;
+        boolean pipelined = false;
 
         if (nextIndex > 1) {
             prevEntryIndex = nextIndex - 1;
@@ -716,6 +766,9 @@ public final class RaftNodeImpl implements RaftNode {
                 // the leader should begin to send the actual entries
                 long end = min(nextIndex + appendRequestMaxEntryCount, raftLog.lastLogOrSnapshotIndex());
                 entries = raftLog.getEntriesBetween(nextIndex, end);
+                // The follower's log is known to match up to the matchIndex,
+                // so we don't need to wait for the response before sending the next entries.
+                pipelined = true;
             } else {
                 // The follower has caught up with the leader. Sending an empty append request as a heartbeat...
                 entries = new LogEntry[0];
@@ -748,12 +801,54 @@ public final class RaftNodeImpl implements RaftNode {
             submitFlushTask();
         }
 
-        if (shouldBackoff) {
+        if (pipelined) {
+            int inflightCount = followerState.appendRequestPipelined(entries[entries.length - 1].index());
+            if (inflightCount >= appendRequestMaxInflightCount) {
+                // The pipeline is full. We will send a new append request either when the follower
+                // sends a response or a back-off timeout occurs.
+                followerState.setAppendRequestBackoff();
+                scheduleAppendAckResetTask();
+            }
+        } else if (shouldBackoff) {
             followerState.setAppendRequestBackoff();
             scheduleAppendAckResetTask();
         }
     }
 
+    /**
+     * Broadcasts the entries appended to the Raft log by the current task
+     * together with the entries appended by the tasks which are already
+     * waiting in the queue of the Raft node's executor. A single broadcast
+     * task is submitted behind them, so the number of entries sent with
+     * an append request grows with the load instead of each entry being
+     * sent on its own.
+     */
+    public void submitBroadcastAppendRequest() {
+        pendingBatchEntryCount++;
+        if (broadcastTaskSubmitted) {
+            return;
+        }
+
+        broadcastTaskSubmitted = true;
+        raftIntegration.submit(broadcastTask);
+    }
+
+    /**
+     * Returns the number of entry batches broadcast by this node
+     * via {@link #submitBroadcastAppendRequest()} as the leader.
+     */
+    public long appendBatchCount() {
+        return appendBatchCount;
+    }
+
+    /**
+     * Returns the total number of entries in the batches broadcast by this
+     * node via {@link #submitBroadcastAppendRequest()} as the leader.
+     */
+    public long appendBatchEntryCount() {
+        return appendBatchEntryCount;
+    }
+
     /**
      * Applies committed log entries between {@code lastApplied} and {@code commitIndex}, if there's any available.
      * If new entries are applied, {@link RaftState}'s {@code lastApplied} field is updated.
@@ -793,6 +888,8 @@ public final class RaftNodeImpl implements RaftNode {
         assert status != TERMINATED || commitIndex == raftLog.lastLogOrSnapshotIndex()
                 : "commit index: " + commitIndex + " must be equal to " + raftLog.lastLogOrSnapshotIndex() + " on termination.";
 
+        runReadIndexQueries();
+
         if (state.role() == LEADER || state.role() == FOLLOWER) {
             takeSnapshotIfCommitIndexAdvanced();
         }
@@ -1059,6 +1156,7 @@ public final class RaftNodeImpl implements RaftNode {
         state.lastApplied(snapshot.index());
         invalidateFuturesUntil(snapshot.index(), new StaleAppendRequestException(state.leader()));
         logger.info(snapshot + " is installed.");
+        runReadIndexQueries();
 
         return true;
     }
@@ -1201,6 +1299,7 @@ public final class RaftNodeImpl implements RaftNode {
             for (BiTuple<Object, InternalCompletableFuture> t : leaderState.queryState().operations()) {
                 t.element2.completeExceptionally(new LeaderDemotedException(state.localEndpoint(), null));
             }
+            rejectReadIndexRequests(leaderState.queryState());
         }
 
         state.toFollower(term);
@@ -1323,10 +1422,88 @@ public final class RaftNodeImpl implements RaftNode {
             runQuery(t.element1, t.element2);
         }
 
+        for (ReadIndexRequest request : queryState.readIndexRequests()) {
+            send(new ReadIndexResponse(state.localEndpoint(), state.term(), request.round(), commitIndex, true),
+                    request.follower());
+        }
+
+        queryState.renewLease(leaderLeaseDurationInMillis);
         queryState.reset();
         return false;
     }
 
+    private void rejectReadIndexRequests(QueryState queryState) {
+        for (ReadIndexRequest request : queryState.readIndexRequests()) {
+            send(new ReadIndexResponse(state.localEndpoint(), state.term(), request.round(), 0, false), request.follower());
+        }
+    }
+
+    /**
+     * Returns true if the local Raft node is the leader and its lease is
+     * valid, i.e., no other leader can be elected until the lease expires.
+     * The lease is not used during a leadership transfer.
+     */
+    public boolean isLeaderLeaseValid() {
+        LeaderState leaderState = state.leaderState();
+        return leaderState != null && state.leadershipTransferState() == null
+                && leaderState.queryState().isLeaseValid(Clock.currentTimeMillis());
+    }
+
+    /**
+     * Returns true if a new linearizable query can be run locally after
+     * learning the commit index of the leader. The number of such queries
+     * is upper-bounded with
+     * {@link RaftAlgorithmConfig#getUncommittedEntryCountToRejectNewAppends()}.
+     */
+    public boolean canQueryWithReadIndex() {
+        return !isTerminatedOrSteppedDown() && state.readIndexState().queryCount() < maxUncommittedEntryCount;
+    }
+
+    /**
+     * Sends a read index request to the leader for the queries waiting for
+     * the next read index round, if no other round is in flight. Fails the
+     * queries if the leader is not known.
+     */
+    public void trySendReadIndexRequest() {
+        ReadIndexState readIndexState = state.readIndexState();
+        if (!readIndexState.canStartRound()) {
+            return;
+        }
+
+        long round = readIndexState.startRound();
+        RaftEndpoint leader = state.leader();
+        if (leader == null || leader.equals(state.localEndpoint())) {
+            failReadIndexRound(round);
+            return;
+        }
+
+        send(new ReadIndexRequest(state.localEndpoint(), state.term(), round, readIndexState.isInflightLeaseAllowed()), leader);
+        schedule(new ReadIndexRoundTimeoutTask(round), leaderElectionTimeout);
+    }
+
+    /**
+     * Runs the queries whose read index is applied to the state machine.
+     */
+    public void runReadIndexQueries() {
+        for (BiTuple<Object, InternalCompletableFuture> t : state.readIndexState().removeRunnableQueries(state.lastApplied())) {
+            runQuery(t.element1, t.element2);
+        }
+    }
+
+    /**
+     * Fails the queries of the given read index round with
+     * {@link NotLeaderException} so that they are retried on the leader.
+     */
+    public void failReadIndexRound(long round) {
+        failReadIndexQueries(state.readIndexState().removeRound(round));
+    }
+
+    private void failReadIndexQueries(Collection<BiTuple<Object, InternalCompletableFuture>> queries) {
+        for (BiTuple<Object, InternalCompletableFuture> t : queries) {
+            t.element2.completeExceptionally(new NotLeaderException(groupId, state.localEndpoint(), state.leader()));
+        }
+    }
+
     private void appendEntryAfterLeaderElection() {
         Object entry = raftIntegration.getAppendedEntryOnLeaderElection();
         if (entry != null) {
@@ -1443,7 +1620,9 @@ public final class RaftNodeImpl implements RaftNode {
                     }
                     if (followerState.completeAppendRequestBackoffRound()) {
                         // This follower has not sent a response to the last append request.
-                        // Send another append request
+                        // The pipelined append requests might have been lost, so we rewind
+                        // its next index and send another append request
+                        followerState.resetPipeline();
                         sendAppendRequest(entry.getKey());
                     }
                     // Schedule the task again, we still have backoff flag set followers
@@ -1453,6 +1632,48 @@ public final class RaftNodeImpl implements RaftNode {
         }
     }
 
+    /**
+     * Broadcasts the entries appended by the {@link ReplicateTask}s
+     * executed since the task is submitted.
+     */
+    private class BroadcastAppendRequestTask extends RaftNodeStatusAwareTask {
+        BroadcastAppendRequestTask() {
+            super(RaftNodeImpl.this);
+        }
+
+        @Override
+        protected void innerRun() {
+            broadcastTaskSubmitted = false;
+            int batchSize = pendingBatchEntryCount;
+            pendingBatchEntryCount = 0;
+            if (state.role() == LEADER) {
+                appendBatchCount++;
+                appendBatchEntryCount += batchSize;
+                broadcastAppendRequest();
+            }
+        }
+    }
+
+    /**
+     * Fails the queries of a read index round if the leader does not respond
+     * or the log is not applied up to the read index within the leader
+     * election timeout, and starts the next round.
+     */
+    private class ReadIndexRoundTimeoutTask extends RaftNodeStatusAwareTask {
+        private final long round;
+
+        ReadIndexRoundTimeoutTask(long round) {
+            super(RaftNodeImpl.this);
+            this.round = round;
+        }
+
+        @Override
+        protected void innerRun() {
+            failReadIndexRound(round);
+            trySendReadIndexRequest();
+        }
+    }
+
     private class FlushTask extends RaftNodeStatusAwareTask {
         FlushTask() {
             super(RaftNodeImpl.this);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl.dto;
+
+import com.hazelcast.cp.internal.raft.impl.RaftDataSerializerHook;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Struct for the read index request sent by a follower to the leader to
+ * learn the commit index at which it can run its linearizable queries.
+ * <p>
+ * See <i>6.4 Processing read-only queries more efficiently</i> section
+ * of the Raft dissertation.
+ *
+ * @see com.hazelcast.cp.internal.raft.QueryPolicy#READ_INDEX
+ * @see com.hazelcast.cp.internal.raft.QueryPolicy#LEADER_LEASE
+ */
+public class ReadIndexRequest implements IdentifiedDataSerializable {
+
+    private RaftEndpoint follower;
+    private int term;
+    private long round;
+    private boolean leaseAllowed;
+
+    public ReadIndexRequest() {
+    }
+
+    public ReadIndexRequest(RaftEndpoint follower, int term, long round, boolean leaseAllowed) {
+        this.follower = follower;
+        this.term = term;
+        this.round = round;
+        this.leaseAllowed = leaseAllowed;
+    }
+
+    public RaftEndpoint follower() {
+        return follower;
+    }
+
+    public int term() {
+        return term;
+    }
+
+    public long round() {
+        return round;
+    }
+
+    public boolean isLeaseAllowed() {
+        return leaseAllowed;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return RaftDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return RaftDataSerializerHook.READ_INDEX_REQUEST;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(follower);
+        out.writeInt(term);
+        out.writeLong(round);
+        out.writeBoolean(leaseAllowed);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        follower = in.readObject();
+        term = in.readInt();
+        round = in.readLong();
+        leaseAllowed = in.readBoolean();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadIndexRequest{" + "follower=" + follower + ", term=" + term + ", round=" + round + ", leaseAllowed="
+                + leaseAllowed + '}';
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl.dto;
+
+import com.hazelcast.cp.internal.raft.impl.RaftDataSerializerHook;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Struct for the response to {@link ReadIndexRequest}. If the request is
+ * accepted, {@link #readIndex()} is the commit index of the leader
+ * at which the follower can run its queries after applying the log up to
+ * that index.
+ *
+ * @see ReadIndexRequest
+ */
+public class ReadIndexResponse implements IdentifiedDataSerializable {
+
+    private RaftEndpoint sender;
+    private int term;
+    private long round;
+    private long readIndex;
+    private boolean success;
+
+    public ReadIndexResponse() {
+    }
+
+    public ReadIndexResponse(RaftEndpoint sender, int term, long round, long readIndex, boolean success) {
+        this.sender = sender;
+        this.term = term;
+        this.round = round;
+        this.readIndex = readIndex;
+        this.success = success;
+    }
+
+    public RaftEndpoint sender() {
+        return sender;
+    }
+
+    public int term() {
+        return term;
+    }
+
+    public long round() {
+        return round;
+    }
+
+    public long readIndex() {
+        return readIndex;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return RaftDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return RaftDataSerializerHook.READ_INDEX_RESPONSE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(sender);
+        out.writeInt(term);
+        out.writeLong(round);
+        out.writeLong(readIndex);
+        out.writeBoolean(success);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        sender = in.readObject();
+        term = in.readInt();
+        round = in.readLong();
+        readIndex = in.readLong();
+        success = in.readBoolean();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadIndexResponse{" + "sender=" + sender + ", term=" + term + ", round=" + round + ", readIndex="
+                + readIndex + ", success=" + success + '}';
+    }
+
+}
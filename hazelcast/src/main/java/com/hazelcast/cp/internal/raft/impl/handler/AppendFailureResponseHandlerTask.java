@@ -33,6 +33,8 @@ import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
  * or {@link InstallSnapshotHandlerTask} after an install snapshot request.
  * <p>
  * Decrements {@code nextIndex} of the follower by 1 if the response is valid.
+ * If append requests are pipelined to the follower, {@code nextIndex} is
+ * rewound to {@code matchIndex + 1} instead.
  * <p>
  * See <i>5.3 Log replication</i> section of
  * <i>In Search of an Understandable Consensus Algorithm</i>
@@ -82,8 +84,20 @@ public class AppendFailureResponseHandlerTask extends AbstractResponseHandlerTas
 
         long nextIndex = followerState.nextIndex();
         long matchIndex = followerState.matchIndex();
+        long expectedNextIndex = resp.expectedNextIndex();
 
-        if (resp.expectedNextIndex() == nextIndex) {
+        if (matchIndex > 0 && expectedNextIndex > matchIndex + 1 && expectedNextIndex <= nextIndex
+                && followerState.resetPipeline()) {
+            // One of the append requests pipelined to the follower is rejected, probably because a former one is lost.
+            // Since the follower's log is known to match up to the match index, we continue from there.
+            followerState.appendRequestAckReceived();
+            if (logger.isFineEnabled()) {
+                logger.fine("Rewound next index: " + followerState.nextIndex() + " for follower: " + resp.follower());
+            }
+            return true;
+        }
+
+        if (expectedNextIndex == nextIndex) {
             // Received a response for the last append request. Resetting the flag...
             followerState.appendRequestAckReceived();
 
@@ -27,6 +27,7 @@ import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
 
 import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
+import static java.lang.Math.max;
 
 /**
  * Handles {@link AppendSuccessResponse} sent by
@@ -99,8 +100,10 @@ public class AppendSuccessResponseHandlerTask extends AbstractResponseHandlerTas
             // Received a response for the last append request. Resetting the flag...
             followerState.appendRequestAckReceived();
 
-            long newNextIndex = followerLastLogIndex + 1;
+            // The next index can be already ahead if append requests are pipelined to the follower
+            long newNextIndex = max(followerState.nextIndex(), followerLastLogIndex + 1);
             followerState.matchIndex(followerLastLogIndex);
+            followerState.pipelinedAppendRequestAcked(followerLastLogIndex);
             followerState.nextIndex(newNextIndex);
 
             if (logger.isFineEnabled()) {
@@ -129,8 +132,9 @@ public class AppendSuccessResponseHandlerTask extends AbstractResponseHandlerTas
 
     private void trySendAppendRequest(RaftState state) {
         long followerLastLogIndex = resp.lastLogIndex();
-        if (state.log().lastLogOrSnapshotIndex() > followerLastLogIndex || state.commitIndex() == followerLastLogIndex) {
-            // If the follower is still missing some log entries or has not learnt the latest commit index yet,
+        long nextIndex = state.leaderState().getFollowerState(resp.follower()).nextIndex();
+        if (state.log().lastLogOrSnapshotIndex() >= nextIndex || state.commitIndex() == followerLastLogIndex) {
+            // If there are some log entries not sent to the follower yet or it has not learnt the latest commit index yet,
             // then send another append request.
             raftNode.sendAppendRequest(resp.follower());
         }
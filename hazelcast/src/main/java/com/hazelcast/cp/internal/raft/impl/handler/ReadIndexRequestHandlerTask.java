@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl.handler;
+
+import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
+import com.hazelcast.cp.internal.raft.impl.state.QueryState;
+import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.cp.internal.raft.impl.task.RaftNodeStatusAwareTask;
+
+import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
+
+/**
+ * Handles {@link ReadIndexRequest} sent by a follower.
+ * <p>
+ * Responds with the current commit index right away if the request can be
+ * served with the leader lease and the lease is valid. Otherwise, adds the
+ * request to the current heartbeat round of the linearizable queries
+ * and responds once the majority acknowledges the round.
+ * Rejects the request if this node is not the leader or cannot run
+ * linearizable queries at the moment.
+ *
+ * @see ReadIndexRequest
+ * @see ReadIndexResponse
+ */
+public class ReadIndexRequestHandlerTask extends RaftNodeStatusAwareTask implements Runnable {
+
+    private final ReadIndexRequest req;
+
+    public ReadIndexRequestHandlerTask(RaftNodeImpl raftNode, ReadIndexRequest req) {
+        super(raftNode);
+        this.req = req;
+    }
+
+    @Override
+    protected void innerRun() {
+        if (logger.isFineEnabled()) {
+            logger.fine("Received " + req);
+        }
+
+        RaftState state = raftNode.state();
+        if (state.role() != LEADER || req.term() > state.term() || !state.isKnownMember(req.follower())
+                || !raftNode.canQueryLinearizable()) {
+            if (logger.isFineEnabled()) {
+                logger.fine("Rejecting " + req + " since role: " + state.role() + ", term: " + state.term());
+            }
+
+            raftNode.send(new ReadIndexResponse(localMember(), state.term(), req.round(), 0, false), req.follower());
+            return;
+        }
+
+        long commitIndex = state.commitIndex();
+        if (req.isLeaseAllowed() && raftNode.isLeaderLeaseValid()) {
+            raftNode.send(new ReadIndexResponse(localMember(), state.term(), req.round(), commitIndex, true), req.follower());
+            return;
+        }
+
+        QueryState queryState = state.leaderState().queryState();
+        if (queryState.addReadIndexRequest(commitIndex, req) == 1) {
+            raftNode.broadcastAppendRequest();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl.handler;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexResponse;
+
+/**
+ * Handles {@link ReadIndexResponse} sent by
+ * {@link ReadIndexRequestHandlerTask} after a read index request.
+ * <p>
+ * If the request is accepted, the queries of the round run once the log is
+ * applied up to the returned read index. Otherwise, they are failed with
+ * {@link com.hazelcast.cp.exception.NotLeaderException} so that they are
+ * retried on the leader. In both cases, the queries waiting for the next
+ * round are sent with a new read index request.
+ *
+ * @see ReadIndexRequest
+ * @see ReadIndexResponse
+ */
+public class ReadIndexResponseHandlerTask extends AbstractResponseHandlerTask {
+
+    private final ReadIndexResponse resp;
+
+    public ReadIndexResponseHandlerTask(RaftNodeImpl raftNode, ReadIndexResponse response) {
+        super(raftNode);
+        this.resp = response;
+    }
+
+    @Override
+    protected void handleResponse() {
+        if (logger.isFineEnabled()) {
+            logger.fine("Received " + resp);
+        }
+
+        if (resp.isSuccess()) {
+            if (raftNode.state().readIndexState().completeRound(resp.round(), resp.readIndex())) {
+                raftNode.runReadIndexQueries();
+            } else if (logger.isFineEnabled()) {
+                logger.fine("Ignoring " + resp + " since its round is not in flight anymore.");
+            }
+        } else {
+            raftNode.failReadIndexRound(resp.round());
+        }
+
+        raftNode.trySendReadIndexRequest();
+    }
+
+    @Override
+    protected RaftEndpoint sender() {
+        return resp.sender();
+    }
+
+}
@@ -21,7 +21,10 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import javax.annotation.Nonnull;
 
 /**
- * Used in the EE side
+ * Describes the tail segment of a Raft log persisted by a {@link RaftStateStore}:
+ * its file name, the file offsets of its entries and the index of its first
+ * entry. A {@link RaftStateLoader} can hand it to the store that continues the
+ * log, so the store doesn't need to scan the segment again.
  */
 public class LogFileStructure {
     private final String filename;
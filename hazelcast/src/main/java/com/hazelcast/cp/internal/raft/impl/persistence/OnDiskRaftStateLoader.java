@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.RECORD_HEADER_SIZE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.listIndices;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.readIfExists;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.readRecord;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.segmentName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.snapshotName;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Restores the Raft state written by an {@link OnDiskRaftStateStore}.
+ * <p>
+ * The segments are read in the order of their first index, and an entry
+ * read from a later segment replaces the entries with the same or higher
+ * index read before it. Reading a segment stops at the first record which
+ * is not intact. Only the entries that follow the latest snapshot without
+ * a gap are restored.
+ * <p>
+ * After {@link #load()}, {@link #logFileStructure()} describes the tail
+ * segment, so the store that continues the log doesn't need to scan it
+ * again.
+ */
+public class OnDiskRaftStateLoader implements RaftStateLoader {
+
+    private static final int INITIAL_OFFSETS_CAPACITY = 64;
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+    private LogFileStructure logFileStructure;
+
+    public OnDiskRaftStateLoader(@Nonnull File dir, @Nonnull InternalSerializationService serializationService) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+    }
+
+    /**
+     * Returns {@code true} if the given directory contains the state of a
+     * Raft node that can be loaded.
+     */
+    public static boolean containsRaftState(@Nonnull File dir) {
+        return new File(dir, MEMBERS_FILE).isFile();
+    }
+
+    @Nonnull
+    @Override
+    public RestoredRaftState load() throws IOException {
+        byte[] members = readIfExists(new File(dir, MEMBERS_FILE));
+        if (members == null) {
+            throw new IOException("No Raft state in " + dir);
+        }
+        BufferObjectDataInput in = serializationService.createObjectDataInput(members);
+        RaftEndpoint localEndpoint = in.readObject();
+        int memberCount = in.readInt();
+        Set<RaftEndpoint> initialMembers = new LinkedHashSet<>();
+        for (int i = 0; i < memberCount; i++) {
+            initialMembers.add(in.readObject());
+        }
+
+        int term = 0;
+        RaftEndpoint votedFor = null;
+        byte[] termBytes = readIfExists(new File(dir, TERM_FILE));
+        if (termBytes != null) {
+            in = serializationService.createObjectDataInput(termBytes);
+            term = in.readInt();
+            votedFor = in.readObject();
+        }
+
+        SnapshotEntry snapshot = readSnapshot();
+        long snapshotIndex = snapshot != null ? snapshot.index() : 0;
+        List<LogEntry> entries = readEntries(snapshotIndex);
+
+        return new RestoredRaftState(localEndpoint, initialMembers, term, votedFor, snapshot,
+                entries.toArray(new LogEntry[0]));
+    }
+
+    /**
+     * Returns the structure of the tail segment found by the last
+     * {@link #load()}, or {@code null} if there is no segment.
+     */
+    @Nullable
+    public LogFileStructure logFileStructure() {
+        return logFileStructure;
+    }
+
+    private SnapshotEntry readSnapshot() throws IOException {
+        long[] indices = listIndices(dir, SNAPSHOT_PREFIX);
+        if (indices.length == 0) {
+            return null;
+        }
+        byte[] bytes = readIfExists(new File(dir, snapshotName(indices[indices.length - 1])));
+        return bytes != null ? serializationService.toObject(new HeapData(bytes)) : null;
+    }
+
+    private List<LogEntry> readEntries(long snapshotIndex) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        logFileStructure = null;
+        for (long firstIndex : listIndices(dir, SEGMENT_PREFIX)) {
+            String filename = segmentName(firstIndex);
+            long[] offsets = new long[0];
+            int count = 0;
+            try (FileChannel channel = FileChannel.open(new File(dir, filename).toPath(), READ)) {
+                long position = 0;
+                byte[] payload;
+                while ((payload = readRecord(channel, position)) != null) {
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, Math.max(INITIAL_OFFSETS_CAPACITY, 2 * count));
+                    }
+                    offsets[count++] = position;
+                    position += RECORD_HEADER_SIZE + payload.length;
+                    append(entries, serializationService.toObject(new HeapData(payload)), snapshotIndex);
+                }
+            }
+            logFileStructure = new LogFileStructure(filename, Arrays.copyOf(offsets, count), firstIndex);
+        }
+        return entries;
+    }
+
+    private static void append(List<LogEntry> entries, LogEntry entry, long snapshotIndex) {
+        if (entry.index() <= snapshotIndex) {
+            return;
+        }
+        // an entry of a later segment overwrites the entries which were deleted before it was appended
+        while (!entries.isEmpty() && entries.get(entries.size() - 1).index() >= entry.index()) {
+            entries.remove(entries.size() - 1);
+        }
+        long expectedIndex = entries.isEmpty() ? snapshotIndex + 1 : entries.get(entries.size() - 1).index() + 1;
+        if (entry.index() == expectedIndex) {
+            entries.add(entry);
+        }
+    }
+}
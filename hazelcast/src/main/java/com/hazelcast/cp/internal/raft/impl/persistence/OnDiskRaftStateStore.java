@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.Bits;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.RECORD_HEADER_SIZE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.crc;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.forceDirectory;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.listIndices;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.readRecord;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.segmentName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.snapshotName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.writeAtomically;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A {@link RaftStateStore} which keeps the Raft state of a single Raft node
+ * in a directory of the local disk.
+ * <p>
+ * The initial members and the term are small files which are replaced
+ * atomically on every update. Snapshots are written the same way, one file
+ * per snapshot index. Log entries are appended to segment files named after
+ * the index of their first entry; see {@link StateFiles} for the record
+ * format. A new segment is started with the first entry after a snapshot,
+ * so the segments covered by a later snapshot can be deleted as a whole.
+ * <p>
+ * Log entries are committed in groups: {@link #persistEntry(LogEntry)} only
+ * encodes the entry into an in-memory buffer, and {@link #flushLogs()}
+ * writes the buffer and forces the segment with a single {@code fsync}.
+ * Since Raft flushes once per batch of appended entries, the cost of the
+ * {@code fsync} is shared by all entries of the batch.
+ * <p>
+ * The store is not thread-safe, it is only used by the thread of its Raft
+ * node.
+ *
+ * @see OnDiskRaftStateLoader
+ */
+public class OnDiskRaftStateStore implements RaftStateStore {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+    private final LogFileStructure logFileStructure;
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel tailChannel;
+    // encoded entries of the tail segment which are not written to its file yet
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int buffered;
+    private long tailWrittenSize;
+    private long snapshotIndex;
+    private long cleanedUpSnapshotIndex;
+    private boolean rollSegment;
+    private boolean dirChanged;
+
+    /**
+     * @param dir                  the directory of the Raft node
+     * @param serializationService used to encode the entries
+     * @param logFileStructure     the structure of the tail segment found by
+     *                             the {@link OnDiskRaftStateLoader}, or
+     *                             {@code null} if the directory is new or
+     *                             the segments should be scanned on open
+     */
+    public OnDiskRaftStateStore(@Nonnull File dir, @Nonnull InternalSerializationService serializationService,
+                                @Nullable LogFileStructure logFileStructure) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+        this.logFileStructure = logFileStructure;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+
+        long[] snapshotIndices = listIndices(dir, SNAPSHOT_PREFIX);
+        snapshotIndex = snapshotIndices.length > 0 ? snapshotIndices[snapshotIndices.length - 1] : 0;
+
+        long[] firstIndices = listIndices(dir, SEGMENT_PREFIX);
+        for (int i = 0; i < firstIndices.length; i++) {
+            Segment segment = new Segment(new File(dir, segmentName(firstIndices[i])), firstIndices[i]);
+            boolean tail = i == firstIndices.length - 1;
+            try (FileChannel channel = FileChannel.open(segment.file.toPath(), READ, WRITE)) {
+                if (!tail || !segment.restore(logFileStructure, channel)) {
+                    segment.scan(channel);
+                }
+                if (channel.size() > segment.size) {
+                    // cut off the record torn by a crash
+                    channel.truncate(segment.size);
+                    channel.force(false);
+                }
+            }
+            if (segment.count > 0) {
+                segments.add(segment);
+            } else {
+                Files.delete(segment.file.toPath());
+                dirChanged = true;
+            }
+        }
+
+        if (!segments.isEmpty()) {
+            openTail();
+        }
+    }
+
+    @Override
+    public void persistInitialMembers(@Nonnull RaftEndpoint localMember, @Nonnull Collection<RaftEndpoint> initialMembers)
+            throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        try {
+            out.writeObject(localMember);
+            out.writeInt(initialMembers.size());
+            for (RaftEndpoint member : initialMembers) {
+                out.writeObject(member);
+            }
+            writeAtomically(new File(dir, MEMBERS_FILE), out.toByteArray());
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public void persistTerm(int term, @Nullable RaftEndpoint votedFor) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        try {
+            out.writeInt(term);
+            out.writeObject(votedFor);
+            writeAtomically(new File(dir, TERM_FILE), out.toByteArray());
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public void persistEntry(@Nonnull LogEntry entry) throws IOException {
+        byte[] payload = serializationService.toBytes(entry);
+        Segment tail = tail();
+        if (tail == null || rollSegment || entry.index() != tail.nextIndex()) {
+            tail = roll(entry.index());
+        }
+
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (buffered + recordSize > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, buffered + recordSize));
+        }
+        Bits.writeIntB(buffer, buffered, payload.length);
+        Bits.writeIntB(buffer, buffered + INT_SIZE_IN_BYTES, crc(payload, 0, payload.length));
+        System.arraycopy(payload, 0, buffer, buffered + RECORD_HEADER_SIZE, payload.length);
+        buffered += recordSize;
+        tail.add(recordSize);
+    }
+
+    @Override
+    public void persistSnapshot(@Nonnull SnapshotEntry entry) throws IOException {
+        writeAtomically(new File(dir, snapshotName(entry.index())), serializationService.toBytes(entry));
+        snapshotIndex = entry.index();
+        // the entries after the snapshot go to a new segment, so the
+        // current ones can be deleted once a later snapshot covers them
+        rollSegment = true;
+    }
+
+    @Override
+    public void deleteEntriesFrom(long startIndexInclusive) throws IOException {
+        while (!segments.isEmpty() && tail().firstIndex >= startIndexInclusive) {
+            Segment segment = segments.remove(segments.size() - 1);
+            buffered = 0;
+            tailChannel.close();
+            tailChannel = null;
+            Files.delete(segment.file.toPath());
+            dirChanged = true;
+            if (!segments.isEmpty()) {
+                openTail();
+            }
+        }
+
+        Segment tail = tail();
+        if (tail == null || tail.nextIndex() <= startIndexInclusive) {
+            return;
+        }
+
+        tail.truncate((int) (startIndexInclusive - tail.firstIndex));
+        if (tail.size >= tailWrittenSize) {
+            buffered = (int) (tail.size - tailWrittenSize);
+        } else {
+            buffered = 0;
+            tailChannel.truncate(tail.size);
+            tailWrittenSize = tail.size;
+        }
+    }
+
+    @Override
+    public void flushLogs() throws IOException {
+        if (tailChannel != null) {
+            writeBuffer();
+            tailChannel.force(false);
+        }
+        if (dirChanged) {
+            forceDirectory(dir);
+            dirChanged = false;
+        }
+        if (snapshotIndex > cleanedUpSnapshotIndex) {
+            deleteObsoleteFiles();
+            cleanedUpSnapshotIndex = snapshotIndex;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tailChannel != null) {
+            writeBuffer();
+            tailChannel.close();
+            tailChannel = null;
+        }
+    }
+
+    private Segment tail() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    private Segment roll(long firstIndex) throws IOException {
+        if (tailChannel != null) {
+            writeBuffer();
+            tailChannel.force(false);
+            tailChannel.close();
+        }
+
+        Segment segment = new Segment(new File(dir, segmentName(firstIndex)), firstIndex);
+        tailChannel = FileChannel.open(segment.file.toPath(), CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        tailWrittenSize = 0;
+        segments.add(segment);
+        rollSegment = false;
+        dirChanged = true;
+        return segment;
+    }
+
+    private void openTail() throws IOException {
+        Segment tail = tail();
+        tailChannel = FileChannel.open(tail.file.toPath(), READ, WRITE);
+        tailWrittenSize = tail.size;
+    }
+
+    private void writeBuffer() throws IOException {
+        ByteBuffer src = ByteBuffer.wrap(buffer, 0, buffered);
+        while (src.hasRemaining()) {
+            tailWrittenSize += tailChannel.write(src, tailWrittenSize);
+        }
+        buffered = 0;
+    }
+
+    /**
+     * Deletes the segments whose entries are all covered by the latest
+     * snapshot, and the older snapshots. The tail segment is kept, the
+     * next entry is appended to a new segment anyway.
+     */
+    private void deleteObsoleteFiles() throws IOException {
+        while (segments.size() > 1 && segments.get(0).lastIndex() <= snapshotIndex) {
+            Files.deleteIfExists(segments.remove(0).file.toPath());
+        }
+        for (long index : listIndices(dir, SNAPSHOT_PREFIX)) {
+            if (index < snapshotIndex) {
+                Files.deleteIfExists(new File(dir, snapshotName(index)).toPath());
+            }
+        }
+    }
+
+    /**
+     * The in-memory view of a segment file: the offsets of its records,
+     * including the ones that are still buffered.
+     */
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 64;
+
+        final File file;
+        final long firstIndex;
+        long[] offsets = new long[INITIAL_CAPACITY];
+        int count;
+        long size;
+
+        Segment(File file, long firstIndex) {
+            this.file = file;
+            this.firstIndex = firstIndex;
+        }
+
+        long nextIndex() {
+            return firstIndex + count;
+        }
+
+        long lastIndex() {
+            return firstIndex + count - 1;
+        }
+
+        void add(int recordSize) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * count);
+            }
+            offsets[count++] = size;
+            size += recordSize;
+        }
+
+        void truncate(int newCount) {
+            size = offsets[newCount];
+            count = newCount;
+        }
+
+        void scan(FileChannel channel) throws IOException {
+            byte[] payload;
+            while ((payload = readRecord(channel, size)) != null) {
+                add(RECORD_HEADER_SIZE + payload.length);
+            }
+        }
+
+        /**
+         * Takes the offsets from the given structure if it describes this
+         * segment. Only the last record is read to find the end of the
+         * segment.
+         */
+        boolean restore(LogFileStructure structure, FileChannel channel) throws IOException {
+            if (structure == null || !structure.filename().equals(file.getName())
+                    || structure.indexOfFirstTailEntry() != firstIndex) {
+                return false;
+            }
+            long[] restoredOffsets = structure.tailEntryOffsets();
+            if (restoredOffsets.length == 0) {
+                return true;
+            }
+            long lastOffset = restoredOffsets[restoredOffsets.length - 1];
+            byte[] last = readRecord(channel, lastOffset);
+            if (last == null) {
+                return false;
+            }
+            offsets = Arrays.copyOf(restoredOffsets, Math.max(INITIAL_CAPACITY, 2 * restoredOffsets.length));
+            count = restoredOffsets.length;
+            size = lastOffset + RECORD_HEADER_SIZE + last.length;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File layout and IO utilities of the on-disk CP persistence.
+ * <p>
+ * Small state files are replaced atomically: the new content is written and
+ * forced to a temporary file which is then renamed over the old one. A log
+ * segment is a sequence of records, each one is {@code [int length][int crc]}
+ * followed by {@code length} bytes of payload. A record whose checksum
+ * doesn't match, or which is cut short, ends the segment; it is the trace of
+ * a write interrupted by a crash.
+ */
+public final class StateFiles {
+
+    /**
+     * Size of the header of a log record
+     */
+    public static final int RECORD_HEADER_SIZE = 2 * INT_SIZE_IN_BYTES;
+
+    static final String MEMBERS_FILE = "members";
+    static final String TERM_FILE = "term";
+    static final String SEGMENT_PREFIX = "raftlog-";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private StateFiles() {
+    }
+
+    /**
+     * Replaces the content of the given file with the given bytes. When this
+     * method returns the new content is durable, and a crash in the middle
+     * leaves either the old or the new content behind.
+     */
+    public static void writeAtomically(@Nonnull File file, @Nonnull byte[] bytes) throws IOException {
+        Path target = file.toPath();
+        Path tmp = target.resolveSibling(file.getName() + TMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, REPLACE_EXISTING);
+        }
+        forceDirectory(file.getParentFile());
+    }
+
+    /**
+     * Returns the content of the given file or {@code null} if it doesn't exist.
+     */
+    @Nullable
+    public static byte[] readIfExists(@Nonnull File file) throws IOException {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Makes the creation, rename and deletion of the files in the given
+     * directory durable. Not every platform can open a directory, there
+     * this is a no-op.
+     */
+    public static void forceDirectory(@Nonnull File dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            if (!isWindows()) {
+                throw e;
+            }
+        }
+    }
+
+    static boolean isTempFile(String name) {
+        return name.endsWith(TMP_SUFFIX);
+    }
+
+    static String segmentName(long firstIndex) {
+        return SEGMENT_PREFIX + firstIndex;
+    }
+
+    static String snapshotName(long index) {
+        return SNAPSHOT_PREFIX + index;
+    }
+
+    /**
+     * Returns the index encoded in a segment or snapshot file name with the
+     * given prefix, or {@code -1} if the name doesn't belong to such a file.
+     */
+    static long parseIndex(String name, String prefix) {
+        if (!name.startsWith(prefix) || isTempFile(name)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the indices of the segment or snapshot files with the given
+     * prefix in the given directory, in ascending order.
+     */
+    static long[] listIndices(File dir, String prefix) throws IOException {
+        String[] names = dir.list();
+        if (names == null) {
+            throw new IOException("Cannot list " + dir);
+        }
+        long[] indices = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            long index = parseIndex(name, prefix);
+            if (index >= 0) {
+                indices[count++] = index;
+            }
+        }
+        long[] result = Arrays.copyOf(indices, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads the payload of the record at the given position of the segment,
+     * or returns {@code null} if there is no intact record there.
+     */
+    @Nullable
+    static byte[] readRecord(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        if (!readFully(channel, header, position)) {
+            return null;
+        }
+        int length = header.getInt(0);
+        int crc = header.getInt(INT_SIZE_IN_BYTES);
+        if (length < 0 || length > channel.size() - position - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, position + RECORD_HEADER_SIZE)
+                || crc(payload.array(), 0, length) != crc) {
+            return null;
+        }
+        return payload.array();
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        long offset = position;
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase().contains("windows");
+    }
+}
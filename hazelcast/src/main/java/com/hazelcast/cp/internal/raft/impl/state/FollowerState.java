@@ -31,6 +31,13 @@ import static java.lang.Math.min;
  * <li>{@code appendRequestBackoff}: a boolean flag indicating that leader is still
  * waiting for a response to the last sent append request</li>
  * </ul>
+ * <p>
+ * Once the leader learns the match index of a follower, it pipelines append
+ * requests: {@code nextIndex} is moved past the entries of a sent append
+ * request before it is acknowledged, so the next request can be sent
+ * without waiting for the response. The number of such unacknowledged append
+ * requests is tracked to bound the pipeline. If an append request fails or
+ * times out, {@code nextIndex} is rewound to {@code matchIndex + 1}.
  */
 public class FollowerState {
 
@@ -46,6 +53,8 @@ public class FollowerState {
 
     private long appendRequestAckTimestamp;
 
+    private int inflightAppendRequestCount;
+
     FollowerState(long matchIndex, long nextIndex) {
         this.matchIndex = matchIndex;
         this.nextIndex = nextIndex;
@@ -80,6 +89,53 @@ public class FollowerState {
         this.nextIndex = nextIndex;
     }
 
+    /**
+     * Returns the number of pipelined append requests which are not
+     * acknowledged yet.
+     */
+    public int inflightAppendRequestCount() {
+        return inflightAppendRequestCount;
+    }
+
+    /**
+     * Moves {@code nextIndex} optimistically past the last entry of a sent
+     * append request.
+     *
+     * @return the number of append requests in flight, including this one
+     */
+    public int appendRequestPipelined(long lastSentLogIndex) {
+        nextIndex = lastSentLogIndex + 1;
+        return ++inflightAppendRequestCount;
+    }
+
+    /**
+     * Marks the pipelined append requests up to the given log index as
+     * acknowledged after the match index is updated with it.
+     */
+    public void pipelinedAppendRequestAcked(long ackedLogIndex) {
+        if (ackedLogIndex + 1 >= nextIndex) {
+            inflightAppendRequestCount = 0;
+        } else if (inflightAppendRequestCount > 0) {
+            inflightAppendRequestCount--;
+        }
+    }
+
+    /**
+     * Rewinds {@code nextIndex} to the entry after {@code matchIndex} and
+     * forgets about the pipelined append requests, since they can be lost
+     * or rejected by the follower.
+     *
+     * @return true if {@code nextIndex} is rewound
+     */
+    public boolean resetPipeline() {
+        inflightAppendRequestCount = 0;
+        if (matchIndex == 0 || nextIndex == matchIndex + 1) {
+            return false;
+        }
+        nextIndex = matchIndex + 1;
+        return true;
+    }
+
     /**
      * Returns whether leader is waiting for response of the last append request.
      */
@@ -136,6 +192,7 @@ public class FollowerState {
     @Override
     public String toString() {
         return "FollowerState{" + "matchIndex=" + matchIndex + ", nextIndex=" + nextIndex + ", backoffRound=" + backoffRound
-                + ", nextBackoffPower=" + nextBackoffPower + ", appendRequestAckTime=" + appendRequestAckTimestamp + '}';
+                + ", nextBackoffPower=" + nextBackoffPower + ", appendRequestAckTime=" + appendRequestAckTimestamp
+                + ", inflightAppendRequestCount=" + inflightAppendRequestCount + '}';
     }
 }
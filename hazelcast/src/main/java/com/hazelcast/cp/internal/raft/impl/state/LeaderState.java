@@ -77,6 +77,18 @@ public class LeaderState {
         return indices;
     }
 
+    /**
+     * Returns the total number of pipelined append requests which are not
+     * acknowledged by the followers yet.
+     */
+    public int inflightAppendRequestCount() {
+        int count = 0;
+        for (FollowerState state : followerStates.values()) {
+            count += state.inflightAppendRequestCount();
+        }
+        return count;
+    }
+
     public FollowerState getFollowerState(RaftEndpoint follower) {
         FollowerState followerState = followerStates.get(follower);
         assert followerState != null : "Unknown follower " + follower;
@@ -18,6 +18,8 @@ package com.hazelcast.cp.internal.raft.impl.state;
 
 import com.hazelcast.internal.util.BiTuple;
 import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.internal.util.Clock;
 import com.hazelcast.spi.impl.InternalCompletableFuture;
 
 import java.util.ArrayList;
@@ -41,6 +43,12 @@ import static com.hazelcast.internal.util.Preconditions.checkTrue;
  * ...
  * Fortunately, it is possible to bypass the Raft log for read-only queries and
  * still preserve linearizability.
+ * <p>
+ * The read index requests of the followers wait for the same heartbeat round
+ * as the local queries. Once the majority acknowledges a heartbeat round,
+ * the leader lease is extended from the start of the round. While the lease
+ * is valid, the leader can serve lease-based queries without a heartbeat
+ * round.
  */
 public class QueryState {
 
@@ -61,11 +69,26 @@ public class QueryState {
      */
     private long queryRound;
 
+    /**
+     * The time when the current heartbeat round is started.
+     */
+    private long queryRoundStartTimestamp;
+
+    /**
+     * The time until which the leader lease is valid.
+     */
+    private long leaseExpirationTimestamp;
+
     /**
      * Queries waiting to be executed.
      */
     private final List<BiTuple<Object, InternalCompletableFuture>> operations = new ArrayList<>();
 
+    /**
+     * Read index requests of the followers waiting for the heartbeat round.
+     */
+    private final List<ReadIndexRequest> readIndexRequests = new ArrayList<>();
+
     /**
      * The set of followers acknowledged the leader in the current heartbeat
      * round that is specified by {@link #queryRound}.
@@ -78,19 +101,38 @@ public class QueryState {
      * that is expected on the leader to execute the queries.
      */
     public int addQuery(long commitIndex, Object operation, InternalCompletableFuture resultFuture) {
+        updateQueryCommitIndex(commitIndex, operation);
+        operations.add(BiTuple.of(operation, resultFuture));
+        return onQueryAdded();
+    }
+
+    /**
+     * Adds the given read index request of a follower to the heartbeat round
+     * and returns the number of queries waiting to be executed. Also updates
+     * the minimum commit index that is expected on the leader to respond.
+     */
+    public int addReadIndexRequest(long commitIndex, ReadIndexRequest request) {
+        updateQueryCommitIndex(commitIndex, request);
+        readIndexRequests.add(request);
+        return onQueryAdded();
+    }
+
+    private void updateQueryCommitIndex(long commitIndex, Object query) {
         if (commitIndex < queryCommitIndex) {
-            throw new IllegalArgumentException("Cannot execute query: " + operation + " at commit index because of the current "
+            throw new IllegalArgumentException("Cannot execute query: " + query + " at commit index because of the current "
                     + this);
         }
 
         if (queryCommitIndex < commitIndex) {
             queryCommitIndex = commitIndex;
         }
+    }
 
-        operations.add(BiTuple.of(operation, resultFuture));
-        int size = operations.size();
+    private int onQueryAdded() {
+        int size = queryCount();
         if (size == 1) {
             queryRound++;
+            queryRoundStartTimestamp = Clock.currentTimeMillis();
         }
 
         return size;
@@ -126,7 +168,7 @@ public class QueryState {
      * Returns the number of queries waiting for execution.
      */
     public int queryCount() {
-        return operations.size();
+        return operations.size() + readIndexRequests.size();
     }
 
     /**
@@ -165,17 +207,48 @@ public class QueryState {
         return operations;
     }
 
+    /**
+     * Returns the read index requests waiting for the heartbeat round.
+     */
+    public Collection<ReadIndexRequest> readIndexRequests() {
+        return readIndexRequests;
+    }
+
+    /**
+     * Extends the leader lease to the given duration after the start of the
+     * current heartbeat round. Must be called only after the majority
+     * acknowledges the current heartbeat round.
+     */
+    public void renewLease(long leaseDurationInMillis) {
+        leaseExpirationTimestamp = Math.max(leaseExpirationTimestamp, queryRoundStartTimestamp + leaseDurationInMillis);
+    }
+
+    /**
+     * Invalidates the leader lease until the next heartbeat round.
+     */
+    public void invalidateLease() {
+        leaseExpirationTimestamp = 0;
+    }
+
+    /**
+     * Returns {@code true} if the leader lease is valid at the given time.
+     */
+    public boolean isLeaseValid(long now) {
+        return now < leaseExpirationTimestamp;
+    }
+
     /**
      * Resets the collection of waiting queries and acknowledged followers.
      */
     public void reset() {
         operations.clear();
+        readIndexRequests.clear();
         acks.clear();
     }
 
     @Override
     public String toString() {
         return "QueryState{" + "queryCommitIndex=" + queryCommitIndex + ", queryRound=" + queryRound + ", queryCount="
-                + queryCount() + ", acks=" + acks + '}';
+                + queryCount() + ", acks=" + acks + ", leaseExpirationTimestamp=" + leaseExpirationTimestamp + '}';
     }
 }
@@ -150,6 +150,12 @@ public final class RaftState {
      */
     private LeadershipTransferState leadershipTransferState;
 
+    /**
+     * State of the linearizable queries run locally after learning
+     * the commit index of the leader. Used when this node is not the leader.
+     */
+    private final ReadIndexState readIndexState = new ReadIndexState();
+
     private RaftState(CPGroupId groupId, RaftEndpoint localEndpoint, Collection<RaftEndpoint> endpoints, int logCapacity,
                       RaftStateStore store) {
         this.groupId = groupId;
@@ -598,6 +604,14 @@ public final class RaftState {
         leadershipTransferState = null;
     }
 
+    /**
+     * Returns the state of the queries run locally after learning
+     * the commit index of the leader
+     */
+    public ReadIndexState readIndexState() {
+        return readIndexState;
+    }
+
     /**
      * Returns the leadership transfer state
      */
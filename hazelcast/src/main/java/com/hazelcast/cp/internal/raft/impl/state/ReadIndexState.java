@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl.state;
+
+import com.hazelcast.internal.util.BiTuple;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.hazelcast.internal.util.Preconditions.checkState;
+
+/**
+ * This class is used on followers to keep the linearizable queries which are
+ * run locally after learning the commit index of the leader with a read index
+ * round.
+ * <p>
+ * Section 6.4 of Raft Dissertation:
+ * ...
+ * Read-only queries could also be served by followers. This would improve
+ * the system's read throughput, and it would also divert load away from the
+ * leader, allowing the leader to process more read-write requests.
+ * ...
+ * The follower could issue a request to the leader that just asked for a
+ * current readIndex; the leader would execute steps 1–3 above; then the
+ * follower could perform steps 4 and 5 on its own state machine.
+ * <p>
+ * There is at most one read index round in flight. The queries received
+ * meanwhile are collected and sent with the next round. After the leader
+ * responds to a round, its queries wait until the local Raft node applies
+ * the log up to the returned read index.
+ */
+public class ReadIndexState {
+
+    /**
+     * The index of the last started read index round.
+     */
+    private long round;
+
+    /**
+     * Queries waiting for the next read index round.
+     */
+    private QueryBatch pendingBatch;
+
+    /**
+     * Queries of the read index round which is not responded yet.
+     */
+    private QueryBatch inflightBatch;
+
+    /**
+     * Queries of the responded read index rounds waiting for the local Raft
+     * node to apply the log up to their read index.
+     */
+    private final List<QueryBatch> waitingBatches = new ArrayList<>();
+
+    /**
+     * Adds the given query to the queries waiting for the next read index
+     * round and returns their number. The round can use the leader lease only
+     * if all of its queries allow it.
+     */
+    public int addQuery(Object operation, InternalCompletableFuture resultFuture, boolean leaseAllowed) {
+        if (pendingBatch == null) {
+            pendingBatch = new QueryBatch();
+        }
+        pendingBatch.add(operation, resultFuture, leaseAllowed);
+        return pendingBatch.queries.size();
+    }
+
+    /**
+     * Returns {@code true} if a new read index round can be started, i.e.,
+     * there are queries waiting for a round and no other round is in flight.
+     */
+    public boolean canStartRound() {
+        return pendingBatch != null && inflightBatch == null;
+    }
+
+    /**
+     * Starts a new read index round with the queries waiting for it
+     * and returns the index of the round.
+     */
+    public long startRound() {
+        checkState(canStartRound(), "Cannot start read index round: " + this);
+        inflightBatch = pendingBatch;
+        inflightBatch.round = ++round;
+        pendingBatch = null;
+        return round;
+    }
+
+    /**
+     * Returns {@code true} if the in-flight read index round can be served
+     * by the leader lease.
+     */
+    public boolean isInflightLeaseAllowed() {
+        return inflightBatch != null && inflightBatch.leaseAllowed;
+    }
+
+    /**
+     * Completes the given read index round with the given read index if it is
+     * still in flight. Its queries wait until the log is applied up to
+     * the read index.
+     *
+     * @return true if the round was in flight, false otherwise
+     */
+    public boolean completeRound(long round, long readIndex) {
+        if (inflightBatch == null || inflightBatch.round != round) {
+            return false;
+        }
+        inflightBatch.readIndex = readIndex;
+        waitingBatches.add(inflightBatch);
+        inflightBatch = null;
+        return true;
+    }
+
+    /**
+     * Removes and returns the queries of the given read index round, whether
+     * they are waiting for the response of the leader or for the log to be
+     * applied up to the read index.
+     */
+    public Collection<BiTuple<Object, InternalCompletableFuture>> removeRound(long round) {
+        if (inflightBatch != null && inflightBatch.round == round) {
+            Collection<BiTuple<Object, InternalCompletableFuture>> queries = inflightBatch.queries;
+            inflightBatch = null;
+            return queries;
+        }
+        Iterator<QueryBatch> it = waitingBatches.iterator();
+        while (it.hasNext()) {
+            QueryBatch batch = it.next();
+            if (batch.round == round) {
+                it.remove();
+                return batch.queries;
+            }
+        }
+        return new ArrayList<>(0);
+    }
+
+    /**
+     * Removes and returns the queries whose read index is not greater than
+     * the given last applied log index.
+     */
+    public Collection<BiTuple<Object, InternalCompletableFuture>> removeRunnableQueries(long lastApplied) {
+        List<BiTuple<Object, InternalCompletableFuture>> queries = new ArrayList<>(0);
+        Iterator<QueryBatch> it = waitingBatches.iterator();
+        while (it.hasNext()) {
+            QueryBatch batch = it.next();
+            if (batch.readIndex <= lastApplied) {
+                queries.addAll(batch.queries);
+                it.remove();
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Removes and returns all queries.
+     */
+    public Collection<BiTuple<Object, InternalCompletableFuture>> removeAllQueries() {
+        List<BiTuple<Object, InternalCompletableFuture>> queries = new ArrayList<>(queryCount());
+        if (pendingBatch != null) {
+            queries.addAll(pendingBatch.queries);
+            pendingBatch = null;
+        }
+        if (inflightBatch != null) {
+            queries.addAll(inflightBatch.queries);
+            inflightBatch = null;
+        }
+        for (QueryBatch batch : waitingBatches) {
+            queries.addAll(batch.queries);
+        }
+        waitingBatches.clear();
+        return queries;
+    }
+
+    /**
+     * Returns the index of the last started read index round.
+     */
+    public long round() {
+        return round;
+    }
+
+    /**
+     * Returns the number of queries waiting for a read index round,
+     * a response from the leader or the log to be applied.
+     */
+    public int queryCount() {
+        int count = pendingBatch != null ? pendingBatch.queries.size() : 0;
+        count += inflightBatch != null ? inflightBatch.queries.size() : 0;
+        for (QueryBatch batch : waitingBatches) {
+            count += batch.queries.size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadIndexState{" + "round=" + round + ", inflightRound=" + (inflightBatch != null ? inflightBatch.round : 0)
+                + ", waitingRounds=" + waitingBatches.size() + ", queryCount=" + queryCount() + '}';
+    }
+
+    private static final class QueryBatch {
+        final List<BiTuple<Object, InternalCompletableFuture>> queries = new ArrayList<>();
+        boolean leaseAllowed = true;
+        long round;
+        long readIndex;
+
+        void add(Object operation, InternalCompletableFuture resultFuture, boolean leaseAllowed) {
+            queries.add(BiTuple.of(operation, resultFuture));
+            this.leaseAllowed &= leaseAllowed;
+        }
+    }
+}
@@ -74,6 +74,8 @@ public class InitLeadershipTransferTask implements Runnable {
         }
 
         if (state.initLeadershipTransfer(targetEndpoint, resultFuture)) {
+            // the target bypasses the leader stickiness to get elected
+            leaderState.queryState().invalidateLease();
             new LeadershipTransferTask(raftNode, LEADERSHIP_TRANSFER_RETRY_COUNT).run();
         }
     }
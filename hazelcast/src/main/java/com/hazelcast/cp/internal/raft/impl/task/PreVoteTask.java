@@ -21,6 +21,7 @@ import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
 import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
 import com.hazelcast.cp.internal.raft.impl.log.RaftLog;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.internal.util.Clock;
 
 import java.util.Collection;
 
@@ -54,6 +55,14 @@ public class PreVoteTask extends RaftNodeStatusAwareTask implements Runnable {
             return;
         }
 
+        // We would reject the pre-vote requests of the others now (leader stickiness).
+        // We don't start a pre-vote phase either, so that the lease of the leader
+        // which we acknowledged recently is not violated by our own vote.
+        if (raftNode.lastAppendEntriesTimestamp() > Clock.currentTimeMillis() - raftNode.getLeaderElectionTimeoutInMillis()) {
+            logger.fine("No new pre-vote phase since received append entries recently.");
+            return;
+        }
+
         Collection<RaftEndpoint> remoteMembers = state.remoteMembers();
         if (remoteMembers.isEmpty()) {
             logger.fine("Remote members is empty. No need for pre-voting.");
@@ -25,11 +25,13 @@ import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
 import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
 import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.cp.internal.raft.impl.state.ReadIndexState;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.InternalCompletableFuture;
 
 import java.util.UUID;
 
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LEASE;
 import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
 
 /**
@@ -74,6 +76,10 @@ public class QueryTask implements Runnable {
                 case LINEARIZABLE:
                     handleLinearizableRead();
                     break;
+                case READ_INDEX:
+                case LEADER_LEASE:
+                    handleReadIndexRead();
+                    break;
                 default:
                     resultFuture.completeExceptionally(new IllegalArgumentException("Invalid query policy: " + queryPolicy));
             }
@@ -139,6 +145,42 @@ public class QueryTask implements Runnable {
         }
     }
 
+    private void handleReadIndexRead() {
+        if (!raftNode.isLinearizableReadOptimizationEnabled()) {
+            handleLinearizableRead();
+            return;
+        }
+
+        RaftState state = raftNode.state();
+        if (state.role() == LEADER) {
+            if (queryPolicy == LEADER_LEASE && raftNode.isLeaderLeaseValid() && raftNode.canQueryLinearizable()) {
+                raftNode.runQuery(operation, resultFuture);
+            } else {
+                handleLinearizableRead();
+            }
+            return;
+        }
+
+        if (state.leader() == null) {
+            resultFuture.completeExceptionally(
+                    new NotLeaderException(raftNode.getGroupId(), raftNode.getLocalMember(), null));
+            return;
+        }
+
+        if (!raftNode.canQueryWithReadIndex()) {
+            resultFuture.completeExceptionally(new CannotReplicateException(state.leader()));
+            return;
+        }
+
+        ReadIndexState readIndexState = state.readIndexState();
+        if (logger.isFineEnabled()) {
+            logger.fine("Adding query with policy: " + queryPolicy + " to " + readIndexState);
+        }
+
+        readIndexState.addQuery(operation, resultFuture, queryPolicy == LEADER_LEASE);
+        raftNode.trySendReadIndexRequest();
+    }
+
     private boolean verifyOperation() {
         if (operation instanceof RaftGroupCmd) {
             resultFuture.completeExceptionally(new IllegalArgumentException("cannot run query: " + operation));
@@ -47,6 +47,11 @@ import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
  * If replication of the operation is not allowed at the moment
  * (see {@link RaftNodeImpl#canReplicateNewEntry(Object)}), the future is
  * immediately notified with {@link CannotReplicateException}.
+ * <p>
+ * The new entry is not sent to followers right away. It's sent together
+ * with the entries appended by the other replicate tasks waiting in the
+ * queue of the Raft node (see
+ * {@link RaftNodeImpl#submitBroadcastAppendRequest()}).
  */
 public class ReplicateTask implements Runnable {
     private final RaftNodeImpl raftNode;
@@ -97,7 +102,7 @@ public class ReplicateTask implements Runnable {
 
             preApplyRaftGroupCmd(newEntryLogIndex, operation);
 
-            raftNode.broadcastAppendRequest();
+            raftNode.submitBroadcastAppendRequest();
         } catch (Throwable t) {
             logger.severe(operation + " could not be replicated to leader: " + raftNode.getLocalMember(), t);
             RaftEndpoint leader = raftNode.getLeader();
@@ -44,6 +44,8 @@ import static com.hazelcast.config.ConfigAccessor.getActiveMemberNetworkConfig;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_INTERVAL_SECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_FLUSH_DELAY_MICROS;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_FLUSH_THRESHOLD_BYTES;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_THROUGH_ENABLED;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
@@ -178,6 +180,8 @@ public class DefaultNodeContext implements NodeContext {
                         .outputThreadCount(props.getInteger(IO_OUTPUT_THREAD_COUNT))
                         .balancerIntervalSeconds(props.getInteger(IO_BALANCER_INTERVAL_SECONDS))
                         .writeThroughEnabled(props.getBoolean(IO_WRITE_THROUGH_ENABLED))
+                        .writeFlushThresholdBytes(props.getInteger(IO_WRITE_FLUSH_THRESHOLD_BYTES))
+                        .writeFlushDelayNanos(props.getNanos(IO_WRITE_FLUSH_DELAY_MICROS))
                         .concurrencyDetection(node.nodeEngine.getConcurrencyDetection()));
     }
 }
@@ -21,14 +21,16 @@ import com.hazelcast.cache.impl.ICacheService;
 import com.hazelcast.client.impl.ClusterViewListenerService;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.Config;
-import com.hazelcast.config.HotRestartPersistenceConfig;
 import com.hazelcast.config.SecurityConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SymmetricEncryptionConfig;
 import com.hazelcast.config.cp.CPSubsystemConfig;
+import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.cp.internal.RaftService;
 import com.hazelcast.cp.internal.persistence.CPPersistenceService;
+import com.hazelcast.cp.internal.persistence.LocalDiskCPPersistenceService;
 import com.hazelcast.cp.internal.persistence.NopCPPersistenceService;
 import com.hazelcast.hotrestart.HotRestartService;
 import com.hazelcast.instance.BuildInfo;
@@ -67,7 +69,10 @@ import com.hazelcast.internal.hotrestart.NoopInternalHotRestartService;
 import com.hazelcast.internal.jmx.ManagementService;
 import com.hazelcast.internal.management.TimedMemberStateFactory;
 import com.hazelcast.internal.memory.DefaultMemoryStats;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.memory.MemoryStats;
+import com.hazelcast.internal.memory.impl.PoolingMemoryManager;
+import com.hazelcast.internal.memory.impl.PoolingMemoryStats;
 import com.hazelcast.internal.networking.ChannelInitializerProvider;
 import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
@@ -75,6 +80,7 @@ import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.internal.nio.IOService;
 import com.hazelcast.internal.nio.tcp.DefaultChannelInitializerProvider;
 import com.hazelcast.internal.nio.tcp.PacketDecoder;
+import com.hazelcast.internal.nio.tcp.GatheringPacketEncoder;
 import com.hazelcast.internal.nio.tcp.PacketEncoder;
 import com.hazelcast.internal.nio.tcp.TcpIpConnection;
 import com.hazelcast.internal.serialization.InternalSerializationService;
@@ -88,6 +94,8 @@ import com.hazelcast.internal.util.Preconditions;
 import com.hazelcast.internal.util.UuidUtil;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
+import com.hazelcast.memory.MemoryUnit;
 import com.hazelcast.nio.MemberSocketInterceptor;
 import com.hazelcast.partition.PartitioningStrategy;
 import com.hazelcast.partition.strategy.DefaultPartitioningStrategy;
@@ -98,11 +106,13 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.eventservice.impl.EventServiceImpl;
 import com.hazelcast.spi.impl.servicemanager.ServiceManager;
 import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.version.MemberVersion;
 import com.hazelcast.version.Version;
 import com.hazelcast.wan.impl.WanReplicationService;
 import com.hazelcast.wan.impl.WanReplicationServiceImpl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -111,7 +121,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
 import static com.hazelcast.config.ConfigAccessor.getActiveMemberNetworkConfig;
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM_AVAILABLE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
 import static com.hazelcast.map.impl.MapServiceConstructor.getDefaultMapServiceConstructor;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_GATHERING_ENABLED;
 
 @SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
 public class DefaultNodeExtension implements NodeExtension {
@@ -122,31 +135,21 @@ public class DefaultNodeExtension implements NodeExtension {
     protected final List<ClusterVersionListener> clusterVersionListeners = new CopyOnWriteArrayList<ClusterVersionListener>();
     protected PhoneHome phoneHome;
 
-    private final MemoryStats memoryStats = new DefaultMemoryStats();
+    // created on first use, so that the members without off-heap data structures don't report native memory
+    private final Object nativeMemoryManagerMutex = new Object();
+    private volatile PoolingMemoryManager nativeMemoryManager;
+    private volatile MemoryStats memoryStats = new DefaultMemoryStats();
+    private final LocalDiskCPPersistenceService cpPersistenceService;
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
         this.logger = node.getLogger(NodeExtension.class);
         this.systemLogger = node.getLogger("com.hazelcast.system");
         checkSecurityAllowed();
-        checkPersistenceAllowed();
-        createAndSetPhoneHome();
-    }
-
-    private void checkPersistenceAllowed() {
-        HotRestartPersistenceConfig hotRestartPersistenceConfig = node.getConfig().getHotRestartPersistenceConfig();
-        if (hotRestartPersistenceConfig != null && hotRestartPersistenceConfig.isEnabled()) {
-            if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
-                throw new IllegalStateException("Hot Restart requires Hazelcast Enterprise Edition");
-            }
-        }
-
         CPSubsystemConfig cpSubsystemConfig = node.getConfig().getCPSubsystemConfig();
-        if (cpSubsystemConfig != null && cpSubsystemConfig.isPersistenceEnabled()) {
-            if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
-                throw new IllegalStateException("CP persistence requires Hazelcast Enterprise Edition");
-            }
-        }
+        this.cpPersistenceService = cpSubsystemConfig != null && cpSubsystemConfig.isPersistenceEnabled()
+                ? new LocalDiskCPPersistenceService(node) : null;
+        createAndSetPhoneHome();
     }
 
     private void checkSecurityAllowed() {
@@ -204,6 +207,19 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void beforeJoin() {
+        if (cpPersistenceService != null) {
+            RaftService raftService = node.getNodeEngine().getService(RaftService.SERVICE_NAME);
+            try {
+                cpPersistenceService.restore(raftService);
+            } catch (IOException e) {
+                throw new HazelcastException("Could not restore CP state", e);
+            }
+        }
+        MapService mapService = node.getNodeEngine().getService(MapService.SERVICE_NAME);
+        MapPersistenceService mapPersistenceService = mapService.getMapServiceContext().getMapPersistenceService();
+        if (mapPersistenceService != null) {
+            mapPersistenceService.restore();
+        }
     }
 
     @Override
@@ -311,6 +327,9 @@ public class DefaultNodeExtension implements NodeExtension {
     @Override
     public OutboundHandler[] createOutboundHandlers(EndpointQualifier qualifier,
             TcpIpConnection connection, IOService ioService) {
+        if (node.getProperties().getBoolean(IO_WRITE_GATHERING_ENABLED)) {
+            return new OutboundHandler[]{new GatheringPacketEncoder()};
+        }
         return new OutboundHandler[]{new PacketEncoder()};
     }
 
@@ -334,6 +353,30 @@ public class DefaultNodeExtension implements NodeExtension {
         return memoryStats;
     }
 
+    @Override
+    public MemoryManager getNativeMemoryManager() {
+        PoolingMemoryManager memoryManager = nativeMemoryManager;
+        if (memoryManager != null || !UNSAFE_AVAILABLE || !MEM_AVAILABLE) {
+            return memoryManager;
+        }
+        synchronized (nativeMemoryManagerMutex) {
+            if (nativeMemoryManager == null) {
+                memoryManager = createNativeMemoryManager(node);
+                memoryStats = new PoolingMemoryStats(memoryManager);
+                nativeMemoryManager = memoryManager;
+            }
+            return nativeMemoryManager;
+        }
+    }
+
+    private static PoolingMemoryManager createNativeMemoryManager(Node node) {
+        HazelcastProperties properties = node.getProperties();
+        long capacity = MemoryUnit.MEGABYTES.toBytes(properties.getInteger(ClusterProperty.NATIVE_MEMORY_POOL_CAPACITY_MB));
+        // one arena per partition thread, pages are committed lazily
+        int arenaCount = properties.getInteger(ClusterProperty.PARTITION_OPERATION_THREAD_COUNT);
+        return new PoolingMemoryManager(capacity, arenaCount);
+    }
+
     @Override
     public void beforeShutdown() {
     }
@@ -344,6 +387,14 @@ public class DefaultNodeExtension implements NodeExtension {
         if (phoneHome != null) {
             phoneHome.shutdown();
         }
+        synchronized (nativeMemoryManagerMutex) {
+            if (nativeMemoryManager != null) {
+                nativeMemoryManager.dispose();
+            }
+        }
+        if (cpPersistenceService != null) {
+            cpPersistenceService.shutdown();
+        }
     }
 
     @Override
@@ -541,7 +592,7 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public CPPersistenceService getCPPersistenceService() {
-        return NopCPPersistenceService.INSTANCE;
+        return cpPersistenceService != null ? cpPersistenceService : NopCPPersistenceService.INSTANCE;
     }
 
     protected void createAndSetPhoneHome() {
@@ -29,6 +29,7 @@ import com.hazelcast.internal.dynamicconfig.DynamicConfigListener;
 import com.hazelcast.internal.hotrestart.InternalHotRestartService;
 import com.hazelcast.internal.jmx.ManagementService;
 import com.hazelcast.internal.management.TimedMemberStateFactory;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.memory.MemoryStats;
 import com.hazelcast.internal.networking.ChannelInitializerProvider;
 import com.hazelcast.internal.networking.InboundHandler;
@@ -185,6 +186,17 @@ public interface NodeExtension {
      */
     MemoryStats getMemoryStats();
 
+    /**
+     * Returns the member-wide manager of the native memory used by off-heap
+     * data structures. The manager is owned by this extension, its users must
+     * not dispose it. It is created on the first call, until then the
+     * {@link #getMemoryStats() memory statistics} don't report native memory.
+     *
+     * @return the native memory manager or {@code null} if native memory
+     * cannot be used on this JVM
+     */
+    MemoryManager getNativeMemoryManager();
+
      /**
       * Executed on the master node before allowing a new member to join from
       * {@link com.hazelcast.internal.cluster.impl.ClusterJoinManager#handleJoinRequest(JoinRequest, Connection)}.
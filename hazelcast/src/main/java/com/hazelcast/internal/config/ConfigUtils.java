@@ -23,12 +23,17 @@ import com.hazelcast.config.NamedConfig;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.partition.strategy.StringPartitioningStrategy;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
+import static com.hazelcast.internal.util.StringUtil.splitByComma;
 import static com.hazelcast.partition.strategy.StringPartitioningStrategy.getBaseName;
 import static java.lang.String.format;
 
@@ -59,6 +64,40 @@ public final class ConfigUtils {
         return null;
     }
 
+    /**
+     * Returns {@code true} if the given name is listed by a property holding
+     * a comma separated list of names, either literally or by one of the
+     * name patterns of the list.
+     * <p>
+     * A name which matches several patterns ambiguously is logged and treated
+     * as not listed, so a misconfigured property never fails the creation of
+     * the data structure it applies to.
+     *
+     * @param configPatternMatcher the pattern matcher used for the name patterns
+     * @param properties           the properties holding the list of names
+     * @param namesProperty        the property holding the list of names
+     * @param name                 the name to look up
+     * @return {@code true} if the name is listed, otherwise {@code false}
+     */
+    public static boolean matchesNames(ConfigPatternMatcher configPatternMatcher, HazelcastProperties properties,
+                                       HazelcastProperty namesProperty, String name) {
+        String[] names = splitByComma(properties.getString(namesProperty), false);
+        if (names == null) {
+            return false;
+        }
+        // the pattern matcher only matches names with wildcards
+        List<String> patterns = Arrays.asList(names);
+        if (patterns.contains(name)) {
+            return true;
+        }
+        try {
+            return configPatternMatcher.matches(patterns, name) != null;
+        } catch (InvalidConfigurationException e) {
+            LOGGER.warning("Ignoring " + namesProperty.getName() + " for " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Returns a config for the given name, creating one
      * if necessary and adding it to the collection of known configurations.
@@ -2881,6 +2881,8 @@ public class MemberDomConfigProcessor extends AbstractDomConfigProcessor {
                 raftAlgorithmConfig.setUncommittedEntryCountToRejectNewAppends(Integer.parseInt(value));
             } else if ("append-request-backoff-timeout-in-millis".equals(nodeName)) {
                 raftAlgorithmConfig.setAppendRequestBackoffTimeoutInMillis(Long.parseLong(value));
+            } else if ("append-request-max-inflight-count".equals(nodeName)) {
+                raftAlgorithmConfig.setAppendRequestMaxInflightCount(Integer.parseInt(value));
             }
         }
     }
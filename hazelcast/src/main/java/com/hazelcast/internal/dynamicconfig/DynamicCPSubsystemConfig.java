@@ -129,6 +129,11 @@ class DynamicCPSubsystemConfig extends CPSubsystemConfig {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public RaftAlgorithmConfig setAppendRequestMaxInflightCount(int appendRequestMaxInflightCount) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public RaftAlgorithmConfig setCommitIndexAdvanceCountToSnapshot(int commitIndexAdvanceCountToSnapshot) {
             throw new UnsupportedOperationException();
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A count-min sketch estimating the access frequency of keys with 4-bit
+ * counters, as used by the TinyLFU admission policy.
+ * <p>
+ * Each key is mapped to four counters, one in each of four longs chosen
+ * by different hash functions, and its frequency is the minimum of the
+ * four counters. When the number of increments reaches ten times the width
+ * of the sketch, all counters are halved. This ages the frequencies so that
+ * keys which were popular a long time ago don't stay popular forever.
+ * <p>
+ * The sketch can be updated concurrently. Increments racing with a reset
+ * or a resize may be lost, which only lowers the accuracy of the estimates.
+ */
+final class FrequencySketch {
+
+    static final int MIN_TABLE_SIZE = 64;
+    static final int MAX_TABLE_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Seeds of the four hash functions, taken from FNV-1a, CityHash and
+     * Murmur3.
+     */
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long COUNTER_MASK = 0xfL;
+    private static final int SPREAD_MULTIPLIER = 0x45d9f3b;
+    private static final int HALF_INT_BITS = 16;
+    private static final int HALF_LONG_BITS = 32;
+    private static final int COUNTER_GROUPS_MASK = 3;
+    private static final int COUNTERS_PER_KEY = 4;
+    private static final int COUNTER_BITS_SHIFT = 2;
+    private static final int SAMPLE_SIZE_FACTOR = 10;
+
+    private final AtomicInteger additions = new AtomicInteger();
+    private volatile AtomicLongArray table;
+    private volatile int sampleSize;
+
+    FrequencySketch() {
+        table = new AtomicLongArray(MIN_TABLE_SIZE);
+        sampleSize = SAMPLE_SIZE_FACTOR * MIN_TABLE_SIZE;
+    }
+
+    /**
+     * Grows the sketch so that it can estimate the frequencies of
+     * {@code expectedSize} keys accurately. The frequencies recorded so far
+     * are kept when the sketch grows. The sketch never shrinks.
+     *
+     * @param expectedSize the expected number of distinct keys
+     */
+    void ensureCapacity(long expectedSize) {
+        if (expectedSize <= table.length()) {
+            return;
+        }
+        int tableSize = (int) nextPowerOfTwo(Math.min(Math.max(expectedSize, MIN_TABLE_SIZE), MAX_TABLE_SIZE));
+        if (tableSize <= table.length()) {
+            return;
+        }
+        // the index of a key in the grown table keeps the low bits of its index
+        // in the current table, so copying the current table into each half of
+        // the grown one preserves the counters of all keys
+        AtomicLongArray current = table;
+        AtomicLongArray grown = new AtomicLongArray(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            grown.set(i, current.get(i & (current.length() - 1)));
+        }
+        table = grown;
+        sampleSize = SAMPLE_SIZE_FACTOR * tableSize;
+    }
+
+    /**
+     * Returns the estimated number of accesses to the key with the given
+     * hash, at most 15.
+     */
+    int frequency(int keyHash) {
+        AtomicLongArray table = this.table;
+        int hash = spread(keyHash);
+        int start = (hash & COUNTER_GROUPS_MASK) << COUNTER_BITS_SHIFT;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < COUNTERS_PER_KEY; i++) {
+            int offset = (start + i) << COUNTER_BITS_SHIFT;
+            int count = (int) ((table.get(indexOf(table, hash, i)) >>> offset) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the key with the given hash.
+     */
+    void increment(int keyHash) {
+        AtomicLongArray table = this.table;
+        int hash = spread(keyHash);
+        int start = (hash & COUNTER_GROUPS_MASK) << COUNTER_BITS_SHIFT;
+        boolean added = false;
+        for (int i = 0; i < COUNTERS_PER_KEY; i++) {
+            added |= incrementAt(table, indexOf(table, hash, i), (start + i) << COUNTER_BITS_SHIFT);
+        }
+        if (added && additions.incrementAndGet() == sampleSize) {
+            reset(table);
+        }
+    }
+
+    int tableSize() {
+        return table.length();
+    }
+
+    private static boolean incrementAt(AtomicLongArray table, int index, int offset) {
+        long mask = COUNTER_MASK << offset;
+        for (;;) {
+            long value = table.get(index);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset(AtomicLongArray table) {
+        for (int i = 0; i < table.length(); i++) {
+            long value;
+            do {
+                value = table.get(i);
+            } while (!table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+        }
+        additions.set(sampleSize >>> 1);
+    }
+
+    private static int indexOf(AtomicLongArray table, int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> HALF_LONG_BITS;
+        return ((int) h) & (table.length() - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> HALF_INT_BITS) ^ x) * SPREAD_MULTIPLIER;
+        x = ((x >>> HALF_INT_BITS) ^ x) * SPREAD_MULTIPLIER;
+        return (x >>> HALF_INT_BITS) ^ x;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.serialization.SerializableByConvention;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap.SamplingEntry;
+import com.hazelcast.spi.eviction.EvictableEntryView;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU}
+ * policy based {@link EvictionPolicyComparator}.
+ * <p>
+ * This is an adaptation of the W-TinyLFU policy to the sampling based
+ * eviction:
+ * <ul>
+ * <li>The accesses to the keys of the store are recorded in a
+ * {@link FrequencySketch}, including the accesses to keys which are not or
+ * no longer in the store. This lets a key which was evicted recently keep
+ * its frequency when it comes back.</li>
+ * <li>The entries accessed during the last {@value #WINDOW_PERCENTAGE}% of
+ * the store size accesses form the window. They are only evicted, in LRU
+ * order, when all the sampled entries are in the window. This gives new
+ * entries the time to build up their frequency.</li>
+ * <li>The other entries form the main segment and are evicted in the order
+ * of their estimated frequency, then in LRU order. A new entry which isn't
+ * accessed again while it is in the window is therefore likely to be the
+ * next victim once it leaves the window, which works like the admission
+ * filter of W-TinyLFU.</li>
+ * </ul>
+ * Unlike the other out-of-the-box comparators, this comparator is stateful,
+ * every store has its own instance. The store feeds it by calling
+ * {@link #recordAccess(Object, long)} on reads and writes. The instance of
+ * an IMap is shared by all its partitions, so accesses are recorded
+ * concurrently by the partition threads.
+ */
+@SerializableByConvention
+public class TinyLFUEvictionPolicyComparator
+        implements EvictionPolicyComparator<Object, Object, EvictableEntryView<Object, Object>> {
+
+    /**
+     * Size of the window, as a percentage of the store size.
+     */
+    public static final int WINDOW_PERCENTAGE = 1;
+
+    private static final int PERCENT = 100;
+    private static final int WINDOW_MARK_COUNT = 16;
+
+    private final transient FrequencySketch sketch = new FrequencySketch();
+    private final transient AtomicLong accesses = new AtomicLong();
+    // access times of every windowMarkInterval-th access, a window length apart in total
+    private final transient AtomicLongArray windowMarks = new AtomicLongArray(WINDOW_MARK_COUNT);
+    private transient volatile int windowMarkInterval = 1;
+    private transient volatile long windowStartMillis;
+
+    /**
+     * Records an access to the given key.
+     *
+     * @param key       the key in the form used by the store, which is also
+     *                  returned by {@link EvictionCandidate#getAccessor()} or
+     *                  {@link SamplingEntry#getEntryKey()}
+     * @param storeSize the number of entries in the store, used to size
+     *                  the frequency sketch and the window
+     */
+    public void recordAccess(Object key, long storeSize) {
+        ensureCapacity(storeSize);
+        sketch.increment(key.hashCode());
+
+        long count = accesses.incrementAndGet();
+        int interval = windowMarkInterval;
+        if (count % interval == 0) {
+            // Every mark is swapped atomically, so each access time taken is
+            // returned by exactly one later swap. The threads which swap
+            // different marks may still publish their window starts out of
+            // order. A window start published late is older by at most the
+            // few marks swapped in the meantime, out of WINDOW_MARK_COUNT,
+            // and it is replaced by the next swap. Entries may be treated as
+            // being in the window for a little longer, which is fine for a
+            // sampling-based eviction that is approximate anyway.
+            int mark = (int) ((count / interval) % WINDOW_MARK_COUNT);
+            windowStartMillis = windowMarks.getAndSet(mark, Clock.currentTimeMillis());
+        }
+    }
+
+    private void ensureCapacity(long storeSize) {
+        sketch.ensureCapacity(storeSize);
+        int interval = (int) Math.max(1, storeSize * WINDOW_PERCENTAGE / PERCENT / WINDOW_MARK_COUNT);
+        if (interval != windowMarkInterval) {
+            windowMarkInterval = interval;
+        }
+    }
+
+    @Override
+    public int compare(EvictableEntryView e1, EvictableEntryView e2) {
+        long lastAccess1 = lastAccessTime(e1);
+        long lastAccess2 = lastAccessTime(e2);
+        boolean inWindow1 = lastAccess1 > windowStartMillis;
+        boolean inWindow2 = lastAccess2 > windowStartMillis;
+        if (inWindow1 != inWindow2) {
+            // the entries of the main segment are evicted before the ones in the window
+            return inWindow1 ? 1 : -1;
+        }
+        if (!inWindow1) {
+            int result = Integer.compare(frequency(e1), frequency(e2));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Long.compare(lastAccess1, lastAccess2);
+    }
+
+    int frequency(EvictableEntryView entry) {
+        return sketch.frequency(storeKey(entry).hashCode());
+    }
+
+    private static Object storeKey(EvictableEntryView entry) {
+        if (entry instanceof EvictionCandidate) {
+            return ((EvictionCandidate) entry).getAccessor();
+        }
+        if (entry instanceof SamplingEntry) {
+            return ((SamplingEntry) entry).getEntryKey();
+        }
+        return entry.getKey();
+    }
+
+    FrequencySketch getSketch() {
+        return sketch;
+    }
+
+    private static long lastAccessTime(EvictableEntryView entry) {
+        return Math.max(entry.getLastAccessTime(), entry.getCreationTime());
+    }
+
+    @Override
+    public String toString() {
+        return "TinyLFUEvictionPolicyComparator{" + super.toString() + "} ";
+    }
+}
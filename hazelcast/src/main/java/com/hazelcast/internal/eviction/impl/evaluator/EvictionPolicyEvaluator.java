@@ -19,6 +19,7 @@ package com.hazelcast.internal.eviction.impl.evaluator;
 import com.hazelcast.internal.eviction.Evictable;
 import com.hazelcast.internal.eviction.EvictionCandidate;
 import com.hazelcast.internal.eviction.Expirable;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 
@@ -33,15 +34,31 @@ import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 public class EvictionPolicyEvaluator<A, E extends Evictable> {
 
     private final EvictionPolicyComparator comparator;
+    private final TinyLFUEvictionPolicyComparator frequencyTracker;
 
     public EvictionPolicyEvaluator(EvictionPolicyComparator comparator) {
         this.comparator = comparator;
+        this.frequencyTracker = comparator instanceof TinyLFUEvictionPolicyComparator
+                ? (TinyLFUEvictionPolicyComparator) comparator : null;
     }
 
     public EvictionPolicyComparator getEvictionPolicyComparator() {
         return comparator;
     }
 
+    /**
+     * Records an access to the given key, if the eviction
+     * policy depends on the access history of the keys.
+     *
+     * @param key       the key in the form used by the store
+     * @param storeSize the number of entries in the store
+     */
+    public void recordAccess(Object key, long storeSize) {
+        if (frequencyTracker != null) {
+            frequencyTracker.recordAccess(key, storeSize);
+        }
+    }
+
     /**
      * Selects the best candidate to be evicted.
      * The definition of the best depends on configured
@@ -79,6 +79,11 @@ public class DefaultMemoryStats implements MemoryStats {
         return 0;
     }
 
+    @Override
+    public long getFragmentedNative() {
+        return 0;
+    }
+
     @Override
     public long getMaxMetadata() {
         return 0;
@@ -20,6 +20,7 @@ import com.hazelcast.internal.metrics.Probe;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_COMMITTED_HEAP;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_COMMITTED_NATIVE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_FRAGMENTED_NATIVE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_FREE_HEAP;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_FREE_NATIVE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MEMORY_METRIC_FREE_PHYSICAL;
@@ -135,6 +136,16 @@ public interface MemoryStats {
     @Probe(name = MEMORY_METRIC_FREE_NATIVE, level = MANDATORY, unit = BYTES)
     long getFreeNative();
 
+    /**
+     * Returns the amount of committed native memory in current HazelcastInstance
+     * which does not serve any allocation request, in bytes. This includes pooled
+     * blocks which are free and the padding of blocks rounded up to a size class.
+     *
+     * @return the amount of fragmented native memory in bytes
+     */
+    @Probe(name = MEMORY_METRIC_FRAGMENTED_NATIVE, level = MANDATORY, unit = BYTES)
+    long getFragmentedNative();
+
     /**
      * Returns the amount of native memory reserved for metadata. This memory
      * is separate and not accounted for by the {@code ...NativeMemory} statistics.
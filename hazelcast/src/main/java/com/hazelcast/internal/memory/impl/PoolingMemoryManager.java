@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+import static com.hazelcast.internal.util.QuickMath.isPowerOfTwo;
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static java.lang.Long.numberOfLeadingZeros;
+
+/**
+ * {@link MemoryManager} which serves native memory blocks out of pooled pages
+ * divided into power-of-two size classes.
+ * <p>
+ * Pages are obtained from a system allocator and kept until {@link #dispose()}.
+ * A page is bump-allocated into blocks; freed blocks are pushed onto an intrusive
+ * free list of their size class, the first 8 bytes of a free block holding the
+ * address of the next free block. Requests larger than the largest size class
+ * bypass the pool and go straight to the system allocator.
+ * <p>
+ * Every partition operation thread gets its own arena, so partition threads
+ * allocate and free without contending with each other; all other threads share
+ * one arena. A block freed by a thread other than the one that allocated it joins
+ * a free list of the freeing thread's arena.
+ * <p>
+ * The native memory committed by the manager, pooled pages and large blocks
+ * together, never exceeds the configured capacity: a request which would exceed
+ * it fails with {@link NativeOutOfMemoryError}.
+ * <p>
+ * The manager acts as its own {@link MemoryAllocator} and is thread-safe. It must
+ * not be used once disposed.
+ */
+public final class PoolingMemoryManager implements MemoryManager, MemoryAllocator {
+
+    /**
+     * Size of the smallest size class. Every block is big enough to hold the
+     * free list pointer and blocks carved out of a page stay 16-byte aligned.
+     */
+    public static final int MIN_BLOCK_SIZE = 16;
+
+    /**
+     * Default size of the pages blocks are carved out of.
+     */
+    public static final int DEFAULT_PAGE_SIZE = (int) MEGABYTES.toBytes(1);
+
+    private static final int MIN_BLOCK_SIZE_SHIFT = 4;
+    private static final int PAGE_TO_MAX_BLOCK_SHIFT = 3;
+
+    private final MemoryAllocator systemAllocator;
+    private final MemoryAccessor accessor;
+    private final long capacity;
+    private final int pageSize;
+    private final int maxBlockSize;
+    private final int sizeClassCount;
+    private final Arena sharedArena;
+    private final Arena[] threadArenas;
+    private final Queue<Long> pages = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Long, Long> largeBlocks = new ConcurrentHashMap<>();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+
+    public PoolingMemoryManager(long capacity, int threadArenaCount) {
+        this(new UnsafeMalloc(), MEM, capacity, DEFAULT_PAGE_SIZE, threadArenaCount);
+    }
+
+    public PoolingMemoryManager(MemoryAllocator systemAllocator, MemoryAccessor accessor,
+                                long capacity, int pageSize, int threadArenaCount) {
+        checkPositive(capacity, "capacity must be positive");
+        checkTrue(isPowerOfTwo(pageSize) && pageSize >= MIN_BLOCK_SIZE << PAGE_TO_MAX_BLOCK_SHIFT,
+                "pageSize must be a power of two and at least " + (MIN_BLOCK_SIZE << PAGE_TO_MAX_BLOCK_SHIFT));
+        checkTrue(threadArenaCount >= 0, "threadArenaCount must not be negative");
+        this.systemAllocator = systemAllocator;
+        this.accessor = accessor;
+        this.capacity = capacity;
+        this.pageSize = pageSize;
+        this.maxBlockSize = pageSize >> PAGE_TO_MAX_BLOCK_SHIFT;
+        this.sizeClassCount = sizeClass(maxBlockSize) + 1;
+        this.sharedArena = new Arena();
+        this.threadArenas = new Arena[threadArenaCount];
+        for (int i = 0; i < threadArenaCount; i++) {
+            threadArenas[i] = new Arena();
+        }
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return this;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return accessor;
+    }
+
+    @Override
+    public long allocate(long size) {
+        assert size > 0 : "Invalid allocation size: " + size;
+        if (size > maxBlockSize) {
+            return allocateLarge(size);
+        }
+        int sizeClass = sizeClass(size);
+        long address = arena().allocate(sizeClass);
+        used.addAndGet(blockSize(sizeClass));
+        allocated.addAndGet(size);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        assert address != NULL_ADDRESS : "Cannot reallocate NULL_ADDRESS";
+        if (currentSize <= maxBlockSize && newSize <= maxBlockSize && sizeClass(currentSize) == sizeClass(newSize)) {
+            if (newSize > currentSize) {
+                accessor.setMemory(address + currentSize, newSize - currentSize, (byte) 0);
+            }
+            allocated.addAndGet(newSize - currentSize);
+            return address;
+        }
+        long newAddress = allocate(newSize);
+        accessor.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+        free(address, currentSize);
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        assert address != NULL_ADDRESS : "Cannot free NULL_ADDRESS";
+        if (size > maxBlockSize) {
+            freeLarge(address, size);
+            return;
+        }
+        int sizeClass = sizeClass(size);
+        arena().free(address, sizeClass);
+        used.addAndGet(-blockSize(sizeClass));
+        allocated.addAndGet(-size);
+    }
+
+    /**
+     * Frees all pages and large blocks, including the blocks which were
+     * never freed by their users.
+     */
+    @Override
+    public void dispose() {
+        sharedArena.reset();
+        for (Arena arena : threadArenas) {
+            arena.reset();
+        }
+        Long page;
+        while ((page = pages.poll()) != null) {
+            systemAllocator.free(page, pageSize);
+        }
+        for (Long address : largeBlocks.keySet()) {
+            Long size = largeBlocks.remove(address);
+            if (size != null) {
+                systemAllocator.free(address, size);
+            }
+        }
+        committed.set(0);
+        used.set(0);
+        allocated.set(0);
+        systemAllocator.dispose();
+    }
+
+    /**
+     * @return the maximum amount of native memory this manager commits, in bytes
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the amount of native memory obtained from the system, in bytes
+     */
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    /**
+     * @return the amount of native memory taken by live blocks, rounded up
+     * to their size classes, in bytes
+     */
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * @return the amount of native memory requested by the users of the
+     * live blocks, in bytes
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    /**
+     * Returns the amount of committed native memory which does not serve a
+     * request: blocks waiting on free lists, unused page tails and the
+     * padding added by rounding requests up to their size classes.
+     *
+     * @return the fragmented native memory in bytes
+     */
+    public long getFragmented() {
+        return Math.max(0, committed.get() - allocated.get());
+    }
+
+    private long allocateLarge(long size) {
+        reserve(size);
+        long address;
+        try {
+            address = systemAllocator.allocate(size);
+        } catch (NativeOutOfMemoryError e) {
+            committed.addAndGet(-size);
+            throw e;
+        }
+        largeBlocks.put(address, size);
+        used.addAndGet(size);
+        allocated.addAndGet(size);
+        return address;
+    }
+
+    private void freeLarge(long address, long size) {
+        Long removed = largeBlocks.remove(address);
+        assert removed != null && removed == size : "Unknown block " + address + " of size " + size;
+        systemAllocator.free(address, size);
+        committed.addAndGet(-size);
+        used.addAndGet(-size);
+        allocated.addAndGet(-size);
+    }
+
+    private long allocatePage() {
+        reserve(pageSize);
+        long page;
+        try {
+            page = systemAllocator.allocate(pageSize);
+        } catch (NativeOutOfMemoryError e) {
+            committed.addAndGet(-pageSize);
+            throw e;
+        }
+        pages.offer(page);
+        return page;
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long current = committed.get();
+            long next = current + size;
+            if (next > capacity) {
+                throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory! Committed: "
+                        + current + ", capacity: " + capacity);
+            }
+            if (committed.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private Arena arena() {
+        Thread thread = Thread.currentThread();
+        if (threadArenas.length > 0 && thread instanceof PartitionOperationThread) {
+            int threadId = ((PartitionOperationThread) thread).getThreadId();
+            return threadArenas[threadId % threadArenas.length];
+        }
+        return sharedArena;
+    }
+
+    static int sizeClass(long size) {
+        if (size <= MIN_BLOCK_SIZE) {
+            return 0;
+        }
+        // index of the smallest power of two >= size, relative to MIN_BLOCK_SIZE
+        return Long.SIZE - numberOfLeadingZeros(size - 1) - MIN_BLOCK_SIZE_SHIFT;
+    }
+
+    static int blockSize(int sizeClass) {
+        return MIN_BLOCK_SIZE << sizeClass;
+    }
+
+    /**
+     * Free lists and current page of a group of threads. Access is guarded by
+     * the arena's monitor, which stays uncontended for partition thread arenas.
+     */
+    private final class Arena {
+
+        private final long[] freeLists = new long[sizeClassCount];
+        private long pageCursor = NULL_ADDRESS;
+        private long pageEnd = NULL_ADDRESS;
+
+        synchronized long allocate(int sizeClass) {
+            int blockSize = blockSize(sizeClass);
+            long address = freeLists[sizeClass];
+            if (address != NULL_ADDRESS) {
+                freeLists[sizeClass] = accessor.getLong(address);
+                accessor.setMemory(address, blockSize, (byte) 0);
+                return address;
+            }
+            if (pageEnd - pageCursor < blockSize) {
+                retirePage();
+                long page = allocatePage();
+                pageCursor = page;
+                pageEnd = page + pageSize;
+            }
+            // fresh pages are zeroed by the system allocator
+            address = pageCursor;
+            pageCursor += blockSize;
+            return address;
+        }
+
+        synchronized void free(long address, int sizeClass) {
+            accessor.putLong(address, freeLists[sizeClass]);
+            freeLists[sizeClass] = address;
+        }
+
+        synchronized void reset() {
+            for (int i = 0; i < freeLists.length; i++) {
+                freeLists[i] = NULL_ADDRESS;
+            }
+            pageCursor = NULL_ADDRESS;
+            pageEnd = NULL_ADDRESS;
+        }
+
+        /**
+         * Splits the unused tail of the current page into blocks of the
+         * largest fitting size classes, so it is not lost.
+         */
+        private void retirePage() {
+            for (int sizeClass = sizeClassCount - 1; sizeClass >= 0; sizeClass--) {
+                int blockSize = blockSize(sizeClass);
+                while (pageEnd - pageCursor >= blockSize) {
+                    free(pageCursor, sizeClass);
+                    pageCursor += blockSize;
+                }
+            }
+            pageCursor = NULL_ADDRESS;
+            pageEnd = NULL_ADDRESS;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.DefaultMemoryStats;
+import com.hazelcast.memory.MemorySize;
+
+/**
+ * MemoryStats which reports the native memory of a {@link PoolingMemoryManager}.
+ */
+public class PoolingMemoryStats extends DefaultMemoryStats {
+
+    private final PoolingMemoryManager memoryManager;
+
+    public PoolingMemoryStats(PoolingMemoryManager memoryManager) {
+        this.memoryManager = memoryManager;
+    }
+
+    @Override
+    public long getMaxNative() {
+        return memoryManager.getCapacity();
+    }
+
+    @Override
+    public long getCommittedNative() {
+        return memoryManager.getCommitted();
+    }
+
+    @Override
+    public long getUsedNative() {
+        return memoryManager.getUsed();
+    }
+
+    @Override
+    public long getFreeNative() {
+        return Math.max(0, memoryManager.getCapacity() - memoryManager.getUsed());
+    }
+
+    @Override
+    public long getFragmentedNative() {
+        return memoryManager.getFragmented();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolingMemoryStats{"
+                + "Max Native: " + MemorySize.toPrettyString(getMaxNative())
+                + ", Committed Native: " + MemorySize.toPrettyString(getCommittedNative())
+                + ", Used Native: " + MemorySize.toPrettyString(getUsedNative())
+                + ", Fragmented Native: " + MemorySize.toPrettyString(getFragmentedNative())
+                + ", " + super.toString()
+                + '}';
+    }
+}
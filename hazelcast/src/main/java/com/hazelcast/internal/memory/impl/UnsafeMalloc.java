@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+
+/**
+ * {@link MemoryAllocator} which obtains every block directly from the operating
+ * system through {@link sun.misc.Unsafe#allocateMemory(long)}.
+ * <p>
+ * The allocator is stateless and thread-safe. The memory it returns can be accessed
+ * through {@link com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry#MEM}.
+ */
+public final class UnsafeMalloc implements MemoryAllocator {
+
+    public UnsafeMalloc() {
+        if (!UNSAFE_AVAILABLE) {
+            throw new IllegalStateException(getClass().getName() + " can only be used only when Unsafe is available!");
+        }
+    }
+
+    @Override
+    public long allocate(long size) {
+        assert size > 0 : "Invalid allocation size: " + size;
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory", e);
+        }
+        UNSAFE.setMemory(address, size, (byte) 0);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        assert address != NULL_ADDRESS : "Cannot reallocate NULL_ADDRESS";
+        long newAddress;
+        try {
+            newAddress = UNSAFE.reallocateMemory(address, newSize);
+        } catch (OutOfMemoryError e) {
+            throw new NativeOutOfMemoryError("Cannot reallocate " + currentSize + " bytes to " + newSize
+                    + " bytes of native memory", e);
+        }
+        if (newSize > currentSize) {
+            UNSAFE.setMemory(newAddress + currentSize, newSize - currentSize, (byte) 0);
+        }
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        assert address != NULL_ADDRESS : "Cannot free NULL_ADDRESS";
+        UNSAFE.freeMemory(address);
+    }
+
+    @Override
+    public void dispose() {
+        // nothing to dispose, every block is owned and freed by its user
+    }
+}
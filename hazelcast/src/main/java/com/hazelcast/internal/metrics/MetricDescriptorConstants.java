@@ -105,6 +105,9 @@ public final class MetricDescriptorConstants {
     public static final String CP_METRIC_RAFT_NODE_SNAPSHOT_INDEX = "snapshotIndex";
     public static final String CP_METRIC_RAFT_NODE_LAST_LOG_INDEX = "lastLogIndex";
     public static final String CP_METRIC_RAFT_NODE_AVAILABLE_LOG_CAPACITY = "availableLogCapacity";
+    public static final String CP_METRIC_RAFT_NODE_INFLIGHT_APPEND_REQUESTS = "inflightAppendRequests";
+    public static final String CP_METRIC_RAFT_NODE_APPEND_BATCHES = "appendBatches";
+    public static final String CP_METRIC_RAFT_NODE_APPEND_BATCH_ENTRIES = "appendBatchEntries";
     public static final String CP_METRIC_RAFT_SERVICE_NODES = "nodes";
     public static final String CP_METRIC_RAFT_SERVICE_DESTROYED_GROUP_IDS = "destroyedGroupIds";
     public static final String CP_METRIC_RAFT_SERVICE_TERMINATED_RAFT_NODE_GROUP_IDS = "terminatedRaftNodeGroupIds";
@@ -121,6 +124,15 @@ public final class MetricDescriptorConstants {
     public static final String EVENT_METRIC_EVENT_SERVICE_SYNC_DELIVERY_FAILURE_COUNT = "syncDeliveryFailureCount";
     public static final String EVENT_METRIC_EVENT_SERVICE_EVENT_QUEUE_SIZE = "eventQueueSize";
     public static final String EVENT_METRIC_EVENT_SERVICE_EVENTS_PROCESSED = "eventsProcessed";
+    public static final String EVENT_METRIC_EVENT_SERVICE_BATCHES_SENT = "batchesSent";
+    public static final String EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_SENT = "batchedEventsSent";
+    public static final String EVENT_METRIC_EVENT_SERVICE_BATCHES_RECEIVED = "batchesReceived";
+    public static final String EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_RECEIVED = "batchedEventsReceived";
+    public static final String EVENT_METRIC_EVENT_SERVICE_BATCH_DELIVERY_LATENCY = "batchDeliveryLatency";
+    public static final String EVENT_METRIC_EVENT_SERVICE_STOLEN_STRIPE_COUNT = "stolenStripeCount";
+    public static final String EVENT_METRIC_EVENT_SERVICE_STRIPE_QUEUE_LATENCY = "queueLatency";
+    public static final String EVENT_DISCRIMINATOR_STRIPE = "stripe";
+    public static final String EVENT_TAG_UPPER_BOUND_MICROS = "upperBoundMicros";
     public static final String EVENT_METRIC_EVENT_SERVICE_SEGMENT_LISTENER_COUNT = "listenerCount";
     public static final String EVENT_METRIC_EVENT_SERVICE_SEGMENT_PUBLICATION_COUNT = "publicationCount";
     // ===[/EVENT]======================================================
@@ -191,6 +203,7 @@ public final class MetricDescriptorConstants {
     public static final String MAP_PREFIX = "map";
     public static final String MAP_PREFIX_INDEX = "map.index";
     public static final String MAP_PREFIX_NEARCACHE = "map.nearcache";
+    public static final String MAP_PREFIX_EXPIRATION = "map.expiration";
     public static final String MAP_DISCRIMINATOR_NAME = "name";
     public static final String MAP_TAG_INDEX = "index";
     public static final String MAP_METRIC_LAST_ACCESS_TIME = "lastAccessTime";
@@ -222,6 +235,8 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_TOTAL_MAX_SET_LATENCY = "totalMaxSetLatency";
     public static final String MAP_METRIC_TOTAL_MAX_GET_LATENCY = "totalMaxGetLatency";
     public static final String MAP_METRIC_TOTAL_MAX_REMOVE_LATENCY = "totalMaxRemoveLatency";
+    public static final String MAP_METRIC_EXPIRATION_EXPIRED_COUNT = "expiredCount";
+    public static final String MAP_METRIC_EXPIRATION_TOTAL_EXPIRY_LAG = "totalExpiryLag";
     public static final String MAP_METRIC_INDEX_CREATION_TIME = "creationTime";
     public static final String MAP_METRIC_INDEX_QUERY_COUNT = "queryCount";
     public static final String MAP_METRIC_INDEX_HIT_COUNT = "hitCount";
@@ -248,6 +263,7 @@ public final class MetricDescriptorConstants {
     public static final String MEMORY_METRIC_COMMITTED_NATIVE = "committedNative";
     public static final String MEMORY_METRIC_USED_NATIVE = "usedNative";
     public static final String MEMORY_METRIC_FREE_NATIVE = "freeNative";
+    public static final String MEMORY_METRIC_FRAGMENTED_NATIVE = "fragmentedNative";
     public static final String MEMORY_METRIC_MAX_METADATA = "maxMetadata";
     public static final String MEMORY_METRIC_USED_METADATA = "usedMetadata";
     // ===[/MEMORY]=====================================================
@@ -269,6 +285,9 @@ public final class MetricDescriptorConstants {
     public static final String MIGRATION_METRIC_TOTAL_ELAPSED_MIGRATION_OPERATION_TIME = "totalElapsedMigrationOperationTime";
     public static final String MIGRATION_METRIC_TOTAL_ELAPSED_DESTINATION_COMMIT_TIME = "totalElapsedDestinationCommitTime";
     public static final String MIGRATION_METRIC_TOTAL_ELAPSED_MIGRATION_TIME = "totalElapsedMigrationTime";
+    public static final String MIGRATION_METRIC_MIGRATION_CHUNK_SIZE = "migrationChunkSize";
+    public static final String MIGRATION_METRIC_MAX_IN_FLIGHT_MIGRATION_CHUNKS = "maxInFlightMigrationChunks";
+    public static final String MIGRATION_METRIC_TOTAL_SENT_MIGRATION_CHUNKS = "totalSentMigrationChunks";
     // ===[/MIGRATION]==================================================
 
     // ===[MULTIMAP]====================================================
@@ -313,6 +332,8 @@ public final class MetricDescriptorConstants {
             "priorityWriteQueuePendingBytes";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS = "idleTimeMillis";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED = "scheduled";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITES = "writes";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE = "framesPerWrite";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT = "processCount";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_OWNER_ID = "ownerId";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_STARTED_MIGRATIONS = "startedMigrations";
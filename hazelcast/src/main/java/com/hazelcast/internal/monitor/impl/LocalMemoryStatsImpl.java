@@ -25,6 +25,7 @@ import com.hazelcast.json.internal.JsonSerializable;
 import static com.hazelcast.internal.util.JsonUtil.getLong;
 import static com.hazelcast.internal.util.JsonUtil.getObject;
 
+@SuppressWarnings("checkstyle:methodcount")
 public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable {
 
     public static final String JSON_CREATION_TIME = "creationTime";
@@ -34,6 +35,7 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
     public static final String JSON_COMMITTED_NATIVE_MEMORY = "committedNativeMemory";
     public static final String JSON_USED_NATIVE_MEMORY = "usedNativeMemory";
     public static final String JSON_FREE_NATIVE_MEMORY = "freeNativeMemory";
+    public static final String JSON_FRAGMENTED_NATIVE_MEMORY = "fragmentedNativeMemory";
     public static final String JSON_MAX_HEAP = "maxHeap";
     public static final String JSON_COMMITTED_HEAP = "committedHeap";
     public static final String JSON_USED_HEAP = "usedHeap";
@@ -53,6 +55,8 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
 
     private long freeNativeMemory;
 
+    private long fragmentedNativeMemory;
+
     private long maxMetadata;
 
     private long usedMetadata;
@@ -75,6 +79,7 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
         setCommittedNativeMemory(memoryStats.getCommittedNative());
         setUsedNativeMemory(memoryStats.getUsedNative());
         setFreeNativeMemory(memoryStats.getFreeNative());
+        setFragmentedNativeMemory(memoryStats.getFragmentedNative());
         setMaxMetadata(memoryStats.getMaxMetadata());
         setUsedMetadata(memoryStats.getUsedMetadata());
         setMaxHeap(memoryStats.getMaxHeap());
@@ -137,6 +142,15 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
         this.freeNativeMemory = freeNativeMemory;
     }
 
+    @Override
+    public long getFragmentedNative() {
+        return fragmentedNativeMemory;
+    }
+
+    public void setFragmentedNativeMemory(long fragmentedNativeMemory) {
+        this.fragmentedNativeMemory = fragmentedNativeMemory;
+    }
+
     @Override
     public long getMaxMetadata() {
         return maxMetadata;
@@ -211,6 +225,7 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
         root.add(JSON_COMMITTED_NATIVE_MEMORY, committedNativeMemory);
         root.add(JSON_USED_NATIVE_MEMORY, usedNativeMemory);
         root.add(JSON_FREE_NATIVE_MEMORY, freeNativeMemory);
+        root.add(JSON_FRAGMENTED_NATIVE_MEMORY, fragmentedNativeMemory);
         root.add(JSON_MAX_HEAP, maxHeap);
         root.add(JSON_COMMITTED_HEAP, committedHeap);
         root.add(JSON_USED_HEAP, usedHeap);
@@ -230,6 +245,7 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
         committedNativeMemory = getLong(json, JSON_COMMITTED_NATIVE_MEMORY, -1L);
         usedNativeMemory = getLong(json, JSON_USED_NATIVE_MEMORY, -1L);
         freeNativeMemory = getLong(json, JSON_FREE_NATIVE_MEMORY, -1L);
+        fragmentedNativeMemory = getLong(json, JSON_FRAGMENTED_NATIVE_MEMORY, -1L);
         maxHeap = getLong(json, JSON_MAX_HEAP, -1L);
         committedHeap = getLong(json, JSON_COMMITTED_HEAP, -1L);
         usedHeap = getLong(json, JSON_USED_HEAP, -1L);
@@ -247,6 +263,7 @@ public class LocalMemoryStatsImpl implements LocalMemoryStats, JsonSerializable
                 + ", maxNativeMemory=" + maxNativeMemory
                 + ", committedNativeMemory=" + committedNativeMemory
                 + ", usedNativeMemory=" + usedNativeMemory
+                + ", fragmentedNativeMemory=" + fragmentedNativeMemory
                 + ", maxMetadata=" + maxMetadata
                 + ", usedUsedMetadata=" + usedMetadata
                 + ", maxHeap=" + maxHeap
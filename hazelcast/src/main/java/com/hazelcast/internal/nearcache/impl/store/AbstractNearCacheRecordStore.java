@@ -225,6 +225,9 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         R record = null;
         V value = null;
         try {
+            if (evictionPolicyEvaluator != null) {
+                evictionPolicyEvaluator.recordAccess(key, records.size());
+            }
             record = getRecord(key);
 
             if (record == null) {
@@ -120,6 +120,8 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     private volatile ExecutorService closeListenerExecutor;
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
+    private final int writeFlushThresholdBytes;
+    private final long writeFlushDelayNanos;
     private volatile IOBalancer ioBalancer;
     private volatile NioThread[] inputThreads;
     private volatile NioThread[] outputThreads;
@@ -156,6 +158,8 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         // disabled with SELECT_WITH_FIX.
         this.writeThroughEnabled = ctx.writeThroughEnabled && selectorMode != SELECT_WITH_FIX;
         this.selectionKeyWakeupEnabled = ctx.selectionKeyWakeupEnabled && selectorMode != SELECT_WITH_FIX;
+        this.writeFlushThresholdBytes = ctx.writeFlushThresholdBytes;
+        this.writeFlushDelayNanos = ctx.writeFlushDelayNanos;
         if (selectorMode == SELECT_WITH_FIX
                 && (ctx.writeThroughEnabled || ctx.selectionKeyWakeupEnabled)) {
             logger.warning("Selector mode SELECT_WITH_FIX is incompatible with write-through and selection key wakeup "
@@ -332,7 +336,9 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                 ioBalancer,
                 concurrencyDetection,
                 writeThroughEnabled,
-                selectionKeyWakeupEnabled);
+                selectionKeyWakeupEnabled,
+                writeFlushThresholdBytes,
+                writeFlushDelayNanos);
     }
 
     private NioInboundPipeline newInboundPipeline(NioChannel channel) {
@@ -499,6 +505,11 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         // this is an optimization that can speed up low threaded setups
         private boolean writeThroughEnabled;
 
+        // the frames written to a channel are held back for at most the flush delay
+        // while less than the flush threshold are pending, so they get written together
+        private int writeFlushThresholdBytes;
+        private long writeFlushDelayNanos;
+
         public Context() {
             String selectorModeString = SelectorMode.getConfiguredString();
             if (selectorModeString.startsWith(SELECT_NOW_STRING + ",")) {
@@ -516,6 +527,16 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             return this;
         }
 
+        public Context writeFlushThresholdBytes(int writeFlushThresholdBytes) {
+            this.writeFlushThresholdBytes = writeFlushThresholdBytes;
+            return this;
+        }
+
+        public Context writeFlushDelayNanos(long writeFlushDelayNanos) {
+            this.writeFlushDelayNanos = writeFlushDelayNanos;
+            return this;
+        }
+
         public Context concurrencyDetection(ConcurrencyDetection concurrencyDetection) {
             this.concurrencyDetection = concurrencyDetection;
             return this;
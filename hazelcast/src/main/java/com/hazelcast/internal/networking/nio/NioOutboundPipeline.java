@@ -33,10 +33,12 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN;
@@ -45,6 +47,7 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITES;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
@@ -56,6 +59,7 @@ import static com.hazelcast.internal.util.collection.ArrayUtils.replaceFirst;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
 import static java.nio.channels.SelectionKey.OP_WRITE;
 
@@ -112,6 +116,8 @@ public final class NioOutboundPipeline
 
     private OutboundHandler[] handlers = new OutboundHandler[0];
     private ByteBuffer sendBuffer;
+    // set instead of the sendBuffer if the last handler produces buffers for a gathering write
+    private ByteBuffer[] sendBuffers;
 
     private final AtomicReference<State> scheduled = new AtomicReference<>(State.SCHEDULED);
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN, unit = BYTES)
@@ -120,6 +126,8 @@ public final class NioOutboundPipeline
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN)
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITES)
+    private final SwCounter writes = newSwCounter();
 
     private volatile long lastWriteTime;
 
@@ -130,6 +138,7 @@ public final class NioOutboundPipeline
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final boolean selectionKeyWakeupEnabled;
+    private final FlushDelay flushDelay;
 
     NioOutboundPipeline(NioChannel channel,
                         NioThread owner,
@@ -138,11 +147,14 @@ public final class NioOutboundPipeline
                         IOBalancer balancer,
                         ConcurrencyDetection concurrencyDetection,
                         boolean writeThroughEnabled,
-                        boolean selectionKeyWakeupEnabled) {
+                        boolean selectionKeyWakeupEnabled,
+                        int flushThresholdBytes,
+                        long flushDelayNanos) {
         super(channel, owner, errorHandler, OP_WRITE, logger, balancer);
         this.concurrencyDetection = concurrencyDetection;
         this.writeThroughEnabled = writeThroughEnabled;
         this.selectionKeyWakeupEnabled = selectionKeyWakeupEnabled;
+        this.flushDelay = new FlushDelay(flushThresholdBytes, flushDelayNanos);
     }
 
     @Override
@@ -195,6 +207,12 @@ public final class NioOutboundPipeline
         return scheduled.get().ordinal();
     }
 
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE, level = DEBUG)
+    private double framesPerWrite() {
+        long writeCount = writes.get();
+        return writeCount == 0 ? 0 : (double) (normalFramesWritten.get() + priorityFramesWritten.get()) / writeCount;
+    }
+
     public void write(OutboundFrame frame) {
         if (frame.isUrgent()) {
             priorityWriteQueue.offer(frame);
@@ -216,6 +234,8 @@ public final class NioOutboundPipeline
                 return;
             } else if (state == State.SCHEDULED || state == State.RESCHEDULE) {
                 // already scheduled, so we are done
+                // the new frame may complete the flush threshold, so don't wait for the flush delay to pass
+                flushDelay.run();
                 if (writeThroughEnabled) {
                     concurrencyDetection.onDetected();
                 }
@@ -258,6 +278,8 @@ public final class NioOutboundPipeline
                   if (scheduled.compareAndSet(prevState, State.RESCHEDULE)) {
                     if (prevState == State.UNSCHEDULED || prevState == State.BLOCKED) {
                         ownerAddTaskAndWakeup(this);
+                    } else {
+                        flushDelay.run();
                     }
                     break;
                 }
@@ -307,7 +329,7 @@ public final class NioOutboundPipeline
             }
         }
 
-        flushToSocket();
+        boolean flushed = flushToSocket(pipelineStatus == CLEAN);
 
         if (migrationRequested()) {
             startMigration();
@@ -316,7 +338,12 @@ public final class NioOutboundPipeline
             return;
         }
 
-        if (sendBuffer.remaining() > 0) {
+        if (!flushed) {
+            postProcessHeldBack();
+            return;
+        }
+
+        if (bytesUnflushed() > 0) {
             pipelineStatus = DIRTY;
         }
 
@@ -378,6 +405,21 @@ public final class NioOutboundPipeline
         }
     }
 
+    private void postProcessHeldBack() throws IOException {
+        // the socket is writable, so an OP_WRITE would make the NioThread spin until the flush delay has passed.
+        // Instead the pipeline stays scheduled and is processed again at the end of the delay.
+        unregisterOp(OP_WRITE);
+
+        if (scheduled.get() == State.RESCHEDULE) {
+            // the current thread is still owner of the pipeline, so it can just reprocess it.
+            scheduled.set(State.SCHEDULED);
+            ownerAddTaskAndWakeup(this);
+            return;
+        }
+
+        flushDelay.await();
+    }
+
     private void postProcessClean() throws IOException {
         // There is nothing left to be done; so lets unschedule this pipeline
         // since everything is written, we are not interested anymore in write-events, so lets unsubscribe
@@ -420,11 +462,32 @@ public final class NioOutboundPipeline
         }
     }
 
-    private void flushToSocket() throws IOException {
+    // returns false if the unflushed bytes are held back
+    private boolean flushToSocket(boolean drained) throws IOException {
+        long unflushed = bytesUnflushed();
+        if (drained && flushDelay.holdBack(unflushed)) {
+            return false;
+        }
+
         lastWriteTime = currentTimeMillis();
-        int written = socketChannel.write(sendBuffer);
+        long written = sendBuffers == null ? socketChannel.write(sendBuffer) : socketChannel.write(sendBuffers);
+        if (unflushed > 0) {
+            writes.inc();
+        }
         bytesWritten.inc(written);
         //System.out.println(channel + " bytes written:" + written);
+        return true;
+    }
+
+    private long bytesUnflushed() {
+        if (sendBuffers == null) {
+            return sendBuffer.remaining();
+        }
+        long unflushed = 0;
+        for (ByteBuffer buffer : sendBuffers) {
+            unflushed += buffer.remaining();
+        }
+        return unflushed;
     }
 
     void drainWriteQueues() {
@@ -498,7 +561,9 @@ public final class NioOutboundPipeline
 
     private void updatePipeline(OutboundHandler[] newHandlers) {
         this.handlers = newHandlers;
-        this.sendBuffer = newHandlers.length == 0 ? null : (ByteBuffer) newHandlers[newHandlers.length - 1].dst();
+        Object dst = newHandlers.length == 0 ? null : newHandlers[newHandlers.length - 1].dst();
+        this.sendBuffer = dst instanceof ByteBuffer[] ? null : (ByteBuffer) dst;
+        this.sendBuffers = dst instanceof ByteBuffer[] ? (ByteBuffer[]) dst : null;
 
         OutboundHandler prev = null;
         for (OutboundHandler handler : handlers) {
@@ -527,4 +592,78 @@ public final class NioOutboundPipeline
         sb.append(']');
         return sb.toString();
     }
+
+    /**
+     * Holds back the bytes of a drained pipeline for the flush delay and
+     * processes the pipeline again when they have to be flushed.
+     */
+    private final class FlushDelay implements Runnable {
+        private final int thresholdBytes;
+        private final long delayNanos;
+        // true while the pipeline waits for the flush delay to pass or for
+        // a new write; whoever resets it processes the pipeline again
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        // the delayed task of the owner; it is pending until the deadline passed
+        private final Runnable deadlineTask = this::deadlinePassed;
+        // true while the deadline task is pending, so the owner holds at most
+        // one of them however often the bytes are held back until the deadline
+        private volatile boolean scheduled;
+        // the time the pending bytes got held back first; -1 if they aren't held back
+        private long startNanos = -1;
+
+        FlushDelay(int thresholdBytes, long delayNanos) {
+            this.thresholdBytes = thresholdBytes;
+            this.delayNanos = delayNanos;
+        }
+
+        /**
+         * Checks if the unflushed bytes should be held back, so the frames
+         * written in the meantime are flushed together with them. They are held
+         * back while there are less of them than the flush threshold, but no
+         * longer than the flush delay. Meanwhile the pipeline isn't interested in
+         * OP_WRITE; it is processed again by the next write or once the flush
+         * delay has passed.
+         */
+        boolean holdBack(long unflushed) {
+            if (delayNanos == 0 || unflushed == 0 || unflushed >= thresholdBytes) {
+                startNanos = -1;
+                return false;
+            }
+
+            long now = nanoTime();
+            if (startNanos == -1) {
+                startNanos = now;
+                return true;
+            } else if (now - startNanos < delayNanos) {
+                return true;
+            }
+            startNanos = -1;
+            return false;
+        }
+
+        void await() {
+            long deadlineNanos = startNanos + delayNanos;
+            boolean schedule = !scheduled;
+            scheduled = true;
+            // from here on a write may process the pipeline again, so no pipeline state is touched afterwards
+            waiting.set(true);
+            if (schedule) {
+                // a pending task of an earlier deadline processes the pipeline early, which then awaits again
+                owner.addDelayedTask(deadlineTask, deadlineNanos);
+            }
+        }
+
+        private void deadlinePassed() {
+            scheduled = false;
+            run();
+        }
+
+        // processes the pipeline again, unless a write, a wakeup or the delayed task already did
+        @Override
+        public void run() {
+            if (waiting.get() && waiting.compareAndSet(true, false)) {
+                ownerAddTaskAndWakeup(NioOutboundPipeline.this);
+            }
+        }
+    }
 }
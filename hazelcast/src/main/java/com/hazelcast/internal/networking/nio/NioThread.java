@@ -30,6 +30,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.Iterator;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -51,9 +52,13 @@ import static com.hazelcast.internal.metrics.ProbeUnit.MS;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW;
 import static com.hazelcast.internal.networking.nio.SelectorOptimizer.newSelector;
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @ExcludedMetricTargets(MANAGEMENT_CENTER)
 public class NioThread extends Thread implements OperationHostileThread {
@@ -97,6 +102,8 @@ public class NioThread extends Thread implements OperationHostileThread {
     // count number of times the selector was rebuilt (if selectWorkaround is enabled)
     @Probe(name = NETWORKING_METRIC_NIO_THREAD_SELECTOR_REBUILD_COUNT)
     private final SwCounter selectorRebuildCount = newSwCounter();
+    // tasks waiting for their deadline, ordered by deadline; only accessed by this thread
+    private final Queue<DelayedTask> delayedTasks = new PriorityQueue<>();
 
     private final ILogger logger;
 
@@ -225,6 +232,28 @@ public class NioThread extends Thread implements OperationHostileThread {
         }
     }
 
+    /**
+     * Adds a task to be executed by the NioThread once the given deadline has
+     * passed. The selector never blocks beyond the earliest pending deadline,
+     * but since it waits with millisecond granularity, the task can run up to
+     * a millisecond late.
+     * <p>
+     * Can be called from any thread.
+     *
+     * @param task          the task to add
+     * @param deadlineNanos the {@link System#nanoTime()} after which the task is executed
+     * @throws NullPointerException if task is null
+     */
+    public void addDelayedTask(Runnable task, long deadlineNanos) {
+        checkNotNull(task, "task can't be null");
+        DelayedTask delayedTask = new DelayedTask(task, deadlineNanos);
+        if (currentThread() == this) {
+            delayedTasks.add(delayedTask);
+        } else {
+            addTaskAndWakeup(() -> delayedTasks.add(delayedTask));
+        }
+    }
+
     @Override
     public void run() {
         // This outer loop is a bit complex but it takes care of a lot of stuff:
@@ -288,7 +317,7 @@ public class NioThread extends Thread implements OperationHostileThread {
         while (!stop) {
             processTaskQueue();
 
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select(selectTimeoutMillis());
             if (selectedKeys > 0) {
                 processSelectionKeys();
             }
@@ -300,8 +329,9 @@ public class NioThread extends Thread implements OperationHostileThread {
         while (!stop) {
             processTaskQueue();
 
+            long selectTimeout = selectTimeoutMillis();
             long before = currentTimeMillis();
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select(selectTimeout);
             if (selectedKeys > 0) {
                 idleCount = 0;
                 processSelectionKeys();
@@ -310,7 +340,7 @@ public class NioThread extends Thread implements OperationHostileThread {
             } else {
                 // no keys were selected, not interrupted by wakeup therefore we hit an issue with JDK/network stack
                 long selectTimeTaken = currentTimeMillis() - before;
-                idleCount = selectTimeTaken < SELECT_WAIT_TIME_MILLIS ? idleCount + 1 : 0;
+                idleCount = selectTimeTaken < selectTimeout ? idleCount + 1 : 0;
 
                 if (selectorBugDetected(idleCount)) {
                     rebuildSelector();
@@ -355,9 +385,43 @@ public class NioThread extends Thread implements OperationHostileThread {
             completedTaskCount.inc();
             tasksProcessed = true;
         }
+        return processDelayedTasks() || tasksProcessed;
+    }
+
+    private boolean processDelayedTasks() {
+        boolean tasksProcessed = false;
+        long now = nanoTime();
+        while (!stop) {
+            DelayedTask delayedTask = delayedTasks.peek();
+            if (delayedTask == null || delayedTask.deadlineNanos - now > 0) {
+                break;
+            }
+            delayedTasks.poll();
+            delayedTask.task.run();
+            completedTaskCount.inc();
+            tasksProcessed = true;
+        }
         return tasksProcessed;
     }
 
+    // the time the selector may block without missing the deadline of a delayed task; 0 means it must not block
+    private long selectTimeoutMillis() {
+        DelayedTask delayedTask = delayedTasks.peek();
+        if (delayedTask == null) {
+            return SELECT_WAIT_TIME_MILLIS;
+        }
+        long remainingNanos = delayedTask.deadlineNanos - nanoTime();
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        // round up, the selector can't wait for less than a millisecond
+        return min(SELECT_WAIT_TIME_MILLIS, NANOSECONDS.toMillis(remainingNanos) + 1);
+    }
+
+    private int select(long timeoutMillis) throws IOException {
+        return timeoutMillis == 0 ? selector.selectNow() : selector.select(timeoutMillis);
+    }
+
     private void processSelectionKeys() {
         lastSelectTimeMs = currentTimeMillis();
         Iterator<SelectionKey> it = selector.selectedKeys().iterator();
@@ -437,4 +501,20 @@ public class NioThread extends Thread implements OperationHostileThread {
     public String toString() {
         return getName();
     }
+
+    private static final class DelayedTask implements Comparable<DelayedTask> {
+        private final Runnable task;
+        private final long deadlineNanos;
+
+        DelayedTask(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public int compareTo(DelayedTask that) {
+            // nanoTime values can only be compared by their difference
+            return Long.signum(deadlineNanos - that.deadlineNanos);
+        }
+    }
 }
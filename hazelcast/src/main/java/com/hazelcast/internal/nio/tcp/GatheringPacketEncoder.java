@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.internal.nio.Packet;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static com.hazelcast.internal.networking.ChannelOption.DIRECT_BUF;
+import static com.hazelcast.internal.networking.ChannelOption.SO_SNDBUF;
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.IOUtil.newByteBuffer;
+import static com.hazelcast.internal.nio.Packet.VERSION;
+import static com.hazelcast.internal.nio.PacketIOHelper.HEADER_SIZE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A {@link OutboundHandler} for member to member communication that
+ * encodes {@link Packet} instances into an array of buffers, so the
+ * pipeline can write all of them with a single gathering write.
+ *
+ * The frames are copied into a small pool of buffers which together have
+ * the size of the socket send buffer. The payload of a large packet isn't
+ * copied at all: its header goes into a pooled buffer and the payload is
+ * wrapped into a buffer of its own.
+ *
+ * A packet is only encoded if it fits completely, so unlike the
+ * {@link PacketEncoder} there is no partially encoded packet to track.
+ *
+ * The dst buffers are in reading mode; the unused slots contain an empty
+ * buffer. Since this handler doesn't produce a single ByteBuffer, it must
+ * be the last handler of the pipeline.
+ *
+ * @see PacketEncoder
+ */
+public class GatheringPacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer[]> {
+
+    static final int BUFFER_COUNT = 8;
+    static final int SLOT_COUNT = 2 * BUFFER_COUNT;
+
+    private static final int MIN_BUFFER_SIZE = 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>(BUFFER_COUNT);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    // tells for each slot if it contains a wrapped payload instead of a pooled buffer
+    private final boolean[] wrapped = new boolean[SLOT_COUNT];
+    private int bufferSize;
+    private int used;
+    private Packet packet;
+
+    @Override
+    public void handlerAdded() {
+        int sendBufferSize = channel.options().getOption(SO_SNDBUF);
+        initDstBuffers(max(sendBufferSize / BUFFER_COUNT, MIN_BUFFER_SIZE), channel.options().getOption(DIRECT_BUF));
+    }
+
+    void initDstBuffers(int bufferSize, boolean direct) {
+        this.bufferSize = bufferSize;
+        for (int k = 0; k < BUFFER_COUNT; k++) {
+            pool.add(newByteBuffer(bufferSize, direct));
+        }
+        dst = new ByteBuffer[SLOT_COUNT];
+        Arrays.fill(dst, EMPTY);
+    }
+
+    @Override
+    public HandlerStatus onWrite() {
+        recycle();
+        for (; ; ) {
+            if (packet == null) {
+                packet = src.get();
+
+                if (packet == null) {
+                    // everything is processed, so we are done
+                    return CLEAN;
+                }
+            }
+
+            if (encode(packet)) {
+                packet = null;
+            } else {
+                // the packet doesn't fit, it is encoded once the buffers got written
+                return DIRTY;
+            }
+        }
+    }
+
+    /**
+     * Releases the slots written to the socket and moves the remaining ones
+     * to the front. The slots are written in order, so only the leading ones
+     * can be fully written.
+     */
+    private void recycle() {
+        int written = 0;
+        while (written < used && !dst[written].hasRemaining()) {
+            if (!wrapped[written]) {
+                pool.add(dst[written]);
+            }
+            written++;
+        }
+
+        if (written > 0) {
+            int remaining = used - written;
+            System.arraycopy(dst, written, dst, 0, remaining);
+            System.arraycopy(wrapped, written, wrapped, 0, remaining);
+            Arrays.fill(dst, remaining, used, EMPTY);
+            Arrays.fill(wrapped, remaining, used, false);
+            used = remaining;
+        }
+    }
+
+    private boolean encode(Packet packet) {
+        int size = packet.totalSize();
+        boolean wrap = size >= bufferSize / 2;
+        int copied = wrap ? HEADER_SIZE : HEADER_SIZE + size;
+
+        int tailRemaining = tailRemaining();
+        int newBuffers = tailRemaining >= copied ? 0 : (copied - tailRemaining + bufferSize - 1) / bufferSize;
+        if (newBuffers > pool.size() || newBuffers + (wrap ? 1 : 0) > SLOT_COUNT - used) {
+            return false;
+        }
+
+        if (newBuffers == 0) {
+            // the common case, the frame fits behind the limit of the tail buffer
+            ByteBuffer tail = dst[used - 1];
+            int position = tail.position();
+            int limit = tail.limit();
+            tail.limit(limit + copied);
+            tail.position(limit);
+            putHeader(tail, packet, size);
+            if (!wrap && size > 0) {
+                tail.put(packet.toByteArray(), 0, size);
+            }
+            tail.position(position);
+        } else {
+            header.clear();
+            putHeader(header, packet, size);
+            append(header.array(), HEADER_SIZE);
+            if (!wrap && size > 0) {
+                append(packet.toByteArray(), size);
+            }
+        }
+
+        if (wrap) {
+            dst[used] = ByteBuffer.wrap(packet.toByteArray());
+            wrapped[used] = true;
+            used++;
+        }
+        return true;
+    }
+
+    private static void putHeader(ByteBuffer buffer, Packet packet, int size) {
+        buffer.put(VERSION);
+        buffer.putChar(packet.getFlags());
+        buffer.putInt(packet.getPartitionId());
+        buffer.putInt(size);
+    }
+
+    private int tailRemaining() {
+        if (used == 0 || wrapped[used - 1]) {
+            return 0;
+        }
+        ByteBuffer tail = dst[used - 1];
+        return tail.capacity() - tail.limit();
+    }
+
+    /**
+     * Appends the bytes behind the limit of the tail buffer, continuing
+     * with buffers taken from the pool when the tail is full.
+     */
+    private void append(byte[] bytes, int length) {
+        int offset = 0;
+        while (offset < length) {
+            if (tailRemaining() == 0) {
+                ByteBuffer buffer = pool.poll();
+                buffer.clear();
+                buffer.flip();
+                dst[used++] = buffer;
+            }
+
+            ByteBuffer tail = dst[used - 1];
+            int position = tail.position();
+            int limit = tail.limit();
+            int count = min(length - offset, tail.capacity() - limit);
+            tail.limit(limit + count);
+            tail.position(limit);
+            tail.put(bytes, offset, count);
+            tail.position(position);
+            offset += count;
+        }
+    }
+}
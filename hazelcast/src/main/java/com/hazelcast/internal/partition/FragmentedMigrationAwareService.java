@@ -22,6 +22,7 @@ import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.properties.ClusterProperty;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * {@code FragmentedMigrationAwareService} is an extension to the {@link MigrationAwareService} which allows
@@ -81,4 +82,48 @@ public interface FragmentedMigrationAwareService extends MigrationAwareService {
      */
     Operation prepareReplicationOperation(PartitionReplicationEvent event, Collection<ServiceNamespace> namespaces);
 
+    /**
+     * Returns the digest of the local replica fragment of the given namespace, which lets the partition owner
+     * replicate only the entries that differ from it.
+     * <p>
+     * This method will be called on the partition thread of the member which is about to receive a partition
+     * replica, if it already holds a replica fragment of the namespace. The digest is passed to
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, Collection)} on the source member with
+     * {@link PartitionReplicationEvent#getReplicaDigest(ServiceNamespace)}.
+     * <p>
+     * Returning null is allowed and means the whole replica fragment will be replicated.
+     * Delta replication can be enabled/disabled using configuration property
+     * {@link ClusterProperty#PARTITION_DELTA_REPLICATION_ENABLED}.
+     *
+     * @param event     replication event of the replica to be received
+     * @param namespace replica fragment namespace
+     * @return digest of the local replica fragment or null
+     */
+    default ReplicaDigest createReplicaDigest(PartitionReplicationEvent event, ServiceNamespace namespace) {
+        return null;
+    }
+
+    /**
+     * Returns the operations to replicate the replica fragment of the given namespace in chunks of at most
+     * about the given size. The operations are executed on the destination member in the iteration order.
+     * The first one replaces the replica fragment there, the following ones add to it.
+     * <p>
+     * The iterator is advanced on the partition thread of the source member, one chunk after another while
+     * the previous chunks are being transferred, so it must not create the whole replica fragment upfront.
+     * Chunked migration can be enabled/disabled using configuration property
+     * {@link ClusterProperty#PARTITION_CHUNKED_MIGRATION_ENABLED}.
+     * <p>
+     * Returning null is allowed and means the replica fragment will be replicated with
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, Collection)}.
+     *
+     * @param event               replication event
+     * @param namespace           replica fragment namespace to replicate
+     * @param maxChunkSizeInBytes approximate maximum size of a chunk
+     * @return iterator of the replication operations or null
+     */
+    default Iterator<Operation> prepareChunkedReplicationOperations(PartitionReplicationEvent event,
+                                                                    ServiceNamespace namespace,
+                                                                    long maxChunkSizeInBytes) {
+        return null;
+    }
 }
@@ -16,6 +16,12 @@
 
 package com.hazelcast.internal.partition;
 
+import com.hazelcast.internal.services.ServiceNamespace;
+
+import java.util.Collection;
+
+import static java.util.Collections.emptySet;
+
 /**
  * An event send to {@link MigrationAwareService} when partition changes happen.
  */
@@ -25,6 +31,8 @@ public class PartitionReplicationEvent {
 
     private final int replicaIndex;
 
+    private final ReplicaDigests replicaDigests;
+
     /**
      * Creates a PartitionReplicationEvent
      *
@@ -32,8 +40,21 @@ public class PartitionReplicationEvent {
      * @param replicaIndex the replica index
      */
     public PartitionReplicationEvent(int partitionId, int replicaIndex) {
+        this(partitionId, replicaIndex, null);
+    }
+
+    /**
+     * Creates a PartitionReplicationEvent
+     *
+     * @param partitionId    the partition ID
+     * @param replicaIndex   the replica index
+     * @param replicaDigests the digests of the replica fragments which the
+     *                       destination already holds, or {@code null}
+     */
+    public PartitionReplicationEvent(int partitionId, int replicaIndex, ReplicaDigests replicaDigests) {
         this.partitionId = partitionId;
         this.replicaIndex = replicaIndex;
+        this.replicaDigests = replicaDigests;
     }
 
     /**
@@ -54,6 +75,30 @@ public class PartitionReplicationEvent {
         return replicaIndex;
     }
 
+    /**
+     * Gets the digest of the replica fragment of the given namespace which
+     * the destination already holds. Only the entries which differ from the
+     * digest need to be replicated.
+     *
+     * @param namespace the namespace of the replica fragment
+     * @return the digest or {@code null} if the whole replica fragment
+     * must be replicated
+     */
+    public ReplicaDigest getReplicaDigest(ServiceNamespace namespace) {
+        return replicaDigests != null ? replicaDigests.get(namespace) : null;
+    }
+
+    /**
+     * Gets the namespaces of the replica fragments which the destination
+     * already holds. A namespace which is not known on this member anymore
+     * is among them as well.
+     *
+     * @return the namespaces with a replica digest
+     */
+    public Collection<ServiceNamespace> getReplicaDigestNamespaces() {
+        return replicaDigests != null ? replicaDigests.getNamespaces() : emptySet();
+    }
+
     @Override
     public String toString() {
         return "PartitionReplicationEvent{partitionId=" + partitionId + ", replicaIndex=" + replicaIndex + '}';
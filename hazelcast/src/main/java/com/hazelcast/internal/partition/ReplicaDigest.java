@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+
+/**
+ * The digest of a replica fragment, which is compared with the digest of
+ * another replica of it to find the parts which differ. The entries of a
+ * fragment are distributed to the leaves of a Merkle tree of the given
+ * depth, a digest holds the 64-bit hashes of these leaves only.
+ * <p>
+ * The leaves are identified by their breadth-first node orders in the
+ * tree, so that the leaf orders of a digest of depth {@code d} start at
+ * {@code 2^(d-1) - 1}. How the hashes are computed is up to the service
+ * which creates the digest.
+ *
+ * @see FragmentedMigrationAwareService#createReplicaDigest
+ */
+public final class ReplicaDigest {
+
+    private final int depth;
+    private final long[] leafHashes;
+
+    /**
+     * @param depth      the depth of the tree, at least 1
+     * @param leafHashes the hashes of the {@code 2^(depth-1)} leaves
+     */
+    public ReplicaDigest(int depth, long[] leafHashes) {
+        checkTrue(depth > 0 && leafHashes.length == getLeafCount(depth), "Invalid digest depth or leaf count");
+        this.depth = depth;
+        this.leafHashes = leafHashes;
+    }
+
+    /**
+     * Returns the number of leaves of a digest of the given depth.
+     */
+    public static int getLeafCount(int depth) {
+        return 1 << (depth - 1);
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int getLeafCount() {
+        return leafHashes.length;
+    }
+
+    /**
+     * Returns the order of the left-most leaf, the leaf with the given index
+     * has the order {@code getFirstLeafOrder() + index}.
+     */
+    public int getFirstLeafOrder() {
+        return leafHashes.length - 1;
+    }
+
+    public long getLeafHash(int leafIndex) {
+        return leafHashes[leafIndex];
+    }
+
+    /**
+     * Returns the sorted orders of the leaves whose hashes differ from the
+     * leaves of the given digest of the same depth.
+     */
+    public int[] getDifferingLeafOrders(ReplicaDigest other) {
+        checkTrue(depth == other.depth, "Digests of different depths cannot be compared");
+        int[] leafOrders = new int[leafHashes.length];
+        int count = 0;
+        for (int i = 0; i < leafHashes.length; i++) {
+            if (leafHashes[i] != other.leafHashes[i]) {
+                leafOrders[count++] = getFirstLeafOrder() + i;
+            }
+        }
+        return Arrays.copyOf(leafOrders, count);
+    }
+
+    public static void writeDigest(ObjectDataOutput out, ReplicaDigest digest) throws IOException {
+        out.writeInt(digest.depth);
+        for (long leafHash : digest.leafHashes) {
+            out.writeLong(leafHash);
+        }
+    }
+
+    public static ReplicaDigest readDigest(ObjectDataInput in) throws IOException {
+        int depth = in.readInt();
+        long[] leafHashes = new long[getLeafCount(depth)];
+        for (int i = 0; i < leafHashes.length; i++) {
+            leafHashes[i] = in.readLong();
+        }
+        return new ReplicaDigest(depth, leafHashes);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaDigest{depth=" + depth + '}';
+    }
+}
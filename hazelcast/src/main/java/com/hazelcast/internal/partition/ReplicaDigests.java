@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
+import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contains the digests of the replica fragments which a member already
+ * holds, by namespace.
+ *
+ * @see FragmentedMigrationAwareService#createReplicaDigest(PartitionReplicationEvent, ServiceNamespace)
+ */
+public class ReplicaDigests implements IdentifiedDataSerializable {
+
+    private Map<ServiceNamespace, ReplicaDigest> digests;
+
+    public ReplicaDigests() {
+        digests = new HashMap<>();
+    }
+
+    public void put(ServiceNamespace namespace, ReplicaDigest digest) {
+        digests.put(namespace, digest);
+    }
+
+    public ReplicaDigest get(ServiceNamespace namespace) {
+        return digests.get(namespace);
+    }
+
+    public Collection<ServiceNamespace> getNamespaces() {
+        return digests.keySet();
+    }
+
+    public boolean isEmpty() {
+        return digests.isEmpty();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return PartitionDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return PartitionDataSerializerHook.REPLICA_DIGESTS;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(digests.size());
+        for (Map.Entry<ServiceNamespace, ReplicaDigest> e : digests.entrySet()) {
+            out.writeObject(e.getKey());
+            ReplicaDigest.writeDigest(out, e.getValue());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        digests = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            ServiceNamespace namespace = in.readObject();
+            digests.put(namespace, ReplicaDigest.readDigest(in));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaDigests{namespaces=" + digests.keySet() + '}';
+    }
+}
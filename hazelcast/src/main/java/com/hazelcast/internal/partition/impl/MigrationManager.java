@@ -67,6 +67,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,9 +76,11 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -91,6 +94,9 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.PARTITIONS_PREFIX;
 import static com.hazelcast.internal.metrics.ProbeUnit.BOOLEAN;
 import static com.hazelcast.internal.partition.IPartitionService.SERVICE_NAME;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.memory.MemoryUnit.KILOBYTES;
+import static java.lang.Math.max;
 
 /**
  * Maintains migration system state and manages migration operations performed within the cluster.
@@ -118,14 +124,19 @@ public class MigrationManager {
     // both reads and updates will be done under lock!
     private final LinkedHashSet<MigrationInfo> completedMigrations = new LinkedHashSet<>();
     private final AtomicBoolean promotionPermit = new AtomicBoolean(false);
-    private final MigrationStats stats = new MigrationStats();
+    private final MigrationStats stats;
     private volatile MigrationInterceptor migrationInterceptor = new MigrationInterceptor.NopMigrationInterceptor();
     private final Lock partitionServiceLock;
     private final MigrationPlanner migrationPlanner;
     private final boolean fragmentedMigrationEnabled;
+    private final boolean deltaMigrationEnabled;
+    private final long migrationChunkSize;
+    private final int maxInFlightMigrationChunks;
+    private final int maxParallelMigrations;
     private final long memberHeartbeatTimeoutMillis;
     private boolean triggerRepartitioningWhenClusterStateAllowsMigration;
     private final Set<MigrationInfo> finalizingMigrationsRegistry = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile MigrationPlanTask activeMigrationPlan;
 
     MigrationManager(Node node, InternalPartitionServiceImpl service, Lock partitionServiceLock) {
         this.node = node;
@@ -138,6 +149,15 @@ public class MigrationManager {
         partitionMigrationInterval = properties.getPositiveMillisOrDefault(ClusterProperty.PARTITION_MIGRATION_INTERVAL, 0);
         partitionMigrationTimeout = properties.getMillis(ClusterProperty.PARTITION_MIGRATION_TIMEOUT);
         fragmentedMigrationEnabled = properties.getBoolean(ClusterProperty.PARTITION_FRAGMENTED_MIGRATION_ENABLED);
+        deltaMigrationEnabled = properties.getBoolean(ClusterProperty.PARTITION_DELTA_REPLICATION_ENABLED);
+        migrationChunkSize = getMigrationChunkSize(properties, fragmentedMigrationEnabled);
+        maxInFlightMigrationChunks = properties.getInteger(ClusterProperty.PARTITION_MIGRATION_MAX_IN_FLIGHT_CHUNKS);
+        checkPositive(maxInFlightMigrationChunks, ClusterProperty.PARTITION_MIGRATION_MAX_IN_FLIGHT_CHUNKS.getName()
+                + " must be positive");
+        maxParallelMigrations = properties.getInteger(ClusterProperty.PARTITION_MAX_PARALLEL_MIGRATIONS);
+        checkPositive(maxParallelMigrations, ClusterProperty.PARTITION_MAX_PARALLEL_MIGRATIONS.getName()
+                + " must be positive");
+        stats = new MigrationStats(migrationChunkSize, maxInFlightMigrationChunks);
         partitionStateManager = partitionService.getPartitionStateManager();
         ILogger migrationThreadLogger = node.getLogger(MigrationThread.class);
         String hzName = nodeEngine.getHazelcastInstance().getName();
@@ -150,6 +170,18 @@ public class MigrationManager {
         nodeEngine.getMetricsRegistry().registerStaticMetrics(stats, PARTITIONS_PREFIX);
     }
 
+    /**
+     * Returns the maximum size of a migration chunk in bytes, or {@code 0} if chunked migration is disabled.
+     */
+    private static long getMigrationChunkSize(HazelcastProperties properties, boolean fragmentedMigrationEnabled) {
+        if (!fragmentedMigrationEnabled || !properties.getBoolean(ClusterProperty.PARTITION_CHUNKED_MIGRATION_ENABLED)) {
+            return 0;
+        }
+        int chunkSizeInKb = properties.getInteger(ClusterProperty.PARTITION_MIGRATION_CHUNK_SIZE_KB);
+        checkPositive(chunkSizeInKb, ClusterProperty.PARTITION_MIGRATION_CHUNK_SIZE_KB.getName() + " must be positive");
+        return KILOBYTES.toBytes(chunkSizeInKb);
+    }
+
     @Probe(name = MIGRATION_METRIC_MIGRATION_MANAGER_MIGRATION_ACTIVE, unit = BOOLEAN)
     private int migrationActiveProbe() {
         return migrationTasksAllowed.get() ? 1 : 0;
@@ -401,7 +433,9 @@ public class MigrationManager {
             migration.setStatus(MigrationStatus.SUCCESS);
             UUID destinationUuid = member.getUuid();
 
-            MigrationCommitOperation operation = new MigrationCommitOperation(migration, destinationUuid);
+            // the destination may have missed the migrations committed in parallel to this one
+            List<MigrationInfo> completedMigrations = getCompletedMigrationsCopy();
+            MigrationCommitOperation operation = new MigrationCommitOperation(migration, completedMigrations, destinationUuid);
             Future<Boolean> future = nodeEngine.getOperationService()
                     .createInvocationBuilder(SERVICE_NAME, operation, destination.address())
                     .setTryCount(Integer.MAX_VALUE)
@@ -498,6 +532,7 @@ public class MigrationManager {
     /** Clears the migration queue and triggers the control task. Called on the master node. */
     void triggerControlTask() {
         migrationQueue.clear();
+        abortMigrationPlan();
         if (stats.getRemainingMigrations() > 0) {
             // triggered control task before current migrations are completed
             migrationQueue.add(new PublishCompletedMigrationsTask());
@@ -516,6 +551,14 @@ public class MigrationManager {
         }
     }
 
+    /** Stops starting the remaining migrations of the running {@link MigrationPlanTask}, if there is one. */
+    private void abortMigrationPlan() {
+        MigrationPlanTask migrationPlan = activeMigrationPlan;
+        if (migrationPlan != null) {
+            migrationPlan.abort();
+        }
+    }
+
     MigrationInterceptor getMigrationInterceptor() {
         return migrationInterceptor;
     }
@@ -581,6 +624,7 @@ public class MigrationManager {
 
     void reset() {
         migrationQueue.clear();
+        abortMigrationPlan();
         activeMigrationInfo = null;
         completedMigrations.clear();
         shutdownRequestedMembers.clear();
@@ -841,28 +885,13 @@ public class MigrationManager {
             partitionService.publishPartitionRuntimeState();
 
             if (migrationCount > 0) {
-                scheduleMigrations(migrations);
+                migrationQueue.add(new MigrationPlanTask(migrations));
                 // Schedule a task to publish completed migrations after all migrations tasks are completed.
                 migrationQueue.add(new PublishCompletedMigrationsTask());
             }
             logMigrationStatistics(migrationCount);
         }
 
-        /** Schedules all migrations. */
-        private void scheduleMigrations(List<Queue<MigrationInfo>> migrations) {
-            boolean migrationScheduled;
-            do {
-                migrationScheduled = false;
-                for (Queue<MigrationInfo> queue : migrations) {
-                    MigrationInfo migration = queue.poll();
-                    if (migration != null) {
-                        migrationScheduled = true;
-                        scheduleMigration(migration);
-                    }
-                }
-            } while (migrationScheduled);
-        }
-
         private void logMigrationStatistics(int migrationCount) {
             if (migrationCount > 0) {
                 logger.info("Repartitioning cluster data. Migration tasks count: " + migrationCount);
@@ -955,17 +984,49 @@ public class MigrationManager {
      */
     class MigrateTask implements MigrationRunnable {
         private final MigrationInfo migrationInfo;
+        private final boolean publishCompletedMigrations;
+        private Member partitionOwner;
+        private long startTime;
+        private long migrationOperationStartTime;
+        private InternalCompletableFuture<Object> future;
 
         MigrateTask(MigrationInfo migrationInfo) {
+            this(migrationInfo, true);
+        }
+
+        /**
+         * @param publishCompletedMigrations whether to publish the completed migrations once a batch of them is
+         *                                   collected, must be {@code false} if other migrations can run in parallel
+         */
+        MigrateTask(MigrationInfo migrationInfo, boolean publishCompletedMigrations) {
             this.migrationInfo = migrationInfo;
+            this.publishCompletedMigrations = publishCompletedMigrations;
             migrationInfo.setMaster(node.getThisAddress());
         }
 
         @Override
         public void run() {
-            if (!partitionService.isLocalMemberMaster()) {
+            if (!start()) {
                 return;
             }
+            Object response = null;
+            Throwable failure = null;
+            try {
+                response = future.get();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            complete(response, failure);
+        }
+
+        /**
+         * Checks the migration participants and sends the {@link MigrationRequestOperation} to the partition owner
+         * without waiting for its response. Returns {@code false} if the migration is skipped or has already failed.
+         */
+        boolean start() {
+            if (!partitionService.isLocalMemberMaster()) {
+                return false;
+            }
             if (migrationInfo.getSource() == null
                     && migrationInfo.getDestinationCurrentReplicaIndex() > 0
                     && migrationInfo.getDestinationNewReplicaIndex() == 0) {
@@ -974,28 +1035,62 @@ public class MigrationManager {
                         + RepairPartitionTableTask.class.getSimpleName() + "! -> " + migrationInfo);
             }
 
-            Member partitionOwner = checkMigrationParticipantsAndGetPartitionOwner();
+            partitionOwner = checkMigrationParticipantsAndGetPartitionOwner();
             if (partitionOwner == null) {
-                return;
+                return false;
             }
-            long start = System.nanoTime();
+            startTime = System.nanoTime();
             try {
                 beforeMigration();
-                Boolean result = executeMigrateOperation(partitionOwner);
+                future = invokeMigrateOperation(partitionOwner);
+                return true;
+            } catch (Throwable t) {
+                onMigrationError(t);
+                return false;
+            }
+        }
+
+        /**
+         * Completes the migration with the response of the {@link MigrationRequestOperation} sent by {@link #start()},
+         * or with its {@code failure}.
+         */
+        void complete(Object response, Throwable failure) {
+            try {
+                Boolean result = toMigrationResult(response, failure);
                 processMigrationResult(partitionOwner, result);
+                afterMigration();
             } catch (Throwable t) {
+                onMigrationError(t);
+            }
+        }
+
+        InternalCompletableFuture<Object> getFuture() {
+            return future;
+        }
+
+        MigrationInfo getMigrationInfo() {
+            return migrationInfo;
+        }
+
+        private void onMigrationError(Throwable t) {
+            try {
                 final Level level = migrationInfo.isValid() ? Level.WARNING : Level.FINE;
                 logger.log(level, "Error during " + migrationInfo, t);
                 migrationOperationFailed(partitionOwner);
             } finally {
-                long elapsed = System.nanoTime() - start;
-                stats.recordMigrationTaskTime(elapsed);
-                PartitionEventManager partitionEventManager = partitionService.getPartitionEventManager();
-                partitionEventManager.sendMigrationEvent(stats.toMigrationState(), migrationInfo,
-                        TimeUnit.NANOSECONDS.toMillis(elapsed));
+                afterMigration();
             }
         }
 
+        /** Records the migration time and publishes a {@link ReplicaMigrationEvent}. */
+        private void afterMigration() {
+            long elapsed = System.nanoTime() - startTime;
+            stats.recordMigrationTaskTime(elapsed);
+            PartitionEventManager partitionEventManager = partitionService.getPartitionEventManager();
+            partitionEventManager.sendMigrationEvent(stats.toMigrationState(), migrationInfo,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
         /** Sends a migration event to the event listeners. */
         private void beforeMigration() {
             migrationInfo.setInitialPartitionVersion(partitionStateManager.getVersion());
@@ -1064,34 +1159,37 @@ public class MigrationManager {
             }
         }
 
-        /**
-         * Sends a {@link MigrationRequestOperation} to the {@code fromMember} and returns the migration result if the
-         * migration was successful.
-         */
-        private Boolean executeMigrateOperation(Member fromMember) {
-            long start = System.nanoTime();
+        /** Sends a {@link MigrationRequestOperation} to the {@code fromMember}. */
+        private InternalCompletableFuture<Object> invokeMigrateOperation(Member fromMember) {
+            migrationOperationStartTime = System.nanoTime();
             List<MigrationInfo> completedMigrations = getCompletedMigrationsCopy();
             int partitionStateVersion = partitionStateManager.getVersion();
             Operation op = new MigrationRequestOperation(migrationInfo, completedMigrations, partitionStateVersion,
-                    fragmentedMigrationEnabled);
-            Future future = nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, op, fromMember.getAddress())
+                    fragmentedMigrationEnabled, deltaMigrationEnabled, migrationChunkSize, maxInFlightMigrationChunks);
+            return nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, op, fromMember.getAddress())
                     .setCallTimeout(partitionMigrationTimeout)
                     .invoke();
+        }
+
+        /** Returns the migration result if the migration was successful. */
+        private Boolean toMigrationResult(Object response, Throwable failure) {
             try {
-                Object response = future.get();
-                return (Boolean) nodeEngine.toObject(response);
-            } catch (Throwable e) {
+                if (failure == null) {
+                    return (Boolean) nodeEngine.toObject(response);
+                }
                 Level level = nodeEngine.isRunning() && migrationInfo.isValid() ? Level.WARNING : Level.FINE;
-                if (e instanceof ExecutionException && e.getCause() instanceof PartitionStateVersionMismatchException) {
+                if (failure instanceof PartitionStateVersionMismatchException
+                        || (failure instanceof ExecutionException
+                        && failure.getCause() instanceof PartitionStateVersionMismatchException)) {
                     level = Level.FINE;
                 }
                 if (logger.isLoggable(level)) {
-                    logger.log(level, "Failed migration from " + fromMember + " for " + migrationInfo, e);
+                    logger.log(level, "Failed migration from " + partitionOwner + " for " + migrationInfo, failure);
                 }
+                return Boolean.FALSE;
             } finally {
-                stats.recordMigrationOperationTime(System.nanoTime() - start);
+                stats.recordMigrationOperationTime(System.nanoTime() - migrationOperationStartTime);
             }
-            return Boolean.FALSE;
         }
 
         /**
@@ -1116,6 +1214,8 @@ public class MigrationManager {
             try {
                 migrationInterceptor.onMigrationRollback(MigrationParticipant.MASTER, migrationInfo);
                 scheduleActiveMigrationFinalization(migrationInfo);
+                // migrations running in parallel may have been completed since this one started
+                migrationInfo.setInitialPartitionVersion(partitionStateManager.getVersion());
                 int delta = migrationInfo.getPartitionVersionIncrement() + 1;
                 partitionStateManager.incrementVersion(delta);
                 migrationInfo.setPartitionVersionIncrement(delta);
@@ -1123,10 +1223,10 @@ public class MigrationManager {
                 addCompletedMigration(migrationInfo);
 
                 if (!partitionOwner.localMember()) {
-                    partitionService.sendPartitionRuntimeState(partitionOwner.getAddress());
+                    sendPartitionRuntimeState(partitionOwner.getAddress());
                 }
                 if (!migrationInfo.getDestination().isIdentical(node.getLocalMember())) {
-                    partitionService.sendPartitionRuntimeState(migrationInfo.getDestination().address());
+                    sendPartitionRuntimeState(migrationInfo.getDestination().address());
                 }
 
                 triggerRepartitioningAfterMigrationFailure();
@@ -1135,6 +1235,17 @@ public class MigrationManager {
             }
         }
 
+        /**
+         * Sends the partition state to a participant of the failed migration, unless the migrations have already been
+         * paused because of another failed migration running in parallel. The partition state is published again when
+         * the paused migrations are resumed.
+         */
+        private void sendPartitionRuntimeState(Address target) {
+            if (areMigrationTasksAllowed()) {
+                partitionService.sendPartitionRuntimeState(target);
+            }
+        }
+
         /** Waits for some time and rerun the {@link ControlTask}. */
         private void triggerRepartitioningAfterMigrationFailure() {
             // Migration failed.
@@ -1171,6 +1282,9 @@ public class MigrationManager {
          */
         private void migrationOperationSucceeded() {
             migrationInterceptor.onMigrationComplete(MigrationParticipant.MASTER, migrationInfo, true);
+            // The migrations running in parallel are committed one at a time on the migration thread
+            // and each commit continues the partition state version of the previous one.
+            migrationInfo.setInitialPartitionVersion(partitionStateManager.getVersion());
             long start = System.nanoTime();
             boolean commitSuccessful = commitMigrationToDestination(migrationInfo);
             stats.recordDestinationCommitTime(System.nanoTime() - start);
@@ -1196,7 +1310,7 @@ public class MigrationManager {
                     migrationInfo.setPartitionVersionIncrement(delta);
 
                     if (!migrationInfo.getDestination().isIdentical(node.getLocalMember())) {
-                        partitionService.sendPartitionRuntimeState(migrationInfo.getDestination().address());
+                        sendPartitionRuntimeState(migrationInfo.getDestination().address());
                     }
                     triggerRepartitioningAfterMigrationFailure();
                 }
@@ -1204,7 +1318,7 @@ public class MigrationManager {
                 scheduleActiveMigrationFinalization(migrationInfo);
                 node.getNodeExtension().onPartitionStateChange();
 
-                if (completedMigrations.size() >= PUBLISH_COMPLETED_MIGRATIONS_BATCH_SIZE) {
+                if (publishCompletedMigrations && completedMigrations.size() >= PUBLISH_COMPLETED_MIGRATIONS_BATCH_SIZE) {
                     publishCompletedMigrations();
                 }
             } finally {
@@ -1218,6 +1332,147 @@ public class MigrationManager {
         }
     }
 
+    /**
+     * Invoked on the master node to execute the migrations planned by a {@link RepartitioningTask}. The migrations
+     * of a partition are executed in their planned order, while the migrations of different partitions run in parallel,
+     * up to {@link ClusterProperty#PARTITION_MAX_PARALLEL_MIGRATIONS} of them, if they do not share a member: the partition
+     * owner, the source and the destination of a migration do not take part in any other ongoing migration.
+     * <p>
+     * The migration operations are awaited asynchronously, but their results are processed on the migration thread.
+     * Hence the migrations are committed one by one and the partition state versions of the completed migrations
+     * follow each other as if the migrations were executed serially. The completed migrations are published only
+     * when there is no ongoing migration, because a participant of an ongoing migration must not learn a newer
+     * partition state version before its migration is committed.
+     */
+    class MigrationPlanTask implements MigrationRunnable {
+        private final List<Queue<MigrationInfo>> migrationQueues;
+        private final Set<PartitionReplica> migratingMembers = new HashSet<>();
+        private final BlockingQueue<Runnable> completions = new LinkedBlockingQueue<>();
+        private final int publishCompletedMigrationsBatchSize = max(PUBLISH_COMPLETED_MIGRATIONS_BATCH_SIZE,
+                maxParallelMigrations);
+        private int ongoingMigrations;
+        private int unpublishedMigrations;
+        private volatile boolean aborted;
+
+        MigrationPlanTask(List<Queue<MigrationInfo>> migrationQueues) {
+            this.migrationQueues = new LinkedList<>(migrationQueues);
+        }
+
+        @Override
+        public void run() {
+            activeMigrationPlan = this;
+            try {
+                startMigrations();
+                while (ongoingMigrations > 0) {
+                    completions.take().run();
+                    if (partitionMigrationInterval > 0) {
+                        Thread.sleep(partitionMigrationInterval);
+                    }
+                    startMigrations();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeMigrationPlan = null;
+            }
+        }
+
+        /** Stops starting new migrations. The ongoing migrations are still completed. */
+        void abort() {
+            aborted = true;
+        }
+
+        /** Starts the next migrations whose participants are not migrating, as long as the limits allow. */
+        private void startMigrations() {
+            while (!aborted && areMigrationTasksAllowed() && ongoingMigrations < maxParallelMigrations) {
+                if (unpublishedMigrations >= publishCompletedMigrationsBatchSize) {
+                    if (ongoingMigrations > 0) {
+                        return;
+                    }
+                    publishCompletedMigrationsBatch();
+                }
+                Queue<MigrationInfo> queue = pollNextMigrationQueue();
+                if (queue == null) {
+                    return;
+                }
+                startMigration(queue);
+            }
+        }
+
+        /**
+         * Removes and returns the first migration queue whose next migration does not share a member with the ongoing
+         * migrations, or returns {@code null} if there is none.
+         */
+        private Queue<MigrationInfo> pollNextMigrationQueue() {
+            Iterator<Queue<MigrationInfo>> iterator = migrationQueues.iterator();
+            while (iterator.hasNext()) {
+                Queue<MigrationInfo> queue = iterator.next();
+                if (Collections.disjoint(migratingMembers, getParticipants(queue.peek()))) {
+                    iterator.remove();
+                    return queue;
+                }
+            }
+            return null;
+        }
+
+        private void startMigration(Queue<MigrationInfo> queue) {
+            MigrationInfo migration = queue.poll();
+            Set<PartitionReplica> participants = getParticipants(migration);
+            MigrateTask task = new MigrateTask(migration, false);
+            if (!task.start()) {
+                requeue(queue);
+                return;
+            }
+            ongoingMigrations++;
+            migratingMembers.addAll(participants);
+            task.getFuture().whenCompleteAsync((response, failure) -> completions.offer(() -> {
+                ongoingMigrations--;
+                migratingMembers.removeAll(participants);
+                task.complete(response, failure);
+                unpublishedMigrations++;
+                requeue(queue);
+            }));
+        }
+
+        /** Adds the queue to the end, so the partitions are migrated in a round-robin fashion. */
+        private void requeue(Queue<MigrationInfo> queue) {
+            if (!queue.isEmpty()) {
+                migrationQueues.add(queue);
+            }
+        }
+
+        private Set<PartitionReplica> getParticipants(MigrationInfo migration) {
+            Set<PartitionReplica> participants = new HashSet<>();
+            PartitionReplica owner = partitionStateManager.getPartitionImpl(migration.getPartitionId()).getOwnerReplicaOrNull();
+            if (owner != null) {
+                participants.add(owner);
+            }
+            if (migration.getSource() != null) {
+                participants.add(migration.getSource());
+            }
+            participants.add(migration.getDestination());
+            return participants;
+        }
+
+        private void publishCompletedMigrationsBatch() {
+            partitionServiceLock.lock();
+            try {
+                if (partitionService.isLocalMemberMaster()) {
+                    publishCompletedMigrations();
+                }
+            } finally {
+                partitionServiceLock.unlock();
+            }
+            unpublishedMigrations = 0;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{" + "remainingPartitions=" + migrationQueues.size()
+                    + ", ongoingMigrations=" + ongoingMigrations + '}';
+        }
+    }
+
     /**
      * Checks if the partition table needs repairing once the partitions have been initialized (assigned).
      * This means that it will:
@@ -31,11 +31,15 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_ELAPSED_MIGRATION_OPERATION_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_ELAPSED_MIGRATION_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_LAST_REPARTITION_TIME;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_MAX_IN_FLIGHT_MIGRATION_CHUNKS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_MIGRATION_CHUNK_SIZE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_PLANNED_MIGRATIONS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_TOTAL_COMPLETED_MIGRATIONS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_TOTAL_ELAPSED_DESTINATION_COMMIT_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_TOTAL_ELAPSED_MIGRATION_OPERATION_TIME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_TOTAL_ELAPSED_MIGRATION_TIME;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MIGRATION_METRIC_TOTAL_SENT_MIGRATION_CHUNKS;
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
 import static com.hazelcast.internal.metrics.ProbeUnit.NS;
 
@@ -74,6 +78,25 @@ public class MigrationStats {
     @Probe(name = MIGRATION_METRIC_TOTAL_ELAPSED_MIGRATION_TIME, unit = NS)
     private final AtomicLong totalElapsedMigrationTime = new AtomicLong();
 
+    @Probe(name = MIGRATION_METRIC_MIGRATION_CHUNK_SIZE, unit = BYTES)
+    private final long migrationChunkSize;
+
+    @Probe(name = MIGRATION_METRIC_MAX_IN_FLIGHT_MIGRATION_CHUNKS)
+    private final int maxInFlightMigrationChunks;
+
+    @Probe(name = MIGRATION_METRIC_TOTAL_SENT_MIGRATION_CHUNKS)
+    private final AtomicLong totalSentMigrationChunks = new AtomicLong();
+
+    /**
+     * @param migrationChunkSize         configured maximum size of a migration chunk in bytes,
+     *                                   {@code 0} if chunked migration is disabled
+     * @param maxInFlightMigrationChunks configured maximum number of in-flight migration chunks
+     */
+    MigrationStats(long migrationChunkSize, int maxInFlightMigrationChunks) {
+        this.migrationChunkSize = migrationChunkSize;
+        this.maxInFlightMigrationChunks = maxInFlightMigrationChunks;
+    }
+
     /**
      * Marks start of new repartitioning.
      * Resets stats from previous repartitioning round.
@@ -108,6 +131,13 @@ public class MigrationStats {
         totalElapsedMigrationTime.addAndGet(time);
     }
 
+    /**
+     * Records a migration chunk sent by this member as the migration source.
+     */
+    public void incrementSentMigrationChunks() {
+        totalSentMigrationChunks.incrementAndGet();
+    }
+
     /**
      * Returns the last repartition time.
      */
@@ -191,6 +221,30 @@ public class MigrationStats {
         return TimeUnit.NANOSECONDS.toMillis(totalElapsedMigrationTime.get());
     }
 
+    /**
+     * Returns the configured maximum size of a migration chunk in bytes,
+     * {@code 0} if chunked migration is disabled.
+     */
+    public long getMigrationChunkSize() {
+        return migrationChunkSize;
+    }
+
+    /**
+     * Returns the configured maximum number of chunks of a migrating replica
+     * fragment which are sent before the destination acknowledges them.
+     */
+    public int getMaxInFlightMigrationChunks() {
+        return maxInFlightMigrationChunks;
+    }
+
+    /**
+     * Returns the total number of migration chunks sent by this member as
+     * the migration source since the beginning.
+     */
+    public long getTotalSentMigrationChunks() {
+        return totalSentMigrationChunks.get();
+    }
+
     public MigrationState toMigrationState() {
         return new MigrationStateImpl(lastRepartitionTime.get(), plannedMigrations,
                 completedMigrations.get(), getElapsedMigrationTime());
@@ -208,7 +262,10 @@ public class MigrationStats {
             s.append(", elapsedMigrationOperationTime=").append(getElapsedMigrationOperationTime()).append("ms")
                     .append(", totalElapsedMigrationOperationTime=").append(getTotalElapsedMigrationOperationTime()).append("ms")
                     .append(", elapsedDestinationCommitTime=").append(getElapsedDestinationCommitTime()).append("ms")
-                    .append(", totalElapsedDestinationCommitTime=").append(getTotalElapsedDestinationCommitTime()).append("ms");
+                    .append(", totalElapsedDestinationCommitTime=").append(getTotalElapsedDestinationCommitTime()).append("ms")
+                    .append(", migrationChunkSize=").append(migrationChunkSize)
+                    .append(", maxInFlightMigrationChunks=").append(maxInFlightMigrationChunks)
+                    .append(", totalSentMigrationChunks=").append(getTotalSentMigrationChunks());
         }
 
         s.append(", elapsedMigrationTime=").append(getElapsedMigrationTime()).append("ms")
@@ -18,6 +18,7 @@ package com.hazelcast.internal.partition.impl;
 
 import com.hazelcast.instance.impl.OutOfMemoryErrorDispatcher;
 import com.hazelcast.internal.partition.impl.MigrationManager.MigrateTask;
+import com.hazelcast.internal.partition.impl.MigrationManager.MigrationPlanTask;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.properties.ClusterProperty;
 
@@ -38,7 +39,7 @@ class MigrationThread extends Thread implements Runnable {
     private final MigrationQueue queue;
     private final ILogger logger;
     /**
-     * Time in milliseconds to sleep after {@link MigrateTask}
+     * Time in milliseconds to sleep after {@link MigrateTask} and {@link MigrationPlanTask}
      */
     private final long partitionMigrationInterval;
     /**
@@ -94,7 +95,7 @@ class MigrationThread extends Thread implements Runnable {
                 break;
             }
 
-            migrating |= runnable instanceof MigrationManager.MigrateTask;
+            migrating |= runnable instanceof MigrateTask || runnable instanceof MigrationPlanTask;
             processTask(runnable);
             if (migrating && partitionMigrationInterval > 0) {
                 Thread.sleep(partitionMigrationInterval);
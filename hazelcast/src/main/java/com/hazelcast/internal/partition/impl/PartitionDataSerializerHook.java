@@ -22,9 +22,11 @@ import com.hazelcast.internal.partition.NonFragmentedServiceNamespace;
 import com.hazelcast.internal.partition.PartitionLostEventImpl;
 import com.hazelcast.internal.partition.PartitionReplica;
 import com.hazelcast.internal.partition.PartitionRuntimeState;
+import com.hazelcast.internal.partition.ReplicaDigests;
 import com.hazelcast.internal.partition.ReplicaFragmentMigrationState;
 import com.hazelcast.internal.partition.operation.AssignPartitions;
 import com.hazelcast.internal.partition.operation.FetchPartitionStateOperation;
+import com.hazelcast.internal.partition.operation.FetchReplicaDigestsOperation;
 import com.hazelcast.internal.partition.operation.HasOngoingMigration;
 import com.hazelcast.internal.partition.operation.MigrationCommitOperation;
 import com.hazelcast.internal.partition.operation.MigrationOperation;
@@ -78,8 +80,10 @@ public final class PartitionDataSerializerHook implements DataSerializerHook {
     public static final int REPLICA_MIGRATION_EVENT = 22;
     public static final int MIGRATION_EVENT = 23;
     public static final int PARTITION_LOST_EVENT = 24;
+    public static final int REPLICA_DIGESTS = 25;
+    public static final int FETCH_REPLICA_DIGESTS = 26;
 
-    private static final int LEN = PARTITION_LOST_EVENT + 1;
+    private static final int LEN = FETCH_REPLICA_DIGESTS + 1;
 
     @Override
     public int getFactoryId() {
@@ -114,6 +118,8 @@ public final class PartitionDataSerializerHook implements DataSerializerHook {
         constructors[REPLICA_MIGRATION_EVENT] = arg -> new ReplicaMigrationEventImpl();
         constructors[MIGRATION_EVENT] = arg -> new MigrationStateImpl();
         constructors[PARTITION_LOST_EVENT] = arg -> new PartitionLostEventImpl();
+        constructors[REPLICA_DIGESTS] = arg -> new ReplicaDigests();
+        constructors[FETCH_REPLICA_DIGESTS] = arg -> new FetchReplicaDigestsOperation();
         return new ArrayDataSerializableFactory(constructors);
     }
 }
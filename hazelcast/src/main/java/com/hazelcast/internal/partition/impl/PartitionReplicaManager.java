@@ -19,10 +19,14 @@ package com.hazelcast.internal.partition.impl;
 import com.hazelcast.cluster.Member;
 import com.hazelcast.instance.impl.Node;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.NonFragmentedServiceNamespace;
 import com.hazelcast.internal.partition.PartitionReplica;
 import com.hazelcast.internal.partition.PartitionReplicaVersionManager;
+import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigest;
+import com.hazelcast.internal.partition.ReplicaDigests;
 import com.hazelcast.internal.partition.operation.PartitionReplicaSyncRequest;
 import com.hazelcast.internal.services.ServiceNamespace;
 import com.hazelcast.internal.services.ServiceNamespaceAware;
@@ -34,6 +38,7 @@ import com.hazelcast.internal.util.scheduler.ScheduledEntry;
 import com.hazelcast.internal.util.scheduler.ScheduledEntryProcessor;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
 import com.hazelcast.spi.impl.executionservice.ExecutionService;
 import com.hazelcast.spi.impl.executionservice.TaskScheduler;
 import com.hazelcast.spi.impl.operationservice.Operation;
@@ -81,6 +86,7 @@ public class PartitionReplicaManager implements PartitionReplicaVersionManager {
 
     private final long partitionMigrationTimeout;
     private final int maxParallelReplications;
+    private final boolean deltaReplicationEnabled;
 
     PartitionReplicaManager(Node node, InternalPartitionServiceImpl partitionService) {
         this.node = node;
@@ -95,6 +101,7 @@ public class PartitionReplicaManager implements PartitionReplicaVersionManager {
         partitionMigrationTimeout = properties.getMillis(ClusterProperty.PARTITION_MIGRATION_TIMEOUT);
         maxParallelReplications = properties.getInteger(ClusterProperty.PARTITION_MAX_PARALLEL_REPLICATIONS);
         replicaSyncSemaphore = new Semaphore(maxParallelReplications);
+        deltaReplicationEnabled = properties.getBoolean(ClusterProperty.PARTITION_DELTA_REPLICATION_ENABLED);
 
         replicaVersions = new PartitionReplicaVersions[partitionCount];
         for (int i = 0; i < replicaVersions.length; i++) {
@@ -228,10 +235,60 @@ public class PartitionReplicaManager implements PartitionReplicaVersionManager {
         }
         replicaSyncRequestsCounter.inc();
 
-        PartitionReplicaSyncRequest syncRequest = new PartitionReplicaSyncRequest(partitionId, namespaces, replicaIndex);
+        ReplicaDigests replicaDigests = createReplicaDigests(partitionId, replicaIndex, namespaces);
+        PartitionReplicaSyncRequest syncRequest = new PartitionReplicaSyncRequest(partitionId, namespaces, replicaIndex,
+                replicaDigests);
         nodeEngine.getOperationService().send(syncRequest, target.address());
     }
 
+    /**
+     * Creates the digests of the local replica fragments of the partition which are about to be replaced
+     * by the replica with the given index, so that only their differences are replicated. The digests can
+     * be created only on the partition thread, otherwise or when delta replication is disabled, {@code null}
+     * is returned and the whole replica is replicated.
+     *
+     * @param partitionId  the partition which is being replicated
+     * @param replicaIndex the index of the replica which is being replicated
+     * @param namespaces   namespaces of the replica fragments, or {@code null} for all local namespaces
+     * @return the digests or {@code null} if there is none
+     */
+    public ReplicaDigests createReplicaDigests(int partitionId, int replicaIndex, Collection<ServiceNamespace> namespaces) {
+        if (!deltaReplicationEnabled || !isRunningOnPartitionThread(partitionId)) {
+            return null;
+        }
+
+        PartitionReplicationEvent event = new PartitionReplicationEvent(partitionId, replicaIndex);
+        ReplicaDigests replicaDigests = new ReplicaDigests();
+        for (FragmentedMigrationAwareService service : nodeEngine.getServices(FragmentedMigrationAwareService.class)) {
+            Collection<ServiceNamespace> serviceNamespaces = namespaces != null
+                    ? namespaces : service.getAllServiceNamespaces(event);
+            if (serviceNamespaces != null) {
+                addReplicaDigests(service, event, serviceNamespaces, replicaDigests);
+            }
+        }
+        return replicaDigests.isEmpty() ? null : replicaDigests;
+    }
+
+    private static void addReplicaDigests(FragmentedMigrationAwareService service, PartitionReplicationEvent event,
+                                          Collection<ServiceNamespace> namespaces, ReplicaDigests replicaDigests) {
+        for (ServiceNamespace namespace : namespaces) {
+            if (namespace instanceof NonFragmentedServiceNamespace || !service.isKnownServiceNamespace(namespace)) {
+                continue;
+            }
+            ReplicaDigest digest = service.createReplicaDigest(event, namespace);
+            if (digest != null) {
+                replicaDigests.put(namespace, digest);
+            }
+        }
+    }
+
+    private boolean isRunningOnPartitionThread(int partitionId) {
+        Thread currentThread = Thread.currentThread();
+        return currentThread instanceof PartitionOperationThread
+                && ((PartitionOperationThread) currentThread).getThreadId()
+                == nodeEngine.getOperationService().getOperationExecutor().getPartitionThreadId(partitionId);
+    }
+
     private List<ServiceNamespace> registerSyncInfoForNamespaces(int partitionId,
             Collection<ServiceNamespace> requestedNamespaces, int replicaIndex, PartitionReplica target, int permits) {
 
@@ -109,7 +109,9 @@ abstract class BaseMigrationOperation extends AbstractPartitionOperation
             return;
         }
         InternalPartitionServiceImpl partitionService = getService();
-        if (!partitionService.applyCompletedMigrations(completedMigrations, migrationInfo.getMaster())) {
+        // the master owns the completed migrations and the sent ones may miss the migrations committed in parallel
+        boolean master = getNodeEngine().getThisAddress().equals(migrationInfo.getMaster());
+        if (!master && !partitionService.applyCompletedMigrations(completedMigrations, migrationInfo.getMaster())) {
             throw new PartitionStateVersionMismatchException(partitionStateVersion, partitionService.getPartitionStateVersion());
         }
         if (partitionService.getMigrationManager().isFinalizingMigrationRegistered(migrationInfo.getPartitionId())) {
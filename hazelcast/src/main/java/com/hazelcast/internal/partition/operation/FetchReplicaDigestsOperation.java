@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.operation;
+
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.partition.MigrationCycleOperation;
+import com.hazelcast.internal.partition.MigrationInfo;
+import com.hazelcast.internal.partition.ReplicaDigests;
+import com.hazelcast.internal.partition.ReplicaErrorLogger;
+import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
+import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Sent by the migration source to the migration destination after the first (empty) migration fragment,
+ * before any replica data is prepared. Responds with the digests of the replica fragments which the
+ * destination already holds, so that the source migrates only the entries which differ from them.
+ * The response is {@code null} if the destination holds no such replica fragment.
+ *
+ * @see com.hazelcast.spi.properties.ClusterProperty#PARTITION_DELTA_REPLICATION_ENABLED
+ */
+public final class FetchReplicaDigestsOperation extends AbstractPartitionOperation
+        implements PartitionAwareOperation, MigrationCycleOperation {
+
+    private MigrationInfo migrationInfo;
+    private transient ReplicaDigests replicaDigests;
+
+    public FetchReplicaDigestsOperation() {
+    }
+
+    public FetchReplicaDigestsOperation(MigrationInfo migrationInfo) {
+        this.migrationInfo = migrationInfo;
+        setPartitionId(migrationInfo.getPartitionId());
+    }
+
+    @Override
+    public void run() {
+        InternalPartitionServiceImpl partitionService = getService();
+        MigrationInfo activeMigration = partitionService.getMigrationManager().getActiveMigration();
+        if (!migrationInfo.equals(activeMigration)) {
+            throw new IllegalStateException("Unexpected active migration " + activeMigration
+                    + "! Replica digests are requested for: " + migrationInfo);
+        }
+
+        replicaDigests = partitionService.getReplicaManager()
+                .createReplicaDigests(getPartitionId(), migrationInfo.getDestinationNewReplicaIndex(), null);
+    }
+
+    @Override
+    public Object getResponse() {
+        return replicaDigests;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    public void logError(Throwable e) {
+        ReplicaErrorLogger.log(e, getLogger());
+    }
+
+    @Override
+    public String getServiceName() {
+        return InternalPartitionService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeObject(migrationInfo);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        migrationInfo = in.readObject();
+    }
+
+    @Override
+    public int getClassId() {
+        return PartitionDataSerializerHook.FETCH_REPLICA_DIGESTS;
+    }
+}
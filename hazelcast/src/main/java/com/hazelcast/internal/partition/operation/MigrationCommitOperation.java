@@ -31,16 +31,24 @@ import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.exception.TargetNotMemberException;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
+import static com.hazelcast.internal.serialization.impl.SerializationUtil.readList;
+import static com.hazelcast.internal.serialization.impl.SerializationUtil.writeList;
+
 /**
  * Sent by the master node to commit a migration on the migration destination.
  * It updates the partition table on the migration destination and finalizes the migration.
+ * The migrations completed since the migration started, which may have run in parallel to it,
+ * are applied on the destination before the commit.
  */
 public class MigrationCommitOperation extends AbstractPartitionOperation implements MigrationCycleOperation {
 
     private MigrationInfo migration;
 
+    private List<MigrationInfo> completedMigrations;
+
     private UUID expectedMemberUuid;
 
     private transient boolean success;
@@ -48,8 +56,10 @@ public class MigrationCommitOperation extends AbstractPartitionOperation impleme
     public MigrationCommitOperation() {
     }
 
-    public MigrationCommitOperation(MigrationInfo migration, UUID expectedMemberUuid) {
+    public MigrationCommitOperation(MigrationInfo migration, List<MigrationInfo> completedMigrations,
+                                    UUID expectedMemberUuid) {
         this.migration = migration;
+        this.completedMigrations = completedMigrations;
         this.expectedMemberUuid = expectedMemberUuid;
     }
 
@@ -64,6 +74,9 @@ public class MigrationCommitOperation extends AbstractPartitionOperation impleme
         }
 
         InternalPartitionServiceImpl service = getService();
+        if (!completedMigrations.isEmpty()) {
+            service.applyCompletedMigrations(completedMigrations, getCallerAddress());
+        }
         success = service.commitMigrationOnDestination(migration, getCallerAddress());
     }
 
@@ -91,6 +104,7 @@ public class MigrationCommitOperation extends AbstractPartitionOperation impleme
         super.readInternal(in);
         expectedMemberUuid = UUIDSerializationUtil.readUUID(in);
         migration = in.readObject();
+        completedMigrations = readList(in);
     }
 
     @Override
@@ -98,6 +112,7 @@ public class MigrationCommitOperation extends AbstractPartitionOperation impleme
         super.writeInternal(out);
         UUIDSerializationUtil.writeUUID(out, expectedMemberUuid);
         out.writeObject(migration);
+        writeList(completedMigrations, out);
     }
 
     @Override
@@ -27,6 +27,7 @@ import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.internal.partition.PartitionReplica;
 import com.hazelcast.internal.partition.PartitionReplicaVersionManager;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigests;
 import com.hazelcast.internal.partition.ReplicaFragmentMigrationState;
 import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
 import com.hazelcast.internal.partition.impl.MigrationInterceptor.MigrationParticipant;
@@ -47,6 +48,7 @@ import com.hazelcast.spi.impl.operationservice.UrgentSystemOperation;
 import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -72,15 +74,38 @@ import static java.util.Collections.singleton;
 public class MigrationRequestOperation extends BaseMigrationOperation {
 
     private boolean fragmentedMigrationEnabled;
+    private boolean deltaMigrationEnabled;
+    private long maxChunkSizeInBytes;
+    private int maxInFlightChunks;
     private transient ServiceNamespacesContext namespacesContext;
+    private transient boolean replicaDigestsFetched;
+    private transient ReplicaDigests replicaDigests;
+    // state of the replica fragment which is being migrated in chunks, accessed only on the partition thread
+    private transient ServiceNamespace chunkedNamespace;
+    private transient String chunkedServiceName;
+    private transient Collection<Operation> firstChunkOperations;
+    private transient Iterator<Operation> chunks;
+    private transient Operation nextChunk;
+    private transient int sentChunks;
+    private transient int inFlightChunks;
+    private transient boolean migrationCompleted;
 
     public MigrationRequestOperation() {
     }
 
+    /**
+     * @param maxChunkSizeInBytes approximate maximum size of a migration chunk, {@code 0} disables chunked migration
+     * @param maxInFlightChunks   maximum number of migration chunks which are not acknowledged by the destination yet
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
     public MigrationRequestOperation(MigrationInfo migrationInfo, List<MigrationInfo> completedMigrations,
-            int partitionStateVersion, boolean fragmentedMigrationEnabled) {
+            int partitionStateVersion, boolean fragmentedMigrationEnabled, boolean deltaMigrationEnabled,
+            long maxChunkSizeInBytes, int maxInFlightChunks) {
         super(migrationInfo, completedMigrations, partitionStateVersion);
         this.fragmentedMigrationEnabled = fragmentedMigrationEnabled;
+        this.deltaMigrationEnabled = deltaMigrationEnabled;
+        this.maxChunkSizeInBytes = maxChunkSizeInBytes;
+        this.maxInFlightChunks = maxInFlightChunks;
     }
 
     @Override
@@ -107,7 +132,7 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
             try {
                 executeBeforeMigrations();
                 namespacesContext = new ServiceNamespacesContext(nodeEngine, getPartitionReplicationEvent());
-                invokeMigrationOperation(initialReplicaFragmentMigrationState(), true);
+                invokeMigrationOperation(initialReplicaFragmentMigrationState(), true, new MigrationCallback());
             } catch (Throwable e) {
                 logThrowable(e);
                 completeMigration(false);
@@ -132,8 +157,9 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     /**
      * Invokes the {@link MigrationOperation} on the migration destination.
      */
-    private void invokeMigrationOperation(ReplicaFragmentMigrationState migrationState, boolean firstFragment) {
-        boolean lastFragment = !namespacesContext.hasNext();
+    private void invokeMigrationOperation(ReplicaFragmentMigrationState migrationState, boolean firstFragment,
+                                          BiConsumer<Object, Throwable> callback) {
+        boolean lastFragment = !namespacesContext.hasNext() && (chunks == null || !chunks.hasNext());
         Operation operation = new MigrationOperation(migrationInfo,
                 firstFragment ? completedMigrations : Collections.emptyList(),
                 partitionStateVersion, migrationState, firstFragment, lastFragment);
@@ -155,7 +181,31 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
                 .setResultDeserialized(true)
                 .setCallTimeout(partitionService.getPartitionMigrationTimeout())
                 .invoke()
-                .whenCompleteAsync(new MigrationCallback());
+                .whenCompleteAsync(callback);
+    }
+
+    /**
+     * Invokes the {@link FetchReplicaDigestsOperation} on the migration destination. The replica fragments
+     * which the destination already holds are migrated as deltas then.
+     */
+    private void invokeFetchReplicaDigestsOperation() {
+        NodeEngine nodeEngine = getNodeEngine();
+        InternalPartitionServiceImpl partitionService = getService();
+
+        Address target = migrationInfo.getDestinationAddress();
+        nodeEngine.getOperationService()
+                .createInvocationBuilder(InternalPartitionService.SERVICE_NAME,
+                        new FetchReplicaDigestsOperation(migrationInfo), target)
+                .setResultDeserialized(true)
+                .setCallTimeout(partitionService.getPartitionMigrationTimeout())
+                .<ReplicaDigests>invoke()
+                .whenCompleteAsync(new ReplicaDigestsCallback());
+    }
+
+    private void onReplicaDigests(ReplicaDigests digests) {
+        replicaDigests = digests;
+        // the fragments which only the destination holds are migrated too, so that they are removed there
+        namespacesContext.addNamespaces((NodeEngineImpl) getNodeEngine(), digests.getNamespaces());
     }
 
     private void trySendNewFragment() {
@@ -171,9 +221,15 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
                         + " is different than expected: " + migrationInfo);
             }
 
+            if (chunks != null && !trySendNextChunks()) {
+                return;
+            }
+
             ReplicaFragmentMigrationState migrationState = createNextReplicaFragmentMigrationState();
-            if (migrationState != null) {
-                invokeMigrationOperation(migrationState, false);
+            if (chunks != null) {
+                trySendNextChunks();
+            } else if (migrationState != null) {
+                invokeMigrationOperation(migrationState, false, new MigrationCallback());
             } else {
                 getLogger().finest("All migration fragments done for " + migrationInfo);
                 completeMigration(true);
@@ -184,6 +240,77 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
         }
     }
 
+    /**
+     * Sends the chunks of the replica fragment which is being migrated in chunks. The first chunk is applied
+     * on the destination before the following ones are sent and the last one is sent after all others are
+     * applied. The chunks in between are sent while fewer than {@code maxInFlightChunks} are unacknowledged.
+     *
+     * @return {@code true} if all chunks are sent and acknowledged
+     */
+    private boolean trySendNextChunks() {
+        while (true) {
+            if (nextChunk == null) {
+                if (!chunks.hasNext()) {
+                    if (inFlightChunks > 0) {
+                        return false;
+                    }
+                    chunks = null;
+                    chunkedNamespace = null;
+                    chunkedServiceName = null;
+                    firstChunkOperations = null;
+                    return true;
+                }
+                nextChunk = chunks.next();
+            }
+
+            boolean lastChunk = !chunks.hasNext();
+            if (inFlightChunks > 0 && (sentChunks == 1 || lastChunk || inFlightChunks >= maxInFlightChunks)) {
+                return false;
+            }
+
+            Operation chunk = nextChunk.setServiceName(chunkedServiceName);
+            nextChunk = null;
+            Collection<ServiceNamespace> namespaces = lastChunk ? singleton(chunkedNamespace) : emptySet();
+            Collection<Operation> operations = singleton(chunk);
+            if (sentChunks == 0 && !firstChunkOperations.isEmpty()) {
+                operations = new ArrayList<>(firstChunkOperations);
+                operations.add(chunk);
+            }
+            ReplicaFragmentMigrationState migrationState = createReplicaFragmentMigrationState(namespaces, operations);
+            sentChunks++;
+            inFlightChunks++;
+            InternalPartitionServiceImpl partitionService = getService();
+            partitionService.getMigrationManager().getStats().incrementSentMigrationChunks();
+            invokeMigrationOperation(migrationState, false, new ChunkCallback());
+        }
+    }
+
+    /**
+     * Starts the chunked migration of the replica fragment of the given namespace, if its service supports it.
+     */
+    private boolean tryStartChunkedMigration(PartitionReplicationEvent event, ServiceNamespace ns,
+                                             Collection<String> serviceNames) {
+        if (maxChunkSizeInBytes <= 0) {
+            return false;
+        }
+        for (String serviceName : serviceNames) {
+            FragmentedMigrationAwareService service = getNodeEngine().getService(serviceName);
+            Iterator<Operation> operations = service.prepareChunkedReplicationOperations(event, ns, maxChunkSizeInBytes);
+            if (operations != null && operations.hasNext()) {
+                chunks = operations;
+                chunkedServiceName = serviceName;
+                chunkedNamespace = ns;
+                sentChunks = 0;
+                // the other services of the namespace, if any, replicate it along with the first chunk
+                Collection<String> otherServiceNames = new HashSet<>(serviceNames);
+                otherServiceNames.remove(serviceName);
+                firstChunkOperations = createFragmentReplicationOperations(event, ns, otherServiceNames);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates an empty {@code ReplicaFragmentMigrationState} to perform a ready-check on destination.
      * That way initial {@code MigrationOperation} will be empty and any failure or retry
@@ -224,6 +351,9 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     private ReplicaFragmentMigrationState createReplicaFragmentMigrationStateFor(ServiceNamespace ns) {
         PartitionReplicationEvent event = getPartitionReplicationEvent();
         Collection<String> serviceNames = namespacesContext.getServiceNames(ns);
+        if (tryStartChunkedMigration(event, ns, serviceNames)) {
+            return null;
+        }
 
         Collection<Operation> operations = createFragmentReplicationOperations(event, ns, serviceNames);
         return createReplicaFragmentMigrationState(singleton(ns), operations);
@@ -262,10 +392,12 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     }
 
     private PartitionReplicationEvent getPartitionReplicationEvent() {
-        return new PartitionReplicationEvent(migrationInfo.getPartitionId(), migrationInfo.getDestinationNewReplicaIndex());
+        return new PartitionReplicationEvent(migrationInfo.getPartitionId(), migrationInfo.getDestinationNewReplicaIndex(),
+                replicaDigests);
     }
 
     private void completeMigration(boolean result) {
+        migrationCompleted = true;
         success = result;
         migrationInfo.doneProcessing();
         onMigrationComplete();
@@ -295,12 +427,18 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         super.writeInternal(out);
         out.writeBoolean(fragmentedMigrationEnabled);
+        out.writeBoolean(deltaMigrationEnabled);
+        out.writeLong(maxChunkSizeInBytes);
+        out.writeInt(maxInFlightChunks);
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         super.readInternal(in);
         fragmentedMigrationEnabled = in.readBoolean();
+        deltaMigrationEnabled = in.readBoolean();
+        maxChunkSizeInBytes = in.readLong();
+        maxInFlightChunks = in.readInt();
     }
 
     /**
@@ -315,8 +453,12 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
         @Override
         public void accept(Object result, Throwable throwable) {
             if (Boolean.TRUE.equals(result)) {
+                if (deltaMigrationEnabled && !replicaDigestsFetched) {
+                    invokeFetchReplicaDigestsOperation();
+                    return;
+                }
                 OperationService operationService = getNodeEngine().getOperationService();
-                operationService.execute(new SendNewMigrationFragmentRunnable());
+                operationService.execute(new SendNewMigrationFragmentRunnable(null));
             } else {
                 ILogger logger = getLogger();
                 if (logger.isFineEnabled()) {
@@ -327,8 +469,86 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
         }
     }
 
+    /**
+     * Processes the replica digests sent from the migration destination and continues with the first fragment.
+     */
+    private final class ReplicaDigestsCallback implements BiConsumer<ReplicaDigests, Throwable> {
+
+        private ReplicaDigestsCallback() {
+        }
+
+        @Override
+        public void accept(ReplicaDigests digests, Throwable throwable) {
+            if (throwable != null) {
+                logThrowable(throwable);
+                completeMigration(false);
+                return;
+            }
+            replicaDigestsFetched = true;
+            OperationService operationService = getNodeEngine().getOperationService();
+            operationService.execute(new SendNewMigrationFragmentRunnable(digests));
+        }
+    }
+
+    /**
+     * Processes the result of a migration chunk sent to the migration destination and continues with the next
+     * chunks on the partition thread.
+     */
+    private final class ChunkCallback implements BiConsumer<Object, Throwable> {
+
+        private ChunkCallback() {
+        }
+
+        @Override
+        public void accept(Object result, Throwable throwable) {
+            boolean chunkMigrated = Boolean.TRUE.equals(result);
+            if (!chunkMigrated) {
+                ILogger logger = getLogger();
+                if (logger.isFineEnabled()) {
+                    logger.fine("Received false response for migration chunk from migration destination -> "
+                            + migrationInfo);
+                }
+            }
+            OperationService operationService = getNodeEngine().getOperationService();
+            operationService.execute(new MigrationChunkCompletedRunnable(chunkMigrated));
+        }
+    }
+
+    private final class MigrationChunkCompletedRunnable implements PartitionSpecificRunnable, UrgentSystemOperation {
+
+        private final boolean chunkMigrated;
+
+        private MigrationChunkCompletedRunnable(boolean chunkMigrated) {
+            this.chunkMigrated = chunkMigrated;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return MigrationRequestOperation.this.getPartitionId();
+        }
+
+        @Override
+        public void run() {
+            inFlightChunks--;
+            if (migrationCompleted) {
+                return;
+            }
+            if (chunkMigrated) {
+                trySendNewFragment();
+            } else {
+                completeMigration(false);
+            }
+        }
+    }
+
     private final class SendNewMigrationFragmentRunnable implements PartitionSpecificRunnable, UrgentSystemOperation {
 
+        private final ReplicaDigests fetchedReplicaDigests;
+
+        private SendNewMigrationFragmentRunnable(ReplicaDigests fetchedReplicaDigests) {
+            this.fetchedReplicaDigests = fetchedReplicaDigests;
+        }
+
         @Override
         public int getPartitionId() {
             return MigrationRequestOperation.this.getPartitionId();
@@ -336,6 +556,9 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
 
         @Override
         public void run() {
+            if (fetchedReplicaDigests != null) {
+                onReplicaDigests(fetchedReplicaDigests);
+            }
             trySendNewFragment();
         }
 
@@ -345,7 +568,7 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
         final Collection<ServiceNamespace> allNamespaces = new HashSet<>();
         final Map<ServiceNamespace, Collection<String>> namespaceToServices = new HashMap<>();
 
-        final Iterator<ServiceNamespace> namespaceIterator;
+        Iterator<ServiceNamespace> namespaceIterator;
 
         ServiceNamespacesContext(NodeEngineImpl nodeEngine, PartitionReplicationEvent event) {
             Collection<ServiceInfo> services = nodeEngine.getServiceInfos(FragmentedMigrationAwareService.class);
@@ -380,6 +603,23 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
             }
         }
 
+        /**
+         * Adds the given namespaces to the ones to be migrated, if they are known by a service.
+         * Must be called before the iteration starts.
+         */
+        void addNamespaces(NodeEngineImpl nodeEngine, Collection<ServiceNamespace> namespaces) {
+            Collection<ServiceInfo> services = nodeEngine.getServiceInfos(FragmentedMigrationAwareService.class);
+            for (ServiceInfo serviceInfo : services) {
+                FragmentedMigrationAwareService service = serviceInfo.getService();
+                for (ServiceNamespace namespace : namespaces) {
+                    if (service.isKnownServiceNamespace(namespace) && allNamespaces.add(namespace)) {
+                        addNamespaceToServiceMappings(singleton(namespace), serviceInfo.getName());
+                    }
+                }
+            }
+            namespaceIterator = allNamespaces.iterator();
+        }
+
         boolean hasNext() {
             return namespaceIterator.hasNext();
         }
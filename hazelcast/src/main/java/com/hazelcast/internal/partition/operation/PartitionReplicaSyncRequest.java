@@ -22,6 +22,7 @@ import com.hazelcast.internal.partition.MigrationCycleOperation;
 import com.hazelcast.internal.partition.NonFragmentedServiceNamespace;
 import com.hazelcast.internal.partition.PartitionReplica;
 import com.hazelcast.internal.partition.PartitionReplicaVersionManager;
+import com.hazelcast.internal.partition.ReplicaDigests;
 import com.hazelcast.internal.partition.ReplicaErrorLogger;
 import com.hazelcast.internal.partition.impl.InternalPartitionImpl;
 import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
@@ -61,13 +62,16 @@ public final class PartitionReplicaSyncRequest extends AbstractPartitionOperatio
         implements PartitionAwareOperation, MigrationCycleOperation {
 
     private List<ServiceNamespace> namespaces;
+    private ReplicaDigests replicaDigests;
 
     public PartitionReplicaSyncRequest() {
         namespaces = Collections.emptyList();
     }
 
-    public PartitionReplicaSyncRequest(int partitionId, List<ServiceNamespace> namespaces, int replicaIndex) {
+    public PartitionReplicaSyncRequest(int partitionId, List<ServiceNamespace> namespaces, int replicaIndex,
+                                       ReplicaDigests replicaDigests) {
         this.namespaces = namespaces;
+        this.replicaDigests = replicaDigests;
         setPartitionId(partitionId);
         setReplicaIndex(replicaIndex);
     }
@@ -129,7 +133,8 @@ public final class PartitionReplicaSyncRequest extends AbstractPartitionOperatio
     private void sendOperationsForNamespaces(int permits) {
         InternalPartitionServiceImpl partitionService = getService();
         try {
-            PartitionReplicationEvent event = new PartitionReplicationEvent(getPartitionId(), getReplicaIndex());
+            PartitionReplicationEvent event = new PartitionReplicationEvent(getPartitionId(), getReplicaIndex(),
+                    replicaDigests);
             Iterator<ServiceNamespace> iterator = namespaces.iterator();
             for (int i = 0; i < permits; i++) {
                 ServiceNamespace namespace = iterator.next();
@@ -255,11 +260,13 @@ public final class PartitionReplicaSyncRequest extends AbstractPartitionOperatio
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         writeList(namespaces, out);
+        out.writeObject(replicaDigests);
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         namespaces = readList(in);
+        replicaDigests = in.readObject();
     }
 
     @Override
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.nio.Bits;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.FieldDefinition;
+import com.hazelcast.nio.serialization.FieldType;
+
+import java.nio.ByteOrder;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.SHORT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+
+/**
+ * Reads a primitive top-level field of a Portable directly from the bytes of
+ * its {@link Data}, without creating a {@link DefaultPortableReader} and the
+ * position objects of the path navigation.
+ * <p>
+ * An accessor is compiled for a single field of a single
+ * {@link ClassDefinition}: the offset of the field in the field position
+ * table is resolved once, so reading the field is a lookup in the position
+ * table, a read of the length of the field name written in front of the
+ * field and a primitive read. {@link #matches} tells if the given data was
+ * written with the class definition of the accessor. An accessor is also
+ * compiled for a field it cannot {@link #canRead read}, so that callers can
+ * cache that the field has to be read otherwise.
+ */
+public final class PortableFieldAccessor {
+
+    private static final int FACTORY_ID_OFFSET = DATA_OFFSET;
+    private static final int CLASS_ID_OFFSET = FACTORY_ID_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int VERSION_OFFSET = CLASS_ID_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int FIELD_COUNT_OFFSET = VERSION_OFFSET + 2 * INT_SIZE_IN_BYTES;
+    private static final int POSITION_TABLE_OFFSET = FIELD_COUNT_OFFSET + INT_SIZE_IN_BYTES;
+
+    private final int factoryId;
+    private final int classId;
+    private final int version;
+    private final int fieldCount;
+    private final int positionOffset;
+    private final FieldType type;
+    private final boolean bigEndian;
+
+    private PortableFieldAccessor(ClassDefinition classDefinition, FieldDefinition fieldDefinition, int version,
+                                  ByteOrder byteOrder) {
+        this.factoryId = classDefinition.getFactoryId();
+        this.classId = classDefinition.getClassId();
+        this.version = version;
+        this.fieldCount = classDefinition.getFieldCount();
+        if (fieldDefinition != null && isPrimitive(fieldDefinition.getType())) {
+            this.positionOffset = POSITION_TABLE_OFFSET + fieldDefinition.getIndex() * INT_SIZE_IN_BYTES;
+            this.type = fieldDefinition.getType();
+        } else {
+            this.positionOffset = -1;
+            this.type = null;
+        }
+        this.bigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Compiles an accessor for the given top-level field of the Portable
+     * stored in the given data.
+     *
+     * @param data            the data the class definition was looked up for
+     * @param classDefinition the class definition of the data
+     * @param fieldName       the name of the field
+     * @param byteOrder       the byte order of the serialization service
+     * @return the accessor, which cannot {@link #canRead read} the field if
+     * the class definition has no field of that name or the field is not of
+     * a primitive type
+     */
+    public static PortableFieldAccessor compile(Data data, ClassDefinition classDefinition, String fieldName,
+                                                ByteOrder byteOrder) {
+        FieldDefinition fieldDefinition = classDefinition.getField(fieldName);
+        // the version written to the stream, the class definition may carry the default one
+        int version = Bits.readInt(data.toByteArray(), VERSION_OFFSET, byteOrder == ByteOrder.BIG_ENDIAN);
+        return new PortableFieldAccessor(classDefinition, fieldDefinition, version, byteOrder);
+    }
+
+    /**
+     * @return {@code true} if the given Portable data was written with the
+     * class definition this accessor was compiled for
+     */
+    public boolean matches(Data data) {
+        byte[] payload = data.toByteArray();
+        return payload.length >= POSITION_TABLE_OFFSET
+                && Bits.readInt(payload, CLASS_ID_OFFSET, bigEndian) == classId
+                && Bits.readInt(payload, FACTORY_ID_OFFSET, bigEndian) == factoryId
+                && Bits.readInt(payload, VERSION_OFFSET, bigEndian) == version
+                && Bits.readInt(payload, FIELD_COUNT_OFFSET, bigEndian) == fieldCount;
+    }
+
+    /**
+     * @return {@code true} if this accessor reads the field, {@code false}
+     * if the field is not a top-level primitive field of the class definition
+     */
+    public boolean canRead() {
+        return type != null;
+    }
+
+    /**
+     * Reads the field from the given data, which should {@link #matches
+     * match} this accessor, if the accessor {@link #canRead can read} it.
+     *
+     * @return the boxed value of the field
+     */
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    public Object read(Data data) {
+        assert canRead() : "Field is not read by the accessor";
+        byte[] payload = data.toByteArray();
+        int fieldPosition = Bits.readInt(payload, positionOffset, bigEndian);
+        // name length, name and type, see PortableUtils#getStreamPositionOfTheField
+        int nameLength = Bits.readShort(payload, fieldPosition, bigEndian);
+        int position = fieldPosition + SHORT_SIZE_IN_BYTES + nameLength + 1;
+        switch (type) {
+            case INT:
+                return Bits.readInt(payload, position, bigEndian);
+            case LONG:
+                return Bits.readLong(payload, position, bigEndian);
+            case DOUBLE:
+                return Double.longBitsToDouble(Bits.readLong(payload, position, bigEndian));
+            case FLOAT:
+                return Float.intBitsToFloat(Bits.readInt(payload, position, bigEndian));
+            case SHORT:
+                return Bits.readShort(payload, position, bigEndian);
+            case BYTE:
+                return payload[position];
+            case BOOLEAN:
+                return payload[position] != 0;
+            case CHAR:
+                return Bits.readChar(payload, position, bigEndian);
+            default:
+                throw new IllegalStateException("Unsupported field type: " + type);
+        }
+    }
+
+    private static boolean isPrimitive(FieldType type) {
+        switch (type) {
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case FLOAT:
+            case SHORT:
+            case BYTE:
+            case BOOLEAN:
+            case CHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
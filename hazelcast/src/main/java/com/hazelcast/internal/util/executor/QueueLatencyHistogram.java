@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.executor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A histogram of the time the tasks of a stripe of the {@link StripedExecutor} spent in the queue. The buckets have
+ * power of two upper bounds in microseconds: the bucket {@code i} counts the latencies below {@code 2^i} microseconds
+ * and not counted by the previous bucket. The last bucket counts all the longer latencies.
+ */
+public final class QueueLatencyHistogram {
+
+    static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    void record(long latencyNanos) {
+        long micros = NANOSECONDS.toMicros(latencyNanos);
+        int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+        buckets.incrementAndGet(bucket);
+    }
+
+    public int bucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    /** Returns the exclusive upper bound of the {@code bucket} in microseconds, or {@link Long#MAX_VALUE} for the last one. */
+    public long upperBoundMicros(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /** Returns the number of tasks whose queue latency falls into the {@code bucket}. */
+    public long count(int bucket) {
+        return buckets.get(bucket);
+    }
+}
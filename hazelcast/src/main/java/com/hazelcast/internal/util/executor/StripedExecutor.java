@@ -17,25 +17,33 @@
 package com.hazelcast.internal.util.executor;
 
 import com.hazelcast.instance.impl.OutOfMemoryErrorDispatcher;
+import com.hazelcast.internal.util.counters.MwCounter;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
 import static com.hazelcast.internal.util.HashUtil.hashToIndex;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.Preconditions.checkPositive;
 import static java.lang.Math.ceil;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
@@ -47,14 +55,34 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  * If the queue is full and the runnable implements TimeoutRunnable, then a configurable amount of blocking is
  * done on the queue. If the runnable doesn't implement TimeoutRunnable or when the blocking times out,
  * then the task is rejected and a RejectedExecutionException is thrown.
+ * <p>
+ * If a stripe count is given, the StripedExecutor runs in work stealing mode. The tasks are then put in the queue
+ * of a stripe, and a stripe with pending tasks is scheduled on its home worker. A worker without scheduled stripes
+ * steals a whole stripe from another worker, so a busy worker does not hold back the stripes behind its current one.
+ * A stripe is processed by a single worker at a time, which keeps the tasks of a stripe ordered. The queue capacity
+ * is shared by all stripes and the time the tasks spend in the queue is recorded in a
+ * {@link QueueLatencyHistogram} per stripe.
  */
 public final class StripedExecutor implements Executor {
 
     public static final AtomicLong THREAD_ID_GENERATOR = new AtomicLong();
 
+    /** The maximum number of tasks of a stripe processed before the stripe is scheduled again. */
+    private static final int STRIPE_BATCH_SIZE = 64;
+    /** The maximum time an idle worker parks before looking for stripes to steal again. */
+    private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos(100);
+    /** The maximum time a producer parks while waiting for queue capacity in work stealing mode. */
+    private static final long MAX_OFFER_PARK_NANOS = MILLISECONDS.toNanos(1);
+
     private final int size;
     private final ILogger logger;
     private final Worker[] workers;
+    /** The stripes of the work stealing mode, {@code null} otherwise. */
+    private final Stripe[] stripes;
+    private final int queueCapacity;
+    /** The number of the queued tasks of all stripes in work stealing mode. */
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final MwCounter stolenStripes = MwCounter.newMwCounter();
     private final Random rand = new Random();
     private volatile boolean live = true;
 
@@ -70,24 +98,49 @@ public final class StripedExecutor implements Executor {
                            int threadCount,
                            int queueCapacity,
                            boolean lazyThreads) {
+        this(logger, threadNamePrefix, threadCount, queueCapacity, lazyThreads, 0);
+    }
+
+    /**
+     * @param stripeCount the number of stripes in work stealing mode, or {@code 0} to disable work stealing and
+     *                    use a single queue per worker
+     */
+    public StripedExecutor(ILogger logger,
+                           String threadNamePrefix,
+                           int threadCount,
+                           int queueCapacity,
+                           boolean lazyThreads,
+                           int stripeCount) {
         checkPositive(threadCount, "threadCount should be positive but found " + threadCount);
         checkPositive(queueCapacity, "queueCapacity should be positive but found " + queueCapacity);
 
         this.logger = logger;
         this.size = threadCount;
         this.workers = new Worker[threadCount];
+        this.queueCapacity = queueCapacity;
 
         // `queueCapacity` is the given max capacity for this executor. Each worker in this executor should consume
         // only a portion of that capacity. Otherwise we will have `threadCount * queueCapacity` instead of
-        // `queueCapacity`.
+        // `queueCapacity`. In work stealing mode the capacity is shared by all stripes.
         int perThreadMaxQueueCapacity = (int) ceil(1D * queueCapacity / threadCount);
         for (int i = 0; i < threadCount; i++) {
-            Worker worker = new Worker(threadNamePrefix, perThreadMaxQueueCapacity);
-            if (!lazyThreads) {
+            workers[i] = new Worker(threadNamePrefix, i, stripeCount > 0 ? 0 : perThreadMaxQueueCapacity);
+        }
+
+        if (stripeCount > 0) {
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe(workers[i % threadCount]);
+            }
+        } else {
+            this.stripes = null;
+        }
+
+        if (!lazyThreads) {
+            for (Worker worker : workers) {
                 worker.started.set(true);
                 worker.start();
             }
-            workers[i] = worker;
         }
     }
 
@@ -97,6 +150,9 @@ public final class StripedExecutor implements Executor {
      * @return total work queue size.
      */
     public int getWorkQueueSize() {
+        if (stripes != null) {
+            return queuedTasks.get();
+        }
         int size = 0;
         for (Worker worker : workers) {
             size += worker.taskQueue.size();
@@ -115,6 +171,26 @@ public final class StripedExecutor implements Executor {
         return size;
     }
 
+    /**
+     * Returns the number of stripes stolen by idle workers from the other workers in work stealing mode.
+     */
+    public long stolenStripeCount() {
+        return stolenStripes.get();
+    }
+
+    /**
+     * Returns the queue latency histograms of the stripes in work stealing mode, or an empty list otherwise.
+     */
+    public List<QueueLatencyHistogram> getQueueLatencyHistograms() {
+        List<QueueLatencyHistogram> histograms = new ArrayList<>();
+        if (stripes != null) {
+            for (Stripe stripe : stripes) {
+                histograms.add(stripe.queueLatency);
+            }
+        }
+        return histograms;
+    }
+
     /**
      * Shuts down this StripedExecutor.
      * <p>
@@ -128,6 +204,11 @@ public final class StripedExecutor implements Executor {
         for (Worker worker : workers) {
             worker.shutdown();
         }
+        if (stripes != null) {
+            for (Stripe stripe : stripes) {
+                stripe.clear();
+            }
+        }
     }
 
     /**
@@ -147,23 +228,31 @@ public final class StripedExecutor implements Executor {
             throw new RejectedExecutionException("Executor is terminated!");
         }
 
-        Worker worker = getWorker(task);
-        worker.schedule(task);
+        if (stripes != null) {
+            stripes[hashToIndex(getKey(task), stripes.length)].schedule(task);
+        } else {
+            workers[hashToIndex(getKey(task), size)].schedule(task);
+        }
     }
 
-    private Worker getWorker(Runnable task) {
-        int key;
+    private int getKey(Runnable task) {
         if (task instanceof StripedRunnable) {
-            key = ((StripedRunnable) task).getKey();
-        } else {
-            key = rand.nextInt();
+            return ((StripedRunnable) task).getKey();
         }
-
-        int index = hashToIndex(key, size);
-        return workers[index];
+        return rand.nextInt();
     }
 
+    /**
+     * Returns the task queues of the workers, or copies of the task queues of the stripes in work stealing mode.
+     */
     public List<BlockingQueue<Runnable>> getTaskQueues() {
+        if (stripes != null) {
+            List<BlockingQueue<Runnable>> taskQueues = new ArrayList<>(stripes.length);
+            for (Stripe stripe : stripes) {
+                taskQueues.add(new LinkedBlockingQueue<>(stripe.getTasks()));
+            }
+            return taskQueues;
+        }
         List<BlockingQueue<Runnable>> taskQueues = new ArrayList<BlockingQueue<Runnable>>(workers.length);
         for (Worker worker : workers) {
             taskQueues.add(worker.taskQueue);
@@ -176,23 +265,179 @@ public final class StripedExecutor implements Executor {
         return workers;
     }
 
+    /** Reserves queue capacity for a task in work stealing mode, waiting up to the timeout of the task. */
+    private void acquireQueueCapacity(Runnable task) {
+        long timeoutNanos = timeoutNanos(task);
+        long deadline = System.nanoTime() + timeoutNanos;
+        long parkNanos = 1;
+        while (true) {
+            int queued = queuedTasks.get();
+            if (queued < queueCapacity) {
+                if (queuedTasks.compareAndSet(queued, queued + 1)) {
+                    return;
+                }
+                continue;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                throw new RejectedExecutionException("Task: " + task + " is rejected, the task queues are full!");
+            }
+            LockSupport.parkNanos(min(parkNanos, remainingNanos));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Thread is interrupted while offering work");
+            }
+            parkNanos = min(parkNanos << 1, MAX_OFFER_PARK_NANOS);
+        }
+    }
+
+    private static long timeoutNanos(Runnable task) {
+        if (task instanceof TimeoutRunnable) {
+            TimeoutRunnable r = ((TimeoutRunnable) task);
+            return r.getTimeUnit().toNanos(r.getTimeout());
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Wakes up a parked worker, so that it can steal a stripe waiting for a busy worker. If no worker is parked, a
+     * lazily started worker which was not started yet is started instead.
+     */
+    private void unparkIdleWorker() {
+        Worker notStarted = null;
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker);
+                return;
+            }
+            if (notStarted == null && !worker.started.get()) {
+                notStarted = worker;
+            }
+        }
+        if (notStarted != null) {
+            notStarted.startIfNeeded();
+        }
+    }
+
+    /**
+     * A stripe of tasks in work stealing mode. A stripe with pending tasks is scheduled on the ready stripes of its
+     * home worker and it is processed by a single worker at a time.
+     */
+    private final class Stripe {
+        private final Worker home;
+        private final Deque<QueuedTask> tasks = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final QueueLatencyHistogram queueLatency = new QueueLatencyHistogram();
+
+        Stripe(Worker home) {
+            this.home = home;
+        }
+
+        void schedule(Runnable task) {
+            acquireQueueCapacity(task);
+            synchronized (this) {
+                tasks.add(new QueuedTask(task, System.nanoTime()));
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                home.addReadyStripe(this);
+            }
+        }
+
+        /** Processes a batch of tasks on the {@code worker} and schedules the stripe again if it has more tasks. */
+        void process(Worker worker) {
+            for (int i = 0; i < STRIPE_BATCH_SIZE; i++) {
+                QueuedTask queuedTask = poll();
+                if (queuedTask == null) {
+                    break;
+                }
+                queuedTasks.decrementAndGet();
+                queueLatency.record(System.nanoTime() - queuedTask.enqueueNanos);
+                worker.process(queuedTask.task);
+            }
+            if (hasTasks()) {
+                home.addReadyStripe(this);
+                return;
+            }
+            scheduled.set(false);
+            if (hasTasks() && scheduled.compareAndSet(false, true)) {
+                home.addReadyStripe(this);
+            }
+        }
+
+        private synchronized QueuedTask poll() {
+            return tasks.poll();
+        }
+
+        private synchronized boolean hasTasks() {
+            return !tasks.isEmpty();
+        }
+
+        synchronized List<Runnable> getTasks() {
+            List<Runnable> runnables = new ArrayList<>(tasks.size());
+            for (QueuedTask queuedTask : tasks) {
+                runnables.add(queuedTask.task);
+            }
+            return runnables;
+        }
+
+        synchronized void clear() {
+            queuedTasks.addAndGet(-tasks.size());
+            tasks.clear();
+        }
+    }
+
+    private static final class QueuedTask {
+        private final Runnable task;
+        private final long enqueueNanos;
+
+        QueuedTask(Runnable task, long enqueueNanos) {
+            this.task = task;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+
     final class Worker extends Thread {
 
+        private final int index;
+        /** The task queue of this worker, {@code null} in work stealing mode. */
         private final BlockingQueue<Runnable> taskQueue;
+        /** The stripes with pending tasks whose home is this worker, used in work stealing mode. */
+        private final Deque<Stripe> readyStripes = new ConcurrentLinkedDeque<>();
         private final SwCounter processed = SwCounter.newSwCounter();
         private final int queueCapacity;
         private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean parked;
 
-        private Worker(String threadNamePrefix, int queueCapacity) {
+        private Worker(String threadNamePrefix, int index, int queueCapacity) {
             super(threadNamePrefix + "-" + THREAD_ID_GENERATOR.incrementAndGet());
-            this.taskQueue = new LinkedBlockingQueue<Runnable>(queueCapacity);
+            this.index = index;
+            this.taskQueue = queueCapacity > 0 ? new LinkedBlockingQueue<Runnable>(queueCapacity) : null;
             this.queueCapacity = queueCapacity;
         }
 
-        private void schedule(Runnable task) {
+        /** Starts this worker if it was not started yet, returns {@code true} if it was started by this call. */
+        private boolean startIfNeeded() {
             if (!started.get() && started.compareAndSet(false, true)) {
                 start();
+                return true;
+            }
+            return false;
+        }
+
+        private void addReadyStripe(Stripe stripe) {
+            boolean starting = startIfNeeded();
+            readyStripes.addLast(stripe);
+            if (parked) {
+                LockSupport.unpark(this);
+            } else if (!starting) {
+                // this worker is busy, another worker can steal the stripe
+                unparkIdleWorker();
             }
+        }
+
+        private void schedule(Runnable task) {
+            startIfNeeded();
 
             long timeoutNanos = timeoutNanos(task);
             try {
@@ -210,18 +455,13 @@ public final class StripedExecutor implements Executor {
             }
         }
 
-        private long timeoutNanos(Runnable task) {
-            if (task instanceof TimeoutRunnable) {
-                TimeoutRunnable r = ((TimeoutRunnable) task);
-                return r.getTimeUnit().toNanos(r.getTimeout());
-            } else {
-                return 0;
-            }
-        }
-
         @Override
         public void run() {
             try {
+                if (stripes != null) {
+                    processStripes();
+                    return;
+                }
                 while (live) {
                     try {
                         Runnable task = taskQueue.take();
@@ -239,6 +479,41 @@ public final class StripedExecutor implements Executor {
             }
         }
 
+        private void processStripes() {
+            while (live) {
+                Stripe stripe = nextStripe();
+                if (stripe == null) {
+                    parked = true;
+                    // checks again after announcing the parking, a stripe scheduled meanwhile unparks this worker
+                    stripe = nextStripe();
+                    if (stripe == null) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+                if (stripe != null) {
+                    stripe.process(this);
+                }
+            }
+        }
+
+        /** Returns the next ready stripe of this worker, or steals the most recently scheduled one of another worker. */
+        private Stripe nextStripe() {
+            Stripe stripe = readyStripes.pollFirst();
+            if (stripe != null) {
+                return stripe;
+            }
+            for (int i = 1; i < workers.length; i++) {
+                Worker victim = workers[(index + i) % workers.length];
+                stripe = victim.readyStripes.pollLast();
+                if (stripe != null) {
+                    stolenStripes.inc();
+                    return stripe;
+                }
+            }
+            return null;
+        }
+
         private void process(Runnable task) {
             processed.inc();
             try {
@@ -255,7 +530,10 @@ public final class StripedExecutor implements Executor {
         }
 
         private void shutdown() {
-            taskQueue.clear();
+            if (taskQueue != null) {
+                taskQueue.clear();
+            }
+            readyStripes.clear();
             interrupt();
         }
     }
@@ -26,6 +26,7 @@ import com.hazelcast.config.WanReplicationConfig;
 import com.hazelcast.config.WanConsumerConfig;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.config.WanSyncConfig;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.InternalSerializationService;
@@ -42,8 +43,10 @@ import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
+import com.hazelcast.map.impl.record.OffHeapRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.partition.PartitioningStrategy;
@@ -53,7 +56,9 @@ import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
+import com.hazelcast.spi.properties.HazelcastProperty;
 import com.hazelcast.wan.impl.DelegatingWanScheme;
 import com.hazelcast.wan.impl.WanReplicationService;
 
@@ -63,12 +68,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static com.hazelcast.config.ConsistencyCheckStrategy.MERKLE_TREES;
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
+import static com.hazelcast.internal.config.ConfigUtils.matchesNames;
 import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COLUMNAR_PROJECTION_MAP_NAMES;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_STORAGE_MAP_NAMES;
 import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_OFF_HEAP_STORAGE_MAP_NAMES;
 import static java.lang.System.getProperty;
 
 /**
@@ -107,6 +117,9 @@ public class MapContainer {
     private volatile Evictor evictor;
 
     private boolean persistWanReplicatedData;
+    private final MemoryManager offHeapMemoryManager;
+    private final boolean compactStorage;
+    private final boolean columnarProjection;
 
     /**
      * Operations which are done in this constructor should obey the rules defined
@@ -123,6 +136,10 @@ public class MapContainer {
         this.partitioningStrategy = createPartitioningStrategy();
         this.splitBrainProtectionName = mapConfig.getSplitBrainProtectionName();
         this.serializationService = ((InternalSerializationService) nodeEngine.getSerializationService());
+        this.offHeapMemoryManager = getOffHeapMemoryManager(config, nodeEngine);
+        this.compactStorage = offHeapMemoryManager == null && BINARY.equals(mapConfig.getInMemoryFormat())
+                && matchesMapNames(config, nodeEngine, MAP_COMPACT_STORAGE_MAP_NAMES);
+        this.columnarProjection = matchesMapNames(config, nodeEngine, MAP_COLUMNAR_PROJECTION_MAP_NAMES);
         this.recordFactoryConstructor = createRecordFactoryConstructor(serializationService);
         this.objectNamespace = MapService.getObjectNamespace(name);
         this.extractors = Extractors.newBuilder(serializationService)
@@ -202,7 +219,12 @@ public class MapContainer {
         return anyArg -> {
             switch (mapConfig.getInMemoryFormat()) {
                 case BINARY:
-                    return new DataRecordFactory(mapConfig, serializationService);
+                    if (offHeapMemoryManager != null) {
+                        return new OffHeapRecordFactory(serializationService, offHeapMemoryManager);
+                    }
+                    return compactStorage
+                            ? new CompactRecordFactory(serializationService)
+                            : new DataRecordFactory(mapConfig, serializationService);
                 case OBJECT:
                     return new ObjectRecordFactory(mapConfig, serializationService);
                 default:
@@ -211,6 +233,46 @@ public class MapContainer {
         };
     }
 
+    /**
+     * @return {@code true} if the records of this map are kept in native
+     * memory by the off-heap storage, otherwise {@code false}
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_OFF_HEAP_STORAGE_MAP_NAMES
+     */
+    public boolean isOffHeapStorage() {
+        return offHeapMemoryManager != null;
+    }
+
+    /**
+     * @return {@code true} if the records of this map are kept in the
+     * primitive arrays of the compact on-heap storage, otherwise {@code false}
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_COMPACT_STORAGE_MAP_NAMES
+     */
+    public boolean isCompactStorage() {
+        return compactStorage;
+    }
+
+    /**
+     * @return {@code true} if the record stores of this map keep the queried
+     * attributes in a columnar projection, otherwise {@code false}
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_COLUMNAR_PROJECTION_MAP_NAMES
+     */
+    public boolean isColumnarProjection() {
+        return columnarProjection;
+    }
+
+    private MemoryManager getOffHeapMemoryManager(Config config, NodeEngine nodeEngine) {
+        if (!BINARY.equals(mapConfig.getInMemoryFormat())
+                || !matchesMapNames(config, nodeEngine, MAP_OFF_HEAP_STORAGE_MAP_NAMES)) {
+            return null;
+        }
+        // null when native memory is not available, the map stays on-heap then
+        return ((NodeEngineImpl) nodeEngine).getNode().getNodeExtension().getNativeMemoryManager();
+    }
+
+    private boolean matchesMapNames(Config config, NodeEngine nodeEngine, HazelcastProperty mapNamesProperty) {
+        return matchesNames(config.getConfigPatternMatcher(), nodeEngine.getProperties(), mapNamesProperty, name);
+    }
+
     public void initWanReplication(NodeEngine nodeEngine) {
         WanReplicationRef wanReplicationRef = mapConfig.getWanReplicationRef();
         if (wanReplicationRef == null) {
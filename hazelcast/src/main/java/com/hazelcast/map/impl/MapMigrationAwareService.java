@@ -21,11 +21,15 @@ import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
 import com.hazelcast.internal.partition.MigrationEndpoint;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigest;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.internal.services.ServiceNamespace;
 import com.hazelcast.internal.util.Clock;
+import com.hazelcast.map.impl.operation.MapReplicaDigests;
+import com.hazelcast.map.impl.operation.MapReplicationChunkIterator;
 import com.hazelcast.map.impl.operation.MapReplicationOperation;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.querycache.publisher.PublisherContext;
 import com.hazelcast.map.impl.record.Record;
@@ -39,6 +43,8 @@ import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.function.Predicate;
 
 import static com.hazelcast.internal.partition.MigrationEndpoint.DESTINATION;
@@ -46,6 +52,7 @@ import static com.hazelcast.internal.partition.MigrationEndpoint.SOURCE;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.flushAccumulator;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.removeAccumulator;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.sendEndOfSequenceEvents;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_DELTA_REPLICATION_ENABLED;
 
 /**
  * Defines migration behavior of map service.
@@ -57,11 +64,14 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
     protected final PartitionContainer[] containers;
     protected final MapServiceContext mapServiceContext;
     protected final SerializationService serializationService;
+    protected final boolean deltaReplicationEnabled;
 
     MapMigrationAwareService(MapServiceContext mapServiceContext) {
         this.mapServiceContext = mapServiceContext;
         this.serializationService = mapServiceContext.getNodeEngine().getSerializationService();
         this.containers = mapServiceContext.getPartitionContainers();
+        this.deltaReplicationEnabled = mapServiceContext.getNodeEngine().getProperties()
+                .getBoolean(PARTITION_DELTA_REPLICATION_ENABLED);
     }
 
     @Override
@@ -75,8 +85,39 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
                 && MapService.SERVICE_NAME.equals(namespace.getServiceName());
     }
 
+    /**
+     * Creates the digest of an existing, non-empty map replica which can
+     * be updated with the differing entries only. No digest is created for a
+     * replica becoming the primary one of a map with partitioned indexes,
+     * they are populated while all entries are replicated.
+     */
+    @Override
+    public ReplicaDigest createReplicaDigest(PartitionReplicationEvent event, ServiceNamespace namespace) {
+        String mapName = ((ObjectNamespace) namespace).getObjectName();
+        RecordStore<Record> recordStore = containers[event.getPartitionId()].getExistingRecordStore(mapName);
+        if (recordStore == null || recordStore.size() == 0) {
+            return null;
+        }
+        MapContainer mapContainer = recordStore.getMapContainer();
+        if (mapContainer.getTotalBackupCount() < event.getReplicaIndex()) {
+            return null;
+        }
+        if (event.getReplicaIndex() == 0 && !mapContainer.isGlobalIndexEnabled()
+                && !mapContainer.getIndexDefinitions().isEmpty()) {
+            return null;
+        }
+        return MapReplicaDigests.createDigest(recordStore, serializationService,
+                MapReplicaDigests.getDigestDepth(recordStore.size()));
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
+        MapPersistenceService persistenceService = mapServiceContext.getMapPersistenceService();
+        if (persistenceService != null && event.getMigrationEndpoint() == DESTINATION
+                && event.getCurrentReplicaIndex() < 0) {
+            persistenceService.onReplicaMigration(event.getPartitionId(), deltaReplicationEnabled);
+        }
+
         if (isLocalPromotion(event)) {
             // It's a local partition promotion. We need to populate non-global indexes here since
             // there is no map replication performed in this case. Global indexes are populated
@@ -87,6 +128,9 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
 
             // 2. Populate non-global partitioned indexes.
             populateIndexes(event, TargetIndexes.NON_GLOBAL);
+
+            // 3. Reschedule expirations, idle expiry of the backup replica was driven by the primary.
+            rescheduleExpirations(event);
         }
 
         flushAndRemoveQueryCaches(event);
@@ -115,8 +159,15 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
 
     @Override
     public Operation prepareReplicationOperation(PartitionReplicationEvent event) {
-        return prepareReplicationOperation(event,
-                containers[event.getPartitionId()].getAllNamespaces(event.getReplicaIndex()));
+        Collection<ServiceNamespace> namespaces
+                = new LinkedHashSet<>(containers[event.getPartitionId()].getAllNamespaces(event.getReplicaIndex()));
+        for (ServiceNamespace namespace : event.getReplicaDigestNamespaces()) {
+            // maps which exist only on the destination replica are cleared there
+            if (isKnownServiceNamespace(namespace)) {
+                namespaces.add(namespace);
+            }
+        }
+        return prepareReplicationOperation(event, namespaces);
     }
 
     @Override
@@ -124,16 +175,36 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
                                                  Collection<ServiceNamespace> namespaces) {
         assert assertAllKnownNamespaces(namespaces);
 
-        int partitionId = event.getPartitionId();
-
-        Operation operation = new MapReplicationOperation(containers[partitionId],
-                namespaces, partitionId, event.getReplicaIndex());
+        Operation operation = new MapReplicationOperation(containers[event.getPartitionId()], namespaces, event);
         operation.setService(mapServiceContext.getService());
         operation.setNodeEngine(mapServiceContext.getNodeEngine());
 
         return operation;
     }
 
+    /**
+     * Replicates the entries of an existing map replica in chunks. A map
+     * replica which is replicated as a delta is small enough already.
+     */
+    @Override
+    public Iterator<Operation> prepareChunkedReplicationOperations(PartitionReplicationEvent event,
+                                                                    ServiceNamespace namespace,
+                                                                    long maxChunkSizeInBytes) {
+        assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
+
+        if (event.getReplicaDigest(namespace) != null) {
+            return null;
+        }
+        ObjectNamespace mapNamespace = (ObjectNamespace) namespace;
+        RecordStore<Record> recordStore = containers[event.getPartitionId()]
+                .getExistingRecordStore(mapNamespace.getObjectName());
+        if (recordStore == null) {
+            return null;
+        }
+        return new MapReplicationChunkIterator(mapServiceContext, mapNamespace, event, recordStore,
+                maxChunkSizeInBytes);
+    }
+
     private boolean assertAllKnownNamespaces(Collection<ServiceNamespace> namespaces) {
         for (ServiceNamespace namespace : namespaces) {
             assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
@@ -169,6 +240,13 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         removeOrRegenerateNearCacheUuid(event);
     }
 
+    private void rescheduleExpirations(PartitionMigrationEvent event) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(event.getPartitionId());
+        for (RecordStore recordStore : container.getAllRecordStores()) {
+            recordStore.rescheduleExpirations();
+        }
+    }
+
     private void removeOrRegenerateNearCacheUuid(PartitionMigrationEvent event) {
         if (SOURCE == event.getMigrationEndpoint()) {
             getMetaDataGenerator().removeUuidAndSequence(event.getPartitionId());
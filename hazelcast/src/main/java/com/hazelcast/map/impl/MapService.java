@@ -28,6 +28,7 @@ import com.hazelcast.internal.partition.IPartitionLostEvent;
 import com.hazelcast.internal.partition.PartitionAwareService;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigest;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.services.ClientAwareService;
 import com.hazelcast.internal.services.DistributedObjectNamespace;
@@ -61,6 +62,7 @@ import com.hazelcast.transaction.impl.Transaction;
 import com.hazelcast.wan.impl.InternalWanEvent;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
@@ -68,6 +70,7 @@ import java.util.UUID;
 import static com.hazelcast.core.EntryEventType.INVALIDATION;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_DISCRIMINATOR_NAME;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_EXPIRATION;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_INDEX;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_NEARCACHE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX;
@@ -124,6 +127,9 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
     public void init(NodeEngine nodeEngine, Properties properties) {
         managedService.init(nodeEngine, properties);
 
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry()
+                .registerStaticMetrics(mapServiceContext.getClearExpiredRecordsTask(), MAP_PREFIX_EXPIRATION);
+
         boolean dsMetricsEnabled = nodeEngine.getProperties().getBoolean(ClusterProperty.METRICS_DATASTRUCTURES);
         if (dsMetricsEnabled) {
             ((NodeEngineImpl) nodeEngine).getMetricsRegistry().registerDynamicMetricsProvider(this);
@@ -161,6 +167,18 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
         return migrationAwareService.prepareReplicationOperation(event, namespaces);
     }
 
+    @Override
+    public ReplicaDigest createReplicaDigest(PartitionReplicationEvent event, ServiceNamespace namespace) {
+        return migrationAwareService.createReplicaDigest(event, namespace);
+    }
+
+    @Override
+    public Iterator<Operation> prepareChunkedReplicationOperations(PartitionReplicationEvent event,
+                                                                    ServiceNamespace namespace,
+                                                                    long maxChunkSizeInBytes) {
+        return migrationAwareService.prepareChunkedReplicationOperations(event, namespace, maxChunkSizeInBytes);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         migrationAwareService.beforeMigration(event);
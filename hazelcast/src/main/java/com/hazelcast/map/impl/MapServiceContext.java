@@ -30,6 +30,7 @@ import com.hazelcast.map.impl.journal.MapEventJournal;
 import com.hazelcast.map.impl.mapstore.writebehind.NodeWideUsedCapacityCounter;
 import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.query.QueryEngine;
 import com.hazelcast.map.impl.query.QueryRunner;
 import com.hazelcast.map.impl.query.ResultProcessorRegistry;
@@ -45,6 +46,7 @@ import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.eventservice.EventFilter;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -150,6 +152,13 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     MapEventJournal getEventJournal();
 
+    /**
+     * Returns the service which persists the IMap partitions on local disk,
+     * or {@code null} if Hot Restart persistence is not enabled.
+     */
+    @Nullable
+    MapPersistenceService getMapPersistenceService();
+
     QueryEngine getQueryEngine(String name);
 
     QueryRunner getMapQueryRunner(String name);
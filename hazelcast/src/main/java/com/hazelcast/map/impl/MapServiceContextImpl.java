@@ -17,7 +17,10 @@
 package com.hazelcast.map.impl;
 
 import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.config.ConfigPatternMatcher;
+import com.hazelcast.config.HotRestartPersistenceConfig;
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
@@ -52,6 +55,7 @@ import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.map.impl.operation.MapOperationProviders;
 import com.hazelcast.map.impl.operation.MapPartitionDestroyOperation;
 import com.hazelcast.map.impl.operation.SetOperation;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
 import com.hazelcast.map.impl.query.AccumulationExecutor;
 import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.AggregationResultProcessor;
@@ -85,6 +89,7 @@ import com.hazelcast.spi.impl.eventservice.EventRegistration;
 import com.hazelcast.spi.impl.eventservice.EventService;
 import com.hazelcast.spi.impl.eventservice.impl.TrueEventFilter;
 import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -99,6 +104,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
+import static com.hazelcast.internal.config.ConfigUtils.matchesNames;
 import static com.hazelcast.internal.util.ConcurrencyUtil.CALLER_RUNS;
 import static com.hazelcast.internal.util.SetUtil.immutablePartitionIdSet;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
@@ -109,6 +115,8 @@ import static com.hazelcast.spi.impl.executionservice.ExecutionService.QUERY_EXE
 import static com.hazelcast.spi.impl.operationservice.Operation.GENERIC_PARTITION_ID;
 import static com.hazelcast.spi.properties.ClusterProperty.AGGREGATION_ACCUMULATION_PARALLEL_EVALUATION;
 import static com.hazelcast.spi.properties.ClusterProperty.INDEX_COPY_BEHAVIOR;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_LONG_HASH_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_PACKED_SORTED_INDEX_NAMES;
 import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS;
 import static com.hazelcast.spi.properties.ClusterProperty.QUERY_PREDICATE_PARALLEL_EVALUATION;
 import static java.lang.Thread.currentThread;
@@ -127,6 +135,7 @@ class MapServiceContextImpl implements MapServiceContext {
     private final EventService eventService;
     private final QueryRunner mapQueryRunner;
     private final MapEventJournal eventJournal;
+    private final MapPersistenceService persistenceService;
     private final QueryOptimizer queryOptimizer;
     private final MapEventPublisher mapEventPublisher;
     private final QueryCacheContext queryCacheContext;
@@ -142,7 +151,7 @@ class MapServiceContextImpl implements MapServiceContext {
     private final PartitioningStrategyFactory partitioningStrategyFactory;
     private final NodeWideUsedCapacityCounter nodeWideUsedCapacityCounter;
     private final ConstructorFunction<String, MapContainer> mapConstructor;
-    private final IndexProvider indexProvider = new DefaultIndexProvider();
+    private final IndexProvider indexProvider;
     private final ContextMutexFactory contextMutexFactory = new ContextMutexFactory();
     private final AtomicReference<PartitionIdSet> ownedPartitions = new AtomicReference<>();
     private final ConcurrentMap<String, MapContainer> mapContainers = new ConcurrentHashMap<>();
@@ -153,6 +162,8 @@ class MapServiceContextImpl implements MapServiceContext {
     MapServiceContextImpl(NodeEngine nodeEngine) {
         this.nodeEngine = nodeEngine;
         this.serializationService = ((InternalSerializationService) nodeEngine.getSerializationService());
+        this.indexProvider = new DefaultIndexProvider(packedSortedIndexes(nodeEngine),
+                nodeEngine.getProperties().getBoolean(INDEX_LONG_HASH_ENABLED));
         this.mapConstructor = createMapConstructor();
         this.queryCacheContext = new NodeQueryCacheContext(this);
         this.partitionContainers = createPartitionContainers();
@@ -162,6 +173,7 @@ class MapServiceContextImpl implements MapServiceContext {
         this.localMapStatsProvider = createLocalMapStatsProvider();
         this.mapEventPublisher = createMapEventPublisherSupport();
         this.eventJournal = createEventJournal();
+        this.persistenceService = createMapPersistenceService();
         this.queryOptimizer = newOptimizer(nodeEngine.getProperties());
         this.resultProcessorRegistry = createResultProcessorRegistry(serializationService);
         this.partitionScanRunner = createPartitionScanRunner();
@@ -207,6 +219,12 @@ class MapServiceContextImpl implements MapServiceContext {
         return new RingbufferMapEventJournalImpl(getNodeEngine(), this);
     }
 
+    // this method is overridden in another context
+    MapPersistenceService createMapPersistenceService() {
+        HotRestartPersistenceConfig config = nodeEngine.getConfig().getHotRestartPersistenceConfig();
+        return config.isEnabled() ? new MapPersistenceService(this) : null;
+    }
+
     protected LocalMapStatsProvider createLocalMapStatsProvider() {
         return new LocalMapStatsProvider(this);
     }
@@ -443,6 +461,10 @@ class MapServiceContextImpl implements MapServiceContext {
 
     @Override
     public void shutdown() {
+        if (persistenceService != null) {
+            // the record stores are cleared next, the logs must keep the data
+            persistenceService.shutdown();
+        }
         removeAllRecordStoresOfAllMaps(true, false);
         mapNearCacheManager.shutdown();
         mapContainers.clear();
@@ -513,6 +535,11 @@ class MapServiceContextImpl implements MapServiceContext {
         return eventJournal;
     }
 
+    @Override
+    public MapPersistenceService getMapPersistenceService() {
+        return persistenceService;
+    }
+
     @Override
     public QueryEngine getQueryEngine(String mapName) {
         return queryEngine;
@@ -760,6 +787,15 @@ class MapServiceContextImpl implements MapServiceContext {
         return operationProviders.getOperationProvider(mapName);
     }
 
+    private static Predicate<IndexConfig> packedSortedIndexes(NodeEngine nodeEngine) {
+        ConfigPatternMatcher matcher = nodeEngine.getConfig().getConfigPatternMatcher();
+        HazelcastProperties properties = nodeEngine.getProperties();
+        // the same index is created for every partition, so the names are matched only once
+        ConcurrentMap<String, Boolean> packedSortedIndexNames = new ConcurrentHashMap<>();
+        return config -> packedSortedIndexNames.computeIfAbsent(config.getName(),
+                indexName -> matchesNames(matcher, properties, INDEX_PACKED_SORTED_INDEX_NAMES, indexName));
+    }
+
     @Override
     public IndexProvider getIndexProvider(MapConfig mapConfig) {
         return indexProvider;
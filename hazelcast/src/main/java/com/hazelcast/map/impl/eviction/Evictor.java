@@ -85,4 +85,14 @@ public interface Evictor {
      */
     boolean checkEvictable(RecordStore recordStore);
 
+    /**
+     * Records a read or a write of the supplied key, used
+     * by eviction policies which depend on the access
+     * history of the keys.
+     *
+     * @param recordStore the record store of the key
+     * @param key         the accessed key
+     */
+    default void recordAccess(RecordStore recordStore, Data key) {
+    }
 }
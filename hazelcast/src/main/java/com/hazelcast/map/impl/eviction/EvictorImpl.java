@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.eviction;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLFUEvictionPolicyComparator;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.util.Clock;
@@ -40,6 +41,7 @@ public class EvictorImpl implements Evictor {
     protected final IPartitionService partitionService;
 
     private final int batchSize;
+    private final TinyLFUEvictionPolicyComparator frequencyTracker;
 
     public EvictorImpl(EvictionPolicyComparator policy,
                        EvictionChecker evictionChecker, int batchSize,
@@ -49,6 +51,8 @@ public class EvictorImpl implements Evictor {
         this.partitionService = checkNotNull(partitionService);
         this.policy = checkNotNull(policy);
         this.batchSize = batchSize;
+        this.frequencyTracker = policy instanceof TinyLFUEvictionPolicyComparator
+                ? (TinyLFUEvictionPolicyComparator) policy : null;
     }
 
     @Override
@@ -106,6 +110,15 @@ public class EvictorImpl implements Evictor {
         }
     }
 
+    @Override
+    public void recordAccess(RecordStore recordStore, Data key) {
+        if (frequencyTracker != null) {
+            // the policy is shared by all partitions of the map, the
+            // partition sizes are assumed to be roughly the same
+            frequencyTracker.recordAccess(key, (long) recordStore.size() * partitionService.getPartitionCount());
+        }
+    }
+
     @Override
     public boolean checkEvictable(RecordStore recordStore) {
         assertRunningOnPartitionThread();
@@ -18,7 +18,9 @@ package com.hazelcast.map.impl.eviction;
 
 import com.hazelcast.internal.eviction.ClearExpiredRecordsTask;
 import com.hazelcast.internal.eviction.ExpiredKey;
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
+import com.hazelcast.internal.util.counters.MwCounter;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.operation.EvictBatchBackupOperation;
 import com.hazelcast.map.impl.operation.MapClearExpiredOperation;
@@ -34,6 +36,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_EXPIRATION_EXPIRED_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_EXPIRATION_TOTAL_EXPIRY_LAG;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static java.util.Collections.sort;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -44,6 +50,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * This task provides per partition expiration operation logic. (not
  * per map, not per record store). Fires cleanup operations at most
  * partition operation thread count or some factor of it in one round.
+ * Every record store keeps its entries in a timing wheel ordered by
+ * expiration time, a cleanup operation only visits the entries which
+ * are due.
  * <ul>
  * <li>
  * {@value PROP_TASK_PERIOD_SECONDS}: The time between termination of
@@ -51,8 +60,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * Default value is {@value DEFAULT_TASK_PERIOD_SECONDS} seconds.
  * </li>
  * <li>
- * {@value PROP_CLEANUP_PERCENTAGE}: Scannable percentage
- * of entries in a maps' partition in each round. Default
+ * {@value PROP_CLEANUP_PERCENTAGE}: Maximum percentage
+ * of entries in a maps' partition to expire in each round. Default
  * percentage is {@value DEFAULT_CLEANUP_PERCENTAGE}%.
  * </li>
  * <li>
@@ -107,6 +116,11 @@ public class MapClearExpiredRecordsTask
 
     private final boolean primaryDrivesEviction;
 
+    @Probe(name = MAP_METRIC_EXPIRATION_EXPIRED_COUNT)
+    private final MwCounter expiredCount = newMwCounter();
+    @Probe(name = MAP_METRIC_EXPIRATION_TOTAL_EXPIRY_LAG, unit = MS)
+    private final MwCounter totalExpiryLag = newMwCounter();
+
     private final Comparator<PartitionContainer> partitionContainerComparator = (o1, o2) -> {
         final long s1 = o1.getLastCleanupTimeCopy();
         final long s2 = o2.getLastCleanupTimeCopy();
@@ -119,6 +133,21 @@ public class MapClearExpiredRecordsTask
         this.primaryDrivesEviction = nodeEngine.getProperties().getBoolean(PRIMARY_DRIVES_BACKUP);
     }
 
+    /**
+     * Records entries expired by a cleanup operation.
+     *
+     * @param count          number of expired entries
+     * @param totalLagMillis sum of the delays between the expiration
+     *                       times of the entries and their removal
+     */
+    public void onExpired(int count, long totalLagMillis) {
+        if (count == 0) {
+            return;
+        }
+        expiredCount.inc(count);
+        totalExpiryLag.inc(totalLagMillis);
+    }
+
     public boolean canPrimaryDriveExpiration() {
         return primaryDrivesEviction;
     }
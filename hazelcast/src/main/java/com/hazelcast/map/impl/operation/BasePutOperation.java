@@ -44,6 +44,7 @@ public abstract class BasePutOperation
                 dataKey, oldValue, value);
         invalidateNearCache(dataKey);
         publishWanUpdate(dataKey, value);
+        mapContainer.getEvictor().recordAccess(recordStore, dataKey);
         evict(dataKey);
     }
 
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.partition.ReplicaDigest;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.QuickMath;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeUtil;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.util.HashUtil.MurmurHash3_fmix;
+
+/**
+ * Creates the digests of IMap replica fragments, which are compared for
+ * delta replication.
+ * <p>
+ * An entry belongs to the leaf of the hash of its key. The 64-bit hash of
+ * the entry covers its key, value, version, TTL and max idle. The hash of
+ * a leaf chains the sorted hashes of its entries, so it doesn't depend on
+ * the iteration order, but unlike a sum of the entry hashes, different
+ * entries don't cancel each other out.
+ */
+public final class MapReplicaDigests {
+
+    private static final int MIN_DEPTH = 2;
+    private static final int MAX_DEPTH = 16;
+    private static final int ENTRIES_PER_LEAF = 8;
+    // the 64-bit golden ratio, an odd multiplier which spreads the bits of the hash
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private MapReplicaDigests() {
+    }
+
+    /**
+     * Returns the depth of the digest of a replica fragment with the given
+     * number of entries.
+     */
+    public static int getDigestDepth(int entryCount) {
+        int leafCount = QuickMath.nextPowerOfTwo(Math.max(entryCount / ENTRIES_PER_LEAF, 1));
+        return Math.min(Math.max(QuickMath.log2(leafCount) + 1, MIN_DEPTH), MAX_DEPTH);
+    }
+
+    /**
+     * Creates the digest of the entries of the given record store.
+     */
+    public static ReplicaDigest createDigest(RecordStore<Record> recordStore, SerializationService serializationService,
+                                             int depth) {
+        EntryHashCollector collector = new EntryHashCollector(serializationService, depth, recordStore.size());
+        recordStore.forEach(collector, true, true);
+        return new ReplicaDigest(depth, collector.leafHashes());
+    }
+
+    /**
+     * Returns the order of the leaf of the given key on the given level.
+     */
+    static int getLeafOrder(Data key, int leafLevel) {
+        return MerkleTreeUtil.getLeafOrderForHash(key.hashCode(), leafLevel);
+    }
+
+    private static long entryHash(Data key, Record record, SerializationService serializationService) {
+        Data value = serializationService.toData(record.getValue());
+        long hash = key.hash64();
+        hash = mix(hash, value.hash64());
+        hash = mix(hash, record.getVersion());
+        hash = mix(hash, record.getTtl());
+        return mix(hash, record.getMaxIdle());
+    }
+
+    private static long mix(long hash, long value) {
+        return MurmurHash3_fmix(hash * HASH_MULTIPLIER + value);
+    }
+
+    /**
+     * Collects the hashes of the entries together with the indexes of their
+     * leaves, then groups and sorts them by leaf.
+     */
+    private static final class EntryHashCollector implements BiConsumer<Data, Record> {
+
+        private final SerializationService serializationService;
+        private final int leafLevel;
+        private final int firstLeafOrder;
+        private final int leafCount;
+        private int[] leafIndexes;
+        private long[] entryHashes;
+        private int size;
+
+        EntryHashCollector(SerializationService serializationService, int depth, int expectedSize) {
+            this.serializationService = serializationService;
+            this.leafLevel = depth - 1;
+            this.leafCount = ReplicaDigest.getLeafCount(depth);
+            this.firstLeafOrder = leafCount - 1;
+            this.leafIndexes = new int[Math.max(expectedSize, 1)];
+            this.entryHashes = new long[leafIndexes.length];
+        }
+
+        @Override
+        public void accept(Data key, Record record) {
+            if (size == entryHashes.length) {
+                leafIndexes = Arrays.copyOf(leafIndexes, size * 2);
+                entryHashes = Arrays.copyOf(entryHashes, size * 2);
+            }
+            leafIndexes[size] = getLeafOrder(key, leafLevel) - firstLeafOrder;
+            entryHashes[size] = entryHash(key, record, serializationService);
+            size++;
+        }
+
+        long[] leafHashes() {
+            // counting sort of the entry hashes by leaf
+            int[] leafStarts = new int[leafCount + 1];
+            for (int i = 0; i < size; i++) {
+                leafStarts[leafIndexes[i] + 1]++;
+            }
+            for (int leaf = 0; leaf < leafCount; leaf++) {
+                leafStarts[leaf + 1] += leafStarts[leaf];
+            }
+            long[] sortedHashes = new long[size];
+            int[] positions = Arrays.copyOf(leafStarts, leafCount);
+            for (int i = 0; i < size; i++) {
+                sortedHashes[positions[leafIndexes[i]]++] = entryHashes[i];
+            }
+
+            long[] leafHashes = new long[leafCount];
+            for (int leaf = 0; leaf < leafCount; leaf++) {
+                int from = leafStarts[leaf];
+                int to = leafStarts[leaf + 1];
+                Arrays.sort(sortedHashes, from, to);
+                long leafHash = to - from;
+                for (int i = from; i < to; i++) {
+                    leafHash = mix(leafHash, sortedHashes[i]);
+                }
+                leafHashes[leaf] = leafHash;
+            }
+            return leafHashes;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.services.ObjectNamespace;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Creates the {@link MapReplicationOperation}s which replicate the entries
+ * of a map partition in chunks of at most about the given size. The size of
+ * a chunk is the serialized size of the keys and values of its entries.
+ * <p>
+ * The record store is iterated while the chunks are created, which must
+ * happen on the partition thread. The first chunk is created even if the
+ * map is empty, it carries the state of the map besides its entries.
+ */
+public final class MapReplicationChunkIterator implements Iterator<Operation> {
+
+    private final MapServiceContext mapServiceContext;
+    private final PartitionContainer container;
+    private final ObjectNamespace namespace;
+    private final PartitionReplicationEvent event;
+    private final long maxChunkSizeInBytes;
+    private final SerializationService serializationService;
+    private final Iterator<Map.Entry<Data, Record>> entries;
+    private boolean firstChunk = true;
+
+    @SuppressWarnings("unchecked")
+    public MapReplicationChunkIterator(MapServiceContext mapServiceContext, ObjectNamespace namespace,
+                                       PartitionReplicationEvent event, RecordStore<Record> recordStore,
+                                       long maxChunkSizeInBytes) {
+        this.mapServiceContext = mapServiceContext;
+        this.container = mapServiceContext.getPartitionContainer(event.getPartitionId());
+        this.namespace = namespace;
+        this.event = event;
+        this.maxChunkSizeInBytes = maxChunkSizeInBytes;
+        this.serializationService = mapServiceContext.getNodeEngine().getSerializationService();
+        this.entries = recordStore.getStorage().mutationTolerantIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return firstChunk || entries.hasNext();
+    }
+
+    @Override
+    public Operation next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        List keyRecord = new ArrayList<>();
+        long chunkSize = 0;
+        while (chunkSize < maxChunkSizeInBytes && entries.hasNext()) {
+            Map.Entry<Data, Record> entry = entries.next();
+            Data key = entry.getKey();
+            Record record = entry.getValue();
+            Data value = serializationService.toData(record.getValue());
+            keyRecord.add(key);
+            keyRecord.add(record);
+            chunkSize += key.totalSize() + (value != null ? value.totalSize() : 0);
+        }
+
+        Operation operation = new MapReplicationOperation(container, namespace, event, keyRecord, firstChunk,
+                !entries.hasNext());
+        operation.setService(mapServiceContext.getService());
+        operation.setNodeEngine(mapServiceContext.getNodeEngine());
+        firstChunk = false;
+        return operation;
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.hazelcast.map.impl.operation;
 
+import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.internal.services.ServiceNamespace;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapService;
@@ -30,6 +32,10 @@ import com.hazelcast.spi.impl.operationservice.Operation;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 
 /**
  * Replicates all IMap-states of this partition to a repReservedCapacityCounterTestlica partition.
@@ -48,12 +54,21 @@ public class MapReplicationOperation extends Operation
 
     public MapReplicationOperation(PartitionContainer container,
                                    Collection<ServiceNamespace> namespaces, int partitionId, int replicaIndex) {
+        this(container, namespaces, new PartitionReplicationEvent(partitionId, replicaIndex));
+    }
 
-        setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+    /**
+     * Creates the operation for the given replication event. The maps for
+     * which the event carries a replica digest are replicated as deltas.
+     */
+    public MapReplicationOperation(PartitionContainer container,
+                                   Collection<ServiceNamespace> namespaces, PartitionReplicationEvent event) {
+        int replicaIndex = event.getReplicaIndex();
+        setPartitionId(event.getPartitionId()).setReplicaIndex(replicaIndex);
 
         this.mapReplicationStateHolder = new MapReplicationStateHolder();
         this.mapReplicationStateHolder.setOperation(this);
-        this.mapReplicationStateHolder.prepare(container, namespaces, replicaIndex);
+        this.mapReplicationStateHolder.prepare(container, namespaces, event);
 
         this.writeBehindStateHolder = new WriteBehindStateHolder();
         this.writeBehindStateHolder.setMapReplicationOperation(this);
@@ -64,6 +79,17 @@ public class MapReplicationOperation extends Operation
         this.mapNearCacheStateHolder.prepare(container, namespaces, replicaIndex);
     }
 
+    /**
+     * Creates the operation for a chunk of the entries of the given map,
+     * see {@link MapReplicationChunkIterator}. Only the first chunk carries
+     * the state of the map besides its entries.
+     */
+    MapReplicationOperation(PartitionContainer container, ObjectNamespace namespace, PartitionReplicationEvent event,
+                            List keyRecord, boolean firstChunk, boolean lastChunk) {
+        this(container, firstChunk ? singleton(namespace) : emptySet(), event);
+        this.mapReplicationStateHolder.setChunk(namespace.getObjectName(), keyRecord, firstChunk, lastChunk);
+    }
+
     @Override
     public void run() {
         try {
@@ -94,7 +120,7 @@ public class MapReplicationOperation extends Operation
     }
 
     private void disposePartition() {
-        for (String mapName : mapReplicationStateHolder.data.keySet()) {
+        for (String mapName : mapReplicationStateHolder.getReplicatedMapNames()) {
             dispose(mapName);
         }
     }
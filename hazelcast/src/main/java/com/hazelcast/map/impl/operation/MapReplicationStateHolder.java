@@ -19,6 +19,8 @@ package com.hazelcast.map.impl.operation;
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigest;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.internal.services.ServiceNamespace;
@@ -41,9 +43,11 @@ import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
 import com.hazelcast.query.impl.MapIndexInfo;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeUtil;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -76,6 +80,18 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
     // operations, which meant that the index did not include some data.
     protected transient List<MapIndexInfo> mapIndexInfos;
 
+    // Maps replicated as deltas, see MapReplicaDigests. For each map, the orders of the Merkle tree leaves
+    // which differ between the replicas and the key-record pairs of the leaves. The destination replaces
+    // the entries of these leaves and keeps the other ones.
+    protected transient Map<String, int[]> deltaLeafOrders;
+    protected transient Map<String, List> deltaData;
+
+    // A chunk of the chunked replication of a map, see MapReplicationChunkIterator. The first chunk replaces
+    // the replica of the map, like the full replication does, the following ones add their entries to it.
+    protected transient Map<String, List> chunkData;
+    protected transient boolean firstChunk;
+    protected transient boolean lastChunk;
+
     private MapReplicationOperation operation;
 
     /**
@@ -90,15 +106,28 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
     }
 
     void prepare(PartitionContainer container, Collection<ServiceNamespace> namespaces, int replicaIndex) {
+        prepare(container, namespaces, new PartitionReplicationEvent(container.getPartitionId(), replicaIndex));
+    }
+
+    void prepare(PartitionContainer container, Collection<ServiceNamespace> namespaces, PartitionReplicationEvent event) {
+        int replicaIndex = event.getReplicaIndex();
         storesByMapName = createHashMap(namespaces.size());
 
         loaded = createHashMap(namespaces.size());
         mapIndexInfos = new ArrayList<>(namespaces.size());
+        deltaLeafOrders = createHashMap(namespaces.size());
+        deltaData = createHashMap(namespaces.size());
+        chunkData = createHashMap(1);
         for (ServiceNamespace namespace : namespaces) {
             ObjectNamespace mapNamespace = (ObjectNamespace) namespace;
             String mapName = mapNamespace.getObjectName();
             RecordStore recordStore = container.getExistingRecordStore(mapName);
+            ReplicaDigest replicaDigest = event.getReplicaDigest(namespace);
             if (recordStore == null) {
+                if (replicaDigest != null) {
+                    // the destination holds a map which doesn't exist here anymore
+                    prepareDeltaOfMissingMap(mapName, replicaDigest);
+                }
                 continue;
             }
 
@@ -109,7 +138,11 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
             }
 
             loaded.put(mapName, recordStore.isLoaded());
-            storesByMapName.put(mapName, recordStore);
+            if (replicaDigest != null) {
+                prepareDelta(mapName, recordStore, replicaDigest);
+            } else {
+                storesByMapName.put(mapName, recordStore);
+            }
 
             Set<IndexConfig> indexConfigs = new HashSet<>();
             if (mapContainer.isGlobalIndexEnabled()) {
@@ -135,7 +168,52 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
         }
     }
 
-    @SuppressWarnings("checkstyle:npathcomplexity")
+    /**
+     * Replaces the entries of the given map, which is replicated in full by
+     * {@link #prepare}, with the given chunk of them.
+     */
+    void setChunk(String mapName, List keyRecord, boolean firstChunk, boolean lastChunk) {
+        storesByMapName.remove(mapName);
+        chunkData.put(mapName, keyRecord);
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
+    }
+
+    /**
+     * Replicates only the entries of the leaves whose hashes differ from
+     * the digest of the destination.
+     */
+    private void prepareDelta(String mapName, RecordStore<Record> recordStore, ReplicaDigest replicaDigest) {
+        SerializationService ss = getSerializationService(recordStore.getMapContainer());
+        ReplicaDigest digest = MapReplicaDigests.createDigest(recordStore, ss, replicaDigest.depth());
+        int[] leafOrders = digest.getDifferingLeafOrders(replicaDigest);
+        List keyRecord = new ArrayList<>();
+        if (leafOrders.length > 0) {
+            int leafLevel = replicaDigest.depth() - 1;
+            recordStore.forEach((dataKey, record) -> {
+                if (Arrays.binarySearch(leafOrders, MapReplicaDigests.getLeafOrder(dataKey, leafLevel)) >= 0) {
+                    keyRecord.add(dataKey);
+                    keyRecord.add(record);
+                }
+            }, true, true);
+        }
+        deltaLeafOrders.put(mapName, leafOrders);
+        deltaData.put(mapName, keyRecord);
+    }
+
+    /**
+     * Replicates the removal of all entries of a map which doesn't exist on
+     * this replica.
+     */
+    private void prepareDeltaOfMissingMap(String mapName, ReplicaDigest replicaDigest) {
+        int[] leafOrders = new int[replicaDigest.getLeafCount()];
+        for (int i = 0; i < leafOrders.length; i++) {
+            leafOrders[i] = replicaDigest.getFirstLeafOrder() + i;
+        }
+        deltaLeafOrders.put(mapName, leafOrders);
+        deltaData.put(mapName, new ArrayList<>(0));
+    }
+
     void applyState() {
         ThreadUtil.assertRunningOnPartitionThread();
 
@@ -148,45 +226,128 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
                 RecordStore recordStore = operation.getRecordStore(mapName);
                 recordStore.reset();
                 recordStore.setPreMigrationLoadedStatus(loaded.get(mapName));
-                StoreAdapter storeAdapter = new RecordStoreAdapter(recordStore);
-
-                MapContainer mapContainer = recordStore.getMapContainer();
-                PartitionContainer partitionContainer = recordStore.getMapContainer().getMapServiceContext()
-                        .getPartitionContainer(operation.getPartitionId());
-                for (Map.Entry<String, IndexConfig> indexDefinition : mapContainer.getIndexDefinitions().entrySet()) {
-                    Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
-                    indexes.addOrGetIndex(indexDefinition.getValue(), indexes.isGlobal() ? null : storeAdapter);
-                }
+                Indexes indexes = addIndexesFromDefinitions(recordStore);
 
-                final Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
                 final boolean populateIndexes = indexesMustBePopulated(indexes, operation);
                 if (populateIndexes) {
                     // defensively clear possible stale leftovers in non-global indexes from the previous failed promotion attempt
                     indexes.clearAll();
                 }
 
-                long nowInMillis = Clock.currentTimeMillis();
                 final InternalIndex[] indexesSnapshot = indexes.getIndexes();
-                for (int i = 0; i < keyRecord.size(); i += 2) {
-                    Data dataKey = (Data) keyRecord.get(i);
-                    Record record = (Record) keyRecord.get(i + 1);
-
-                    recordStore.putReplicatedRecord(dataKey, record, nowInMillis, populateIndexes);
-
-                    if (recordStore.shouldEvict()) {
-                        // No need to continue replicating records anymore.
-                        // We are already over eviction threshold, each put record will cause another eviction.
-                        recordStore.evictEntries(dataKey);
-                        break;
-                    }
-                    recordStore.disposeDeferredBlocks();
-                }
+                putReplicatedRecords(recordStore, keyRecord, populateIndexes);
 
                 if (populateIndexes) {
-                    Indexes.markPartitionAsIndexed(partitionContainer.getPartitionId(), indexesSnapshot);
+                    Indexes.markPartitionAsIndexed(operation.getPartitionId(), indexesSnapshot);
                 }
             }
         }
+
+        if (!isNullOrEmpty(deltaData)) {
+            applyDeltaState();
+        }
+
+        if (!isNullOrEmpty(chunkData)) {
+            applyChunkState();
+        }
+    }
+
+    private void applyChunkState() {
+        for (Map.Entry<String, List> dataEntry : chunkData.entrySet()) {
+            String mapName = dataEntry.getKey();
+            RecordStore recordStore = operation.getRecordStore(mapName);
+            if (firstChunk) {
+                recordStore.reset();
+                recordStore.setPreMigrationLoadedStatus(loaded.get(mapName));
+            }
+            Indexes indexes = addIndexesFromDefinitions(recordStore);
+
+            boolean populateIndexes = indexesMustBePopulated(indexes, operation);
+            if (populateIndexes && firstChunk) {
+                // defensively clear possible stale leftovers in non-global indexes from the previous failed promotion attempt
+                indexes.clearAll();
+            }
+
+            InternalIndex[] indexesSnapshot = indexes.getIndexes();
+            putReplicatedRecords(recordStore, dataEntry.getValue(), populateIndexes);
+
+            if (populateIndexes && lastChunk) {
+                Indexes.markPartitionAsIndexed(operation.getPartitionId(), indexesSnapshot);
+            }
+        }
+    }
+
+    /**
+     * Applies the maps replicated as deltas. The destination doesn't send a
+     * digest of a map whose indexes would have to be populated here, see
+     * {@link com.hazelcast.map.impl.MapService#createReplicaDigest}.
+     */
+    private void applyDeltaState() {
+        for (Map.Entry<String, List> dataEntry : deltaData.entrySet()) {
+            String mapName = dataEntry.getKey();
+            List keyRecord = dataEntry.getValue();
+            RecordStore recordStore = operation.getRecordStore(mapName);
+            Boolean preMigrationLoaded = loaded.get(mapName);
+            if (preMigrationLoaded != null) {
+                recordStore.setPreMigrationLoadedStatus(preMigrationLoaded);
+            }
+            addIndexesFromDefinitions(recordStore);
+
+            removeStaleRecords(recordStore, deltaLeafOrders.get(mapName), keyRecord);
+            putReplicatedRecords(recordStore, keyRecord, false);
+        }
+    }
+
+    /**
+     * Removes the local records of the given leaves which are not replicated.
+     */
+    private static void removeStaleRecords(RecordStore<Record> recordStore, int[] leafOrders, List keyRecord) {
+        if (leafOrders.length == 0) {
+            return;
+        }
+        int leafLevel = MerkleTreeUtil.getLevelOfNode(leafOrders[0]);
+        Set<Data> replicatedKeys = new HashSet<>(keyRecord.size());
+        for (int i = 0; i < keyRecord.size(); i += 2) {
+            replicatedKeys.add((Data) keyRecord.get(i));
+        }
+        List<Data> staleKeys = new ArrayList<>();
+        recordStore.forEach((dataKey, record) -> {
+            if (!replicatedKeys.contains(dataKey)
+                    && Arrays.binarySearch(leafOrders, MapReplicaDigests.getLeafOrder(dataKey, leafLevel)) >= 0) {
+                staleKeys.add(dataKey);
+            }
+        }, true, true);
+        for (Data dataKey : staleKeys) {
+            recordStore.removeReplicatedRecord(dataKey);
+        }
+    }
+
+    private Indexes addIndexesFromDefinitions(RecordStore recordStore) {
+        StoreAdapter storeAdapter = new RecordStoreAdapter(recordStore);
+        MapContainer mapContainer = recordStore.getMapContainer();
+        Indexes indexes = mapContainer.getIndexes(operation.getPartitionId());
+        for (Map.Entry<String, IndexConfig> indexDefinition : mapContainer.getIndexDefinitions().entrySet()) {
+            indexes.addOrGetIndex(indexDefinition.getValue(), indexes.isGlobal() ? null : storeAdapter);
+        }
+        return indexes;
+    }
+
+    private static void putReplicatedRecords(RecordStore recordStore, List keyRecord, boolean populateIndexes) {
+        long nowInMillis = Clock.currentTimeMillis();
+        for (int i = 0; i < keyRecord.size(); i += 2) {
+            Data dataKey = (Data) keyRecord.get(i);
+            Record record = (Record) keyRecord.get(i + 1);
+
+            recordStore.putReplicatedRecord(dataKey, record, nowInMillis, populateIndexes);
+
+            if (recordStore.shouldEvict()) {
+                // No need to continue replicating records anymore.
+                // We are already over eviction threshold, each put record will cause another eviction.
+                recordStore.evictEntries(dataKey);
+                break;
+            }
+            recordStore.disposeDeferredBlocks();
+        }
     }
 
     private void applyIndexesState() {
@@ -256,6 +417,46 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
         for (MapIndexInfo mapIndexInfo : mapIndexInfos) {
             out.writeObject(mapIndexInfo);
         }
+
+        out.writeInt(deltaData.size());
+        for (Map.Entry<String, List> entry : deltaData.entrySet()) {
+            String mapName = entry.getKey();
+            out.writeUTF(mapName);
+            out.writeIntArray(deltaLeafOrders.get(mapName));
+            writeKeyRecords(out, mapName, entry.getValue());
+        }
+
+        out.writeInt(chunkData.size());
+        for (Map.Entry<String, List> entry : chunkData.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeKeyRecords(out, entry.getKey(), entry.getValue());
+        }
+        out.writeBoolean(firstChunk);
+        out.writeBoolean(lastChunk);
+    }
+
+    private void writeKeyRecords(ObjectDataOutput out, String mapName, List keyRecord) throws IOException {
+        out.writeInt(keyRecord.size() / 2);
+        if (keyRecord.isEmpty()) {
+            // the map may not exist here, don't create its record store
+            return;
+        }
+        SerializationService ss = getSerializationService(operation.getRecordStore(mapName).getMapContainer());
+        for (int i = 0; i < keyRecord.size(); i += 2) {
+            Record record = (Record) keyRecord.get(i + 1);
+            IOUtil.writeData(out, (Data) keyRecord.get(i));
+            Records.writeRecord(out, record, ss.toData(record.getValue()));
+        }
+    }
+
+    private static List readKeyRecords(ObjectDataInput in) throws IOException {
+        int numOfRecords = in.readInt();
+        List keyRecord = new ArrayList<>(numOfRecords * 2);
+        for (int j = 0; j < numOfRecords; j++) {
+            keyRecord.add(IOUtil.readData(in));
+            keyRecord.add(Records.readRecord(in));
+        }
+        return keyRecord;
     }
 
     private static SerializationService getSerializationService(MapContainer mapContainer) {
@@ -294,6 +495,30 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
             MapIndexInfo mapIndexInfo = in.readObject();
             mapIndexInfos.add(mapIndexInfo);
         }
+
+        int deltaSize = in.readInt();
+        deltaLeafOrders = createHashMap(deltaSize);
+        deltaData = createHashMap(deltaSize);
+        for (int i = 0; i < deltaSize; i++) {
+            String name = in.readUTF();
+            deltaLeafOrders.put(name, in.readIntArray());
+            deltaData.put(name, readKeyRecords(in));
+        }
+
+        int chunkSize = in.readInt();
+        chunkData = createHashMap(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            chunkData.put(in.readUTF(), readKeyRecords(in));
+        }
+        firstChunk = in.readBoolean();
+        lastChunk = in.readBoolean();
+    }
+
+    Collection<String> getReplicatedMapNames() {
+        Set<String> mapNames = new HashSet<>(data.keySet());
+        mapNames.addAll(deltaData.keySet());
+        mapNames.addAll(chunkData.keySet());
+        return mapNames;
     }
 
     @Override
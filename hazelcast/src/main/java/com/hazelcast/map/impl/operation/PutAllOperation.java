@@ -122,6 +122,7 @@ public class PutAllOperation extends MapOperation
             backupPairs.add(dataValue);
         }
 
+        mapContainer.getEvictor().recordAccess(recordStore, dataKey);
         evict(dataKey);
     }
 
@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.HotRestartPersistenceConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.partition.IPartition;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.MutationObserver;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.RecordStoreAdapter;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_PERSISTENCE_COMPACTION_INTERVAL_SECONDS;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Persists the IMap partitions of the local member on local disk and
+ * restores them when the member restarts.
+ * <p>
+ * The maps whose {@link MapConfig#getHotRestartConfig() Hot Restart config}
+ * is enabled are persisted when Hot Restart persistence is enabled for the
+ * member. Every partition has a {@link PartitionLogStore} in a directory of
+ * the member, which is found by the address of the member in the
+ * {@link HotRestartPersistenceConfig#getBaseDir() base directory}. Primary
+ * and backup replicas are persisted alike.
+ * <p>
+ * {@link #restore()} must be called before the member joins the cluster.
+ * It replays the logs of all partitions in parallel on the partition
+ * threads and fills the record stores. Since the partition table is not
+ * known yet, indexes are not populated. Once the member joins, a restored
+ * partition which is not replicated to this member is dropped, and the
+ * indexes of a restored partition owned by this member are populated. A
+ * restored partition which is migrated to this member is dropped before
+ * the migration data is applied. So a member which comes back with the
+ * same address while the cluster is {@code FROZEN} or {@code PASSIVE} gets
+ * its partitions back without any migration, and a member which rejoins an
+ * active cluster doesn't keep any stale data.
+ * <p>
+ * A log is compacted periodically when most of its records are overwritten.
+ * The logs are kept when the member shuts down; data which leaves the
+ * member by a migration is removed from them.
+ */
+public class MapPersistenceService {
+
+    static final String MEMBER_DIR_PREFIX = "map-";
+    static final String PARTITION_DIR_PREFIX = "partition-";
+
+    private static final long MIN_COMPACTION_RECORD_COUNT = 1000;
+
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final File memberDir;
+    private final int dataLoadTimeoutSeconds;
+    private final long compactionIntervalSeconds;
+    private final PartitionLogStore[] stores;
+    private final Set<Integer> restoredPartitions = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledFuture<?> maintenanceFuture;
+    private volatile boolean shutdown;
+
+    public MapPersistenceService(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(getClass());
+        HotRestartPersistenceConfig config = nodeEngine.getConfig().getHotRestartPersistenceConfig();
+        this.memberDir = new File(config.getBaseDir().getAbsoluteFile(), memberDirName(nodeEngine.getThisAddress()));
+        this.dataLoadTimeoutSeconds = config.getDataLoadTimeoutSeconds();
+        this.compactionIntervalSeconds = nodeEngine.getProperties().getSeconds(MAP_PERSISTENCE_COMPACTION_INTERVAL_SECONDS);
+        InternalSerializationService serializationService
+                = (InternalSerializationService) nodeEngine.getSerializationService();
+        this.stores = new PartitionLogStore[nodeEngine.getPartitionService().getPartitionCount()];
+        for (int partitionId = 0; partitionId < stores.length; partitionId++) {
+            stores[partitionId] = new PartitionLogStore(new File(memberDir, PARTITION_DIR_PREFIX + partitionId),
+                    serializationService);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the map with the given configuration is
+     * persisted.
+     */
+    public boolean isPersistent(MapConfig mapConfig) {
+        return mapConfig.getHotRestartConfig().isEnabled();
+    }
+
+    /**
+     * Creates the observer which persists the mutations of the given record
+     * store.
+     */
+    public MutationObserver<Record> newMutationObserver(RecordStore recordStore) {
+        MapConfig mapConfig = recordStore.getMapContainer().getMapConfig();
+        int partitionId = recordStore.getPartitionId();
+        return new PersistenceMutationObserver(recordStore.getName(), partitionId,
+                mapConfig.getHotRestartConfig().isFsync(), stores[partitionId], nodeEngine.getSerializationService());
+    }
+
+    /**
+     * Restores the persisted partitions on the partition threads and waits
+     * until all of them are restored, at most for the
+     * {@link HotRestartPersistenceConfig#getDataLoadTimeoutSeconds() data
+     * load timeout}.
+     */
+    public void restore() {
+        long start = System.nanoTime();
+        List<Integer> partitionIds = new ArrayList<>();
+        for (int partitionId = 0; partitionId < stores.length; partitionId++) {
+            if (stores[partitionId].dir().isDirectory()) {
+                partitionIds.add(partitionId);
+            }
+        }
+
+        CountDownLatch latch = new CountDownLatch(partitionIds.size());
+        AtomicLong entryCount = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        OperationService operationService = nodeEngine.getOperationService();
+        for (int partitionId : partitionIds) {
+            operationService.execute(new RestoreTask(partitionId, latch, entryCount, failure));
+        }
+
+        try {
+            if (!latch.await(dataLoadTimeoutSeconds, SECONDS)) {
+                throw new HazelcastException("Could not restore IMap data from " + memberDir + " in "
+                        + dataLoadTimeoutSeconds + " seconds");
+            }
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new HazelcastException("Interrupted while restoring IMap data from " + memberDir, e);
+        }
+        if (failure.get() != null) {
+            throw new HazelcastException("Could not restore IMap data from " + memberDir, failure.get());
+        }
+
+        if (entryCount.get() > 0) {
+            logger.info("Restored " + entryCount.get() + " IMap entries of " + restoredPartitions.size()
+                    + " partitions from " + memberDir + " in " + NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+        maintenanceFuture = nodeEngine.getExecutionService().scheduleWithRepetition(this::runMaintenance,
+                compactionIntervalSeconds, compactionIntervalSeconds, SECONDS);
+    }
+
+    /**
+     * Called on the partition thread before a replica of the given partition
+     * is migrated to this member. Drops the restored data of the partition,
+     * the migration brings the current data, unless the restored data is
+     * kept for the migration to transfer only the differing entries.
+     */
+    public void onReplicaMigration(int partitionId, boolean keepRestoredData) {
+        if (restoredPartitions.remove(partitionId) && !keepRestoredData) {
+            removeRestoredRecordStores(partitionId);
+        }
+    }
+
+    /**
+     * Stops the maintenance and closes the logs. The record stores are
+     * cleared during shutdown afterwards, which must not reach the logs.
+     */
+    public void shutdown() {
+        shutdown = true;
+        ScheduledFuture<?> future = maintenanceFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+        for (PartitionLogStore store : stores) {
+            store.close();
+        }
+    }
+
+    private void runMaintenance() {
+        if (shutdown) {
+            return;
+        }
+        OperationService operationService = nodeEngine.getOperationService();
+        if (!restoredPartitions.isEmpty() && nodeEngine.getClusterService().isJoined()) {
+            for (int partitionId : restoredPartitions) {
+                operationService.execute(new ResolveRestoredPartitionTask(partitionId));
+            }
+        }
+        for (int partitionId = 0; partitionId < stores.length; partitionId++) {
+            if (stores[partitionId].recordCount() >= MIN_COMPACTION_RECORD_COUNT) {
+                operationService.execute(new CompactionTask(partitionId));
+            }
+        }
+    }
+
+    private long restorePartition(int partitionId) throws IOException {
+        PartitionLogStore store = stores[partitionId];
+        Map<String, Map<Data, Record>> maps = store.load();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        long now = Clock.currentTimeMillis();
+        long count = 0;
+        store.setReplaying(true);
+        try {
+            for (Map.Entry<String, Map<Data, Record>> mapEntries : maps.entrySet()) {
+                String mapName = mapEntries.getKey();
+                if (mapEntries.getValue().isEmpty() || !isPersistent(nodeEngine.getConfig().findMapConfig(mapName))) {
+                    // dropped by the next compaction
+                    continue;
+                }
+                RecordStore recordStore = container.getRecordStoreForHotRestart(mapName);
+                for (Map.Entry<Data, Record> entry : mapEntries.getValue().entrySet()) {
+                    recordStore.putReplicatedRecord(entry.getKey(), entry.getValue(), now, false);
+                }
+                count += mapEntries.getValue().size();
+            }
+        } finally {
+            store.setReplaying(false);
+        }
+        if (count > 0) {
+            restoredPartitions.add(partitionId);
+        }
+        return count;
+    }
+
+    private void removeRestoredRecordStores(int partitionId) {
+        mapServiceContext.removeRecordStoresFromPartitionMatchingWith(
+                recordStore -> isPersistent(recordStore.getMapContainer().getMapConfig()), partitionId, false, true);
+    }
+
+    private void populateIndexes(int partitionId) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        for (RecordStore<Record> recordStore : container.getMaps().values()) {
+            MapContainer mapContainer = recordStore.getMapContainer();
+            RecordStoreAdapter storeAdapter = new RecordStoreAdapter(recordStore);
+            Indexes indexes = mapContainer.getIndexes(partitionId);
+            indexes.createIndexesFromRecordedDefinitions(storeAdapter);
+            if (!indexes.haveAtLeastOneIndex()) {
+                continue;
+            }
+            InternalIndex[] indexesSnapshot = indexes.getIndexes();
+            recordStore.forEach((key, record) -> {
+                Object value = Records.getValueOrCachedValue(record, nodeEngine.getSerializationService());
+                if (value != null) {
+                    QueryableEntry queryEntry = mapContainer.newQueryEntry(key, value);
+                    queryEntry.setRecord(record);
+                    queryEntry.setStoreAdapter(storeAdapter);
+                    indexes.putEntry(queryEntry, null, Index.OperationSource.SYSTEM);
+                }
+            }, false);
+            Indexes.markPartitionAsIndexed(partitionId, indexesSnapshot);
+        }
+    }
+
+    private List<RecordStore> getPersistentRecordStores(int partitionId) {
+        List<RecordStore> recordStores = new ArrayList<>();
+        for (RecordStore recordStore : mapServiceContext.getPartitionContainer(partitionId).getAllRecordStores()) {
+            if (isPersistent(recordStore.getMapContainer().getMapConfig())) {
+                recordStores.add(recordStore);
+            }
+        }
+        return recordStores;
+    }
+
+    private static String memberDirName(Address address) {
+        return MEMBER_DIR_PREFIX + address.getHost().replaceAll("[^\\w.-]", "_") + "-" + address.getPort();
+    }
+
+    private final class RestoreTask implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+        private final CountDownLatch latch;
+        private final AtomicLong entryCount;
+        private final AtomicReference<Throwable> failure;
+
+        RestoreTask(int partitionId, CountDownLatch latch, AtomicLong entryCount, AtomicReference<Throwable> failure) {
+            this.partitionId = partitionId;
+            this.latch = latch;
+            this.entryCount = entryCount;
+            this.failure = failure;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            try {
+                entryCount.addAndGet(restorePartition(partitionId));
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * Decides what happens to the restored data of a partition once the
+     * partition table of the cluster is known.
+     */
+    private final class ResolveRestoredPartitionTask implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+
+        ResolveRestoredPartitionTask(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            if (shutdown || !restoredPartitions.contains(partitionId)) {
+                return;
+            }
+            IPartition partition = nodeEngine.getPartitionService().getPartition(partitionId, false);
+            if (partition.getOwnerOrNull() == null || partition.isMigrating()) {
+                return;
+            }
+            if (!partition.isOwnerOrBackup(nodeEngine.getThisAddress())) {
+                removeRestoredRecordStores(partitionId);
+            } else if (partition.isLocal()) {
+                populateIndexes(partitionId);
+            }
+            restoredPartitions.remove(partitionId);
+        }
+    }
+
+    private final class CompactionTask implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+
+        CompactionTask(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            if (shutdown) {
+                return;
+            }
+            List<RecordStore> recordStores = getPersistentRecordStores(partitionId);
+            long liveEntryCount = 0;
+            for (RecordStore recordStore : recordStores) {
+                liveEntryCount += recordStore.size();
+            }
+            PartitionLogStore store = stores[partitionId];
+            if (!store.shouldCompact(liveEntryCount, MIN_COMPACTION_RECORD_COUNT)) {
+                return;
+            }
+            try {
+                store.compact(recordStores);
+            } catch (IOException e) {
+                logger.warning("Could not compact " + store.dir(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.readData;
+import static com.hazelcast.internal.nio.IOUtil.writeData;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of the mutations of the persistent IMap record stores of
+ * a single partition.
+ * <p>
+ * The log is a sequence of segment files in the partition directory. A
+ * record is {@code [int length][int crc]} followed by the payload, which is
+ * the put, remove or clear of an entry of a map. Replaying the segments in
+ * the order of their sequence numbers rebuilds the content of the record
+ * stores. A record which is cut short or whose checksum doesn't match ends
+ * its segment; it is the trace of a write interrupted by a crash. After a
+ * restore new records go to a new segment, so they never follow such a
+ * record.
+ * <p>
+ * Compaction writes the live entries of the record stores to a new segment
+ * and then deletes the older segments, oldest first. A crash in the middle
+ * of it is harmless, since the new segment only repeats the state which the
+ * older ones lead to.
+ * <p>
+ * Except {@link #close()} and {@link #recordCount()}, the methods are
+ * called on the partition thread.
+ */
+final class PartitionLogStore {
+
+    static final String SEGMENT_PREFIX = "segment-";
+
+    private static final byte PUT = 0;
+    private static final byte REMOVE = 1;
+    private static final byte CLEAR = 2;
+    private static final int RECORD_HEADER_SIZE = 2 * INT_SIZE_IN_BYTES;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final File dir;
+    private final InternalSerializationService serializationService;
+    private FileChannel channel;
+    private long segmentSequence;
+    private boolean replaying;
+    private boolean closed;
+    private volatile long recordCount;
+
+    PartitionLogStore(File dir, InternalSerializationService serializationService) {
+        this.dir = dir;
+        this.serializationService = serializationService;
+    }
+
+    File dir() {
+        return dir;
+    }
+
+    /**
+     * Returns the number of records in the segments, including the ones
+     * which are overwritten by later records.
+     */
+    long recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * While replaying, the mutations caused by the restore itself are not
+     * appended again.
+     */
+    void setReplaying(boolean replaying) {
+        this.replaying = replaying;
+    }
+
+    void appendPut(String mapName, Data key, Record record, Data value, boolean fsync) throws IOException {
+        if (closed || replaying) {
+            return;
+        }
+        append(encodePut(mapName, key, record, value), fsync);
+    }
+
+    void appendRemove(String mapName, Data key, boolean fsync) throws IOException {
+        if (closed || replaying) {
+            return;
+        }
+        BufferObjectDataOutput out = newRecordOutput(REMOVE, mapName);
+        try {
+            writeData(out, key);
+            append(toRecordBytes(out), fsync);
+        } finally {
+            out.close();
+        }
+    }
+
+    void appendClear(String mapName, boolean fsync) throws IOException {
+        if (closed || replaying) {
+            return;
+        }
+        BufferObjectDataOutput out = newRecordOutput(CLEAR, mapName);
+        try {
+            append(toRecordBytes(out), fsync);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Replays the segments and returns the entries of every map by map name.
+     */
+    Map<String, Map<Data, Record>> load() throws IOException {
+        Map<String, Map<Data, Record>> maps = new HashMap<>();
+        long count = 0;
+        for (long sequence : segmentSequences()) {
+            File file = segmentFile(sequence);
+            long remaining = file.length();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()),
+                    STREAM_BUFFER_SIZE))) {
+                byte[] payload;
+                while ((payload = readRecord(in, remaining)) != null) {
+                    remaining -= RECORD_HEADER_SIZE + payload.length;
+                    replay(payload, maps);
+                    count++;
+                }
+            }
+            segmentSequence = sequence;
+        }
+        recordCount = count;
+        return maps;
+    }
+
+    /**
+     * Returns {@code true} if most of the records are overwritten and there
+     * are at least {@code minRecordCount} of them.
+     */
+    boolean shouldCompact(long liveEntryCount, long minRecordCount) {
+        long count = recordCount;
+        return count >= minRecordCount && count > 2 * liveEntryCount;
+    }
+
+    /**
+     * Replaces the segments with a single one which holds the entries of the
+     * given record stores, or deletes them if the record stores are empty.
+     */
+    synchronized void compact(Collection<RecordStore> recordStores) throws IOException {
+        if (closed) {
+            return;
+        }
+        closeResource(channel);
+        channel = null;
+        long[] sequences = segmentSequences();
+        long compactedSequence = nextSegmentSequence(sequences);
+        long count = 0;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        FileOutputStream fileOut = new FileOutputStream(segmentFile(compactedSequence));
+        try (OutputStream out = new BufferedOutputStream(fileOut, STREAM_BUFFER_SIZE)) {
+            for (RecordStore recordStore : recordStores) {
+                count += writeEntries(recordStore, out);
+            }
+            out.flush();
+            // the older segments are deleted next, the new one must survive a crash even without fsync
+            fileOut.getChannel().force(true);
+        }
+        for (long sequence : sequences) {
+            Files.deleteIfExists(segmentFile(sequence).toPath());
+        }
+        if (count == 0) {
+            Files.deleteIfExists(segmentFile(compactedSequence).toPath());
+        }
+        segmentSequence = compactedSequence;
+        recordCount = count;
+    }
+
+    /**
+     * Closes the current segment. The records appended after this call are
+     * dropped.
+     */
+    synchronized void close() {
+        closed = true;
+        closeResource(channel);
+        channel = null;
+    }
+
+    private synchronized void append(byte[] bytes, boolean fsync) throws IOException {
+        if (closed) {
+            return;
+        }
+        if (channel == null) {
+            openSegment();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        recordCount++;
+    }
+
+    private void openSegment() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        segmentSequence = nextSegmentSequence(segmentSequences());
+        channel = FileChannel.open(segmentFile(segmentSequence).toPath(), CREATE, WRITE, APPEND);
+    }
+
+    private long nextSegmentSequence(long[] sequences) {
+        long last = sequences.length > 0 ? sequences[sequences.length - 1] : 0;
+        return Math.max(segmentSequence, last) + 1;
+    }
+
+    private long writeEntries(RecordStore<Record> recordStore, OutputStream out) throws IOException {
+        String mapName = recordStore.getName();
+        long[] count = new long[1];
+        try {
+            recordStore.forEach((key, record) -> {
+                try {
+                    out.write(encodePut(mapName, key, record, serializationService.toData(record.getValue())));
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, true, true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    private byte[] encodePut(String mapName, Data key, Record record, Data value) throws IOException {
+        BufferObjectDataOutput out = newRecordOutput(PUT, mapName);
+        try {
+            writeData(out, key);
+            Records.writeRecord(out, record, value);
+            return toRecordBytes(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private BufferObjectDataOutput newRecordOutput(byte type, String mapName) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        // the header is filled in by toRecordBytes()
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeUTF(mapName);
+        return out;
+    }
+
+    private static byte[] toRecordBytes(BufferObjectDataOutput out) {
+        byte[] bytes = out.toByteArray();
+        int length = bytes.length - RECORD_HEADER_SIZE;
+        writeIntB(bytes, 0, length);
+        writeIntB(bytes, INT_SIZE_IN_BYTES, crc(bytes, RECORD_HEADER_SIZE, length));
+        return bytes;
+    }
+
+    private void replay(byte[] payload, Map<String, Map<Data, Record>> maps) throws IOException {
+        BufferObjectDataInput in = serializationService.createObjectDataInput(payload);
+        byte type = in.readByte();
+        String mapName = in.readUTF();
+        switch (type) {
+            case PUT:
+                Data key = readData(in);
+                maps.computeIfAbsent(mapName, name -> new HashMap<>()).put(key, Records.readRecord(in));
+                break;
+            case REMOVE:
+                Map<Data, Record> entries = maps.get(mapName);
+                if (entries != null) {
+                    entries.remove(readData(in));
+                }
+                break;
+            case CLEAR:
+                maps.remove(mapName);
+                break;
+            default:
+                throw new IOException("Unknown record type " + type + " in " + dir);
+        }
+    }
+
+    /**
+     * Reads the payload of the next record, or returns {@code null} if there
+     * is no intact record left in the segment.
+     */
+    private static byte[] readRecord(DataInputStream in, long remaining) throws IOException {
+        if (remaining < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int length = in.readInt();
+        int crc = in.readInt();
+        if (length < 0 || length > remaining - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        return crc(payload, 0, length) == crc ? payload : null;
+    }
+
+    private long[] segmentSequences() throws IOException {
+        if (!dir.isDirectory()) {
+            return new long[0];
+        }
+        String[] names = dir.list();
+        if (names == null) {
+            throw new IOException("Cannot list " + dir);
+        }
+        long[] sequences = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            long sequence = parseSequence(name);
+            if (sequence > 0) {
+                sequences[count++] = sequence;
+            }
+        }
+        long[] result = Arrays.copyOf(sequences, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private File segmentFile(long sequence) {
+        return new File(dir, SEGMENT_PREFIX + sequence);
+    }
+
+    private static long parseSequence(String name) {
+        if (!name.startsWith(SEGMENT_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionLogStore{dir=" + dir + ", segmentSequence=" + segmentSequence + ", recordCount=" + recordCount + '}';
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.MutationObserver;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Appends the mutations of a persistent record store to the log of its
+ * partition. Primary and backup replicas are persisted alike; an evicted
+ * or expired entry is removed from the log as well.
+ */
+public class PersistenceMutationObserver implements MutationObserver<Record> {
+
+    private final String mapName;
+    private final int partitionId;
+    private final boolean fsync;
+    private final PartitionLogStore store;
+    private final SerializationService serializationService;
+
+    PersistenceMutationObserver(String mapName, int partitionId, boolean fsync, PartitionLogStore store,
+                                SerializationService serializationService) {
+        this.mapName = mapName;
+        this.partitionId = partitionId;
+        this.fsync = fsync;
+        this.store = store;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        // the record is null when only the TTL of an entry loaded from the map store is set
+        if (record != null) {
+            persist(key, record);
+        }
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record, Object oldValue, Object newValue,
+                               boolean backup) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        remove(key);
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        remove(key);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    @Override
+    public void onClear() {
+        clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        // the log is kept, it is the state to restore
+    }
+
+    private void persist(Data key, Record record) {
+        try {
+            store.appendPut(mapName, key, record, serializationService.toData(record.getValue()), fsync);
+        } catch (IOException e) {
+            throw newPersistenceException(e);
+        }
+    }
+
+    private void remove(Data key) {
+        try {
+            store.appendRemove(mapName, key, fsync);
+        } catch (IOException e) {
+            throw newPersistenceException(e);
+        }
+    }
+
+    private void clear() {
+        try {
+            store.appendClear(mapName, fsync);
+        } catch (IOException e) {
+            throw newPersistenceException(e);
+        }
+    }
+
+    private HazelcastException newPersistenceException(IOException e) {
+        return new HazelcastException("Could not persist the mutation of map " + mapName + " in partition "
+                + partitionId, e);
+    }
+}
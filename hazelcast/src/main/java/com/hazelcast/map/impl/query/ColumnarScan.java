@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.impl.ColumnarAggregator;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.recordstore.ColumnarProjection;
+import com.hazelcast.map.impl.recordstore.ColumnarProjection.Column;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.AttributeType;
+import com.hazelcast.query.impl.getters.ReflectionHelper;
+import com.hazelcast.query.impl.predicates.AndPredicate;
+import com.hazelcast.query.impl.predicates.BetweenPredicate;
+import com.hazelcast.query.impl.predicates.BoundedRangePredicate;
+import com.hazelcast.query.impl.predicates.EqualPredicate;
+import com.hazelcast.query.impl.predicates.GreaterLessPredicate;
+import com.hazelcast.query.impl.predicates.RangePredicate;
+import com.hazelcast.query.impl.predicates.TruePredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
+import static com.hazelcast.query.impl.IndexUtils.canonicalizeAttribute;
+
+/**
+ * Evaluates a predicate, and optionally an aggregation, of a partition scan
+ * over the columns of a {@link ColumnarProjection}.
+ * <p>
+ * Supports the true predicate, equal, greater/less, between and bounded
+ * range predicates with non-null bounds, and conjunctions of them. The
+ * bounds are converted to the class of the column values the same way the
+ * predicates convert them for each entry, a bound which converts to another
+ * class makes the scan fall back to the regular one.
+ */
+final class ColumnarScan {
+
+    private final List<RangePredicate> ranges;
+
+    private int[] positions;
+    private int count;
+
+    private ColumnarScan(List<RangePredicate> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+     * @return the columnar scan for the given predicate, or {@code null} if
+     * the predicate can't be evaluated over columns
+     */
+    static ColumnarScan of(Predicate predicate) {
+        if (predicate.getClass() == TruePredicate.class) {
+            return new ColumnarScan(Collections.emptyList());
+        }
+
+        List<RangePredicate> ranges = new ArrayList<>();
+        if (predicate.getClass() == AndPredicate.class) {
+            for (Predicate subPredicate : ((AndPredicate) predicate).getPredicates()) {
+                if (!addRange(ranges, subPredicate)) {
+                    return null;
+                }
+            }
+        } else if (!addRange(ranges, predicate)) {
+            return null;
+        }
+        return new ColumnarScan(ranges);
+    }
+
+    /**
+     * @return {@code true} if the scan filters the entries, {@code false} if
+     * it selects all of them
+     */
+    boolean hasRanges() {
+        return !ranges.isEmpty();
+    }
+
+    /**
+     * Accumulates the entries matching the predicate into the given
+     * aggregator.
+     *
+     * @return {@code true} if the entries were accumulated, {@code false} if
+     * a column is not available or the aggregator can't accumulate it, the
+     * caller should run the regular scan then
+     */
+    boolean aggregate(ColumnarProjection projection, ColumnarAggregator aggregator) {
+        String attributePath = aggregator.getAttributePath();
+        String attribute = attributePath == null ? THIS_ATTRIBUTE_NAME.value() : canonicalizeAttribute(attributePath);
+
+        Lock lock = projection.readLock();
+        lock.lock();
+        try {
+            // requested before selecting, so all the missing columns get built at once
+            Column column = projection.getColumn(attribute);
+            if (column == null && ranges.isEmpty()) {
+                // the rows are maintained only while there is a column
+                return false;
+            }
+            if (!select(projection)) {
+                return false;
+            }
+            if (attributePath == null && aggregator.accumulateEntries(count)) {
+                return true;
+            }
+            return column != null && accumulate(column, aggregator);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean accumulate(Column column, ColumnarAggregator aggregator) {
+        if (column.getLongs() != null) {
+            return aggregator.accumulateLongs(column.getValueClass(), column.getLongs(), positions, count);
+        } else if (column.getDoubles() != null) {
+            return aggregator.accumulateDoubles(column.getValueClass(), column.getDoubles(), positions, count);
+        } else {
+            // there are no values at all
+            return count == 0;
+        }
+    }
+
+    /**
+     * @return the keys of the entries matching the predicate, or {@code null}
+     * if a column is not available
+     */
+    Set<Data> selectKeys(ColumnarProjection projection) {
+        Lock lock = projection.readLock();
+        lock.lock();
+        try {
+            if (!select(projection)) {
+                return null;
+            }
+            Set<Data> keys = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                keys.add(projection.getKey(positions == null ? i : positions[i]));
+            }
+            return keys;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean select(ColumnarProjection projection) {
+        Column[] columns = new Column[ranges.size()];
+        boolean missing = false;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = projection.getColumn(ranges.get(i).getAttribute());
+            missing |= columns[i] == null;
+        }
+        if (missing) {
+            return false;
+        }
+
+        positions = null;
+        count = projection.size();
+        for (int i = 0; i < columns.length && count > 0; i++) {
+            RangePredicate range = ranges.get(i);
+            Comparable from = convert(columns[i].getValueClass(), range.getFrom());
+            Comparable to = convert(columns[i].getValueClass(), range.getTo());
+            if (from == null && range.getFrom() != null || to == null && range.getTo() != null) {
+                return false;
+            }
+            filter(columns[i], from, range.isFromInclusive(), to, range.isToInclusive());
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the positions of the values of the column within the given
+     * bounds. The floating point values are compared by their {@link
+     * #sortable} keys, which are ordered as {@link Double#compare} orders
+     * the values.
+     */
+    private void filter(Column column, Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        boolean integral = column.getLongs() != null;
+        long fromKey = from == null ? Long.MIN_VALUE : key(integral, from);
+        long toKey = to == null ? Long.MAX_VALUE : key(integral, to);
+        // the keys are integral, so exclusive bounds are made inclusive
+        if (from != null && !fromInclusive) {
+            if (fromKey == Long.MAX_VALUE) {
+                count = 0;
+                return;
+            }
+            fromKey++;
+        }
+        if (to != null && !toInclusive) {
+            if (toKey == Long.MIN_VALUE) {
+                count = 0;
+                return;
+            }
+            toKey--;
+        }
+
+        if (integral) {
+            filter(column.getLongs(), fromKey, toKey);
+        } else {
+            filter(column.getDoubles(), fromKey, toKey);
+        }
+    }
+
+    private static long key(boolean integral, Comparable bound) {
+        Number number = (Number) bound;
+        return integral ? number.longValue() : sortable(number.doubleValue());
+    }
+
+    private void filter(long[] values, long from, long to) {
+        int[] selected = positions == null ? new int[count] : positions;
+        int selectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int row = positions == null ? i : positions[i];
+            long value = values[row];
+            if (value >= from && value <= to) {
+                selected[selectedCount++] = row;
+            }
+        }
+        positions = selected;
+        count = selectedCount;
+    }
+
+    private void filter(double[] values, long from, long to) {
+        int[] selected = positions == null ? new int[count] : positions;
+        int selectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int row = positions == null ? i : positions[i];
+            long key = sortable(values[row]);
+            if (key >= from && key <= to) {
+                selected[selectedCount++] = row;
+            }
+        }
+        positions = selected;
+        count = selectedCount;
+    }
+
+    /**
+     * @return a key of the given value whose signed order is the order of
+     * {@link Double#compare}, including the negative zero and NaN
+     */
+    static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Converts the given bound as the predicates do for an attribute value
+     * of the given class.
+     *
+     * @return the converted bound, or {@code null} if the bound is {@code
+     * null} or can't be converted to the given class
+     */
+    private static Comparable convert(Class<?> valueClass, Comparable bound) {
+        if (bound == null || valueClass == null || bound.getClass() == valueClass) {
+            return bound;
+        }
+
+        AttributeType type = ReflectionHelper.getAttributeType(valueClass);
+        try {
+            Comparable converted = type.getConverter().convert(bound);
+            return converted != null && converted.getClass() == valueClass ? converted : null;
+        } catch (RuntimeException e) {
+            // the regular scan reports the failure
+            return null;
+        }
+    }
+
+    private static boolean addRange(List<RangePredicate> ranges, Predicate predicate) {
+        Class<?> clazz = predicate.getClass();
+        if (clazz == GreaterLessPredicate.class) {
+            RangePredicate range = (RangePredicate) predicate;
+            if (range.getFrom() == null && range.getTo() == null) {
+                return false;
+            }
+        } else if (clazz == EqualPredicate.class || clazz == BetweenPredicate.class
+                || clazz == BoundedRangePredicate.class) {
+            RangePredicate range = (RangePredicate) predicate;
+            if (range.getFrom() == null || range.getTo() == null) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        ranges.add((RangePredicate) predicate);
+        return true;
+    }
+}
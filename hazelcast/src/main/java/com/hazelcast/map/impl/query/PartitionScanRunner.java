@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.impl.ColumnarAggregator;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.internal.cluster.ClusterService;
@@ -47,6 +48,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 import static com.hazelcast.internal.util.SortingUtil.compareAnchor;
@@ -91,7 +93,23 @@ public class PartitionScanRunner {
         Map.Entry<Integer, Map.Entry> nearestAnchorEntry =
                 pagingPredicate == null ? null : pagingPredicate.getNearestAnchorEntry();
 
-        recordStore.forEachAfterLoad(new BiConsumer<Data, Record>() {
+        Set<Data> candidateKeys = null;
+        ColumnarScan columnarScan = pagingPredicate == null ? getColumnarScan(recordStore, predicate) : null;
+        if (columnarScan != null) {
+            if (result instanceof AggregationResult) {
+                Object aggregator = ((AggregationResult) result).getAggregator();
+                recordStore.checkIfLoaded();
+                if (aggregator instanceof ColumnarAggregator
+                        && columnarScan.aggregate(recordStore.getColumnarProjection(), (ColumnarAggregator) aggregator)) {
+                    return;
+                }
+            } else if (columnarScan.hasRanges()) {
+                // values of the entries not matching the ranges are not deserialized
+                candidateKeys = columnarScan.selectKeys(recordStore.getColumnarProjection());
+            }
+        }
+
+        recordStore.forEachAfterLoad(filterKeys(candidateKeys, new BiConsumer<Data, Record>() {
             LazyMapEntry queryEntry = new LazyMapEntry();
 
             @Override
@@ -119,10 +137,29 @@ public class PartitionScanRunner {
                     queryEntry = new LazyMapEntry();
                 }
             }
-        }, false);
+        }), false);
         result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
     }
 
+    private static BiConsumer<Data, Record> filterKeys(Set<Data> keys, BiConsumer<Data, Record> consumer) {
+        if (keys == null) {
+            return consumer;
+        }
+        return (key, record) -> {
+            if (keys.contains(key)) {
+                consumer.accept(key, record);
+            }
+        };
+    }
+
+    private static ColumnarScan getColumnarScan(RecordStore recordStore, Predicate predicate) {
+        // the columns don't track the expiration of the entries
+        if (recordStore.getColumnarProjection() == null || recordStore.isExpirable()) {
+            return null;
+        }
+        return ColumnarScan.of(predicate);
+    }
+
     // overridden in ee
     protected Metadata getMetadataFromRecord(RecordStore recordStore, Data dataKey, Record record) {
         return record.getMetadata();
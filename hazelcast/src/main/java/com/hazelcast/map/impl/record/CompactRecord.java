@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.impl.Metadata;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+
+import static com.hazelcast.map.impl.record.CompactRecords.CREATION_TIME;
+import static com.hazelcast.map.impl.record.CompactRecords.EXPIRATION_TIME;
+import static com.hazelcast.map.impl.record.CompactRecords.HITS;
+import static com.hazelcast.map.impl.record.CompactRecords.LAST_ACCESS_TIME;
+import static com.hazelcast.map.impl.record.CompactRecords.LAST_STORED_TIME;
+import static com.hazelcast.map.impl.record.CompactRecords.LAST_UPDATE_TIME;
+import static com.hazelcast.map.impl.record.CompactRecords.MAX_IDLE;
+import static com.hazelcast.map.impl.record.CompactRecords.NULL_ID;
+import static com.hazelcast.map.impl.record.CompactRecords.TTL;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * A {@link Record} view over an entry of {@link CompactRecords}.
+ * <p>
+ * Like {@link OffHeapRecord}, a record starts its life <em>detached</em>:
+ * it is created by the {@link CompactRecordFactory} and keeps its state in
+ * an on-heap delegate until the storage copies it into the slab and
+ * {@link #attach attaches} it. From then on every getter and setter reads
+ * and writes the slab arrays. Records returned from the storage are
+ * short-lived views which are always attached, so a {@link Record} object
+ * only exists while an entry is being accessed.
+ * <p>
+ * A view remembers the blob of its entry. When the blob found in the slab
+ * is no longer the remembered one, the view checks whether the slab still
+ * holds the same key at its id; if it does not, the entry is gone and the
+ * view keeps serving the value it has seen while metadata updates are
+ * ignored.
+ * <p>
+ * The transient {@link Metadata} is not retained by attached records.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public final class CompactRecord implements Record<Data> {
+
+    private Record<Data> detached;
+    private CompactRecords records;
+    private int id = NULL_ID;
+    private byte[] blob;
+    private int keySize;
+
+    CompactRecord(Record<Data> detached) {
+        this.detached = detached;
+    }
+
+    CompactRecord(CompactRecords records, int id) {
+        assert id != NULL_ID;
+        this.records = records;
+        this.id = id;
+        this.blob = records.blob(id);
+        this.keySize = records.keySize(id);
+    }
+
+    public boolean isAttached() {
+        return id != NULL_ID;
+    }
+
+    /**
+     * @return {@code true} if this record is attached to the entry with
+     * the given id of the given slab
+     */
+    public boolean isViewOf(CompactRecords records, int id) {
+        return this.records == records && this.id == id;
+    }
+
+    /**
+     * Switches this detached record to the entry with the given id. The
+     * entry must already contain this record's state, see
+     * {@link CompactRecords#allocate}.
+     */
+    public void attach(CompactRecords records, int id) {
+        assert !isAttached() : "Record is already attached to " + id;
+        this.records = records;
+        this.id = id;
+        this.blob = records.blob(id);
+        this.keySize = records.keySize(id);
+        this.detached = null;
+    }
+
+    /**
+     * @return number of heap bytes held by the serialized value of this record
+     */
+    public long getValueCost() {
+        if (!isAttached()) {
+            Data value = detached.getValue();
+            return value == null ? 0 : value.totalSize();
+        }
+        resolve();
+        return blob.length - keySize;
+    }
+
+    @Override
+    public Data getValue() {
+        if (!isAttached()) {
+            return detached.getValue();
+        }
+        resolve();
+        return CompactRecords.readValue(blob, keySize);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        if (!isAttached()) {
+            detached.setValue(value);
+        } else if (resolve()) {
+            blob = records.setValue(id, value);
+        }
+    }
+
+    /**
+     * Returns the heap footprint of this record: the slab arrays' share
+     * of the entry plus the key and value bytes.
+     */
+    @Override
+    public long getCost() {
+        if (!isAttached()) {
+            return detached.getCost();
+        }
+        return resolve() ? records.cost(id) : 0;
+    }
+
+    @Override
+    public long getVersion() {
+        if (!isAttached()) {
+            return detached.getVersion();
+        }
+        return resolve() ? records.getVersion(id) : 0;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (!isAttached()) {
+            detached.setVersion(version);
+        } else if (resolve()) {
+            records.setVersion(id, version);
+        }
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    /**
+     * Indexes keep references to records and update their access time
+     * from query threads, the slab arrays are only written by the owning
+     * partition thread.
+     */
+    @Override
+    public void onAccessSafe(long now) {
+        if (!isAttached() || Thread.currentThread() instanceof PartitionOperationThread) {
+            setLastAccessTime(now);
+        }
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return isAttached() ? getInt(HITS) : detached.getHits();
+    }
+
+    @Override
+    public void setHits(int hits) {
+        if (isAttached()) {
+            putInt(HITS, hits);
+        } else {
+            detached.setHits(hits);
+        }
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+        if (!isAttached()) {
+            detached.setMetadata(metadata);
+        }
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return isAttached() ? null : detached.getMetadata();
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return isAttached() ? getInt(TTL) : detached.getRawTtl();
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return isAttached() ? getInt(MAX_IDLE) : detached.getRawMaxIdle();
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return isAttached() ? getInt(CREATION_TIME) : detached.getRawCreationTime();
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return isAttached() ? getInt(LAST_ACCESS_TIME) : detached.getRawLastAccessTime();
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return isAttached() ? getInt(LAST_UPDATE_TIME) : detached.getRawLastUpdateTime();
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return isAttached() ? getInt(LAST_STORED_TIME) : detached.getRawLastStoredTime();
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return isAttached() ? getInt(EXPIRATION_TIME) : detached.getRawExpirationTime();
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        if (isAttached()) {
+            putInt(TTL, ttl);
+        } else {
+            detached.setRawTtl(ttl);
+        }
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        if (isAttached()) {
+            putInt(MAX_IDLE, maxIdle);
+        } else {
+            detached.setRawMaxIdle(maxIdle);
+        }
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        if (isAttached()) {
+            putInt(CREATION_TIME, creationTime);
+        } else {
+            detached.setRawCreationTime(creationTime);
+        }
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        if (isAttached()) {
+            putInt(LAST_ACCESS_TIME, lastAccessTime);
+        } else {
+            detached.setRawLastAccessTime(lastAccessTime);
+        }
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        if (isAttached()) {
+            putInt(LAST_UPDATE_TIME, lastUpdateTime);
+        } else {
+            detached.setRawLastUpdateTime(lastUpdateTime);
+        }
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        if (isAttached()) {
+            putInt(LAST_STORED_TIME, time);
+        } else {
+            detached.setRawLastStoredTime(time);
+        }
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        if (isAttached()) {
+            putInt(EXPIRATION_TIME, time);
+        } else {
+            detached.setRawExpirationTime(time);
+        }
+    }
+
+    private int getInt(int field) {
+        return resolve() ? records.getInt(id, field) : UNSET;
+    }
+
+    private void putInt(int field, int value) {
+        if (resolve()) {
+            records.putInt(id, field, value);
+        }
+    }
+
+    /**
+     * Makes sure the remembered blob is the current blob of the entry.
+     *
+     * @return {@code false} if the entry of this view no longer exists
+     */
+    private boolean resolve() {
+        byte[] current = id < records.highWaterMark() ? records.blob(id) : null;
+        if (current == blob) {
+            return true;
+        }
+        // the value was replaced through another view or the id was reused
+        if (current == null || records.keySize(id) != keySize || !CompactRecords.samePrefix(current, blob, keySize)) {
+            return false;
+        }
+        blob = current;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CompactRecord that = (CompactRecord) o;
+        return isAttached() && records == that.records && id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return isAttached() ? id : System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactRecord{"
+                + "id=" + id
+                + ", detached=" + detached
+                + '}';
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.util.Arrays;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * Slab of map entries kept in parallel primitive arrays, indexed by a
+ * stable entry id.
+ * <p>
+ * For every entry the slab keeps:
+ * <ul>
+ * <li>a {@code byte[]} blob with the serialized key followed by the
+ * serialized value, the only per-entry object,</li>
+ * <li>the key hash in an {@code int[]},</li>
+ * <li>the version in a {@code long[]},</li>
+ * <li>key size, ttl, maxIdle, hits and the access, update, creation,
+ * store and expiration times as {@link #META_STRIDE} consecutive ints of
+ * a shared {@code int[]}.</li>
+ * </ul>
+ * The id of an entry does not change while the entry is alive, so
+ * {@link CompactRecord} views can keep pointing at it. Ids of removed
+ * entries are only reused after {@link #release(int) release} is called.
+ * <p>
+ * This class is not thread-safe, it must only be accessed by the partition
+ * thread owning it.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public final class CompactRecords {
+
+    /**
+     * Represents a missing entry id.
+     */
+    public static final int NULL_ID = -1;
+
+    /**
+     * Fixed heap cost of an entry, without its blob: the reference to the
+     * blob, the key hash, the version and the int metadata.
+     */
+    public static final int ENTRY_COST = REFERENCE_COST_IN_BYTES + INT_SIZE_IN_BYTES + LONG_SIZE_IN_BYTES
+            + CompactRecords.META_STRIDE * INT_SIZE_IN_BYTES;
+
+    static final int KEY_SIZE = 0;
+    static final int TTL = 1;
+    static final int MAX_IDLE = 2;
+    static final int HITS = 3;
+    static final int LAST_ACCESS_TIME = 4;
+    static final int LAST_UPDATE_TIME = 5;
+    static final int CREATION_TIME = 6;
+    static final int LAST_STORED_TIME = 7;
+    static final int EXPIRATION_TIME = 8;
+    static final int META_STRIDE = 9;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int BYTE_ARRAY_HEADER_COST = 16;
+
+    private byte[][] blobs;
+    private int[] hashes;
+    private long[] versions;
+    private int[] meta;
+    private int highWaterMark;
+    private int freeListHead = NULL_ID;
+
+    public CompactRecords() {
+        allocateArrays(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Copies the key and the state of the given record into a new entry.
+     *
+     * @return the id of the new entry
+     */
+    public int allocate(int hash, byte[] keyBytes, Record fromRecord) {
+        int id = nextFreeId();
+        Data value = (Data) fromRecord.getValue();
+        blobs[id] = newBlob(keyBytes, keyBytes.length, value);
+        hashes[id] = hash;
+        int base = id * META_STRIDE;
+        meta[base + KEY_SIZE] = keyBytes.length;
+        meta[base + TTL] = fromRecord.getRawTtl();
+        meta[base + MAX_IDLE] = fromRecord.getRawMaxIdle();
+        meta[base + HITS] = fromRecord.getHits();
+        meta[base + LAST_ACCESS_TIME] = fromRecord.getRawLastAccessTime();
+        meta[base + LAST_UPDATE_TIME] = fromRecord.getRawLastUpdateTime();
+        meta[base + CREATION_TIME] = fromRecord.getRawCreationTime();
+        meta[base + LAST_STORED_TIME] = fromRecord.getRawLastStoredTime();
+        meta[base + EXPIRATION_TIME] = fromRecord.getRawExpirationTime();
+        versions[id] = fromRecord.getVersion();
+        return id;
+    }
+
+    /**
+     * Marks the entry as removed. A removed entry is skipped by
+     * {@link #isLive(int)} but its state stays readable until the entry
+     * is {@link #release(int) released}.
+     */
+    public void markRemoved(int id) {
+        int base = id * META_STRIDE;
+        if (meta[base + KEY_SIZE] >= 0) {
+            meta[base + KEY_SIZE] = ~meta[base + KEY_SIZE];
+        }
+    }
+
+    /**
+     * Drops the blob of the entry and makes its id reusable.
+     */
+    public void release(int id) {
+        blobs[id] = null;
+        meta[id * META_STRIDE + KEY_SIZE] = freeListHead;
+        freeListHead = id;
+    }
+
+    /**
+     * @return the number of ids ever handed out, every live id is smaller
+     */
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+    public boolean isLive(int id) {
+        return id >= 0 && id < highWaterMark && blobs[id] != null && meta[id * META_STRIDE + KEY_SIZE] >= 0;
+    }
+
+    public int hashOf(int id) {
+        return hashes[id];
+    }
+
+    public boolean keyEquals(int id, byte[] keyBytes) {
+        return keySize(id) == keyBytes.length && samePrefix(blobs[id], keyBytes, keyBytes.length);
+    }
+
+    public Data readKey(int id) {
+        return new HeapData(Arrays.copyOf(blobs[id], keySize(id)));
+    }
+
+    /**
+     * @return a view of the entry, the entry must not be released yet
+     */
+    public CompactRecord view(int id) {
+        return new CompactRecord(this, id);
+    }
+
+    /**
+     * @return heap footprint of the entry in bytes, the key and the value
+     * bytes included
+     */
+    public long cost(int id) {
+        return ENTRY_COST + BYTE_ARRAY_HEADER_COST + blobs[id].length;
+    }
+
+    byte[] blob(int id) {
+        return blobs[id];
+    }
+
+    int keySize(int id) {
+        int keySize = meta[id * META_STRIDE + KEY_SIZE];
+        return keySize < 0 ? ~keySize : keySize;
+    }
+
+    /**
+     * Replaces the value part of the blob of the entry.
+     *
+     * @return the new blob of the entry
+     */
+    byte[] setValue(int id, Data value) {
+        byte[] blob = newBlob(blobs[id], keySize(id), value);
+        blobs[id] = blob;
+        return blob;
+    }
+
+    int getInt(int id, int field) {
+        return meta[id * META_STRIDE + field];
+    }
+
+    void putInt(int id, int field, int value) {
+        meta[id * META_STRIDE + field] = value;
+    }
+
+    long getVersion(int id) {
+        return versions[id];
+    }
+
+    void setVersion(int id, long version) {
+        versions[id] = version;
+    }
+
+    static Data readValue(byte[] blob, int keySize) {
+        // a serialized value always has a header, an empty value part means null
+        return blob.length == keySize ? null : new HeapData(Arrays.copyOfRange(blob, keySize, blob.length));
+    }
+
+    static boolean samePrefix(byte[] left, byte[] right, int length) {
+        for (int i = 0; i < length; i++) {
+            if (left[i] != right[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] newBlob(byte[] keySource, int keySize, Data value) {
+        byte[] valueBytes = value == null ? null : value.toByteArray();
+        int valueSize = valueBytes == null ? 0 : valueBytes.length;
+        byte[] blob = new byte[keySize + valueSize];
+        System.arraycopy(keySource, 0, blob, 0, keySize);
+        if (valueSize > 0) {
+            System.arraycopy(valueBytes, 0, blob, keySize, valueSize);
+        }
+        return blob;
+    }
+
+    private int nextFreeId() {
+        if (freeListHead != NULL_ID) {
+            int id = freeListHead;
+            freeListHead = meta[id * META_STRIDE + KEY_SIZE];
+            return id;
+        }
+        if (highWaterMark == blobs.length) {
+            grow();
+        }
+        return highWaterMark++;
+    }
+
+    private void grow() {
+        int newCapacity = blobs.length + (blobs.length >> 1);
+        blobs = Arrays.copyOf(blobs, newCapacity);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        meta = Arrays.copyOf(meta, newCapacity * META_STRIDE);
+    }
+
+    private void allocateArrays(int capacity) {
+        blobs = new byte[capacity][];
+        hashes = new int[capacity];
+        versions = new long[capacity];
+        meta = new int[capacity * META_STRIDE];
+    }
+}
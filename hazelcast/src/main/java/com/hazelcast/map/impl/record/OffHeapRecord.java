@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.query.impl.Metadata;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * A {@link Record} whose metadata and serialized value live in a native
+ * memory block owned by an off-heap storage.
+ * <p>
+ * A record starts its life <em>detached</em>: it is created by the
+ * {@link OffHeapRecordFactory} and keeps its state in an on-heap delegate
+ * until the storage copies it into native memory and {@link #attach
+ * attaches} it. From then on every getter and setter reads and writes
+ * the native block directly. Records returned from the storage are
+ * lightweight views which are always attached.
+ * <p>
+ * Native record block layout:
+ * <pre>
+ * +------------------+---------------------+
+ * | next record      | 8 bytes             |
+ * | value address    | 8 bytes             |
+ * | version          | 8 bytes             |
+ * | ttl, maxIdle,    |                     |
+ * | hits, lastAccess |                     |
+ * | lastUpdate,      | 8 x 4 bytes         |
+ * | creation,        |                     |
+ * | lastStored,      |                     |
+ * | expiration       |                     |
+ * | value size       | 4 bytes             |
+ * | key size         | 4 bytes             |
+ * | key bytes        | key size bytes      |
+ * +------------------+---------------------+
+ * </pre>
+ * The value bytes are kept in a separate block which is reallocated
+ * whenever the value changes.
+ * <p>
+ * Only the partition thread owning the storage may access the native
+ * block; the transient {@link Metadata} is not retained by attached records.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public final class OffHeapRecord implements Record<Data> {
+
+    public static final int NEXT_RECORD_OFFSET = 0;
+    public static final int VALUE_ADDRESS_OFFSET = 8;
+    public static final int VERSION_OFFSET = 16;
+    public static final int TTL_OFFSET = 24;
+    public static final int MAX_IDLE_OFFSET = 28;
+    public static final int HITS_OFFSET = 32;
+    public static final int LAST_ACCESS_TIME_OFFSET = 36;
+    public static final int LAST_UPDATE_TIME_OFFSET = 40;
+    public static final int CREATION_TIME_OFFSET = 44;
+    public static final int LAST_STORED_TIME_OFFSET = 48;
+    public static final int EXPIRATION_TIME_OFFSET = 52;
+    public static final int VALUE_SIZE_OFFSET = 56;
+    public static final int KEY_SIZE_OFFSET = 60;
+    public static final int KEY_OFFSET = 64;
+
+    /**
+     * Size of the fixed part of a record block, the key bytes follow it.
+     */
+    public static final int HEADER_SIZE = KEY_OFFSET;
+
+    private Record<Data> detached;
+    private MemoryAccessor mem;
+    private MemoryAllocator malloc;
+    private long address = NULL_ADDRESS;
+
+    OffHeapRecord(Record<Data> detached) {
+        this.detached = detached;
+    }
+
+    /**
+     * Creates a view of an already stored record block.
+     *
+     * @param memoryManager the memory manager of the owning storage
+     * @param address       base address of the record block
+     */
+    public OffHeapRecord(MemoryManager memoryManager, long address) {
+        assert address != NULL_ADDRESS;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.address = address;
+    }
+
+    public boolean isAttached() {
+        return address != NULL_ADDRESS;
+    }
+
+    public long address() {
+        return address;
+    }
+
+    /**
+     * Switches this detached record to the record block at the given
+     * address. The block must already contain this record's state, see
+     * {@link #copyFrom(Record)}.
+     */
+    public void attach(MemoryManager memoryManager, long address) {
+        assert !isAttached() : "Record is already attached to " + address;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.address = address;
+        this.detached = null;
+    }
+
+    /**
+     * Copies the metadata and the value of the given record into the record
+     * block this attached record points to.
+     */
+    public void copyFrom(Record fromRecord) {
+        assert isAttached();
+        setRawTtl(fromRecord.getRawTtl());
+        setRawMaxIdle(fromRecord.getRawMaxIdle());
+        setRawCreationTime(fromRecord.getRawCreationTime());
+        setRawLastAccessTime(fromRecord.getRawLastAccessTime());
+        setRawLastUpdateTime(fromRecord.getRawLastUpdateTime());
+        setHits(fromRecord.getHits());
+        setVersion(fromRecord.getVersion());
+        setLastStoredTime(fromRecord.getLastStoredTime());
+        setExpirationTime(fromRecord.getExpirationTime());
+        setValue((Data) fromRecord.getValue());
+    }
+
+    /**
+     * Frees the value block of this attached record. The record block itself
+     * is owned and freed by the storage.
+     */
+    public void freeValue() {
+        assert isAttached();
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            malloc.free(valueAddress, mem.getInt(address + VALUE_SIZE_OFFSET));
+            mem.putLong(address + VALUE_ADDRESS_OFFSET, NULL_ADDRESS);
+            mem.putInt(address + VALUE_SIZE_OFFSET, 0);
+        }
+    }
+
+    /**
+     * @return number of native bytes held by the value of this record
+     */
+    public long getValueCost() {
+        if (!isAttached()) {
+            Data value = detached.getValue();
+            return value == null ? 0 : value.totalSize();
+        }
+        return mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    @Override
+    public Data getValue() {
+        if (!isAttached()) {
+            return detached.getValue();
+        }
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress == NULL_ADDRESS) {
+            return null;
+        }
+        byte[] bytes = new byte[mem.getInt(address + VALUE_SIZE_OFFSET)];
+        mem.copyToByteArray(valueAddress, bytes, 0, bytes.length);
+        return new HeapData(bytes);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        if (!isAttached()) {
+            detached.setValue(value);
+            return;
+        }
+        freeValue();
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.toByteArray();
+        long valueAddress = malloc.allocate(bytes.length);
+        mem.copyFromByteArray(bytes, 0, valueAddress, bytes.length);
+        mem.putLong(address + VALUE_ADDRESS_OFFSET, valueAddress);
+        mem.putInt(address + VALUE_SIZE_OFFSET, bytes.length);
+    }
+
+    /**
+     * Returns the native footprint of this record: the record block with
+     * the key bytes plus the value block.
+     */
+    @Override
+    public long getCost() {
+        if (!isAttached()) {
+            return detached.getCost();
+        }
+        return HEADER_SIZE + mem.getInt(address + KEY_SIZE_OFFSET) + getValueCost();
+    }
+
+    @Override
+    public long getVersion() {
+        return isAttached() ? mem.getLong(address + VERSION_OFFSET) : detached.getVersion();
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (isAttached()) {
+            mem.putLong(address + VERSION_OFFSET, version);
+        } else {
+            detached.setVersion(version);
+        }
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    /**
+     * Indexes keep references to records and update their access time
+     * from query threads. The record block may already be freed or reused
+     * by then, so only the owning partition thread is allowed to write.
+     */
+    @Override
+    public void onAccessSafe(long now) {
+        if (!isAttached() || Thread.currentThread() instanceof PartitionOperationThread) {
+            setLastAccessTime(now);
+        }
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return isAttached() ? mem.getInt(address + HITS_OFFSET) : detached.getHits();
+    }
+
+    @Override
+    public void setHits(int hits) {
+        if (isAttached()) {
+            mem.putInt(address + HITS_OFFSET, hits);
+        } else {
+            detached.setHits(hits);
+        }
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+        if (!isAttached()) {
+            detached.setMetadata(metadata);
+        }
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return isAttached() ? null : detached.getMetadata();
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return getInt(TTL_OFFSET);
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return getInt(MAX_IDLE_OFFSET);
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return getInt(CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return getInt(LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return getInt(LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        putInt(TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        putInt(MAX_IDLE_OFFSET, maxIdle);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        putInt(CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        putInt(LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        putInt(LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return getInt(LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        putInt(LAST_STORED_TIME_OFFSET, time);
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return getInt(EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        putInt(EXPIRATION_TIME_OFFSET, time);
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private int getInt(int offset) {
+        if (isAttached()) {
+            return mem.getInt(address + offset);
+        }
+        switch (offset) {
+            case TTL_OFFSET:
+                return detached.getRawTtl();
+            case MAX_IDLE_OFFSET:
+                return detached.getRawMaxIdle();
+            case CREATION_TIME_OFFSET:
+                return detached.getRawCreationTime();
+            case LAST_ACCESS_TIME_OFFSET:
+                return detached.getRawLastAccessTime();
+            case LAST_UPDATE_TIME_OFFSET:
+                return detached.getRawLastUpdateTime();
+            case LAST_STORED_TIME_OFFSET:
+                return detached.getRawLastStoredTime();
+            case EXPIRATION_TIME_OFFSET:
+                return detached.getRawExpirationTime();
+            default:
+                throw new IllegalArgumentException("Unknown offset " + offset);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private void putInt(int offset, int value) {
+        if (isAttached()) {
+            mem.putInt(address + offset, value);
+            return;
+        }
+        switch (offset) {
+            case TTL_OFFSET:
+                detached.setRawTtl(value);
+                break;
+            case MAX_IDLE_OFFSET:
+                detached.setRawMaxIdle(value);
+                break;
+            case CREATION_TIME_OFFSET:
+                detached.setRawCreationTime(value);
+                break;
+            case LAST_ACCESS_TIME_OFFSET:
+                detached.setRawLastAccessTime(value);
+                break;
+            case LAST_UPDATE_TIME_OFFSET:
+                detached.setRawLastUpdateTime(value);
+                break;
+            case LAST_STORED_TIME_OFFSET:
+                detached.setRawLastStoredTime(value);
+                break;
+            case EXPIRATION_TIME_OFFSET:
+                detached.setRawExpirationTime(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown offset " + offset);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        OffHeapRecord that = (OffHeapRecord) o;
+        return isAttached() && address == that.address;
+    }
+
+    @Override
+    public int hashCode() {
+        return isAttached() ? (int) (address ^ (address >>> 32)) : System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRecord{"
+                + "address=" + address
+                + ", detached=" + detached
+                + '}';
+    }
+}
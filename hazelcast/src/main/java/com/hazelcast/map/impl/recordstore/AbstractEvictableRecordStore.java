@@ -33,10 +33,8 @@ import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
@@ -57,20 +55,23 @@ import static com.hazelcast.map.impl.record.Record.UNSET;
  */
 public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
 
+    private static final long LOCKED_RECORD_EXPIRY_RECHECK_MILLIS = 1000;
+
     protected final long expiryDelayMillis;
     protected final Address thisAddress;
     protected final EventService eventService;
     protected final MapEventPublisher mapEventPublisher;
     protected final ClearExpiredRecordsTask clearExpiredRecordsTask;
     protected final InvalidationQueue<ExpiredKey> expiredKeys = new InvalidationQueue<>();
-    /**
-     * Iterates over a pre-set entry count/percentage in one round.
-     * Used in expiration logic for traversing entries. Initializes lazily.
-     */
-    protected Iterator<Map.Entry<Data, Record>> expirationIterator;
 
     protected volatile boolean hasEntryWithCustomExpiration;
 
+    /**
+     * Orders the keys of the expirable records by their expiration
+     * times, maintained by an {@link ExpirationMutationObserver}.
+     */
+    private final ExpirationWheel expirationWheel = new ExpirationWheel(getNow());
+
     protected AbstractEvictableRecordStore(MapContainer mapContainer, int partitionId) {
         super(mapContainer, partitionId);
         NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
@@ -82,6 +83,12 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         clearExpiredRecordsTask = mapServiceContext.getExpirationManager().getTask();
     }
 
+    @Override
+    protected void addMutationObservers() {
+        super.addMutationObservers();
+        mutationObserver.add(new ExpirationMutationObserver(this));
+    }
+
     /**
      * Returns {@code true} if this record store has at least one candidate entry
      * for expiration (idle or tll) otherwise returns {@code false}.
@@ -92,28 +99,117 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
                 || mapConfig.getTimeToLiveSeconds() > 0;
     }
 
+    /**
+     * Evicts the expired entries which are due according to the expiration
+     * wheel. The entries which turn out not to be expired, because they were
+     * accessed or updated since they were scheduled, are rescheduled.
+     */
     @Override
     public void evictExpiredEntries(int percentage, boolean backup) {
         long now = getNow();
-        int size = size();
-        int maxIterationCount = getMaxIterationCount(size, percentage);
-        int maxRetry = 3;
-        int loop = 0;
-        int evictedEntryCount = 0;
-        while (true) {
-            evictedEntryCount += evictExpiredEntriesInternal(maxIterationCount, now, backup);
-            if (evictedEntryCount >= maxIterationCount) {
+        int maxIterationCount = getMaxIterationCount(size(), percentage);
+        expirationWheel.advance(now);
+
+        int expiredCount = 0;
+        long totalLagMillis = 0;
+        for (int i = 0; i < maxIterationCount; i++) {
+            Data key = expirationWheel.pollDue();
+            if (key == null) {
                 break;
             }
-            loop++;
-            if (loop > maxRetry) {
-                break;
+            Record record = storage.get(key);
+            if (record == null) {
+                continue;
+            }
+            long expirationTime = getExpirationTime(record, backup);
+            if (getOrNullIfExpired(key, record, now, backup) == null) {
+                expiredCount++;
+                totalLagMillis += Math.max(0, now - expirationTime);
+            } else {
+                rescheduleExpiration(key, record, now, backup);
             }
         }
+        mapServiceContext.getClearExpiredRecordsTask().onExpired(expiredCount, totalLagMillis);
 
         accumulateOrSendExpiredKey(null, null);
     }
 
+    /**
+     * Schedules the expiration of the record in the expiration wheel.
+     * <p>
+     * The wheel keeps a reference to the given key. When a record is put,
+     * that is the key instance put into the storage, so the wheel and the
+     * {@link StorageImpl} share it. The {@link OffHeapStorage}
+     * and the {@link CompactStorage} keep the key bytes in their own
+     * representation instead, so the wheel is the only holder of an on-heap
+     * key for each of their entries which expire, about 48 bytes for a long
+     * key on top of the 72 bytes of the wheel node itself, see
+     * ExpirationWheelFootprintBenchmark. Keys of other {@link Data}
+     * implementations are copied to the heap, since the wheel may outlive
+     * them.
+     */
+    void scheduleExpiration(Data key, Record record, boolean backup) {
+        long expirationTime = getExpirationTime(record, backup);
+        if (expirationTime == Long.MAX_VALUE) {
+            expirationWheel.remove(key);
+        } else {
+            expirationWheel.schedule(toHeapData(key), expirationTime);
+        }
+    }
+
+    private void rescheduleExpiration(Data key, Record record, long now, boolean backup) {
+        long expirationTime = getExpirationTime(record, backup);
+        if (expirationTime != Long.MAX_VALUE) {
+            // a locked record is checked again after a while
+            expirationWheel.schedule(key, Math.max(expirationTime, now + LOCKED_RECORD_EXPIRY_RECHECK_MILLIS));
+        }
+    }
+
+    @Override
+    public void rescheduleExpirations() {
+        expirationWheel.clear();
+        if (!isRecordStoreExpirable()) {
+            return;
+        }
+        Iterator<Map.Entry<Data, Record>> entries = storage.mutationTolerantIterator();
+        while (entries.hasNext()) {
+            Map.Entry<Data, Record> entry = entries.next();
+            scheduleExpiration(entry.getKey(), entry.getValue(), false);
+        }
+    }
+
+    void cancelExpiration(Data key) {
+        expirationWheel.remove(key);
+    }
+
+    void cancelAllExpirations() {
+        expirationWheel.clear();
+    }
+
+    /**
+     * Returns the time at which the record expires by TTL or max-idle,
+     * {@code Long.MAX_VALUE} if it never expires. Mirrors {@link
+     * #isExpired(Record, long, boolean)}.
+     */
+    private long getExpirationTime(Record record, boolean backup) {
+        long ttlExpirationTime = expirationTimeOf(getLifeStartTime(record), getRecordTTLOrConfig(record), backup);
+        if (backup && mapServiceContext.getClearExpiredRecordsTask().canPrimaryDriveExpiration()) {
+            // idle expiry of backups is driven by the primary
+            return ttlExpirationTime;
+        }
+        long idleExpirationTime = expirationTimeOf(getIdlenessStartTime(record), getRecordMaxIdleOrConfig(record), backup);
+        return Math.min(ttlExpirationTime, idleExpirationTime);
+    }
+
+    private long expirationTimeOf(long startTime, long periodMillis, boolean backup) {
+        if (periodMillis < 1L || periodMillis == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        long expirationTime = startTime + calculateExpirationWithDelay(periodMillis, expiryDelayMillis, backup);
+        // detect potential overflow
+        return expirationTime < 0 ? Long.MAX_VALUE : expirationTime;
+    }
+
     @Override
     public boolean isExpirable() {
         return isRecordStoreExpirable();
@@ -136,39 +232,6 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         return Math.round(maxIterationCount);
     }
 
-    private int evictExpiredEntriesInternal(int maxIterationCount, long now, boolean backup) {
-        int evictedEntryCount = 0;
-        int checkedEntryCount = 0;
-        initExpirationIterator();
-
-        List keyValuePairs = new ArrayList<>();
-        while (expirationIterator.hasNext()) {
-            if (checkedEntryCount >= maxIterationCount) {
-                break;
-            }
-            Map.Entry<Data, Record> entry = expirationIterator.next();
-            checkedEntryCount++;
-
-            keyValuePairs.add(entry.getKey());
-            keyValuePairs.add(entry.getValue());
-        }
-
-        for (int i = 0; i < keyValuePairs.size(); i += 2) {
-            Data key = (Data) keyValuePairs.get(i);
-            Record record = (Record) keyValuePairs.get(i + 1);
-            if (getOrNullIfExpired(key, record, now, backup) == null) {
-                evictedEntryCount++;
-            }
-        }
-        return evictedEntryCount;
-    }
-
-    private void initExpirationIterator() {
-        if (expirationIterator == null || !expirationIterator.hasNext()) {
-            expirationIterator = storage.mutationTolerantIterator();
-        }
-    }
-
     @Override
     public void evictEntries(Data excludedKey) {
         if (shouldEvict()) {
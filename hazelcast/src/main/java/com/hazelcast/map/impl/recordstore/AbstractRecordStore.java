@@ -36,6 +36,9 @@ import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.MapStoreWrapper;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
+import com.hazelcast.map.impl.persistence.MapPersistenceService;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
+import com.hazelcast.map.impl.record.OffHeapRecordFactory;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.Records;
@@ -68,6 +71,7 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     protected Storage<Data, Record> storage;
     protected IndexingMutationObserver<Record> indexingObserver;
+    protected ColumnarProjection columnarProjection;
 
     protected AbstractRecordStore(MapContainer mapContainer, int partitionId) {
         this.name = mapContainer.getName();
@@ -108,6 +112,18 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         // Add observer for indexing
         indexingObserver = new IndexingMutationObserver<>(this, serializationService);
         mutationObserver.add(indexingObserver);
+
+        // Add observer for columnar projection
+        if (mapContainer.isColumnarProjection()) {
+            columnarProjection = new ColumnarProjection(this, serializationService);
+            mutationObserver.add(columnarProjection);
+        }
+
+        // Add observer for persistence
+        MapPersistenceService persistenceService = mapServiceContext.getMapPersistenceService();
+        if (persistenceService != null && persistenceService.isPersistent(mapContainer.getMapConfig())) {
+            mutationObserver.add(persistenceService.newMutationObserver(this));
+        }
     }
 
     // Overridden in EE.
@@ -168,6 +184,12 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (recordFactory instanceof OffHeapRecordFactory) {
+            return new OffHeapStorage(serializationService, ((OffHeapRecordFactory) recordFactory).getMemoryManager());
+        }
+        if (recordFactory instanceof CompactRecordFactory) {
+            return new CompactStorage(serializationService);
+        }
         return new StorageImpl(memoryFormat, serializationService);
     }
 
@@ -271,6 +293,11 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         return storage;
     }
 
+    @Override
+    public ColumnarProjection getColumnarProjection() {
+        return columnarProjection;
+    }
+
     protected void updateStatsOnPut(boolean countAsAccess, long now) {
         stats.setLastUpdateTime(now);
 
@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.collection.Object2LongHashMap;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * Keeps the values of the queried numeric attributes of the entries of a
+ * record store in primitive arrays, one {@link Column} per attribute, so
+ * partition scans can evaluate simple predicates and aggregations over them
+ * in tight loops.
+ * <p>
+ * A column is built lazily: the first scan asking for an attribute schedules
+ * the build on the partition thread and falls back to the regular scan until
+ * the column is available. Only attributes having a single non-null number
+ * of the same class in all the entries get a column. An attribute is
+ * rejected otherwise, also when a later mutation brings a value which
+ * doesn't fit its column.
+ * <p>
+ * Mutations are applied on the partition thread under the write lock, scans
+ * read the columns under the {@link #readLock() read lock}. The rows are
+ * kept dense, removing an entry moves the last row into its place.
+ */
+public class ColumnarProjection implements MutationObserver<Record> {
+
+    /**
+     * Maximum number of columns per record store, further attributes are
+     * rejected.
+     */
+    public static final int MAX_COLUMNS = 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MISSING_ROW = -1;
+
+    private final RecordStore<Record> recordStore;
+    private final MapContainer mapContainer;
+    private final SerializationService ss;
+    private final OperationService operationService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<String> requested = newSetFromMap(new ConcurrentHashMap<>());
+    private final Set<String> rejected = newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Replaced under the write lock, so the partition thread can check if
+     * there is anything to maintain without locking.
+     */
+    private volatile Map<String, Column> columns = Collections.emptyMap();
+    private Object2LongHashMap<Data> rows;
+    private Data[] keys;
+    private int size;
+    private boolean destroyed;
+
+    public ColumnarProjection(RecordStore<Record> recordStore, SerializationService ss) {
+        this.recordStore = recordStore;
+        this.mapContainer = recordStore.getMapContainer();
+        this.ss = ss;
+        this.operationService = mapContainer.getMapServiceContext().getNodeEngine().getOperationService();
+    }
+
+    /**
+     * @return the lock the columns are read under
+     */
+    public Lock readLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Returns the column of the given attribute. If there is no column yet,
+     * schedules building it on the partition thread, unless the attribute
+     * is rejected. Should be called under the read lock, the returned column
+     * is valid until the lock is released.
+     *
+     * @param attribute the canonical name of the attribute
+     * @return the column or {@code null} if there is none yet
+     */
+    public Column getColumn(String attribute) {
+        Column column = columns.get(attribute);
+        if (column == null && !rejected.contains(attribute) && requested.add(attribute)) {
+            operationService.execute(new BuildTask());
+        }
+        return column;
+    }
+
+    /**
+     * Should be called under the read lock.
+     *
+     * @return the number of rows of the columns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Should be called under the read lock.
+     *
+     * @return the key of the entry at the given row
+     */
+    public Data getKey(int row) {
+        return keys[row];
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        if (record == null) {
+            // the value isn't known here, rebuild lazily
+            if (!columns.isEmpty()) {
+                invalidate();
+            }
+        } else {
+            update(key, record);
+        }
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        update(key, record);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        // the record may not hold the new value yet
+        update(key, newValue);
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        remove(key);
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        remove(key);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        update(key, record);
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    @Override
+    public void onClear() {
+        clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        lock.writeLock().lock();
+        try {
+            destroyed = true;
+            columns = Collections.emptyMap();
+            rows = null;
+            keys = null;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Data key, Record record) {
+        if (columns.isEmpty()) {
+            return;
+        }
+        update(key, getValueOrCachedValue(record, ss));
+    }
+
+    private void update(Data key, Object value) {
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            setValues(rowOf(key), key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Data key) {
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = (int) rows.removeKey(key);
+            if (row == MISSING_ROW) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                keys[row] = keys[last];
+                rows.put(keys[row], row);
+                for (Column column : columns.values()) {
+                    column.move(last, row);
+                }
+            }
+            keys[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            Arrays.fill(keys, 0, size, null);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void invalidate() {
+        lock.writeLock().lock();
+        try {
+            columns = Collections.emptyMap();
+            rows = null;
+            keys = null;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the requested columns from the entries of the record store,
+     * should be called on the partition thread.
+     */
+    void build() {
+        lock.writeLock().lock();
+        try {
+            for (String attribute : requested.toArray(new String[0])) {
+                requested.remove(attribute);
+                if (!destroyed && !columns.containsKey(attribute) && !rejected.contains(attribute)) {
+                    build(attribute);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void build(String attribute) {
+        if (columns.size() >= MAX_COLUMNS) {
+            rejected.add(attribute);
+            return;
+        }
+
+        Column column = new Column(attribute);
+        Map<String, Column> newColumns = new HashMap<>(columns);
+        newColumns.put(attribute, column);
+        if (rows == null) {
+            rows = new Object2LongHashMap<>(MISSING_ROW);
+            keys = new Data[INITIAL_CAPACITY];
+        }
+
+        boolean[] rejectedColumn = new boolean[1];
+        recordStore.forEach((key, record) -> {
+            if (!rejectedColumn[0]) {
+                QueryableEntry entry = newQueryEntry(key, getValueOrCachedValue(record, ss));
+                rejectedColumn[0] = !column.set(rowOf(key), extract(entry, attribute), keys.length);
+            }
+        }, false, true);
+
+        if (rejectedColumn[0]) {
+            rejected.add(attribute);
+            if (columns.isEmpty()) {
+                rows = null;
+                keys = null;
+                size = 0;
+            }
+        } else {
+            columns = newColumns;
+        }
+    }
+
+    private int rowOf(Data key) {
+        int row = (int) rows.getValue(key);
+        if (row == MISSING_ROW) {
+            row = size++;
+            if (row == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[row] = key;
+            rows.put(key, row);
+        }
+        return row;
+    }
+
+    private void setValues(int row, Data key, Object value) {
+        QueryableEntry entry = newQueryEntry(key, value);
+        List<String> rejectedColumns = null;
+        for (Column column : columns.values()) {
+            if (!column.set(row, extract(entry, column.attribute), keys.length)) {
+                if (rejectedColumns == null) {
+                    rejectedColumns = new ArrayList<>();
+                }
+                rejectedColumns.add(column.attribute);
+            }
+        }
+
+        if (rejectedColumns != null) {
+            rejected.addAll(rejectedColumns);
+            Map<String, Column> newColumns = new HashMap<>(columns);
+            newColumns.keySet().removeAll(rejectedColumns);
+            if (newColumns.isEmpty()) {
+                invalidate();
+            } else {
+                columns = newColumns;
+            }
+        }
+    }
+
+    private QueryableEntry newQueryEntry(Data key, Object value) {
+        return mapContainer.newQueryEntry(recordStore.getStorage().toBackingDataKeyFormat(key), value);
+    }
+
+    private static Object extract(QueryableEntry entry, String attribute) {
+        try {
+            return entry.getAttributeValue(attribute);
+        } catch (RuntimeException e) {
+            // the attribute can't be extracted, so it doesn't get a column
+            return null;
+        }
+    }
+
+    /**
+     * The values of an attribute, indexed by row. Integral values are kept in
+     * a long array, floating point values in a double array.
+     */
+    public static final class Column {
+
+        private final String attribute;
+        private Class<?> valueClass;
+        private long[] longs;
+        private double[] doubles;
+
+        Column(String attribute) {
+            this.attribute = attribute;
+        }
+
+        /**
+         * @return the class all the values were extracted as, or {@code null}
+         * if the column had no values yet
+         */
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        /**
+         * @return the values if they are integral numbers, otherwise {@code null}
+         */
+        public long[] getLongs() {
+            return longs;
+        }
+
+        /**
+         * @return the values if they are floating point numbers, otherwise
+         * {@code null}
+         */
+        public double[] getDoubles() {
+            return doubles;
+        }
+
+        boolean set(int row, Object value, int capacity) {
+            if (value == null) {
+                return false;
+            }
+
+            Class<?> clazz = value.getClass();
+            if (valueClass == null) {
+                if (!allocate(clazz, capacity)) {
+                    return false;
+                }
+                valueClass = clazz;
+            } else if (clazz != valueClass) {
+                return false;
+            }
+
+            if (longs != null) {
+                if (row >= longs.length) {
+                    longs = Arrays.copyOf(longs, capacity);
+                }
+                longs[row] = ((Number) value).longValue();
+            } else {
+                if (row >= doubles.length) {
+                    doubles = Arrays.copyOf(doubles, capacity);
+                }
+                doubles[row] = ((Number) value).doubleValue();
+            }
+            return true;
+        }
+
+        private boolean allocate(Class<?> clazz, int capacity) {
+            if (clazz == Long.class || clazz == Integer.class || clazz == Short.class || clazz == Byte.class) {
+                longs = new long[capacity];
+            } else if (clazz == Double.class || clazz == Float.class) {
+                doubles = new double[capacity];
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        void move(int from, int to) {
+            if (longs != null) {
+                longs[to] = longs[from];
+            } else if (doubles != null) {
+                doubles[to] = doubles[from];
+            }
+        }
+    }
+
+    private final class BuildTask implements PartitionSpecificRunnable {
+
+        @Override
+        public int getPartitionId() {
+            return recordStore.getPartitionId();
+        }
+
+        @Override
+        public void run() {
+            build();
+        }
+    }
+}
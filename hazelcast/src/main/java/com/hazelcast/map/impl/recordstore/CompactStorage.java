@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.CompactRecord;
+import com.hazelcast.map.impl.record.CompactRecords;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_LOAD_FACTOR;
+import static com.hazelcast.map.impl.record.CompactRecords.NULL_ID;
+
+/**
+ * {@link Storage} implementation which keeps records in the parallel
+ * primitive arrays of a {@link CompactRecords} slab instead of one
+ * record object, one key object and one map node per entry.
+ * <p>
+ * Entry ids are indexed by key hash in an open-addressing {@code int[]}
+ * table with linear probing. Record objects are only created on access,
+ * as {@link CompactRecord} views of a slab entry.
+ * <p>
+ * Removed entries are not released immediately but when
+ * {@link #disposeDeferredBlocks()} is called at the end of the operation,
+ * so records returned from this storage stay readable until then.
+ * <p>
+ * This class is not thread-safe, it must only be accessed by the partition
+ * thread owning it.
+ */
+public class CompactStorage implements Storage<Data, Record> {
+
+    private static final int INITIAL_TABLE_CAPACITY = 64;
+    private static final int INITIAL_DEFERRED_CAPACITY = 16;
+
+    private final SerializationService serializationService;
+    // replaced by clear, the views and iterators handed out keep the old one
+    private CompactRecords records = new CompactRecords();
+
+    // entry id + 1 for every occupied slot, 0 for a free slot
+    private int[] table = new int[INITIAL_TABLE_CAPACITY];
+    private int[] deferredIds = new int[INITIAL_DEFERRED_CAPACITY];
+    private int deferredIdCount;
+    private volatile int size;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator = new CompactEntryCostEstimator();
+
+    public CompactStorage(SerializationService serializationService) {
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        byte[] keyBytes = key.toByteArray();
+        int hash = key.hashCode();
+        int slot = findSlot(hash, keyBytes);
+        int previous = slot < 0 ? NULL_ID : table[slot] - 1;
+
+        CompactRecord compactRecord = record instanceof CompactRecord ? (CompactRecord) record : null;
+        if (compactRecord != null && previous != NULL_ID && compactRecord.isViewOf(records, previous)) {
+            // the very same entry is already stored under this key
+            return;
+        }
+
+        int id = records.allocate(hash, keyBytes, record);
+        if (previous == NULL_ID) {
+            insert(hash, id);
+            size++;
+        } else {
+            table[slot] = id + 1;
+            updateCostEstimate(-entryCostEstimator.calculateEntryCost(key, records.view(previous)));
+            defer(previous);
+        }
+
+        if (compactRecord != null && !compactRecord.isAttached()) {
+            compactRecord.attach(records, id);
+        }
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, records.view(id)));
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+
+        record.setValue(serializationService.toData(value));
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+    }
+
+    @Override
+    public Record get(Data key) {
+        int slot = findSlot(key.hashCode(), key.toByteArray());
+        return slot < 0 ? null : records.view(table[slot] - 1);
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("CompactStorage#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull Record record) {
+        int slot = findSlot(dataKey.hashCode(), dataKey.toByteArray());
+        if (slot < 0) {
+            return;
+        }
+        int id = table[slot] - 1;
+        removeSlot(slot);
+        size--;
+        updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, records.view(id)));
+        defer(id);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return findSlot(key.hashCode(), key.toByteArray()) >= 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, Record>> mutationTolerantIterator() {
+        return new MutationTolerantIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        records = new CompactRecords();
+        table = new int[INITIAL_TABLE_CAPACITY];
+        deferredIdCount = 0;
+        size = 0;
+
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        for (int i = 0; i < deferredIdCount; i++) {
+            records.release(deferredIds[i]);
+        }
+        deferredIdCount = 0;
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        int highWaterMark = records.highWaterMark();
+        if (sampleCount == 0 || size == 0) {
+            return samples;
+        }
+        int id = ThreadLocalRandomProvider.get().nextInt(highWaterMark);
+        for (int visited = 0; visited < highWaterMark && samples.size() < sampleCount; visited++) {
+            if (records.isLive(id)) {
+                samples.add(new LazyEvictableEntryView<>(records.readKey(id), records.view(id), serializationService));
+            }
+            id = id + 1 == highWaterMark ? 0 : id + 1;
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, id -> keys.add(records.readKey(id)));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size,
+                id -> entries.add(new AbstractMap.SimpleEntry<>(records.readKey(id), records.view(id).getValue())));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    protected void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Walks the entry ids downwards. Ids are stable and never move on
+     * resize, so a single pointer is enough to resume the iteration.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size, IntConsumer consumer) {
+        int highWaterMark = records.highWaterMark();
+        int lastIndex = pointers[pointers.length - 1].getIndex();
+        int nextId = lastIndex < 0 ? -1 : Math.min(lastIndex, highWaterMark - 1);
+        int counter = 0;
+        while (nextId >= 0 && counter < size) {
+            int id = nextId--;
+            if (records.isLive(id)) {
+                consumer.accept(id);
+                counter++;
+            }
+        }
+        return new IterationPointer[]{new IterationPointer(nextId, highWaterMark)};
+    }
+
+    private int findSlot(int hash, byte[] keyBytes) {
+        int mask = table.length - 1;
+        for (int slot = fastIntMix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (records.hashOf(id) == hash && records.keyEquals(id, keyBytes)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int hash, int id) {
+        if (size + 1 > table.length * DEFAULT_LOAD_FACTOR) {
+            resize();
+        }
+        int mask = table.length - 1;
+        int slot = fastIntMix(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    /**
+     * Removes the slot and shifts back the following slots of the probe
+     * sequence, so lookups never need tombstones.
+     */
+    private void removeSlot(int slot) {
+        int mask = table.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = fastIntMix(records.hashOf(table[next] - 1)) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private void resize() {
+        int[] oldTable = table;
+        table = new int[oldTable.length << 1];
+        int mask = table.length - 1;
+        for (int entry : oldTable) {
+            if (entry == 0) {
+                continue;
+            }
+            int slot = fastIntMix(records.hashOf(entry - 1)) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+    }
+
+    private void defer(int id) {
+        records.markRemoved(id);
+        if (deferredIdCount == deferredIds.length) {
+            deferredIds = Arrays.copyOf(deferredIds, deferredIds.length * 2);
+        }
+        deferredIds[deferredIdCount++] = id;
+    }
+
+    /**
+     * Iterates the entry ids downwards. Removed entries are only released
+     * when the operation ends, so removing the returned entry does not
+     * disturb the iteration. The iteration ends when the storage is cleared.
+     */
+    private final class MutationTolerantIterator implements Iterator<Map.Entry<Data, Record>> {
+
+        private final CompactRecords iteratedRecords = records;
+        private int nextId = iteratedRecords.highWaterMark() - 1;
+
+        @Override
+        public boolean hasNext() {
+            if (iteratedRecords != records) {
+                // the storage was cleared
+                return false;
+            }
+            nextId = Math.min(nextId, records.highWaterMark() - 1);
+            while (nextId >= 0 && !records.isLive(nextId)) {
+                nextId--;
+            }
+            return nextId >= 0;
+        }
+
+        @Override
+        public Map.Entry<Data, Record> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int id = nextId--;
+            return new AbstractMap.SimpleEntry<>(records.readKey(id), records.view(id));
+        }
+    }
+
+    /**
+     * Tracks the heap footprint of the stored entries.
+     */
+    private static final class CompactEntryCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        private volatile long estimate;
+
+        @Override
+        public long getEstimate() {
+            return estimate;
+        }
+
+        @Override
+        public void adjustEstimateBy(long adjustment) {
+            estimate += adjustment;
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record instanceof CompactRecord ? ((CompactRecord) record).getValueCost() : record.getCost();
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            estimate = 0;
+        }
+    }
+}
@@ -167,6 +167,15 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         return newRecord;
     }
 
+    @Override
+    public void removeReplicatedRecord(Data dataKey) {
+        Record record = storage.get(dataKey);
+        if (record != null) {
+            mutationObserver.onRemoveRecord(dataKey, record);
+            storage.removeRecord(dataKey, record);
+        }
+    }
+
     @Override
     public Record putBackup(Data dataKey, Record newRecord,
                             boolean putTransient, CallerProvenance provenance) {
@@ -547,6 +556,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
     public Object get(Data key, boolean backup, Address callerAddress, boolean touch) {
         checkIfLoaded();
         long now = getNow();
+        if (touch) {
+            mapContainer.getEvictor().recordAccess(this, key);
+        }
 
         Record record = getRecordOrNull(key, now, backup);
         if (record == null) {
@@ -822,6 +834,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
             if (valueComparator.isEqual(newValue, oldValue, serializationService)) {
                 mergeRecordExpiration(record, mergingEntry);
+                scheduleExpiration(key, record, false);
                 return true;
             }
 
@@ -911,6 +924,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             updateRecord(key, record, oldValue, value, now, true, UNSET,
                     UNSET, false, null, false);
             setExpirationTimes(ttl, maxIdle, record, mapContainer.getMapConfig(), false);
+            scheduleExpiration(key, record, false);
         }
         mapDataStore.addTransient(key, now);
         return oldValue;
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps the {@link ExpirationWheel} of a record store in sync
+ * with the records and their expiration times.
+ */
+class ExpirationMutationObserver implements MutationObserver<Record> {
+
+    private final AbstractEvictableRecordStore recordStore;
+
+    ExpirationMutationObserver(AbstractEvictableRecordStore recordStore) {
+        this.recordStore = recordStore;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        if (record != null) {
+            recordStore.scheduleExpiration(key, record, backup);
+        }
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        recordStore.scheduleExpiration(key, record, false);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        recordStore.scheduleExpiration(key, record, backup);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        recordStore.scheduleExpiration(key, record, backup);
+    }
+
+    @Override
+    public void onRemoveRecord(Data key, Record record) {
+        recordStore.cancelExpiration(key);
+    }
+
+    @Override
+    public void onEvictRecord(Data key, Record record) {
+        recordStore.cancelExpiration(key);
+    }
+
+    @Override
+    public void onReset() {
+        recordStore.cancelAllExpirations();
+    }
+
+    @Override
+    public void onClear() {
+        recordStore.cancelAllExpirations();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        recordStore.cancelAllExpirations();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A hierarchical timing wheel which orders the keys of a record store by
+ * their expiration times, so that the expired keys can be found without
+ * scanning the store.
+ * <p>
+ * The wheel has five levels with buckets of about a second, a minute, an
+ * hour, 18 hours and 3 days. A key is put into the bucket of the lowest
+ * level whose range covers its expiration time. When the wheel advances,
+ * the keys of the passed buckets are either moved to the due list or, if
+ * they don't expire yet, cascaded into a bucket of a lower level.
+ * <p>
+ * A key has at most one position in the wheel. Rescheduling a key to a
+ * later time keeps its current, earlier position: the owner is expected
+ * to check whether a due key is really expired and to reschedule it
+ * otherwise. This keeps updates such as the ones caused by max-idle
+ * accesses out of the wheel.
+ * <p>
+ * Not thread-safe, it is only accessed by the partition thread of the
+ * owning record store.
+ */
+final class ExpirationWheel {
+
+    private static final long SECONDS_SPAN = 1024L;
+    private static final long MINUTES_SPAN = 64 * SECONDS_SPAN;
+    private static final long HOURS_SPAN = 64 * MINUTES_SPAN;
+    private static final long HALF_DAYS_SPAN = 16 * HOURS_SPAN;
+    private static final long DAYS_SPAN = 4 * HALF_DAYS_SPAN;
+    /**
+     * Bucket widths of the levels in milliseconds, the last one repeated
+     * for the bound of the last level.
+     */
+    private static final long[] SPANS = {
+            SECONDS_SPAN, MINUTES_SPAN, HOURS_SPAN, HALF_DAYS_SPAN, DAYS_SPAN, DAYS_SPAN,
+    };
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    private final Node[][] wheel = new Node[BUCKETS.length][];
+    private final Map<Data, Node> nodes = new HashMap<>();
+    private final Node due = new Node(null);
+    private long time;
+
+    ExpirationWheel(long now) {
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = new Node(null);
+            }
+        }
+        time = now;
+    }
+
+    /**
+     * Schedules the key to expire at the given time, unless it is already
+     * scheduled to expire at that time or earlier.
+     */
+    void schedule(Data key, long expirationTime) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(key);
+            nodes.put(key, node);
+        } else if (node.expirationTime <= expirationTime) {
+            return;
+        } else {
+            node.unlink();
+        }
+        node.expirationTime = expirationTime;
+        findBucket(expirationTime).link(node);
+    }
+
+    void remove(Data key) {
+        Node node = nodes.remove(key);
+        if (node != null) {
+            node.unlink();
+        }
+    }
+
+    void clear() {
+        nodes.clear();
+        due.prev = due;
+        due.next = due;
+        for (Node[] buckets : wheel) {
+            for (Node sentinel : buckets) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and moves the keys which
+     * expire until then to the due list.
+     */
+    void advance(long now) {
+        long previous = time;
+        time = now;
+        for (int level = 0; level < wheel.length; level++) {
+            int shift = Long.numberOfTrailingZeros(SPANS[level]);
+            long previousTicks = previous >>> shift;
+            long delta = (now >>> shift) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previousTicks, delta);
+        }
+    }
+
+    /**
+     * Removes and returns the next due key, {@code null} if there is none.
+     */
+    Data pollDue() {
+        Node node = due.next;
+        if (node == due) {
+            return null;
+        }
+        node.unlink();
+        nodes.remove(node.key);
+        return node.key;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    private void expire(int level, long previousTicks, long delta) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        // the bucket of the previous tick is processed again, it may have
+        // received keys since the last advance
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            Node sentinel = buckets[i & mask];
+            Node node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                Node next = node.next;
+                findBucket(node.expirationTime).link(node);
+                node = next;
+            }
+        }
+    }
+
+    private Node findBucket(long expirationTime) {
+        long duration = expirationTime - time;
+        if (duration <= 0) {
+            return due;
+        }
+        int last = wheel.length - 1;
+        for (int level = 0; level < last; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = expirationTime >>> Long.numberOfTrailingZeros(SPANS[level]);
+                return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    /**
+     * A scheduled key, or the sentinel of a circular bucket list.
+     */
+    private static final class Node {
+
+        final Data key;
+        long expirationTime;
+        Node prev = this;
+        Node next = this;
+
+        Node(Data key) {
+            this.key = key;
+        }
+
+        void link(Node node) {
+            Node tail = prev;
+            node.prev = tail;
+            node.next = this;
+            tail.next = node;
+            prev = node;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+}
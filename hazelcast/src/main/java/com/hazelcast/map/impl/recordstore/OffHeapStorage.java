@@ -0,0 +1,543 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.internal.util.hashslot.SlotAssignmentResult;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.OffHeapRecord;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_LOAD_FACTOR;
+import static com.hazelcast.map.impl.record.OffHeapRecord.HEADER_SIZE;
+import static com.hazelcast.map.impl.record.OffHeapRecord.KEY_OFFSET;
+import static com.hazelcast.map.impl.record.OffHeapRecord.KEY_SIZE_OFFSET;
+import static com.hazelcast.map.impl.record.OffHeapRecord.NEXT_RECORD_OFFSET;
+
+/**
+ * {@link Storage} implementation which keeps serialized keys, values and
+ * record metadata in native memory, out of reach of the garbage collector.
+ * <p>
+ * Records are indexed by the 64-bit hash of their key in a
+ * {@link HashSlotArray8byteKeyImpl}. The value of a slot is the address of
+ * the first {@link OffHeapRecord} block with that hash, blocks with
+ * colliding hashes are chained through their {@code next} field.
+ * <p>
+ * Records returned from this storage are views over native memory.
+ * Removed record blocks are therefore not freed immediately but when
+ * {@link #disposeDeferredBlocks()} is called at the end of the operation.
+ * <p>
+ * This class is not thread-safe, it must only be accessed by the partition
+ * thread owning it.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class OffHeapStorage implements Storage<Data, Record> {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_DEFERRED_CAPACITY = 16;
+
+    private final SerializationService serializationService;
+    private final MemoryManager memoryManager;
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private final RecordSlots slots;
+
+    private long[] deferredRecords = new long[INITIAL_DEFERRED_CAPACITY];
+    private int deferredRecordCount;
+    private volatile int size;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator = new OffHeapEntryCostEstimator();
+
+    public OffHeapStorage(SerializationService serializationService, MemoryManager memoryManager) {
+        this.serializationService = serializationService;
+        this.memoryManager = memoryManager;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.slots = new RecordSlots(memoryManager);
+        this.slots.gotoNew();
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        byte[] keyBytes = key.toByteArray();
+        long hash = key.hash64();
+        long existingSlotAddress = slots.get(hash);
+        long previous = existingSlotAddress == NULL_ADDRESS
+                ? NULL_ADDRESS : find(mem.getLong(existingSlotAddress), keyBytes);
+
+        OffHeapRecord offHeapRecord = record instanceof OffHeapRecord ? (OffHeapRecord) record : null;
+        if (offHeapRecord != null && offHeapRecord.isAttached() && offHeapRecord.address() == previous) {
+            // the very same record block is already stored under this key
+            return;
+        }
+
+        long recordAddress = newRecordBlock(keyBytes, record);
+        SlotAssignmentResult slot = slots.ensure(hash);
+        long slotAddress = slot.address();
+        long head = slot.isNew() ? NULL_ADDRESS : mem.getLong(slotAddress);
+        if (previous == NULL_ADDRESS) {
+            mem.putLong(recordAddress + NEXT_RECORD_OFFSET, head);
+            mem.putLong(slotAddress, recordAddress);
+            size++;
+        } else {
+            mem.putLong(recordAddress + NEXT_RECORD_OFFSET, mem.getLong(previous + NEXT_RECORD_OFFSET));
+            replaceInChain(slotAddress, head, previous, recordAddress);
+            updateCostEstimate(-entryCostEstimator.calculateEntryCost(key, view(previous)));
+            deferFree(previous);
+        }
+
+        if (offHeapRecord != null && !offHeapRecord.isAttached()) {
+            offHeapRecord.attach(memoryManager, recordAddress);
+        }
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, view(recordAddress)));
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+
+        record.setValue(serializationService.toData(value));
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+    }
+
+    @Override
+    public Record get(Data key) {
+        long recordAddress = lookup(key);
+        return recordAddress == NULL_ADDRESS ? null : view(recordAddress);
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("OffHeapStorage#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull Record record) {
+        long hash = dataKey.hash64();
+        long slotAddress = slots.get(hash);
+        if (slotAddress == NULL_ADDRESS) {
+            return;
+        }
+        byte[] keyBytes = dataKey.toByteArray();
+        long predecessor = NULL_ADDRESS;
+        for (long address = mem.getLong(slotAddress); address != NULL_ADDRESS;
+             address = mem.getLong(address + NEXT_RECORD_OFFSET)) {
+            if (keyEquals(address, keyBytes)) {
+                long next = mem.getLong(address + NEXT_RECORD_OFFSET);
+                if (predecessor != NULL_ADDRESS) {
+                    mem.putLong(predecessor + NEXT_RECORD_OFFSET, next);
+                } else if (next != NULL_ADDRESS) {
+                    mem.putLong(slotAddress, next);
+                } else {
+                    slots.remove(hash);
+                }
+                size--;
+                updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, view(address)));
+                deferFree(address);
+                return;
+            }
+            predecessor = address;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return lookup(key) != NULL_ADDRESS;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, Record>> mutationTolerantIterator() {
+        return new MutationTolerantIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        disposeDeferredBlocks();
+        for (long slot = slots.capacity(); --slot >= 0; ) {
+            long address = slots.chainHeadAt(slot);
+            while (address != NULL_ADDRESS) {
+                long next = mem.getLong(address + NEXT_RECORD_OFFSET);
+                freeRecordBlock(address);
+                address = next;
+            }
+        }
+        slots.clear();
+        slots.trimToSize();
+        size = 0;
+
+        entryCostEstimator.reset();
+    }
+
+    /**
+     * Frees all native memory of this storage, it cannot be used afterwards.
+     * The memory manager is shared and stays usable.
+     */
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        slots.dispose();
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        for (int i = 0; i < deferredRecordCount; i++) {
+            freeRecordBlock(deferredRecords[i]);
+        }
+        deferredRecordCount = 0;
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        long capacity = slots.capacity();
+        if (sampleCount == 0 || size == 0) {
+            return samples;
+        }
+        long slot = ThreadLocalRandomProvider.get().nextInt((int) capacity);
+        for (long visited = 0; visited < capacity && samples.size() < sampleCount; visited++) {
+            for (long address = slots.chainHeadAt(slot); address != NULL_ADDRESS;
+                 address = mem.getLong(address + NEXT_RECORD_OFFSET)) {
+                samples.add(new LazyEvictableEntryView<>(readKey(address), view(address), serializationService));
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (address, key) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size,
+                (address, key) -> entries.add(new AbstractMap.SimpleEntry<>(key, view(address).getValue())));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    protected void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Walks the slots from the highest index downwards, the same way
+     * {@link com.hazelcast.internal.util.SampleableConcurrentHashMap} walks
+     * its table, so the iteration can be resumed and survives resizes.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size, BiConsumer<Long, Data> consumer) {
+        int currentCapacity = (int) slots.capacity();
+        pointers = checkPointers(pointers, currentCapacity);
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+
+        int nextSlot = lastPointer.getIndex() >= 0 && lastPointer.getIndex() < currentCapacity
+                ? lastPointer.getIndex() : currentCapacity - 1;
+        int counter = 0;
+        while (nextSlot >= 0 && counter < size) {
+            long slot = nextSlot--;
+            if (!slots.isAssigned(slot) || !hasNotBeenObserved(slots.keyAt(slot), pointers)) {
+                continue;
+            }
+            for (long address = slots.chainHeadAt(slot); address != NULL_ADDRESS;
+                 address = mem.getLong(address + NEXT_RECORD_OFFSET)) {
+                consumer.accept(address, readKey(address));
+                counter++;
+            }
+        }
+        lastPointer.setIndex(nextSlot);
+        return pointers;
+    }
+
+    private static IterationPointer[] checkPointers(IterationPointer[] pointers, int currentCapacity) {
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+        boolean iterationStarted = lastPointer.getSize() == -1;
+        boolean resized = lastPointer.getSize() != currentCapacity;
+        int newLength = !iterationStarted && resized ? pointers.length + 1 : pointers.length;
+
+        IterationPointer[] updatedPointers = new IterationPointer[newLength];
+        for (int i = 0; i < pointers.length; i++) {
+            updatedPointers[i] = new IterationPointer(pointers[i]);
+        }
+        if (iterationStarted || resized) {
+            updatedPointers[updatedPointers.length - 1] = new IterationPointer(Integer.MAX_VALUE, currentCapacity);
+        }
+        return updatedPointers;
+    }
+
+    private boolean hasNotBeenObserved(long hash, IterationPointer[] pointers) {
+        for (int i = 0; i < pointers.length - 1; i++) {
+            IterationPointer pointer = pointers[i];
+            if (slots.homeSlot(hash, pointer.getSize()) > pointer.getIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long lookup(Data key) {
+        long slotAddress = slots.get(key.hash64());
+        return slotAddress == NULL_ADDRESS ? NULL_ADDRESS : find(mem.getLong(slotAddress), key.toByteArray());
+    }
+
+    private long find(long head, byte[] keyBytes) {
+        for (long address = head; address != NULL_ADDRESS; address = mem.getLong(address + NEXT_RECORD_OFFSET)) {
+            if (keyEquals(address, keyBytes)) {
+                return address;
+            }
+        }
+        return NULL_ADDRESS;
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        if (mem.getInt(address + KEY_SIZE_OFFSET) != keyBytes.length) {
+            return false;
+        }
+        long keyAddress = address + KEY_OFFSET;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (mem.getByte(keyAddress + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void replaceInChain(long slotAddress, long head, long previous, long replacement) {
+        if (head == previous) {
+            mem.putLong(slotAddress, replacement);
+            return;
+        }
+        long address = head;
+        while (mem.getLong(address + NEXT_RECORD_OFFSET) != previous) {
+            address = mem.getLong(address + NEXT_RECORD_OFFSET);
+        }
+        mem.putLong(address + NEXT_RECORD_OFFSET, replacement);
+    }
+
+    private long newRecordBlock(byte[] keyBytes, Record record) {
+        long address = malloc.allocate(HEADER_SIZE + keyBytes.length);
+        mem.putInt(address + KEY_SIZE_OFFSET, keyBytes.length);
+        mem.copyFromByteArray(keyBytes, 0, address + KEY_OFFSET, keyBytes.length);
+        view(address).copyFrom(record);
+        return address;
+    }
+
+    private void freeRecordBlock(long address) {
+        view(address).freeValue();
+        malloc.free(address, HEADER_SIZE + mem.getInt(address + KEY_SIZE_OFFSET));
+    }
+
+    private void deferFree(long address) {
+        if (deferredRecordCount == deferredRecords.length) {
+            deferredRecords = Arrays.copyOf(deferredRecords, deferredRecords.length * 2);
+        }
+        deferredRecords[deferredRecordCount++] = address;
+    }
+
+    private Data readKey(long address) {
+        byte[] keyBytes = new byte[mem.getInt(address + KEY_SIZE_OFFSET)];
+        mem.copyToByteArray(address + KEY_OFFSET, keyBytes, 0, keyBytes.length);
+        return new HeapData(keyBytes);
+    }
+
+    private OffHeapRecord view(long address) {
+        return new OffHeapRecord(memoryManager, address);
+    }
+
+    /**
+     * Hash slot array mapping key hashes to record chains, with
+     * slot-index based access needed for resumable iteration.
+     */
+    private static final class RecordSlots extends HashSlotArray8byteKeyImpl {
+
+        private final MemoryAccessor mem;
+
+        RecordSlots(MemoryManager memoryManager) {
+            super(NULL_ADDRESS, memoryManager, LONG_SIZE_IN_BYTES, INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+            this.mem = memoryManager.getAccessor();
+        }
+
+        boolean isAssigned(long slot) {
+            return slot < capacity() && isAssigned(address(), slot);
+        }
+
+        long keyAt(long slot) {
+            return key1OfSlot(address(), slot);
+        }
+
+        long chainHeadAt(long slot) {
+            return isAssigned(slot) ? mem.getLong(slotBase(address(), slot) + LONG_SIZE_IN_BYTES) : NULL_ADDRESS;
+        }
+
+        int homeSlot(long hash, int capacity) {
+            return (int) (keyHash(hash, 0) & (capacity - 1));
+        }
+    }
+
+    /**
+     * Iterates the slots downwards, re-resolving the current position on
+     * every call, so no reference to a removed record block survives
+     * between the calls.
+     */
+    private final class MutationTolerantIterator implements Iterator<Map.Entry<Data, Record>> {
+
+        private long slot = slots.capacity() - 1;
+        private int chainPosition;
+        private long lastReturned = NULL_ADDRESS;
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                long capacity = slots.capacity();
+                if (slot >= capacity) {
+                    slot = capacity - 1;
+                    chainPosition = 0;
+                }
+                if (slot < 0) {
+                    return false;
+                }
+                if (chainPosition > 0 && recordAt(chainPosition - 1) != lastReturned) {
+                    // the last returned record was unlinked, its successor took its position
+                    chainPosition--;
+                    lastReturned = NULL_ADDRESS;
+                }
+                if (recordAt(chainPosition) != NULL_ADDRESS) {
+                    return true;
+                }
+                slot--;
+                chainPosition = 0;
+            }
+        }
+
+        @Override
+        public Map.Entry<Data, Record> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long address = recordAt(chainPosition);
+            chainPosition++;
+            lastReturned = address;
+            return new AbstractMap.SimpleEntry<>(readKey(address), view(address));
+        }
+
+        private long recordAt(int position) {
+            long address = slots.chainHeadAt(slot);
+            for (int i = 0; i < position && address != NULL_ADDRESS; i++) {
+                address = mem.getLong(address + NEXT_RECORD_OFFSET);
+            }
+            return address;
+        }
+    }
+
+    /**
+     * Tracks the native footprint of the stored records.
+     */
+    private static final class OffHeapEntryCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        private volatile long estimate;
+
+        @Override
+        public long getEstimate() {
+            return estimate;
+        }
+
+        @Override
+        public void adjustEstimateBy(long adjustment) {
+            estimate += adjustment;
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record instanceof OffHeapRecord ? ((OffHeapRecord) record).getValueCost() : record.getCost();
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            estimate = 0;
+        }
+    }
+}
@@ -288,6 +288,16 @@ public interface RecordStore<R extends Record> {
      */
     R putReplicatedRecord(Data dataKey, R record, long nowInMillis, boolean indexesMustBePopulated);
 
+    /**
+     * Removes a data key and its record from record-store.
+     * Used in replication operations to remove the records of a stale
+     * replica which differ from the replicated one.
+     *
+     * @param dataKey the key to be removed
+     * @see com.hazelcast.map.impl.operation.MapReplicationOperation
+     */
+    void removeReplicatedRecord(Data dataKey);
+
     void forEach(BiConsumer<Data, R> consumer, boolean backup);
 
     void forEach(BiConsumer<Data, Record> consumer, boolean backup, boolean includeExpiredRecords);
@@ -393,6 +403,12 @@ public interface RecordStore<R extends Record> {
      */
     void evictExpiredEntries(int percentage, boolean backup);
 
+    /**
+     * Schedules the expiration of all entries again, as a primary
+     * replica. Called when a backup replica is promoted.
+     */
+    void rescheduleExpirations();
+
     /**
      * @return <code>true</code> if record store has at least one candidate entry
      * for expiration else return <code>false</code>.
@@ -486,6 +502,13 @@ public interface RecordStore<R extends Record> {
 
     Storage getStorage();
 
+    /**
+     * @return the columnar projection of the queried attributes, or {@code
+     * null} if the map doesn't keep one
+     * @see MapContainer#isColumnarProjection()
+     */
+    ColumnarProjection getColumnarProjection();
+
     void sampleAndForceRemoveEntries(int entryCountToRemove);
 
     /**
@@ -17,15 +17,37 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.impl.StoreAdapter;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.query.impl.getters.Extractors;
 
+import java.util.function.Predicate;
+
 /**
  * Provides on-heap indexes.
  */
 public class DefaultIndexProvider implements IndexProvider {
+
+    private final Predicate<IndexConfig> packedSortedIndexes;
+    private final boolean longHashIndexes;
+
+    public DefaultIndexProvider() {
+        this(config -> false, false);
+    }
+
+    /**
+     * @param packedSortedIndexes selects the sorted indexes which are kept in
+     *                            a {@link PackedOrderedIndexStore}
+     * @param longHashIndexes     {@code true} if single attribute hash indexes
+     *                            are kept in a {@link LongUnorderedIndexStore}
+     */
+    public DefaultIndexProvider(Predicate<IndexConfig> packedSortedIndexes, boolean longHashIndexes) {
+        this.packedSortedIndexes = packedSortedIndexes;
+        this.longHashIndexes = longHashIndexes;
+    }
+
     @Override
     public InternalIndex createIndex(
         IndexConfig config,
@@ -35,6 +57,12 @@ public class DefaultIndexProvider implements IndexProvider {
         PerIndexStats stats,
         StoreAdapter partitionStoreAdapter
     ) {
+        if (config.getType() == IndexType.SORTED && packedSortedIndexes.test(config)) {
+            return new PackedIndexImpl(config, ss, extractors, copyBehavior, stats);
+        }
+        if (config.getType() == IndexType.HASH && longHashIndexes) {
+            return new LongHashIndexImpl(config, ss, extractors, copyBehavior, stats);
+        }
         return new IndexImpl(config, ss, extractors, copyBehavior, stats);
     }
 
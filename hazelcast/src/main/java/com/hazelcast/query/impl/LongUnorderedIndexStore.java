@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.hazelcast.query.impl.TypeConverters.BYTE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.INTEGER_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.LONG_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.SHORT_CONVERTER;
+
+/**
+ * Store indexes out of turn, keeping integral values by primitive long.
+ * <p>
+ * If the converter of the index is integral, values which are integral
+ * numbers, i.e. bytes, shorts, ints, longs and floating point values without
+ * a fractional part, are the keys of a {@link Long2ObjectHashMap}. It maps each of them to the only entry having
+ * that value, or to a map of the entries if there is more than one. Indexing,
+ * removing and looking up an entry by an integral value neither boxes the
+ * value nor allocates a map for a value held by a single entry. All the other
+ * values, including nulls, are stored by the {@link UnorderedIndexStore}.
+ */
+public class LongUnorderedIndexStore extends UnorderedIndexStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Maps an integral value to either a {@link QueryableEntry} or to a
+     * {@code Map<Data, QueryableEntry>} of the entries having that value.
+     */
+    private final Long2ObjectHashMap<Object> longRecordMap = new Long2ObjectHashMap<>(INITIAL_CAPACITY);
+    private final boolean copyOnWrite;
+    private final Supplier<TypeConverter> converter;
+
+    /**
+     * @param copyOn    the copy behavior of the index
+     * @param converter supplies the converter of the index, which is resolved
+     *                  when the first entry is indexed and stays the same
+     *                  until the index is cleared
+     */
+    public LongUnorderedIndexStore(IndexCopyBehavior copyOn, Supplier<TypeConverter> converter) {
+        super(copyOn);
+        this.copyOnWrite = copyOn == IndexCopyBehavior.COPY_ON_WRITE;
+        this.converter = converter;
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        if (!isLong(value)) {
+            return super.insertInternal(value, record);
+        }
+
+        markIndexStoreExpirableIfNecessary(record);
+        long longValue = ((Number) value).longValue();
+        Data recordKey = record.getKeyData();
+        Object records = longRecordMap.get(longValue);
+        if (records == null) {
+            longRecordMap.put(longValue, record);
+            return null;
+        }
+
+        if (records instanceof QueryableEntry) {
+            QueryableEntry existing = (QueryableEntry) records;
+            if (existing.getKeyData().equals(recordKey)) {
+                longRecordMap.put(longValue, record);
+                return existing;
+            }
+            Map<Data, QueryableEntry> map = copyOnWrite ? new HashMap<>() : new ConcurrentHashMap<>(2, LOAD_FACTOR, 1);
+            map.put(existing.getKeyData(), existing);
+            map.put(recordKey, record);
+            longRecordMap.put(longValue, map);
+            return null;
+        }
+
+        Map<Data, QueryableEntry> map = asMap(records);
+        if (copyOnWrite) {
+            map = new HashMap<>(map);
+            Object oldValue = map.put(recordKey, record);
+            longRecordMap.put(longValue, map);
+            return oldValue;
+        }
+        return map.put(recordKey, record);
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        if (!isLong(value)) {
+            return super.removeInternal(value, recordKey);
+        }
+
+        long longValue = ((Number) value).longValue();
+        Object records = longRecordMap.get(longValue);
+        if (records == null) {
+            return null;
+        }
+
+        if (records instanceof QueryableEntry) {
+            QueryableEntry existing = (QueryableEntry) records;
+            if (existing.getKeyData().equals(recordKey)) {
+                longRecordMap.remove(longValue);
+                return existing;
+            }
+            return null;
+        }
+
+        Map<Data, QueryableEntry> map = asMap(records);
+        if (!map.containsKey(recordKey)) {
+            return null;
+        }
+        if (copyOnWrite) {
+            map = new HashMap<>(map);
+        }
+        Object oldValue = map.remove(recordKey);
+        if (map.size() == 1) {
+            longRecordMap.put(longValue, map.values().iterator().next());
+        } else if (copyOnWrite) {
+            longRecordMap.put(longValue, map);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // Equal integral arguments of an IN predicate must be equal objects
+        // to be deduplicated, so they get the storage representation of the
+        // UnorderedIndexStore.
+        if (isLong(value)) {
+            return super.canonicalizeScalarForStorage(value);
+        }
+        return super.canonicalizeQueryArgumentScalar(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // integral values are stored by their long value, no need to convert
+        return isLong(value) ? value : super.canonicalizeScalarForStorage(value);
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            super.clear();
+            longRecordMap.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        if (!isLong(value)) {
+            return super.getRecords(value);
+        }
+
+        takeReadLock();
+        try {
+            Object records = longRecordMap.get(((Number) value).longValue());
+            if (records instanceof QueryableEntry) {
+                QueryableEntry entry = (QueryableEntry) records;
+                Map<Data, QueryableEntry> result = Collections.singletonMap(entry.getKeyData(), entry);
+                return new SingleResultSet(isExpirable() ? new ExpirationAwareHashMapDelegate(result) : result);
+            }
+            return toSingleResultSet(asMap(records));
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    void addRecords(MultiResultSet results, Comparable value) {
+        if (isLong(value)) {
+            addLongRecords(results, longRecordMap.get(((Number) value).longValue()));
+        } else {
+            super.addRecords(results, value);
+        }
+    }
+
+    @Override
+    void addRecords(MultiResultSet results, Comparison comparison, Comparable value) {
+        super.addRecords(results, comparison, value);
+        for (Long2ObjectHashMap<Object>.KeyIterator iterator = longRecordMap.keySet().iterator(); iterator.hasNext(); ) {
+            long indexedValue = iterator.nextLong();
+            if (satisfies(indexedValue, comparison, value)) {
+                addLongRecords(results, longRecordMap.get(indexedValue));
+            }
+        }
+    }
+
+    @Override
+    void addRecords(MultiResultSet results, Comparable from, int fromBound, Comparable to, int toBound) {
+        super.addRecords(results, from, fromBound, to, toBound);
+        for (Long2ObjectHashMap<Object>.KeyIterator iterator = longRecordMap.keySet().iterator(); iterator.hasNext(); ) {
+            long indexedValue = iterator.nextLong();
+            Comparable value = indexedValue;
+            if (Comparables.compare(value, from) >= fromBound && Comparables.compare(value, to) <= toBound) {
+                addLongRecords(results, longRecordMap.get(indexedValue));
+            }
+        }
+    }
+
+    private void addLongRecords(MultiResultSet results, Object records) {
+        if (records instanceof QueryableEntry) {
+            QueryableEntry entry = (QueryableEntry) records;
+            copyToMultiResultSet(results, Collections.singletonMap(entry.getKeyData(), entry));
+        } else if (records != null) {
+            copyToMultiResultSet(results, asMap(records));
+        }
+    }
+
+    /**
+     * @return {@code true} if the given value is kept by its long value,
+     * {@code false} if it is stored by the {@link UnorderedIndexStore}.
+     */
+    private boolean isLong(Comparable value) {
+        return isIntegral(converter.get()) && isIntegral(value);
+    }
+
+    /**
+     * @return {@code true} if the given converter converts the values to
+     * integral numbers, {@code false} otherwise.
+     */
+    static boolean isIntegral(TypeConverter converter) {
+        return converter == LONG_CONVERTER || converter == INTEGER_CONVERTER
+                || converter == SHORT_CONVERTER || converter == BYTE_CONVERTER;
+    }
+
+    /**
+     * @return {@code true} if the given value is a number which the
+     * {@link UnorderedIndexStore} stores by its long value, {@code false}
+     * otherwise.
+     */
+    static boolean isIntegral(Comparable value) {
+        if (!(value instanceof Number)) {
+            return false;
+        }
+
+        Class clazz = value.getClass();
+        Number number = (Number) value;
+        if (clazz == Double.class) {
+            return Numbers.equalDoubles(number.doubleValue(), (double) number.longValue());
+        } else if (clazz == Float.class) {
+            return Numbers.equalFloats(number.floatValue(), (float) number.longValue());
+        } else {
+            return Numbers.isLongRepresentable(clazz);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Data, QueryableEntry> asMap(Object records) {
+        return (Map<Data, QueryableEntry>) records;
+    }
+
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.Predicate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Collections.emptySet;
+
+/**
+ * Store indexes rankly in a B+tree.
+ * <p>
+ * Unlike {@link OrderedIndexStore}, which keeps a skip list node and a hash
+ * map per distinct value, this store keeps every (value, entry) pair in a
+ * slot of the packed arrays of a B+tree leaf. The pairs are ordered by the
+ * value and then by the key of the entry, so removing an entry from a
+ * value shared by many entries is still logarithmic. Leaves are linked, so
+ * a range scan walks the arrays of consecutive leaves.
+ * <p>
+ * Leaves are not merged on removal, only empty nodes are dropped from the
+ * tree.
+ * <p>
+ * The tree itself is not thread-safe, it relies on the read-write lock of
+ * {@link BaseIndexStore}. Query results are always collected into a new map,
+ * so they are detached from the store regardless of the {@link
+ * IndexCopyBehavior}.
+ */
+public class PackedOrderedIndexStore extends BaseSingleValueIndexStore {
+
+    static final int NODE_CAPACITY = 64;
+
+    private final Map<Data, QueryableEntry> recordsWithNullValue = new HashMap<>();
+
+    private Node root;
+    private Leaf firstLeaf;
+
+    // the node split off by the last insertion and its separator,
+    // guarded by the write lock
+    private Node splitNode;
+    private Comparable splitKey;
+    private Data splitEntryKey;
+
+    public PackedOrderedIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn);
+        assert copyOn != null;
+        reset();
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        markIndexStoreExpirableIfNecessary(record);
+        if (value == NULL) {
+            return recordsWithNullValue.put(record.getKeyData(), record);
+        }
+
+        QueryableEntry oldRecord = insert(root, value, record);
+        if (splitNode != null) {
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.keys[1] = splitKey;
+            newRoot.entryKeys[1] = splitEntryKey;
+            newRoot.children[1] = splitNode;
+            newRoot.size = 2;
+            root = newRoot;
+            clearSplit();
+        }
+        return oldRecord;
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        if (value == NULL) {
+            return recordsWithNullValue.remove(recordKey);
+        }
+
+        QueryableEntry removed = remove(root, value, recordKey);
+        if (root.size == 0 && root instanceof Inner) {
+            reset();
+        }
+        while (root.size == 1 && root instanceof Inner) {
+            root = ((Inner) root).children[0];
+        }
+        return removed;
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // We still need to canonicalize query arguments for ordered indexes to
+        // support InPredicate queries.
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // Returning the original value since ordered indexes are not supporting
+        // hash lookups on their stored values, so there is no need in providing
+        // canonical representations.
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            reset();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            collect(value, results);
+            return toResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            for (Comparable value : values) {
+                collect(value, results);
+            }
+            return toResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            switch (comparison) {
+                case LESS:
+                    collect(null, false, searchedValue, false, results);
+                    break;
+                case LESS_OR_EQUAL:
+                    collect(null, false, searchedValue, true, results);
+                    break;
+                case GREATER:
+                    collect(searchedValue, false, null, false, results);
+                    break;
+                case GREATER_OR_EQUAL:
+                    collect(searchedValue, true, null, false, results);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+            }
+            return toResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            int order = Comparables.compare(from, to);
+            if (order > 0 || order == 0 && (!fromInclusive || !toInclusive)) {
+                return emptySet();
+            }
+
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            collect(from, fromInclusive, to, toInclusive, results);
+            return toResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private Set<QueryableEntry> toResultSet(Map<Data, QueryableEntry> results) {
+        return new SingleResultSet(isExpirable() ? new ExpirationAwareHashMapDelegate(results) : results);
+    }
+
+    private void collect(Comparable value, Map<Data, QueryableEntry> results) {
+        if (value == NULL) {
+            results.putAll(recordsWithNullValue);
+        } else {
+            collect(value, true, value, true, results);
+        }
+    }
+
+    /**
+     * Collects the entries with values between the given bounds, a
+     * {@code null} bound stands for no bound.
+     */
+    private void collect(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive,
+                         Map<Data, QueryableEntry> results) {
+        Leaf leaf;
+        int index;
+        if (from == null) {
+            leaf = firstLeaf;
+            index = 0;
+        } else {
+            leaf = findLeaf(from, fromInclusive);
+            index = leaf.lowerBound(from, fromInclusive);
+        }
+
+        for (; leaf != null; leaf = leaf.next, index = 0) {
+            for (; index < leaf.size; index++) {
+                if (to != null) {
+                    int order = Comparables.compare(leaf.keys[index], to);
+                    if (order > 0 || order == 0 && !toInclusive) {
+                        return;
+                    }
+                }
+                QueryableEntry entry = leaf.entries[index];
+                results.put(entry.getKeyData(), entry);
+            }
+        }
+    }
+
+    /**
+     * Finds the leaf where the entries with values above the given bound
+     * start. The entries may also start in the leaves following it.
+     */
+    private Leaf findLeaf(Comparable bound, boolean inclusive) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            // the last child with a separator below the bound
+            int low = 1;
+            int high = inner.size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = Comparables.compare(inner.keys[mid], bound);
+                if (order < 0 || order == 0 && !inclusive) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            node = inner.children[low - 1];
+        }
+        return (Leaf) node;
+    }
+
+    private QueryableEntry insert(Node node, Comparable key, QueryableEntry entry) {
+        if (node instanceof Leaf) {
+            return insert((Leaf) node, key, entry);
+        }
+
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(key, entry.getKeyData());
+        QueryableEntry oldEntry = insert(inner.children[childIndex], key, entry);
+        if (splitNode != null) {
+            inner.insertChild(childIndex + 1, splitKey, splitEntryKey, splitNode);
+            clearSplit();
+            if (inner.size > NODE_CAPACITY) {
+                split(inner);
+            }
+        }
+        return oldEntry;
+    }
+
+    private QueryableEntry insert(Leaf leaf, Comparable key, QueryableEntry entry) {
+        int index = leaf.search(key, entry.getKeyData());
+        if (index >= 0) {
+            QueryableEntry oldEntry = leaf.entries[index];
+            leaf.keys[index] = key;
+            leaf.entries[index] = entry;
+            return oldEntry;
+        }
+
+        leaf.insert(-index - 1, key, entry);
+        if (leaf.size > NODE_CAPACITY) {
+            split(leaf);
+        }
+        return null;
+    }
+
+    private void split(Leaf leaf) {
+        int mid = leaf.size >>> 1;
+        Leaf right = new Leaf();
+        int moved = leaf.size - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, moved);
+        System.arraycopy(leaf.entries, mid, right.entries, 0, moved);
+        right.size = moved;
+        leaf.clear(mid);
+
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null) {
+            leaf.next.prev = right;
+        }
+        leaf.next = right;
+
+        // the separator is a copy of the first slot, so it doesn't keep the
+        // entry reachable once the entry is removed from the leaf
+        splitNode = right;
+        splitKey = right.keys[0];
+        splitEntryKey = right.entries[0].getKeyData();
+    }
+
+    private void split(Inner inner) {
+        int mid = inner.size >>> 1;
+        Inner right = new Inner();
+        int moved = inner.size - mid;
+        System.arraycopy(inner.children, mid, right.children, 0, moved);
+        System.arraycopy(inner.keys, mid + 1, right.keys, 1, moved - 1);
+        System.arraycopy(inner.entryKeys, mid + 1, right.entryKeys, 1, moved - 1);
+        right.size = moved;
+
+        splitNode = right;
+        splitKey = inner.keys[mid];
+        splitEntryKey = inner.entryKeys[mid];
+        inner.clear(mid);
+    }
+
+    private QueryableEntry remove(Node node, Comparable key, Data entryKey) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = leaf.search(key, entryKey);
+            return index >= 0 ? leaf.remove(index) : null;
+        }
+
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(key, entryKey);
+        Node child = inner.children[childIndex];
+        QueryableEntry removed = remove(child, key, entryKey);
+        if (removed != null && child.size == 0) {
+            if (child instanceof Leaf) {
+                unlink((Leaf) child);
+            }
+            inner.removeChild(childIndex);
+        }
+        return removed;
+    }
+
+    private void unlink(Leaf leaf) {
+        if (leaf.prev == null) {
+            firstLeaf = leaf.next;
+        } else {
+            leaf.prev.next = leaf.next;
+        }
+        if (leaf.next != null) {
+            leaf.next.prev = leaf.prev;
+        }
+    }
+
+    private void reset() {
+        Leaf leaf = new Leaf();
+        root = leaf;
+        firstLeaf = leaf;
+    }
+
+    private void clearSplit() {
+        splitNode = null;
+        splitKey = null;
+        splitEntryKey = null;
+    }
+
+    /**
+     * Compares the (value, entry key) pair with the given slot.
+     */
+    static int compare(Comparable key, Data entryKey, Comparable slotKey, Data slotEntryKey) {
+        int order = Comparables.compare(key, slotKey);
+        return order != 0 ? order : compare(entryKey, slotEntryKey);
+    }
+
+    /**
+     * An arbitrary but total order of entry keys: the lexicographic order of
+     * their bytes, which is cheaper than comparing their hashes.
+     */
+    static int compare(Data left, Data right) {
+        byte[] leftBytes = left.toByteArray();
+        byte[] rightBytes = right.toByteArray();
+        int length = Math.min(leftBytes.length, rightBytes.length);
+        for (int i = 0; i < length; i++) {
+            if (leftBytes[i] != rightBytes[i]) {
+                return Byte.compare(leftBytes[i], rightBytes[i]);
+            }
+        }
+        return Integer.compare(leftBytes.length, rightBytes.length);
+    }
+
+    /**
+     * A node of the tree. The arrays have room for one more slot than the
+     * capacity, so a full node can take the slot before it is split.
+     */
+    private abstract static class Node {
+        final Comparable[] keys = new Comparable[NODE_CAPACITY + 1];
+        int size;
+    }
+
+    /**
+     * Holds {@code size} (value, entry) slots in order.
+     */
+    private static final class Leaf extends Node {
+        final QueryableEntry[] entries = new QueryableEntry[NODE_CAPACITY + 1];
+        Leaf prev;
+        Leaf next;
+
+        /**
+         * @return the index of the slot, or {@code -(insertion point) - 1} if
+         * there is no such slot
+         */
+        int search(Comparable key, Data entryKey) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = compare(key, entryKey, keys[mid], entries[mid].getKeyData());
+                if (order > 0) {
+                    low = mid + 1;
+                } else if (order < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * @return the index of the first slot with a value above the bound,
+         * or {@code size} if there is none in this leaf
+         */
+        int lowerBound(Comparable bound, boolean inclusive) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = Comparables.compare(keys[mid], bound);
+                if (order < 0 || order == 0 && !inclusive) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        void insert(int index, Comparable key, QueryableEntry entry) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(entries, index, entries, index + 1, size - index);
+            keys[index] = key;
+            entries[index] = entry;
+            size++;
+        }
+
+        QueryableEntry remove(int index) {
+            QueryableEntry removed = entries[index];
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+            clear(size - 1);
+            return removed;
+        }
+
+        void clear(int newSize) {
+            for (int i = newSize; i < size; i++) {
+                keys[i] = null;
+                entries[i] = null;
+            }
+            size = newSize;
+        }
+    }
+
+    /**
+     * Holds {@code size} children. The slot {@code i > 0} holds the
+     * separator of the child {@code i}: all slots of the child {@code i - 1}
+     * are below it, all slots of the child {@code i} are at or above it.
+     * A separator is a (value, entry key) pair, which may outlive the entry
+     * it was copied from.
+     */
+    private static final class Inner extends Node {
+        final Data[] entryKeys = new Data[NODE_CAPACITY + 1];
+        final Node[] children = new Node[NODE_CAPACITY + 1];
+
+        /**
+         * @return the index of the child the given slot belongs to
+         */
+        int childIndex(Comparable key, Data entryKey) {
+            int low = 1;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(key, entryKey, keys[mid], entryKeys[mid]) >= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low - 1;
+        }
+
+        void insertChild(int index, Comparable key, Data entryKey, Node child) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(entryKeys, index, entryKeys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            keys[index] = key;
+            entryKeys[index] = entryKey;
+            children[index] = child;
+            size++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(entryKeys, index + 1, entryKeys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            clear(size - 1);
+        }
+
+        void clear(int newSize) {
+            for (int i = newSize; i < size; i++) {
+                keys[i] = null;
+                entryKeys[i] = null;
+                children[i] = null;
+            }
+            // the first child has no separator
+            keys[0] = null;
+            entryKeys[0] = null;
+            size = newSize;
+        }
+    }
+}
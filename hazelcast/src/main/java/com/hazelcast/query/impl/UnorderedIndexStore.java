@@ -156,16 +156,8 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
         try {
             MultiResultSet results = createMultiResultSet();
             for (Comparable value : values) {
-                Map<Data, QueryableEntry> records;
-                if (value == NULL) {
-                    records = recordsWithNullValue;
-                } else {
-                    // value is already canonicalized by the associated index
-                    records = recordMap.get(value);
-                }
-                if (records != null) {
-                    copyToMultiResultSet(results, records);
-                }
+                // value is already canonicalized by the associated index
+                addRecords(results, value);
             }
             return results;
         } finally {
@@ -178,74 +170,92 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
         takeReadLock();
         try {
             MultiResultSet results = createMultiResultSet();
-            for (Map.Entry<Comparable, Map<Data, QueryableEntry>> recordMapEntry : recordMap.entrySet()) {
-                Comparable indexedValue = recordMapEntry.getKey();
-                boolean valid;
-                int result = Comparables.compare(value, indexedValue);
-                switch (comparison) {
-                    case LESS:
-                        valid = result > 0;
-                        break;
-                    case LESS_OR_EQUAL:
-                        valid = result >= 0;
-                        break;
-                    case GREATER:
-                        valid = result < 0;
-                        break;
-                    case GREATER_OR_EQUAL:
-                        valid = result <= 0;
-                        break;
-                    default:
-                        throw new IllegalStateException("Unrecognized comparison: " + comparison);
-                }
-                if (valid) {
-                    Map<Data, QueryableEntry> records = recordMapEntry.getValue();
-                    if (records != null) {
-                        copyToMultiResultSet(results, records);
-                    }
-                }
-            }
+            addRecords(results, comparison, value);
             return results;
         } finally {
             releaseReadLock();
         }
     }
 
-    @SuppressWarnings({"checkstyle:npathcomplexity"})
     @Override
     public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
         takeReadLock();
         try {
             MultiResultSet results = createMultiResultSet();
             if (Comparables.compare(from, to) == 0) {
-                if (!fromInclusive || !toInclusive) {
-                    return results;
-                }
-
-                Map<Data, QueryableEntry> records = recordMap.get(canonicalize(from));
-                if (records != null) {
-                    copyToMultiResultSet(results, records);
+                if (fromInclusive && toInclusive) {
+                    addRecords(results, canonicalize(from));
                 }
                 return results;
             }
 
             int fromBound = fromInclusive ? 0 : +1;
             int toBound = toInclusive ? 0 : -1;
-            for (Map.Entry<Comparable, Map<Data, QueryableEntry>> recordMapEntry : recordMap.entrySet()) {
-                Comparable value = recordMapEntry.getKey();
-                if (Comparables.compare(value, from) >= fromBound && Comparables.compare(value, to) <= toBound) {
-                    Map<Data, QueryableEntry> records = recordMapEntry.getValue();
-                    if (records != null) {
-                        copyToMultiResultSet(results, records);
-                    }
-                }
-            }
+            addRecords(results, from, fromBound, to, toBound);
             return results;
         } finally {
             releaseReadLock();
         }
     }
 
+    /**
+     * Adds the records having the given canonicalized value to the results.
+     * Needs to be invoked under the read lock.
+     */
+    void addRecords(MultiResultSet results, Comparable value) {
+        Map<Data, QueryableEntry> records = value == NULL ? recordsWithNullValue : recordMap.get(value);
+        if (records != null) {
+            copyToMultiResultSet(results, records);
+        }
+    }
+
+    /**
+     * Adds the records having a non-null value satisfying the given
+     * comparison to the results. Needs to be invoked under the read lock.
+     */
+    void addRecords(MultiResultSet results, Comparison comparison, Comparable value) {
+        for (Map.Entry<Comparable, Map<Data, QueryableEntry>> recordMapEntry : recordMap.entrySet()) {
+            if (satisfies(recordMapEntry.getKey(), comparison, value)) {
+                Map<Data, QueryableEntry> records = recordMapEntry.getValue();
+                if (records != null) {
+                    copyToMultiResultSet(results, records);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the records having a non-null value within the given range to the
+     * results. Needs to be invoked under the read lock.
+     */
+    void addRecords(MultiResultSet results, Comparable from, int fromBound, Comparable to, int toBound) {
+        for (Map.Entry<Comparable, Map<Data, QueryableEntry>> recordMapEntry : recordMap.entrySet()) {
+            Comparable value = recordMapEntry.getKey();
+            if (Comparables.compare(value, from) >= fromBound && Comparables.compare(value, to) <= toBound) {
+                Map<Data, QueryableEntry> records = recordMapEntry.getValue();
+                if (records != null) {
+                    copyToMultiResultSet(results, records);
+                }
+            }
+        }
+    }
+
+    static boolean satisfies(Comparable indexedValue, Comparison comparison, Comparable value) {
+        int result = Comparables.compare(value, indexedValue);
+        switch (comparison) {
+            case LESS:
+                return result > 0;
+            case LESS_OR_EQUAL:
+                return result >= 0;
+            case GREATER:
+                return result < 0;
+            case GREATER_OR_EQUAL:
+                return result <= 0;
+            default:
+                throw new IllegalStateException("Unrecognized comparison: " + comparison);
+        }
+    }
+
     /**
      * Adds entry to the given index map without copying it.
      * Needs to be invoked in a thread-safe way.
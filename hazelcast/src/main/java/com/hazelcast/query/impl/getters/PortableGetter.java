@@ -19,14 +19,20 @@ package com.hazelcast.query.impl.getters;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.PortableContext;
 import com.hazelcast.internal.serialization.impl.DefaultPortableReader;
+import com.hazelcast.internal.serialization.impl.PortableFieldAccessor;
 import com.hazelcast.nio.serialization.ClassDefinition;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.nio.serialization.FieldDefinition;
 import com.hazelcast.nio.serialization.PortableReader;
 
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 final class PortableGetter extends Getter {
 
     private final InternalSerializationService serializationService;
+    private final ConcurrentMap<String, PortableFieldAccessor> accessors = new ConcurrentHashMap<>();
 
     PortableGetter(InternalSerializationService serializationService) {
         super(null);
@@ -36,9 +42,17 @@ final class PortableGetter extends Getter {
     @Override
     Object getValue(Object target, String fieldPath) throws Exception {
         Data data = (Data) target;
+        PortableFieldAccessor accessor = accessors.get(fieldPath);
+        if (accessor == null || !accessor.matches(data)) {
+            accessor = compileAccessor(data, fieldPath);
+        }
+        if (accessor != null && accessor.canRead()) {
+            return accessor.read(data);
+        }
+
         PortableContext context = serializationService.getPortableContext();
-        PortableReader reader = serializationService.createPortableReader(data);
         ClassDefinition classDefinition = context.lookupClassDefinition(data);
+        PortableReader reader = serializationService.createPortableReader(data);
         FieldDefinition fieldDefinition = context.getFieldDefinition(classDefinition, fieldPath);
 
         if (fieldDefinition != null) {
@@ -48,6 +62,19 @@ final class PortableGetter extends Getter {
         }
     }
 
+    private PortableFieldAccessor compileAccessor(Data data, String fieldPath) throws IOException {
+        ClassDefinition classDefinition = serializationService.getPortableContext().lookupClassDefinition(data);
+        PortableFieldAccessor accessor = PortableFieldAccessor.compile(data, classDefinition, fieldPath,
+                serializationService.getByteOrder());
+        if (!accessor.matches(data)) {
+            return null;
+        }
+        // a single accessor per path, the values of a map are mostly of a single class; an accessor
+        // which cannot read the field is kept too, so the path is not compiled again for each value
+        accessors.put(fieldPath, accessor);
+        return accessor;
+    }
+
     @Override
     Object getValue(Object obj) throws Exception {
         throw new IllegalArgumentException("Path agnostic value extraction unsupported");
@@ -151,7 +151,10 @@ public class ReplicatedMapProxy<K, V> extends AbstractDistributedObject<Replicat
     }
 
     private void requestDataForPartition(int partitionId) {
-        RequestMapDataOperation requestMapDataOperation = new RequestMapDataOperation(name);
+        // a copy which already received some updates only needs the records changed since it was consistent
+        ReplicatedRecordStore store = service.getReplicatedRecordStore(name, false, partitionId);
+        long sinceVersion = store == null ? RequestMapDataOperation.ALL_RECORDS : store.getStorage().getConsistentVersion();
+        RequestMapDataOperation requestMapDataOperation = new RequestMapDataOperation(name, sinceVersion);
         OperationService operationService = nodeEngine.getOperationService();
         operationService
                 .createInvocationBuilder(SERVICE_NAME, requestMapDataOperation, partitionId)
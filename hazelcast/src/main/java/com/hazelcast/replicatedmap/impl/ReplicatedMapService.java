@@ -122,8 +122,11 @@ public class ReplicatedMapService implements ManagedService, RemoteService, Even
     private final ReplicatedMapSplitBrainHandlerService splitBrainHandlerService;
     private final LocalReplicatedMapStatsProvider statsProvider;
     private final SplitBrainMergePolicyProvider mergePolicyProvider;
+    private final long replicationBatchDelayMillis;
+    private final ReplicationBatcher replicationBatcher;
 
     private ScheduledFuture antiEntropyFuture;
+    private ScheduledFuture replicationBatchFuture;
 
     public ReplicatedMapService(NodeEngine nodeEngine) {
         this.nodeEngine = nodeEngine;
@@ -137,6 +140,9 @@ public class ReplicatedMapService implements ManagedService, RemoteService, Even
         this.splitBrainProtectionService = nodeEngine.getSplitBrainProtectionService();
         this.mergePolicyProvider = nodeEngine.getSplitBrainMergePolicyProvider();
         this.statsProvider = new LocalReplicatedMapStatsProvider(config, partitionContainers);
+        this.replicationBatchDelayMillis = nodeEngine.getProperties()
+                .getMillis(ClusterProperty.REPLICATED_MAP_REPLICATION_BATCH_DELAY_MILLIS);
+        this.replicationBatcher = replicationBatchDelayMillis > 0 ? new ReplicationBatcher(nodeEngine) : null;
     }
 
     @Override
@@ -146,6 +152,10 @@ public class ReplicatedMapService implements ManagedService, RemoteService, Even
         }
         antiEntropyFuture = nodeEngine.getExecutionService().getGlobalTaskScheduler()
                 .scheduleWithRepetition(antiEntropyTask, 0, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        if (replicationBatcher != null) {
+            replicationBatchFuture = nodeEngine.getExecutionService().scheduleWithRepetition(replicationBatcher::flush,
+                    replicationBatchDelayMillis, replicationBatchDelayMillis, TimeUnit.MILLISECONDS);
+        }
 
         boolean dsMetricsEnabled = nodeEngine.getProperties().getBoolean(ClusterProperty.METRICS_DATASTRUCTURES);
         if (dsMetricsEnabled) {
@@ -173,6 +183,12 @@ public class ReplicatedMapService implements ManagedService, RemoteService, Even
         if (antiEntropyFuture != null) {
             antiEntropyFuture.cancel(true);
         }
+        if (replicationBatchFuture != null) {
+            replicationBatchFuture.cancel(true);
+        }
+        if (replicationBatcher != null) {
+            replicationBatcher.clear();
+        }
     }
 
     /**
@@ -313,6 +329,16 @@ public class ReplicatedMapService implements ManagedService, RemoteService, Even
         return eventPublishingService;
     }
 
+    /**
+     * Returns the batcher of the replications of the updates to the other members,
+     * {@code null} if they are sent one by one.
+     *
+     * @see ClusterProperty#REPLICATED_MAP_REPLICATION_BATCH_DELAY_MILLIS
+     */
+    public ReplicationBatcher getReplicationBatcher() {
+        return replicationBatcher;
+    }
+
     @Override
     public Operation prepareReplicationOperation(PartitionReplicationEvent event) {
         if (nodeEngine.getLocalMember().isLiteMember()) {
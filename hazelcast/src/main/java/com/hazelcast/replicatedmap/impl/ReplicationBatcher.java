@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.replicatedmap.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.replicatedmap.impl.operation.ReplicateUpdateBatchOperation;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import static com.hazelcast.replicatedmap.impl.ReplicatedMapService.INVOCATION_TRY_COUNT;
+import static com.hazelcast.replicatedmap.impl.ReplicatedMapService.SERVICE_NAME;
+
+/**
+ * Collects the replications of the updates made on the partition owners and sends them to each member as a
+ * {@link ReplicateUpdateBatchOperation}. A batch is sent when it reaches {@value #MAX_BATCH_SIZE} updates or
+ * when it is flushed by the periodic task scheduled by the {@link ReplicatedMapService}.
+ * <p>
+ * There is at most one batch in flight per member, the updates made in the meantime are sent when it completes.
+ * The member hands the updates of a batch over to their partition threads in order before it responds, so the
+ * updates of a partition are still applied in the order they were made.
+ */
+public final class ReplicationBatcher {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final OperationService operationService;
+    private final Executor asyncExecutor;
+    private final ConcurrentMap<Address, PendingBatch> batches = new ConcurrentHashMap<>();
+
+    ReplicationBatcher(NodeEngine nodeEngine) {
+        this.operationService = nodeEngine.getOperationService();
+        this.asyncExecutor = nodeEngine.getExecutionService().getExecutor(ExecutionService.ASYNC_EXECUTOR);
+    }
+
+    /**
+     * Adds the replication {@code operation} to the batch of the {@code target} member, sending the batch if it is full.
+     */
+    public void add(Address target, Operation operation) {
+        while (true) {
+            PendingBatch batch = batches.computeIfAbsent(target, PendingBatch::new);
+            if (batch.add(operation)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends all pending updates. The batches which have been idle since the last flush are discarded.
+     */
+    void flush() {
+        for (PendingBatch batch : batches.values()) {
+            batch.flush();
+        }
+    }
+
+    void clear() {
+        batches.clear();
+    }
+
+    private final class PendingBatch {
+        private final Address target;
+        private List<Operation> operations = new ArrayList<>();
+        private boolean inFlight;
+        private boolean discarded;
+
+        PendingBatch(Address target) {
+            this.target = target;
+        }
+
+        /** Returns {@code false} if this batch has been discarded and the operation should be added to a new one. */
+        synchronized boolean add(Operation operation) {
+            if (discarded) {
+                return false;
+            }
+            operations.add(operation);
+            if (operations.size() >= MAX_BATCH_SIZE) {
+                send();
+            }
+            return true;
+        }
+
+        synchronized void flush() {
+            if (operations.isEmpty() && !inFlight) {
+                discarded = true;
+                batches.remove(target, this);
+            } else {
+                send();
+            }
+        }
+
+        /** Sends up to {@value #MAX_BATCH_SIZE} operations, unless a batch is already in flight. */
+        private void send() {
+            if (inFlight || operations.isEmpty()) {
+                return;
+            }
+            List<Operation> batch;
+            if (operations.size() > MAX_BATCH_SIZE) {
+                List<Operation> head = operations.subList(0, MAX_BATCH_SIZE);
+                batch = new ArrayList<>(head);
+                head.clear();
+            } else {
+                batch = operations;
+                operations = new ArrayList<>();
+            }
+            inFlight = true;
+            Operation op = new ReplicateUpdateBatchOperation(batch);
+            // the failed updates are repaired by the anti-entropy, the next batch can't be sent from a response thread
+            operationService.createInvocationBuilder(SERVICE_NAME, op, target)
+                    .setTryCount(INVOCATION_TRY_COUNT)
+                    .invoke()
+                    .whenCompleteAsync((response, throwable) -> onSent(), asyncExecutor);
+        }
+
+        private synchronized void onSent() {
+            inFlight = false;
+            if (operations.size() >= MAX_BATCH_SIZE) {
+                send();
+            }
+        }
+    }
+}
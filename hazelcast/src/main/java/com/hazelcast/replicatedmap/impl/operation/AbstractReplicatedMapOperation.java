@@ -20,6 +20,8 @@ import com.hazelcast.cluster.memberselector.MemberSelectors;
 import com.hazelcast.cluster.Member;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.replicatedmap.impl.ReplicatedMapService;
+import com.hazelcast.replicatedmap.impl.ReplicationBatcher;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.impl.operationservice.OperationService;
 import com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse;
@@ -65,6 +67,11 @@ public abstract class AbstractReplicatedMapOperation extends AbstractNamedSerial
         Operation op = new ReplicateUpdateOperation(name, key, value, ttl, response, isRemove, getCallerAddress())
                 .setPartitionId(getPartitionId())
                 .setValidateTarget(false);
+        ReplicationBatcher batcher = ((ReplicatedMapService) getService()).getReplicationBatcher();
+        if (batcher != null) {
+            batcher.add(address, op);
+            return;
+        }
         operationService
                 .createInvocationBuilder(getServiceName(), op, address)
                 .setTryCount(INVOCATION_TRY_COUNT)
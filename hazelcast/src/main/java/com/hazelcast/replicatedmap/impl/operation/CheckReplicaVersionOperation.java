@@ -73,20 +73,20 @@ public class CheckReplicaVersionOperation extends AbstractSerializableOperation
                     logger.fine("Missing store on the replica of replicated map '" + name
                             + "' (partitionId " + partitionId + ") (owner version " + version + ")");
                 }
-                requestDataFromOwner(name);
+                requestDataFromOwner(name, RequestMapDataOperation.ALL_RECORDS);
             } else if (store.isStale(version)) {
                 if (logger.isFineEnabled()) {
                     logger.fine("Stale replica on replicated map '" + name + "' (partitionId " + partitionId
                             + ") (owner version " + version + ") (replica version " + store.getVersion() + ")");
                 }
-                requestDataFromOwner(name);
+                requestDataFromOwner(name, store.getStorage().getConsistentVersion());
             }
         }
     }
 
-    private void requestDataFromOwner(String name) {
+    private void requestDataFromOwner(String name, long sinceVersion) {
         OperationService operationService = getNodeEngine().getOperationService();
-        Operation op = new RequestMapDataOperation(name);
+        Operation op = new RequestMapDataOperation(name, sinceVersion);
         operationService
                 .createInvocationBuilder(SERVICE_NAME, op, getPartitionId())
                 .setTryCount(INVOCATION_TRY_COUNT)
@@ -25,6 +25,7 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.replicatedmap.impl.ReplicatedMapEventPublishingService;
 import com.hazelcast.replicatedmap.impl.ReplicatedMapService;
+import com.hazelcast.replicatedmap.impl.ReplicationBatcher;
 import com.hazelcast.replicatedmap.impl.record.ReplicatedRecordStore;
 import com.hazelcast.spi.impl.operationservice.MutatingOperation;
 import com.hazelcast.spi.impl.operationservice.Operation;
@@ -74,6 +75,7 @@ public class PutAllOperation extends AbstractNamedSerializableOperation implemen
 
     private void publishReplicationMessage(Data key, Data value, VersionResponsePair response) {
         OperationService operationService = getNodeEngine().getOperationService();
+        ReplicationBatcher batcher = ((ReplicatedMapService) getService()).getReplicationBatcher();
         Collection<Member> members = getNodeEngine().getClusterService().getMembers(DATA_MEMBER_SELECTOR);
         for (Member member : members) {
             Address address = member.getAddress();
@@ -83,7 +85,11 @@ public class PutAllOperation extends AbstractNamedSerializableOperation implemen
             Operation op = new ReplicateUpdateOperation(name, key, value, 0, response, false, getCallerAddress())
                     .setPartitionId(getPartitionId())
                     .setValidateTarget(false);
-            operationService.invokeOnTarget(getServiceName(), op, address);
+            if (batcher != null) {
+                batcher.add(address, op);
+            } else {
+                operationService.invokeOnTarget(getServiceName(), op, address);
+            }
         }
     }
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.replicatedmap.impl.operation;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.replicatedmap.impl.ReplicationBatcher;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.replicatedmap.impl.ReplicatedMapService.SERVICE_NAME;
+import static com.hazelcast.spi.impl.operationservice.OperationResponseHandlerFactory.createEmptyResponseHandler;
+
+/**
+ * Carries the replications of the updates made on the partition owners, collected by the
+ * {@link ReplicationBatcher}, to another member. Each update runs on its partition thread,
+ * the response is sent once all of them have been handed over to their partition threads.
+ */
+public class ReplicateUpdateBatchOperation extends AbstractSerializableOperation {
+
+    private List<Operation> operations;
+
+    public ReplicateUpdateBatchOperation() {
+    }
+
+    public ReplicateUpdateBatchOperation(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public void run() throws Exception {
+        NodeEngine nodeEngine = getNodeEngine();
+        OperationService operationService = nodeEngine.getOperationService();
+        for (Operation op : operations) {
+            op.setNodeEngine(nodeEngine)
+                    .setServiceName(SERVICE_NAME)
+                    .setCallerUuid(getCallerUuid())
+                    .setOperationResponseHandler(createEmptyResponseHandler());
+            operationService.execute(op);
+        }
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(operations.size());
+        for (Operation op : operations) {
+            out.writeObject(op);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        operations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            operations.add(in.readObject());
+        }
+    }
+
+    @Override
+    public int getClassId() {
+        return ReplicatedMapDataSerializerHook.REPLICATE_UPDATE_BATCH;
+    }
+}
@@ -61,8 +61,9 @@ public class ReplicatedMapDataSerializerHook implements DataSerializerHook {
     public static final int RECORD_MIGRATION_INFO = 24;
     public static final int MERGE_FACTORY = 25;
     public static final int MERGE = 26;
+    public static final int REPLICATE_UPDATE_BATCH = 27;
 
-    private static final int LEN = MERGE + 1;
+    private static final int LEN = REPLICATE_UPDATE_BATCH + 1;
 
     private static final DataSerializableFactory FACTORY = createFactoryInternal();
 
@@ -104,6 +105,7 @@ public class ReplicatedMapDataSerializerHook implements DataSerializerHook {
         constructors[RECORD_MIGRATION_INFO] = arg -> new RecordMigrationInfo();
         constructors[MERGE_FACTORY] = arg -> new MergeOperationFactory();
         constructors[MERGE] = arg -> new MergeOperation();
+        constructors[REPLICATE_UPDATE_BATCH] = arg -> new ReplicateUpdateBatchOperation();
 
         return new ArrayDataSerializableFactory(constructors);
     }
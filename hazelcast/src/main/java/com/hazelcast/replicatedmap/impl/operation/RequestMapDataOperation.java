@@ -32,6 +32,7 @@ import com.hazelcast.spi.impl.operationservice.OperationService;
 import com.hazelcast.internal.serialization.SerializationService;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -42,10 +43,20 @@ import static com.hazelcast.internal.util.SetUtil.createHashSet;
 /**
  * Collects and sends the replicated map data from the executing node to the caller via
  * {@link SyncReplicatedMapDataOperation}.
+ * <p>
+ * If the caller already has a copy of the data, it sends the version up to which its copy
+ * is consistent and only the records changed since then are sent, unless records were
+ * removed since then.
  */
 public class RequestMapDataOperation extends AbstractSerializableOperation {
 
+    /**
+     * Version to request all the records.
+     */
+    public static final long ALL_RECORDS = -1;
+
     private String name;
+    private long sinceVersion = ALL_RECORDS;
 
     public RequestMapDataOperation() {
     }
@@ -54,6 +65,11 @@ public class RequestMapDataOperation extends AbstractSerializableOperation {
         this.name = name;
     }
 
+    public RequestMapDataOperation(String name, long sinceVersion) {
+        this.name = name;
+        this.sinceVersion = sinceVersion;
+    }
+
     @Override
     public void run() throws Exception {
         ILogger logger = getLogger();
@@ -74,8 +90,13 @@ public class RequestMapDataOperation extends AbstractSerializableOperation {
         }
 
         long version = store.getVersion();
-        Set<RecordMigrationInfo> recordSet = getRecordSet(store);
-        Operation op = new SyncReplicatedMapDataOperation(name, recordSet, version)
+        boolean delta = sinceVersion != ALL_RECORDS && store.getStorage().isDeltaSyncPossible(sinceVersion);
+        Set<RecordMigrationInfo> recordSet = getRecordSet(store, delta ? sinceVersion : ALL_RECORDS);
+        if (logger.isFineEnabled() && delta) {
+            logger.fine("Sending " + recordSet.size() + " records changed since version " + sinceVersion
+                    + " of replicated map '" + name + "' (partitionId " + partitionId + ") to " + callerAddress);
+        }
+        Operation op = new SyncReplicatedMapDataOperation(name, recordSet, version, delta)
                 .setPartitionId(partitionId)
                 .setValidateTarget(false);
         OperationService operationService = nodeEngine.getOperationService();
@@ -84,12 +105,15 @@ public class RequestMapDataOperation extends AbstractSerializableOperation {
                 .invoke();
     }
 
-    private Set<RecordMigrationInfo> getRecordSet(ReplicatedRecordStore store) {
+    private Set<RecordMigrationInfo> getRecordSet(ReplicatedRecordStore store, long sinceVersion) {
         SerializationService serializationService = getNodeEngine().getSerializationService();
-        Set<RecordMigrationInfo> recordSet = createHashSet(store.size());
+        Set<RecordMigrationInfo> recordSet = sinceVersion == ALL_RECORDS ? createHashSet(store.size()) : new HashSet<>();
         Iterator<ReplicatedRecord> iterator = store.recordIterator();
         while (iterator.hasNext()) {
             ReplicatedRecord record = iterator.next();
+            if (record.getVersion() <= sinceVersion) {
+                continue;
+            }
             Data dataKey = serializationService.toData(record.getKeyInternal());
             Data dataValue = serializationService.toData(record.getValueInternal());
             recordSet.add(new RecordMigrationInfo(dataKey, dataValue, record.getTtlMillis()));
@@ -100,11 +124,13 @@ public class RequestMapDataOperation extends AbstractSerializableOperation {
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         out.writeUTF(name);
+        out.writeLong(sinceVersion);
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         name = in.readUTF();
+        sinceVersion = in.readLong();
     }
 
     @Override
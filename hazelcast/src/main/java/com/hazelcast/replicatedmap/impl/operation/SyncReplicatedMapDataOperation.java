@@ -32,21 +32,29 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.hazelcast.internal.util.SetUtil.createHashSet;
 
 /**
- * Carries set of replicated map records for a partition from one node to another
+ * Carries set of replicated map records for a partition from one node to another.
+ * The records either replace the records of the partition or, for a delta sync,
+ * are the records changed since the version the receiver requested them from.
  */
 public class SyncReplicatedMapDataOperation<K, V> extends AbstractSerializableOperation {
 
     private String name;
     private Set<RecordMigrationInfo> recordSet;
     private long version;
+    private boolean delta;
 
     public SyncReplicatedMapDataOperation() {
     }
 
     public SyncReplicatedMapDataOperation(String name, Set<RecordMigrationInfo> recordSet, long version) {
+        this(name, recordSet, version, false);
+    }
+
+    public SyncReplicatedMapDataOperation(String name, Set<RecordMigrationInfo> recordSet, long version, boolean delta) {
         this.name = name;
         this.recordSet = recordSet;
         this.version = version;
+        this.delta = delta;
     }
 
     @Override
@@ -54,18 +62,23 @@ public class SyncReplicatedMapDataOperation<K, V> extends AbstractSerializableOp
     public void run() throws Exception {
         ILogger logger = getLogger();
         if (logger.isFineEnabled()) {
-            logger.fine("Syncing " + recordSet.size() + " records (version " + version
+            logger.fine("Syncing " + recordSet.size() + (delta ? " changed" : "") + " records (version " + version
                     + ") for replicated map '" + name + "' (partitionId " + getPartitionId()
                     + ") from " + getCallerAddress() + " to " + getNodeEngine().getThisAddress());
         }
         ReplicatedMapService service = getService();
         AbstractReplicatedRecordStore store
                 = (AbstractReplicatedRecordStore) service.getReplicatedRecordStore(name, true, getPartitionId());
+        if (delta) {
+            syncChangedRecords(store);
+            return;
+        }
         InternalReplicatedMapStorage<K, V> newStorage = new InternalReplicatedMapStorage<>();
         for (RecordMigrationInfo record : recordSet) {
             K key = (K) store.marshall(record.getKey());
             V value = (V) store.marshall(record.getValue());
             ReplicatedRecord<K, V> replicatedRecord = buildReplicatedRecord(key, value, record.getTtl());
+            replicatedRecord.setVersion(version);
             ReplicatedRecord oldRecord = store.getReplicatedRecord(key);
             if (oldRecord != null) {
                 replicatedRecord.setHits(oldRecord.getHits());
@@ -82,6 +95,37 @@ public class SyncReplicatedMapDataOperation<K, V> extends AbstractSerializableOp
         store.setLoaded(true);
     }
 
+    @SuppressWarnings("unchecked")
+    private void syncChangedRecords(AbstractReplicatedRecordStore store) {
+        InternalReplicatedMapStorage<K, V> storage = store.getStorage();
+        for (RecordMigrationInfo record : recordSet) {
+            K key = (K) store.marshall(record.getKey());
+            ReplicatedRecord<K, V> oldRecord = storage.get(key);
+            // the record was updated again after the owner sent it
+            if (oldRecord != null && oldRecord.getVersion() > version) {
+                continue;
+            }
+            V value = (V) store.marshall(record.getValue());
+            ReplicatedRecord<K, V> replicatedRecord = buildReplicatedRecord(key, value, record.getTtl());
+            replicatedRecord.setVersion(version);
+            if (oldRecord != null) {
+                replicatedRecord.setHits(oldRecord.getHits());
+            }
+            storage.put(key, replicatedRecord);
+            if (record.getTtl() > 0) {
+                store.scheduleTtlEntry(record.getTtl(), key, value);
+            } else {
+                store.cancelTtlEntry(key);
+            }
+        }
+        // otherwise updates were applied after the owner sent the records, possibly with gaps,
+        // the storage stays stale until the next anti-entropy round
+        if (version >= storage.getVersion()) {
+            storage.syncDeltaVersion(version);
+        }
+        store.setLoaded(true);
+    }
+
     private ReplicatedRecord<K, V> buildReplicatedRecord(K key, V value, long ttlMillis) {
         return new ReplicatedRecord<>(key, value, ttlMillis);
     }
@@ -90,6 +134,7 @@ public class SyncReplicatedMapDataOperation<K, V> extends AbstractSerializableOp
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         out.writeUTF(name);
         out.writeLong(version);
+        out.writeBoolean(delta);
         out.writeInt(recordSet.size());
         for (RecordMigrationInfo record : recordSet) {
             record.writeData(out);
@@ -100,6 +145,7 @@ public class SyncReplicatedMapDataOperation<K, V> extends AbstractSerializableOp
     protected void readInternal(ObjectDataInput in) throws IOException {
         name = in.readUTF();
         version = in.readLong();
+        delta = in.readBoolean();
         int size = in.readInt();
         recordSet = createHashSet(size);
         for (int j = 0; j < size; j++) {
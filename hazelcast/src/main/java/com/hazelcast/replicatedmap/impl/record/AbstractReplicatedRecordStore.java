@@ -23,6 +23,7 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.replicatedmap.impl.ReplicatedMapEventPublishingService;
 import com.hazelcast.replicatedmap.impl.ReplicatedMapService;
+import com.hazelcast.replicatedmap.impl.ReplicationBatcher;
 import com.hazelcast.replicatedmap.impl.operation.ReplicateUpdateOperation;
 import com.hazelcast.replicatedmap.impl.operation.VersionResponsePair;
 import com.hazelcast.spi.impl.operationservice.OperationService;
@@ -145,7 +146,7 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
     @Override
     public Object put(Object key, Object value, long ttl, TimeUnit timeUnit, boolean incrementHits) {
         InternalReplicatedMapStorage<K, V> storage = getStorage();
-        Object old = put(storage, key, value, ttl, timeUnit, incrementHits);
+        Object old = put(storage, key, value, ttl, timeUnit, incrementHits, storage.getVersion() + 1);
         storage.incrementVersion();
         return old;
     }
@@ -153,14 +154,14 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
     @Override
     public Object putWithVersion(Object key, Object value, long ttl, TimeUnit timeUnit, boolean incrementHits, long version) {
         InternalReplicatedMapStorage<K, V> storage = getStorage();
-        Object old = put(storage, key, value, ttl, timeUnit, incrementHits);
+        Object old = put(storage, key, value, ttl, timeUnit, incrementHits, version);
         storage.setVersion(version);
         return old;
     }
 
     @SuppressWarnings("unchecked")
     private Object put(InternalReplicatedMapStorage<K, V> storage, Object key, Object value,
-                       long ttl, TimeUnit timeUnit, boolean incrementHits) {
+                       long ttl, TimeUnit timeUnit, boolean incrementHits, long version) {
         isNotNull(key, "key");
         isNotNull(value, "value");
         isNotNull(timeUnit, "timeUnit");
@@ -176,6 +177,7 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
         ReplicatedRecord<K, V> record;
         if (old == null) {
             record = buildReplicatedRecord(marshalledKey, marshalledValue, ttlMillis);
+            record.setVersion(version);
             storage.put(marshalledKey, record);
         } else {
             oldValue = old.getValueInternal();
@@ -184,6 +186,7 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
             } else {
                 old.setValueInternal(marshalledValue, ttlMillis);
             }
+            old.setVersion(version);
             storage.put(marshalledKey, old);
         }
         if (ttlMillis > 0) {
@@ -309,13 +312,13 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
     public void putRecords(Collection<RecordMigrationInfo> records, long version) {
         InternalReplicatedMapStorage<K, V> storage = getStorage();
         for (RecordMigrationInfo record : records) {
-            putRecord(storage, record);
+            putRecord(storage, record, version);
         }
         storage.syncVersion(version);
     }
 
     @SuppressWarnings("unchecked")
-    private void putRecord(InternalReplicatedMapStorage<K, V> storage, RecordMigrationInfo record) {
+    private void putRecord(InternalReplicatedMapStorage<K, V> storage, RecordMigrationInfo record, long version) {
         K key = (K) marshall(record.getKey());
         V value = (V) marshall(record.getValue());
         ReplicatedRecord newRecord = buildReplicatedRecord(key, value, record.getTtl());
@@ -323,6 +326,9 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
         newRecord.setCreationTime(record.getCreationTime());
         newRecord.setLastAccessTime(record.getLastAccessTime());
         newRecord.setUpdateTime(record.getLastUpdateTime());
+        // the migrated records don't carry their versions, they get the version of the
+        // storage so that they are part of any delta sync from an earlier version
+        newRecord.setVersion(version);
         storage.put(key, newRecord);
         if (record.getTtl() > 0) {
             scheduleTtlEntry(record.getTtl(), key, value);
@@ -351,6 +357,7 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
             record = buildReplicatedRecord(marshalledKey, newValue, 0);
             storage.put(marshalledKey, record);
             storage.incrementVersion();
+            record.setVersion(storage.getVersion());
             Data dataKey = serializationService.toData(marshalledKey);
             Data dataValue = serializationService.toData(newValue);
             VersionResponsePair responsePair = new VersionResponsePair(mergingEntry.getRawValue(), getVersion());
@@ -368,6 +375,7 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
             }
             record.setValueInternal(newValue, record.getTtlMillis());
             storage.incrementVersion();
+            record.setVersion(storage.getVersion());
             Data dataKey = serializationService.toData(marshalledKey);
             Data dataValue = serializationService.toData(newValue);
             VersionResponsePair responsePair = new VersionResponsePair(mergingEntry.getRawValue(), getVersion());
@@ -391,6 +399,11 @@ public abstract class AbstractReplicatedRecordStore<K, V> extends AbstractBaseRe
                 response, isRemove, nodeEngine.getThisAddress());
         updateOperation.setPartitionId(partitionId);
         updateOperation.setValidateTarget(false);
+        ReplicationBatcher batcher = replicatedMapService.getReplicationBatcher();
+        if (batcher != null) {
+            batcher.add(address, updateOperation);
+            return;
+        }
         operationService.invokeOnTarget(SERVICE_NAME, updateOperation, address);
     }
 
@@ -38,6 +38,15 @@ public class InternalReplicatedMapStorage<K, V> {
 
     private boolean stale;
 
+    // the last version up to which all the updates were applied, only meaningful when stale
+    private long consistentVersion;
+
+    // the version of the last update which removed records, records removed at or before
+    // this version can't be told apart from the records which were never there
+    private long removalVersion;
+
+    private boolean removalPending;
+
     public InternalReplicatedMapStorage() {
     }
 
@@ -45,20 +54,70 @@ public class InternalReplicatedMapStorage<K, V> {
         return version;
     }
 
+    /**
+     * Sets the version of a storage whose whole content was received from the partition owner.
+     */
     public void syncVersion(long version) {
         this.stale = false;
         this.version = version;
+        this.removalVersion = version;
+        this.removalPending = false;
+    }
+
+    /**
+     * Sets the version of a storage which received the records changed since
+     * its consistent version from the partition owner.
+     *
+     * @see #isDeltaSyncPossible(long)
+     */
+    public void syncDeltaVersion(long version) {
+        this.stale = false;
+        this.version = version;
+        onVersionChange();
     }
 
     public void setVersion(long version) {
         if (!stale) {
             stale = (version != (this.version + 1));
+            consistentVersion = this.version;
         }
         this.version = version;
+        onVersionChange();
     }
 
     public long incrementVersion() {
-        return version++;
+        long previous = version++;
+        onVersionChange();
+        return previous;
+    }
+
+    /**
+     * Returns the version up to which this storage is known to have applied all the updates.
+     * The records of a storage at this version can be completed by the records which were
+     * changed on the partition owner since then.
+     */
+    public long getConsistentVersion() {
+        return stale ? consistentVersion : version;
+    }
+
+    /**
+     * Checks whether the records changed since the given version, as returned by
+     * {@link #getConsistentVersion()} on a replica, are enough to bring that replica
+     * in sync with this storage. This isn't the case if records were removed since then.
+     *
+     * @param sinceVersion the consistent version of the replica
+     * @return {@code true} if a delta sync is possible, {@code false} if the replica
+     * needs all the records
+     */
+    public boolean isDeltaSyncPossible(long sinceVersion) {
+        return !stale && sinceVersion >= removalVersion && sinceVersion <= version;
+    }
+
+    private void onVersionChange() {
+        if (removalPending) {
+            removalVersion = version;
+            removalPending = false;
+        }
     }
 
     public ReplicatedRecord<K, V> get(Object key) {
@@ -70,7 +129,11 @@ public class InternalReplicatedMapStorage<K, V> {
     }
 
     public boolean remove(K key, ReplicatedRecord<K, V> replicatedRecord) {
-        return storage.remove(key, replicatedRecord);
+        boolean removed = storage.remove(key, replicatedRecord);
+        if (removed) {
+            removalPending = true;
+        }
+        return removed;
     }
 
     public boolean containsKey(Object key) {
@@ -91,6 +154,7 @@ public class InternalReplicatedMapStorage<K, V> {
 
     public void clear() {
         storage.clear();
+        removalPending = true;
     }
 
     public boolean isEmpty() {
@@ -41,6 +41,8 @@ public class ReplicatedRecord<K, V> {
     private K key;
     private V value;
     private long ttlMillis;
+    // the version of the storage at the last update of this record
+    private long version;
     private volatile long updateTime = Clock.currentTimeMillis();
     private volatile long creationTime = Clock.currentTimeMillis();
 
@@ -89,6 +91,14 @@ public class ReplicatedRecord<K, V> {
         return oldValue;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public long getUpdateTime() {
         return updateTime;
     }
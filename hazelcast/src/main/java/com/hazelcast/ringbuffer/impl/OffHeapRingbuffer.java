@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.ringbuffer.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.nio.Disposable;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.ringbuffer.StaleSequenceException;
+
+import java.util.Iterator;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+
+/**
+ * A {@link Ringbuffer} which stores the serialized items in native memory
+ * obtained from the member's {@link MemoryManager}, used when the
+ * ringbuffer is configured with the
+ * {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory format.
+ * <p>
+ * The ringbuffer consists of a fixed-size index with a slot per ringbuffer
+ * position and a native block per item. Each slot contains the sequence of
+ * the item stored in it, the address of the item block and the length of
+ * the item. A {@code null} item has no block. An item block is freed as
+ * soon as the item is overwritten, so the ringbuffer never holds more
+ * native memory than its index and its live items.
+ * <p>
+ * Since the item blocks are freed explicitly, {@link #read(long)} returns
+ * an on-heap copy of the item. The native memory is released by
+ * {@link #dispose()}, after which the ringbuffer can't be used anymore.
+ * <p>
+ * Like the {@link ArrayRingbuffer}, this class is not thread-safe since a
+ * partition can only be accessed by a single thread at any given moment.
+ *
+ * @param <E> the type of the data stored in the ringbuffer, always a
+ *            {@link Data}
+ */
+public class OffHeapRingbuffer<E> implements Ringbuffer<E>, Disposable {
+
+    static final int INDEX_SLOT_SIZE = 24;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int ADDRESS_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+    private static final long NO_SEQUENCE = -1;
+
+    private final int capacity;
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private long indexAddress;
+    private long tailSequence = -1;
+    private long headSequence = tailSequence + 1;
+
+    public OffHeapRingbuffer(int capacity, MemoryManager memoryManager) {
+        this.capacity = capacity;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.indexAddress = malloc.allocate(indexSize());
+        for (long slot = indexAddress; slot < indexAddress + indexSize(); slot += INDEX_SLOT_SIZE) {
+            mem.putLong(slot + SEQUENCE_OFFSET, NO_SEQUENCE);
+            mem.putLong(slot + ADDRESS_OFFSET, NULL_ADDRESS);
+        }
+    }
+
+    @Override
+    public long tailSequence() {
+        return tailSequence;
+    }
+
+    @Override
+    public long peekNextTailSequence() {
+        return tailSequence + 1;
+    }
+
+    @Override
+    public void setTailSequence(long sequence) {
+        this.tailSequence = sequence;
+    }
+
+    @Override
+    public long headSequence() {
+        return headSequence;
+    }
+
+    @Override
+    public void setHeadSequence(long sequence) {
+        this.headSequence = sequence;
+    }
+
+    @Override
+    public long getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long size() {
+        return tailSequence - headSequence + 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public long add(E item) {
+        tailSequence++;
+
+        if (tailSequence - capacity == headSequence) {
+            headSequence++;
+        }
+
+        set(tailSequence, item);
+        return tailSequence;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned item is an on-heap copy of the stored item.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E read(long sequence) {
+        checkReadSequence(sequence);
+
+        long slot = toSlot(sequence);
+        long address = mem.getLong(slot + ADDRESS_OFFSET);
+        if (mem.getLong(slot + SEQUENCE_OFFSET) != sequence || address == NULL_ADDRESS) {
+            return null;
+        }
+        byte[] bytes = new byte[mem.getInt(slot + LENGTH_OFFSET)];
+        mem.copyToByteArray(address, bytes, 0, bytes.length);
+        return (E) new HeapData(bytes);
+    }
+
+    @Override
+    // the RingbufferContainer also checks if the ring buffer store is enabled before throwing a StaleSequenceException
+    public void checkBlockableReadSequence(long readSequence) {
+        if (readSequence > tailSequence + 1) {
+            throw new IllegalArgumentException("sequence:" + readSequence
+                    + " is too large. The current tailSequence is:" + tailSequence);
+        }
+
+        if (readSequence < headSequence) {
+            throw new StaleSequenceException("sequence:" + readSequence
+                    + " is too small. The current headSequence is:" + headSequence
+                    + " tailSequence is:" + tailSequence, headSequence);
+        }
+    }
+
+    @Override
+    public void checkReadSequence(long sequence) {
+        if (sequence > tailSequence) {
+            throw new IllegalArgumentException("sequence:" + sequence
+                    + " is too large. The current tailSequence is:" + tailSequence);
+        }
+
+        if (sequence < headSequence) {
+            throw new StaleSequenceException("sequence:" + sequence
+                    + " is too small. The current headSequence is:" + headSequence
+                    + " tailSequence is:" + tailSequence, headSequence);
+        }
+    }
+
+    @Override
+    public void set(long seq, E item) {
+        long slot = toSlot(seq);
+        freeItem(slot);
+
+        long address = NULL_ADDRESS;
+        int length = 0;
+        if (item != null) {
+            byte[] bytes = ((Data) item).toByteArray();
+            length = bytes.length;
+            address = malloc.allocate(length);
+            mem.copyFromByteArray(bytes, 0, address, length);
+        }
+        mem.putLong(slot + SEQUENCE_OFFSET, seq);
+        mem.putLong(slot + ADDRESS_OFFSET, address);
+        mem.putInt(slot + LENGTH_OFFSET, length);
+    }
+
+    @Override
+    public void clear() {
+        freeItems();
+        tailSequence = -1;
+        headSequence = tailSequence + 1;
+    }
+
+    /**
+     * Frees the native memory of the index and of the items.
+     */
+    @Override
+    public void dispose() {
+        if (indexAddress == NULL_ADDRESS) {
+            return;
+        }
+        freeItems();
+        malloc.free(indexAddress, indexSize());
+        indexAddress = NULL_ADDRESS;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ReadOnlyRingbufferIterator<E>(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned array is a copy, changes to it are not reflected in the
+     * ringbuffer.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] getItems() {
+        E[] items = (E[]) new Object[capacity];
+        for (long seq = Math.max(headSequence, tailSequence - capacity + 1); seq <= tailSequence; seq++) {
+            items[(int) (seq % capacity)] = read(seq);
+        }
+        return items;
+    }
+
+    private long indexSize() {
+        return (long) capacity * INDEX_SLOT_SIZE;
+    }
+
+    private long toSlot(long sequence) {
+        assert indexAddress != NULL_ADDRESS : "Ringbuffer is already disposed";
+        return indexAddress + (sequence % capacity) * INDEX_SLOT_SIZE;
+    }
+
+    private void freeItems() {
+        for (long slot = indexAddress; slot < indexAddress + indexSize(); slot += INDEX_SLOT_SIZE) {
+            freeItem(slot);
+        }
+    }
+
+    private void freeItem(long slot) {
+        long address = mem.getLong(slot + ADDRESS_OFFSET);
+        if (address != NULL_ADDRESS) {
+            malloc.free(address, mem.getInt(slot + LENGTH_OFFSET));
+            mem.putLong(slot + ADDRESS_OFFSET, NULL_ADDRESS);
+        }
+        mem.putLong(slot + SEQUENCE_OFFSET, NO_SEQUENCE);
+    }
+}
@@ -19,6 +19,8 @@ package com.hazelcast.ringbuffer.impl;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.RingbufferConfig;
 import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.nio.Disposable;
 import com.hazelcast.internal.nio.IOUtil;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -27,6 +29,7 @@ import com.hazelcast.nio.serialization.HazelcastSerializationException;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.ringbuffer.StaleSequenceException;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationservice.Notifier;
 import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.spi.impl.operationservice.WaitNotifyKey;
@@ -34,7 +37,7 @@ import com.hazelcast.internal.serialization.SerializationService;
 
 import java.io.IOException;
 
-import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.config.InMemoryFormat.values;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -142,6 +145,7 @@ public class RingbufferContainer<T, E> implements IdentifiedDataSerializable, No
         this.config = config;
         this.serializationService = nodeEngine.getSerializationService();
         initRingbufferStore(nodeEngine.getConfigClassLoader());
+        moveToNativeMemory(nodeEngine);
     }
 
     private void initRingbufferStore(ClassLoader configClassLoader) {
@@ -594,7 +598,7 @@ public class RingbufferContainer<T, E> implements IdentifiedDataSerializable, No
 
         // we only write the actual content of the ringbuffer. So we don't write empty slots.
         for (long seq = ringbuffer.headSequence(); seq <= ringbuffer.tailSequence(); seq++) {
-            if (inMemoryFormat == BINARY) {
+            if (inMemoryFormat != OBJECT) {
                 IOUtil.writeData(out, (Data) ringbuffer.read(seq));
             } else {
                 out.writeObject(ringbuffer.read(seq));
@@ -621,6 +625,7 @@ public class RingbufferContainer<T, E> implements IdentifiedDataSerializable, No
         final long ttlMs = in.readLong();
         inMemoryFormat = values()[in.readInt()];
 
+        // the items stay on-heap until the container is initialized on this member
         ringbuffer = new ArrayRingbuffer(capacity);
         ringbuffer.setTailSequence(tailSequence);
         ringbuffer.setHeadSequence(headSequence);
@@ -632,7 +637,7 @@ public class RingbufferContainer<T, E> implements IdentifiedDataSerializable, No
 
         long now = System.currentTimeMillis();
         for (long seq = headSequence; seq <= tailSequence; seq++) {
-            if (inMemoryFormat == BINARY) {
+            if (inMemoryFormat != OBJECT) {
                 ringbuffer.set(seq, (E) IOUtil.readData(in));
             } else {
                 ringbuffer.set(seq, (E) in.readObject());
@@ -645,6 +650,46 @@ public class RingbufferContainer<T, E> implements IdentifiedDataSerializable, No
         }
     }
 
+    /**
+     * Moves the items of a ringbuffer with the {@link InMemoryFormat#NATIVE}
+     * in-memory format into native memory. The items stay on-heap if the
+     * member has no native memory available.
+     */
+    private void moveToNativeMemory(NodeEngine nodeEngine) {
+        if (inMemoryFormat != NATIVE || ringbuffer instanceof OffHeapRingbuffer) {
+            return;
+        }
+        MemoryManager memoryManager = ((NodeEngineImpl) nodeEngine).getNode().getNodeExtension().getNativeMemoryManager();
+        if (memoryManager == null) {
+            return;
+        }
+        Ringbuffer<E> offHeapRingbuffer = new OffHeapRingbuffer<E>((int) ringbuffer.getCapacity(), memoryManager);
+        offHeapRingbuffer.setTailSequence(ringbuffer.tailSequence());
+        offHeapRingbuffer.setHeadSequence(ringbuffer.headSequence());
+        for (long seq = ringbuffer.headSequence(); seq <= ringbuffer.tailSequence(); seq++) {
+            offHeapRingbuffer.set(seq, ringbuffer.read(seq));
+        }
+        ringbuffer = offHeapRingbuffer;
+    }
+
+    /**
+     * Returns {@code true} if the items of this container are stored in
+     * native memory which has to be released by {@link #dispose()}.
+     */
+    public boolean isOffHeap() {
+        return ringbuffer instanceof OffHeapRingbuffer;
+    }
+
+    /**
+     * Releases the native memory of an off-heap ringbuffer. The container
+     * can't be used afterwards. Must be called by the partition thread.
+     */
+    public void dispose() {
+        if (ringbuffer instanceof Disposable) {
+            ((Disposable) ringbuffer).dispose();
+        }
+    }
+
     /**
      * Returns the ringbuffer containing the actual items.
      */
@@ -40,6 +40,7 @@ import com.hazelcast.ringbuffer.impl.operations.MergeOperation;
 import com.hazelcast.ringbuffer.impl.operations.ReplicationOperation;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.merge.AbstractContainerMerger;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.merge.RingbufferMergeData;
@@ -154,17 +155,36 @@ public class RingbufferService implements ManagedService, RemoteService, Fragmen
         if (partitionContainers == null) {
             return;
         }
-        partitionContainers.remove(namespace);
+        RingbufferContainer container = partitionContainers.remove(namespace);
+        if (container != null) {
+            disposeOnPartitionThread(partitionId, container);
+        }
     }
 
     @Override
     public void reset() {
+        for (Entry<Integer, Map<ObjectNamespace, RingbufferContainer>> entry : containers.entrySet()) {
+            for (RingbufferContainer container : entry.getValue().values()) {
+                disposeOnPartitionThread(entry.getKey(), container);
+            }
+        }
         containers.clear();
     }
 
     @Override
     public void shutdown(boolean terminate) {
-        reset();
+        // the native memory of the off-heap ringbuffers is released together with the native memory manager
+        containers.clear();
+    }
+
+    /**
+     * Releases the native memory of an off-heap ringbuffer container once the
+     * operations of its partition which are already queued have completed.
+     */
+    private void disposeOnPartitionThread(int partitionId, RingbufferContainer container) {
+        if (container.isOffHeap()) {
+            nodeEngine.getOperationService().execute(new DisposeContainerTask(partitionId, container));
+        }
     }
 
     /**
@@ -238,7 +258,10 @@ public class RingbufferService implements ManagedService, RemoteService, Fragmen
         checkNotNull(ringbuffer, "ringbuffer can't be null");
         ringbuffer.init(config, nodeEngine);
         ringbuffer.getStore().instrument(nodeEngine);
-        getOrCreateRingbufferContainers(partitionId).put(ringbuffer.getNamespace(), ringbuffer);
+        RingbufferContainer previous = getOrCreateRingbufferContainers(partitionId).put(ringbuffer.getNamespace(), ringbuffer);
+        if (previous != null && previous != ringbuffer) {
+            previous.dispose();
+        }
     }
 
     @Override
@@ -300,6 +323,7 @@ public class RingbufferService implements ManagedService, RemoteService, Fragmen
             final RingbufferContainer container = entry.getValue();
             if (thresholdReplicaIndex < 0 || container.getConfig().getTotalBackupCount() < thresholdReplicaIndex) {
                 iterator.remove();
+                container.dispose();
             }
         }
     }
@@ -393,4 +417,24 @@ public class RingbufferService implements ManagedService, RemoteService, Fragmen
         }
         return name;
     }
+
+    private static final class DisposeContainerTask implements PartitionSpecificRunnable {
+        private final int partitionId;
+        private final RingbufferContainer container;
+
+        DisposeContainerTask(int partitionId, RingbufferContainer container) {
+            this.partitionId = partitionId;
+            this.container = container;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            container.dispose();
+        }
+    }
 }
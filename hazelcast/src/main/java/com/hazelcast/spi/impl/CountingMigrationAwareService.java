@@ -20,10 +20,12 @@ import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
 import com.hazelcast.internal.partition.MigrationAwareService;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.partition.ReplicaDigest;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.internal.services.ServiceNamespace;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -68,6 +70,18 @@ public class CountingMigrationAwareService implements FragmentedMigrationAwareSe
         return migrationAwareService.prepareReplicationOperation(event, namespaces);
     }
 
+    @Override
+    public ReplicaDigest createReplicaDigest(PartitionReplicationEvent event, ServiceNamespace namespace) {
+        return migrationAwareService.createReplicaDigest(event, namespace);
+    }
+
+    @Override
+    public Iterator<Operation> prepareChunkedReplicationOperations(PartitionReplicationEvent event,
+                                                                    ServiceNamespace namespace,
+                                                                    long maxChunkSizeInBytes) {
+        return migrationAwareService.prepareChunkedReplicationOperations(event, namespace, maxChunkSizeInBytes);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         if (isPrimaryReplicaMigrationEvent(event)) {
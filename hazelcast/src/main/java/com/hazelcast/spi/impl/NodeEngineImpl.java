@@ -220,6 +220,7 @@ public class NodeEngineImpl implements NodeEngine {
         serviceManager.start();
         proxyService.init();
         operationService.start();
+        eventService.start();
         splitBrainProtectionService.start();
 
         diagnostics.start();
@@ -23,6 +23,7 @@ import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.security.SimpleTokenCredentials;
 import com.hazelcast.security.UsernamePasswordCredentials;
+import com.hazelcast.spi.impl.eventservice.impl.EventBatch;
 import com.hazelcast.spi.impl.eventservice.impl.EventEnvelope;
 import com.hazelcast.spi.impl.eventservice.impl.Registration;
 import com.hazelcast.spi.impl.eventservice.impl.TrueEventFilter;
@@ -78,6 +79,7 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
     public static final int USERNAME_PWD_CRED = 23;
     public static final int SIMPLE_TOKEN_CRED = 24;
     public static final int DISTRIBUTED_OBJECT_EVENT_PACKET = 25;
+    public static final int EVENT_BATCH = 26;
 
     private static final DataSerializableFactory FACTORY = createFactoryInternal();
 
@@ -143,6 +145,8 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
                         return new SimpleTokenCredentials();
                     case DISTRIBUTED_OBJECT_EVENT_PACKET:
                         return new DistributedObjectEventPacket();
+                    case EVENT_BATCH:
+                        return new EventBatch();
                     default:
                         return null;
                 }
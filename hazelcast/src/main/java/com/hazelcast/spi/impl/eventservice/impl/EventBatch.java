@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.eventservice.impl;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of events published to the same listener registration. It is sent as the event of an {@link EventEnvelope}
+ * and its events are dispatched one after the other, in the order they were published.
+ *
+ * @see EventBatcher
+ */
+public final class EventBatch implements IdentifiedDataSerializable {
+
+    private long creationTime;
+    private List<Object> events;
+
+    public EventBatch() {
+    }
+
+    EventBatch(long creationTime, List<Object> events) {
+        this.creationTime = creationTime;
+        this.events = events;
+    }
+
+    /** The cluster time when the first event of the batch was published. */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public List<Object> getEvents() {
+        return events;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SpiDataSerializerHook.EVENT_BATCH;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(creationTime);
+        out.writeInt(events.size());
+        for (Object event : events) {
+            IOUtil.writeObject(out, event);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        creationTime = in.readLong();
+        int size = in.readInt();
+        events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(IOUtil.readObject(in));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventBatch{creationTime=" + creationTime + ", size=" + events.size() + '}';
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.eventservice.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.spi.impl.eventservice.EventRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.internal.util.HashUtil.hashToIndex;
+
+/**
+ * Collects the remote events published to the same listener registration and sends them as an {@link EventBatch}.
+ * A batch is sent when it reaches the maximum batch size or when it is flushed by the periodic task scheduled by
+ * the {@link EventServiceImpl}.
+ * <p>
+ * The events are batched per subscriber, registration and stripe of their order key. A batch is sent with the stripe
+ * as its order key and the batches of the same stripe are sent in order, which means that the events with the same
+ * order key are processed in the order they were published, on the same event thread of the subscriber.
+ */
+final class EventBatcher {
+
+    private final EventServiceImpl eventService;
+    private final int maxBatchSize;
+    private final int stripeCount;
+    private final ConcurrentMap<BatchKey, PendingBatch> batches = new ConcurrentHashMap<>();
+
+    EventBatcher(EventServiceImpl eventService, int maxBatchSize, int stripeCount) {
+        this.eventService = eventService;
+        this.maxBatchSize = maxBatchSize;
+        this.stripeCount = stripeCount;
+    }
+
+    /** Adds the {@code event} to the batch of the remote {@code registration}, sending the batch if it is full. */
+    void add(EventRegistration registration, String serviceName, Object event, int orderKey) {
+        BatchKey key = new BatchKey(registration.getSubscriber(), registration.getId(), hashToIndex(orderKey, stripeCount));
+        while (true) {
+            PendingBatch batch = batches.computeIfAbsent(key, k -> new PendingBatch(k, serviceName));
+            if (batch.add(event)) {
+                return;
+            }
+        }
+    }
+
+    /** Sends all pending events. The batches which have been idle since the last flush are discarded. */
+    void flush() {
+        for (PendingBatch batch : batches.values()) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * Discards the pending events of the {@code subscriber}. The batches are marked as discarded before they are
+     * removed, so that an event concurrently added to one of them goes to a new batch instead of one never flushed.
+     */
+    void onMemberLeft(Address subscriber) {
+        for (PendingBatch batch : batches.values()) {
+            if (batch.key.subscriber.equals(subscriber)) {
+                batch.discard();
+            }
+        }
+    }
+
+    void clear() {
+        batches.clear();
+    }
+
+    private final class PendingBatch {
+        private final BatchKey key;
+        private final String serviceName;
+        private List<Object> events = new ArrayList<>();
+        private long creationTime;
+        private boolean discarded;
+
+        PendingBatch(BatchKey key, String serviceName) {
+            this.key = key;
+            this.serviceName = serviceName;
+        }
+
+        /** Returns {@code false} if this batch has been discarded and the event should be added to a new one. */
+        synchronized boolean add(Object event) {
+            if (discarded) {
+                return false;
+            }
+            if (events.isEmpty()) {
+                creationTime = eventService.nodeEngine.getClusterService().getClusterTime();
+            }
+            events.add(event);
+            if (events.size() >= maxBatchSize) {
+                send();
+            }
+            return true;
+        }
+
+        synchronized void flush() {
+            if (events.isEmpty()) {
+                discard();
+            } else {
+                send();
+            }
+        }
+
+        synchronized void discard() {
+            discarded = true;
+            batches.remove(key, this);
+        }
+
+        /** Sends the events while holding the lock, so that the batches of the same stripe leave in order. */
+        private void send() {
+            EventEnvelope envelope = new EventEnvelope(key.registrationId, serviceName, new EventBatch(creationTime, events));
+            eventService.sendEvent(key.subscriber, envelope, key.stripe);
+            eventService.onBatchSent(events.size());
+            events = new ArrayList<>();
+        }
+    }
+
+    private static final class BatchKey {
+        private final Address subscriber;
+        private final UUID registrationId;
+        private final int stripe;
+
+        BatchKey(Address subscriber, UUID registrationId, int stripe) {
+            this.subscriber = subscriber;
+            this.registrationId = registrationId;
+            this.stripe = stripe;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey that = (BatchKey) o;
+            return stripe == that.stripe
+                    && subscriber.equals(that.subscriber)
+                    && registrationId.equals(that.registrationId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subscriber, registrationId, stripe);
+        }
+    }
+}
@@ -47,23 +47,32 @@ public class EventProcessor implements StripedRunnable {
 
     /**
      * Processes the event by dispatching it on the responsible {@link EventPublishingService}
-     * together with the listener responsible for the event.
+     * together with the listener responsible for the event. The events of an {@link EventBatch}
+     * are dispatched one after the other.
      *
      * @param envelope the event to be processed
      * @see EventPublishingService#dispatchEvent(Object, Object)
      */
     void process(EventEnvelope envelope) {
-        Object event = getEvent(envelope);
+        Object event = envelope.getEvent();
+        if (event instanceof EventBatch) {
+            eventService.onBatchReceived((EventBatch) event);
+        }
         String serviceName = envelope.getServiceName();
         EventPublishingService<Object, Object> service = eventService.nodeEngine.getService(serviceName);
         Registration registration = getRegistration(envelope, serviceName);
         if (registration == null) {
             return;
         }
-        service.dispatchEvent(event, registration.getListener());
+        if (event instanceof EventBatch) {
+            for (Object batchedEvent : ((EventBatch) event).getEvents()) {
+                service.dispatchEvent(toObject(batchedEvent), registration.getListener());
+            }
+        } else {
+            service.dispatchEvent(toObject(event), registration.getListener());
+        }
     }
 
-
     /**
      * Returns the local registration responsible for the event and service or {@code null} if none exists,
      * the registration is not local or there is no listener in the registration.
@@ -107,11 +116,10 @@ public class EventProcessor implements StripedRunnable {
         return registration;
     }
 
-    /** Returns the deserialized event object contained in the {@code eventEnvelope} */
-    private Object getEvent(EventEnvelope eventEnvelope) {
-        Object event = eventEnvelope.getEvent();
+    /** Returns the deserialized {@code event} */
+    private Object toObject(Object event) {
         if (event instanceof Data) {
-            event = eventService.nodeEngine.toObject(event);
+            return eventService.nodeEngine.toObject(event);
         }
         return event;
     }
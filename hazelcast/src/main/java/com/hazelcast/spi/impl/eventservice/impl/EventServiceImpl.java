@@ -19,7 +19,9 @@ package com.hazelcast.spi.impl.eventservice.impl;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.cluster.impl.MemberImpl;
 import com.hazelcast.internal.cluster.ClusterService;
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
 import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.metrics.StaticMetricsProvider;
@@ -30,6 +32,7 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.UuidUtil;
 import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.internal.util.executor.QueueLatencyHistogram;
 import com.hazelcast.internal.util.executor.StripedExecutor;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.NodeEngineImpl;
@@ -49,6 +52,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -61,25 +65,42 @@ import java.util.logging.Level;
 
 import static com.hazelcast.instance.EndpointQualifier.MEMBER;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_DISCRIMINATOR_SERVICE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_DISCRIMINATOR_STRIPE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_RECEIVED;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_SENT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_BATCHES_RECEIVED;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_BATCHES_SENT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_BATCH_DELIVERY_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_EVENTS_PROCESSED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_EVENT_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_QUEUE_CAPACITY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_REJECTED_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_STOLEN_STRIPE_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_STRIPE_QUEUE_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_SYNC_DELIVERY_FAILURE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_THREAD_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_METRIC_EVENT_SERVICE_TOTAL_FAILURE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_PREFIX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.EVENT_TAG_UPPER_BOUND_MICROS;
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.internal.metrics.ProbeUnit.COUNT;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
 import static com.hazelcast.internal.util.ConcurrencyUtil.CALLER_RUNS;
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
 import static com.hazelcast.internal.util.FutureUtil.getValue;
 import static com.hazelcast.internal.util.InvocationUtil.invokeOnStableClusterSerial;
+import static com.hazelcast.internal.util.Preconditions.checkNotNegative;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
 import static com.hazelcast.internal.util.ThreadUtil.createThreadName;
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.spi.impl.InternalCompletableFuture.newCompletedFuture;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_BATCH_MAX_DELAY_MILLIS;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_BATCH_MAX_SIZE;
 import static com.hazelcast.spi.properties.ClusterProperty.EVENT_QUEUE_CAPACITY;
 import static com.hazelcast.spi.properties.ClusterProperty.EVENT_QUEUE_TIMEOUT_MILLIS;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_STRIPE_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.EVENT_SYNC_TIMEOUT_MILLIS;
 import static com.hazelcast.spi.properties.ClusterProperty.EVENT_THREAD_COUNT;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -106,9 +127,16 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  * This order can still be broken in some cases. This is possible because remote events are asynchronous
  * and we don't wait for the response before publishing the next event. The previously published
  * event can be retransmitted causing it to be received by the target node at a later time.
+ * <p>
+ * If {@link com.hazelcast.spi.properties.ClusterProperty#EVENT_BATCH_MAX_DELAY_MILLIS} is set, the remote events
+ * are not sent one by one but collected by an {@link EventBatcher} and sent in batches, one per registration
+ * and order key stripe. A batch is processed as a single task on the subscriber.
+ * <p>
+ * If {@link com.hazelcast.spi.properties.ClusterProperty#EVENT_STRIPE_COUNT} is set, the executor runs in work
+ * stealing mode and the queue latencies of its stripes are published as histograms by the metrics registry.
  */
 @SuppressWarnings({"checkstyle:classfanoutcomplexity", "checkstyle:methodcount"})
-public class EventServiceImpl implements EventService, StaticMetricsProvider {
+public class EventServiceImpl implements EventService, StaticMetricsProvider, DynamicMetricsProvider {
 
     public static final String SERVICE_NAME = "hz:core:eventService";
 
@@ -173,11 +201,26 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
     private final MwCounter rejectedCount = newMwCounter();
     @Probe(name = EVENT_METRIC_EVENT_SERVICE_SYNC_DELIVERY_FAILURE_COUNT)
     private final MwCounter syncDeliveryFailureCount = newMwCounter();
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_BATCHES_SENT)
+    private final MwCounter batchesSent = newMwCounter();
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_SENT)
+    private final MwCounter batchedEventsSent = newMwCounter();
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_BATCHES_RECEIVED)
+    private final MwCounter batchesReceived = newMwCounter();
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_BATCHED_EVENTS_RECEIVED)
+    private final MwCounter batchedEventsReceived = newMwCounter();
+    /** The total time in milliseconds between the creation and the receipt of the received batches. */
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_BATCH_DELIVERY_LATENCY, unit = MS)
+    private final MwCounter batchDeliveryLatency = newMwCounter();
 
     private final int sendEventSyncTimeoutMillis;
 
     private final InternalSerializationService serializationService;
     private final int eventSyncFrequency;
+    /** The maximum time in milliseconds a remote event is held back in a batch, {@code 0} if batching is disabled. */
+    private final long eventBatchMaxDelayMs;
+    /** Collects the remote events into batches, {@code null} if batching is disabled. */
+    private final EventBatcher eventBatcher;
 
     public EventServiceImpl(NodeEngineImpl nodeEngine) {
         this.nodeEngine = nodeEngine;
@@ -189,16 +232,41 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         this.eventQueueTimeoutMs = hazelcastProperties.getMillis(EVENT_QUEUE_TIMEOUT_MILLIS);
         this.sendEventSyncTimeoutMillis = hazelcastProperties.getInteger(EVENT_SYNC_TIMEOUT_MILLIS);
         this.eventSyncFrequency = loadEventSyncFrequency();
+        this.eventBatchMaxDelayMs = hazelcastProperties.getMillis(EVENT_BATCH_MAX_DELAY_MILLIS);
+        if (eventBatchMaxDelayMs > 0) {
+            int eventBatchMaxSize = hazelcastProperties.getInteger(EVENT_BATCH_MAX_SIZE);
+            checkPositive(eventBatchMaxSize, EVENT_BATCH_MAX_SIZE.getName() + " must be positive");
+            this.eventBatcher = new EventBatcher(this, eventBatchMaxSize, eventThreadCount);
+        } else {
+            this.eventBatcher = null;
+        }
+
+        int eventStripeCount = hazelcastProperties.getInteger(EVENT_STRIPE_COUNT);
+        checkNotNegative(eventStripeCount, EVENT_STRIPE_COUNT.getName() + " must not be negative");
 
         this.eventExecutor = new StripedExecutor(
                 nodeEngine.getNode().getLogger(EventServiceImpl.class),
                 createThreadName(nodeEngine.getHazelcastInstance().getName(), "event"),
                 eventThreadCount,
-                eventQueueCapacity);
+                eventQueueCapacity,
+                false,
+                eventStripeCount);
         this.segments = new ConcurrentHashMap<>();
     }
 
 
+    /**
+     * Registers the queue latency metrics of the executor stripes and schedules the periodic flush of the event
+     * batches, if the event batching is enabled.
+     */
+    public void start() {
+        nodeEngine.getMetricsRegistry().registerDynamicMetricsProvider(this);
+        if (eventBatcher != null) {
+            nodeEngine.getExecutionService().scheduleWithRepetition(eventBatcher::flush,
+                    eventBatchMaxDelayMs, eventBatchMaxDelayMs, MILLISECONDS);
+        }
+    }
+
     private static int loadEventSyncFrequency() {
         try {
             int eventSyncFrequency = Integer.parseInt(System.getProperty(EVENT_SYNC_FREQUENCY_PROP));
@@ -216,6 +284,27 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         registry.registerStaticMetrics(this, EVENT_PREFIX);
     }
 
+    /** Publishes the non-empty buckets of the queue latency histograms of the executor stripes. */
+    @Override
+    public void provideDynamicMetrics(MetricDescriptor descriptor, MetricsCollectionContext context) {
+        List<QueueLatencyHistogram> histograms = eventExecutor.getQueueLatencyHistograms();
+        for (int stripe = 0; stripe < histograms.size(); stripe++) {
+            QueueLatencyHistogram histogram = histograms.get(stripe);
+            for (int bucket = 0; bucket < histogram.bucketCount(); bucket++) {
+                long count = histogram.count(bucket);
+                if (count == 0) {
+                    continue;
+                }
+                MetricDescriptor bucketDescriptor = descriptor
+                        .copy()
+                        .withPrefix(EVENT_PREFIX)
+                        .withDiscriminator(EVENT_DISCRIMINATOR_STRIPE, String.valueOf(stripe))
+                        .withTag(EVENT_TAG_UPPER_BOUND_MICROS, String.valueOf(histogram.upperBoundMicros(bucket)));
+                context.collect(bucketDescriptor, EVENT_METRIC_EVENT_SERVICE_STRIPE_QUEUE_LATENCY, INFO, COUNT, count);
+            }
+        }
+    }
+
     @Override
     public void close(EventRegistration eventRegistration) {
         Registration registration = (Registration) eventRegistration;
@@ -253,6 +342,11 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         return eventExecutor.processedCount();
     }
 
+    @Probe(name = EVENT_METRIC_EVENT_SERVICE_STOLEN_STRIPE_COUNT)
+    private long stolenStripeCount() {
+        return eventExecutor.stolenStripeCount();
+    }
+
     @Override
     public EventRegistration registerLocalListener(@Nonnull String serviceName,
                                                    @Nonnull String topic,
@@ -468,8 +562,7 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         if (isLocal(registration)) {
             executeLocal(serviceName, event, registration, orderKey);
         } else {
-            EventEnvelope eventEnvelope = new EventEnvelope(registration.getId(), serviceName, event);
-            sendEvent(registration.getSubscriber(), eventEnvelope, orderKey);
+            sendEvent(registration, serviceName, event, orderKey);
         }
     }
 
@@ -488,8 +581,7 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
             if (eventData == null) {
                 eventData = serializationService.toData(event);
             }
-            EventEnvelope eventEnvelope = new EventEnvelope(registration.getId(), serviceName, eventData);
-            sendEvent(registration.getSubscriber(), eventEnvelope, orderKey);
+            sendEvent(registration, serviceName, eventData, orderKey);
         }
     }
 
@@ -515,8 +607,7 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
             if (isLocal(registration)) {
                 continue;
             }
-            EventEnvelope eventEnvelope = new EventEnvelope(registration.getId(), serviceName, eventData);
-            sendEvent(registration.getSubscriber(), eventEnvelope, orderKey);
+            sendEvent(registration, serviceName, eventData, orderKey);
         }
     }
 
@@ -554,6 +645,19 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         }
     }
 
+    /**
+     * Sends a remote event to the subscriber of the {@code registration} or adds it to the batch of the registration
+     * if the event batching is enabled.
+     */
+    private void sendEvent(EventRegistration registration, String serviceName, Object event, int orderKey) {
+        if (eventBatcher != null) {
+            eventBatcher.add(registration, serviceName, event, orderKey);
+        } else {
+            EventEnvelope eventEnvelope = new EventEnvelope(registration.getId(), serviceName, event);
+            sendEvent(registration.getSubscriber(), eventEnvelope, orderKey);
+        }
+    }
+
     /**
      * Sends a remote event to the {@code subscriber}.
      * Each event segment keeps track of the published event count. On every {@link #eventSyncFrequency} the event will
@@ -563,7 +667,7 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
      * Otherwise, we send an asynchronous event. This means that we don't wait to see if the processing failed with an
      * exception (see {@link RemoteEventProcessor})
      */
-    private void sendEvent(Address subscriber, EventEnvelope eventEnvelope, int orderKey) {
+    void sendEvent(Address subscriber, EventEnvelope eventEnvelope, int orderKey) {
         String serviceName = eventEnvelope.getServiceName();
         EventServiceSegment segment = getSegment(serviceName, true);
         boolean sync = segment.incrementPublish() % eventSyncFrequency == 0;
@@ -594,6 +698,20 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         }
     }
 
+    /** Updates the metrics of the sent batches. */
+    void onBatchSent(int batchSize) {
+        batchesSent.inc();
+        batchedEventsSent.inc(batchSize);
+    }
+
+    /** Updates the metrics of the received batches. */
+    void onBatchReceived(EventBatch batch) {
+        batchesReceived.inc();
+        batchedEventsReceived.inc(batch.getEvents().size());
+        long latency = nodeEngine.getClusterService().getClusterTime() - batch.getCreationTime();
+        batchDeliveryLatency.inc(Math.max(latency, 0));
+    }
+
     /**
      * Returns the {@link EventServiceSegment} for the {@code service}. If the segment is {@code null} and
      * {@code forceCreate} is {@code true}, the segment is created and registered with the {@link MetricsRegistry}.
@@ -705,6 +823,9 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
     public void shutdown() {
         logger.finest("Stopping event executor...");
         eventExecutor.shutdown();
+        if (eventBatcher != null) {
+            eventBatcher.clear();
+        }
         for (EventServiceSegment segment : segments.values()) {
             segment.clear();
         }
@@ -716,6 +837,9 @@ public class EventServiceImpl implements EventService, StaticMetricsProvider {
         for (EventServiceSegment segment : segments.values()) {
             segment.onMemberLeft(address);
         }
+        if (eventBatcher != null) {
+            eventBatcher.onMemberLeft(address);
+        }
     }
 
     /**
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.IdleStrategy;
+import com.hazelcast.internal.util.concurrent.ManyToOneConcurrentArrayQueue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+
+/**
+ * An {@link OperationQueue} for a single consumer thread which keeps the
+ * normal tasks in a bounded {@link ManyToOneConcurrentArrayQueue}, so adding
+ * and taking a task neither allocates nor takes a lock.
+ * <p>
+ * When the array is full, tasks spill over into an unbounded overflow queue.
+ * Once a task went there, producers keep using the overflow queue until the
+ * consumer has drained it, so the tasks of a single producer stay ordered.
+ * <p>
+ * The consumer drains up to {@code batchSize} normal tasks at once into a
+ * private array and hands them out one by one; pending priority tasks are
+ * still taken before every normal task. When there is nothing to take, the
+ * consumer idles with the {@link IdleStrategy}, or blocks until a task is
+ * added if there is none.
+ */
+public final class ArrayOperationQueue implements OperationQueue {
+
+    private final ManyToOneConcurrentArrayQueue<Object> normalQueue;
+    private final Queue<Object> overflowQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+    private final Queue<Object> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final IdleStrategy idleStrategy;
+
+    private final Object[] batch;
+    private final Predicate<Object> batchFiller = this::addToBatch;
+    private int batchIndex;
+    private int batchLength;
+
+    private Thread consumerThread;
+    private volatile boolean consumerParked;
+
+    /**
+     * @param capacity     capacity of the array holding the normal tasks,
+     *                     rounded up to the next power of two
+     * @param batchSize    maximum number of normal tasks drained at once
+     * @param idleStrategy the idle strategy of the consumer. If {@code null},
+     *                     the consumer blocks if the queue is empty.
+     */
+    public ArrayOperationQueue(int capacity, int batchSize, IdleStrategy idleStrategy) {
+        this.normalQueue = new ManyToOneConcurrentArrayQueue<>(checkPositive(capacity, "capacity should be positive"));
+        this.batch = new Object[checkPositive(batchSize, "batchSize should be positive")];
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Sets the consumer thread, which is woken up when a task is added while
+     * it is blocked. This method should be called before the queue is safely
+     * published.
+     *
+     * @param consumerThread the consumer thread.
+     * @throws NullPointerException when consumerThread null.
+     */
+    public void setConsumerThread(Thread consumerThread) {
+        this.consumerThread = checkNotNull(consumerThread, "consumerThread can't be null");
+    }
+
+    @Override
+    public int normalSize() {
+        return normalQueue.size() + overflowSize.get() + Math.max(batchLength - batchIndex, 0);
+    }
+
+    @Override
+    public int prioritySize() {
+        return priorityQueue.size();
+    }
+
+    @Override
+    public int size() {
+        return normalSize() + prioritySize();
+    }
+
+    @Override
+    public void add(Object task, boolean priority) {
+        checkNotNull(task, "task can't be null");
+
+        if (priority) {
+            priorityQueue.add(task);
+        } else if (overflowSize.get() > 0 || !normalQueue.offer(task)) {
+            overflowSize.incrementAndGet();
+            overflowQueue.add(task);
+        }
+
+        if (consumerParked) {
+            LockSupport.unpark(consumerThread);
+        }
+    }
+
+    @Override
+    public Object take(boolean priorityOnly) throws InterruptedException {
+        for (long iteration = 0; ; iteration++) {
+            Object item = priorityQueue.poll();
+            if (item != null) {
+                return item;
+            }
+
+            if (!priorityOnly) {
+                item = nextNormal();
+                if (item != null) {
+                    return item;
+                }
+            }
+
+            idle(iteration, priorityOnly);
+        }
+    }
+
+    private Object nextNormal() {
+        if (batchIndex == batchLength) {
+            batchIndex = 0;
+            batchLength = 0;
+            normalQueue.drain(batchFiller);
+            if (batchLength == 0) {
+                return pollOverflow();
+            }
+        }
+        Object item = batch[batchIndex];
+        batch[batchIndex++] = null;
+        return item;
+    }
+
+    private boolean addToBatch(Object item) {
+        batch[batchLength++] = item;
+        return batchLength < batch.length;
+    }
+
+    private Object pollOverflow() {
+        if (overflowSize.get() == 0) {
+            return null;
+        }
+        Object item = overflowQueue.poll();
+        if (item != null) {
+            overflowSize.decrementAndGet();
+        }
+        return item;
+    }
+
+    private void idle(long iteration, boolean priorityOnly) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        if (idleStrategy != null) {
+            idleStrategy.idle(iteration);
+            return;
+        }
+
+        consumerParked = true;
+        try {
+            // the size of the array queue is based on its tail, which producers
+            // advance with a CAS before they check if the consumer is parked
+            if (priorityQueue.isEmpty()
+                    && (priorityOnly || (normalQueue.size() == 0 && overflowSize.get() == 0))) {
+                LockSupport.park(this);
+            }
+        } finally {
+            consumerParked = false;
+        }
+    }
+}
@@ -90,6 +90,17 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public final class OperationExecutorImpl implements OperationExecutor, StaticMetricsProvider {
     private static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.operation.partitionthread.idlestrategy", "block");
+    /**
+     * The queue implementation of the partition threads: {@code linked}
+     * for the {@link MPSCQueue} based queue or {@code array} for the
+     * {@link ArrayOperationQueue}.
+     */
+    private static final HazelcastProperty QUEUE_TYPE
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue", "linked");
+    private static final HazelcastProperty QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.capacity", 16384);
+    private static final HazelcastProperty QUEUE_BATCH_SIZE
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.batch.size", 64);
     private static final int TERMINATION_TIMEOUT_SECONDS = 3;
 
     private final ILogger logger;
@@ -154,19 +165,31 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         int threadCount = properties.getInteger(PARTITION_OPERATION_THREAD_COUNT);
 
         IdleStrategy idleStrategy = getIdleStrategy(properties, IDLE_STRATEGY);
+        boolean arrayQueue = isArrayQueue(properties);
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = createThreadPoolName(hzName, "partition-operation") + threadId;
-            // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
-            MPSCQueue<Object> normalQueue = new MPSCQueue<Object>(idleStrategy);
+            PartitionOperationThread partitionThread;
+            if (arrayQueue) {
+                ArrayOperationQueue operationQueue = new ArrayOperationQueue(properties.getInteger(QUEUE_CAPACITY),
+                        properties.getInteger(QUEUE_BATCH_SIZE), idleStrategy);
 
-            OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
+                partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
+                        nodeExtension, partitionOperationRunners, configClassLoader);
 
-            PartitionOperationThread partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
-                    nodeExtension, partitionOperationRunners, configClassLoader);
+                operationQueue.setConsumerThread(partitionThread);
+            } else {
+                // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
+                MPSCQueue<Object> normalQueue = new MPSCQueue<Object>(idleStrategy);
+
+                OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
+
+                partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
+                        nodeExtension, partitionOperationRunners, configClassLoader);
 
+                normalQueue.setConsumerThread(partitionThread);
+            }
             threads[threadId] = partitionThread;
-            normalQueue.setConsumerThread(partitionThread);
         }
 
         // we need to assign the PartitionOperationThreads to all OperationRunners they own
@@ -180,6 +203,17 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         return threads;
     }
 
+    private static boolean isArrayQueue(HazelcastProperties properties) {
+        String queueType = properties.getString(QUEUE_TYPE);
+        if ("array".equals(queueType)) {
+            return true;
+        } else if ("linked".equals(queueType)) {
+            return false;
+        } else {
+            throw new IllegalStateException("Unrecognized " + QUEUE_TYPE.getName() + " value=" + queueType);
+        }
+    }
+
     static int getPartitionThreadId(int partitionId, int partitionThreadCount) {
         return partitionId % partitionThreadCount;
     }
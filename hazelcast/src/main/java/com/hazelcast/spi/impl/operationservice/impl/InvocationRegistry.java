@@ -22,15 +22,20 @@ import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.metrics.StaticMetricsProvider;
+import com.hazelcast.internal.util.QuickMath;
 import com.hazelcast.internal.util.RuntimeAvailableProcessors;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.sequence.CallIdSequence;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_INVOCATION_REGISTRY_INVOCATIONS_LAST_CALL_ID;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_INVOCATION_REGISTRY_INVOCATIONS_PENDING;
@@ -50,14 +55,10 @@ import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setCallI
  * {@link com.hazelcast.spi.impl.operationservice.impl.responses.Response} comes in, the
  * appropriate invocation can be looked up.
  * <p>
- * Some ideas:
- * <ul>
- * <li>Use a ringbuffer to store all invocations instead of a CHM. The call ID can be used as sequence ID for this
- * ringbuffer. It can be that you run in slots that have not been released; if that happens, just keep increasing
- * the sequence (although you now get sequence-gaps).</li>
- * <li>Pre-allocate all invocations. Because the ringbuffer has a fixed capacity, pre-allocation should be easy. Also
- * the PartitionInvocation and TargetInvocation can be folded into Invocation.</li>
- * </ul>
+ * The invocations are stored in stripes of primitive long keyed open addressing maps, each stripe
+ * guarded by its own lock. Call IDs are sequential, so consecutive invocations end up in different
+ * stripes. Registering and deregistering an invocation neither boxes the call ID nor allocates a
+ * map node; only growing a stripe and iterating over the registry allocate.
  */
 public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsProvider {
 
@@ -69,8 +70,8 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
     private static final float LOAD_FACTOR = 0.75f;
     private static final double HUNDRED_PERCENT = 100d;
 
-    @Probe(name = OPERATION_METRIC_INVOCATION_REGISTRY_INVOCATIONS_PENDING, level = MANDATORY)
-    private final ConcurrentMap<Long, Invocation> invocations;
+    private final Stripe[] stripes;
+    private final int stripeMask;
     private final ILogger logger;
     private final CallIdSequence callIdSequence;
 
@@ -84,7 +85,13 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
         boolean reallyMultiCore = coreSize >= CORE_SIZE_CHECK;
         int concurrencyLevel = reallyMultiCore ? coreSize * CORE_SIZE_FACTOR : CONCURRENCY_LEVEL;
 
-        this.invocations = new ConcurrentHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, concurrencyLevel);
+        int stripeCount = QuickMath.nextPowerOfTwo(concurrencyLevel);
+        int stripeCapacity = QuickMath.nextPowerOfTwo((int) (INITIAL_CAPACITY / LOAD_FACTOR / stripeCount) + 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.stripeMask = stripeCount - 1;
     }
 
     @Override
@@ -99,7 +106,7 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
             return 0;
         }
 
-        return (HUNDRED_PERCENT * invocations.size()) / maxConcurrentInvocations;
+        return (HUNDRED_PERCENT * size()) / maxConcurrentInvocations;
     }
 
     @Probe(name = OPERATION_METRIC_INVOCATION_REGISTRY_INVOCATIONS_LAST_CALL_ID)
@@ -128,7 +135,7 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
             callIdSequence.complete();
             throw e;
         }
-        invocations.put(callId, invocation);
+        stripe(callId).put(callId, invocation);
         if (!alive) {
             invocation.notifyError(new HazelcastInstanceNotActiveException());
             return false;
@@ -147,7 +154,8 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
         if (!deactivate(invocation.op)) {
             return false;
         }
-        invocations.remove(invocation.op.getCallId());
+        long callId = invocation.op.getCallId();
+        stripe(callId).remove(callId);
         callIdSequence.complete();
         return true;
     }
@@ -157,22 +165,35 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
      *
      * @return the number of pending invocations
      */
+    @Probe(name = OPERATION_METRIC_INVOCATION_REGISTRY_INVOCATIONS_PENDING, level = MANDATORY)
     public int size() {
-        return invocations.size();
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
     }
 
+    /**
+     * Returns a weakly consistent iterator over the pending invocations. The invocations
+     * of a stripe are copied when the iterator reaches the stripe, so the registry can
+     * be modified while iterating.
+     */
     @Override
     public Iterator<Invocation> iterator() {
-        return invocations.values().iterator();
+        return new InvocationIterator();
     }
 
     /**
-     * Intention to expose the entry set is to mutate it.
+     * Returns a view of the pending invocations by call ID, backed by this
+     * registry. The view is weakly consistent like {@link #iterator()}. Intention
+     * to expose the entry set is to mutate it: removing an entry through the view
+     * or its iterator removes the invocation from this registry.
      *
      * @return set of invocations in this registry
      */
     public Set<Map.Entry<Long, Invocation>> entrySet() {
-        return invocations.entrySet();
+        return new EntrySet();
     }
 
     /**
@@ -182,7 +203,7 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
      * @return the Invocation for the given call ID, or {@code null} if no invocation was found.
      */
     public Invocation get(long callId) {
-        return invocations.get(callId);
+        return stripe(callId).get(callId);
     }
 
     public void reset(Throwable cause) {
@@ -206,4 +227,136 @@ public class InvocationRegistry implements Iterable<Invocation>, StaticMetricsPr
             }
         }
     }
+
+    private Stripe stripe(long callId) {
+        return stripes[(int) callId & stripeMask];
+    }
+
+    /**
+     * A part of the registry, all accesses are guarded by the stripe itself.
+     */
+    private static final class Stripe {
+        private final Long2ObjectHashMap<Invocation> invocations;
+
+        Stripe(int initialCapacity) {
+            this.invocations = new Long2ObjectHashMap<>(initialCapacity, LOAD_FACTOR);
+        }
+
+        synchronized void put(long callId, Invocation invocation) {
+            invocations.put(callId, invocation);
+        }
+
+        synchronized void remove(long callId) {
+            invocations.remove(callId);
+        }
+
+        synchronized Invocation get(long callId) {
+            return invocations.get(callId);
+        }
+
+        synchronized int size() {
+            return invocations.size();
+        }
+
+        synchronized void copyTo(List<Invocation> target) {
+            target.addAll(invocations.values());
+        }
+
+        synchronized void copyEntriesTo(List<Map.Entry<Long, Invocation>> target) {
+            for (Map.Entry<Long, Invocation> entry : invocations.entrySet()) {
+                target.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        synchronized boolean isEmpty() {
+            return invocations.isEmpty();
+        }
+    }
+
+    /**
+     * Iterates over the stripes, copying the contents of a stripe when the
+     * iteration reaches it.
+     */
+    private abstract class StripeIterator<E> implements Iterator<E> {
+        final List<E> batch = new ArrayList<>();
+        int stripeIndex;
+        int batchIndex;
+
+        abstract void copy(Stripe stripe, List<E> target);
+
+        @Override
+        public boolean hasNext() {
+            while (batchIndex == batch.size()) {
+                if (stripeIndex == stripes.length) {
+                    return false;
+                }
+                batch.clear();
+                batchIndex = 0;
+                copy(stripes[stripeIndex++], batch);
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(batchIndex++);
+        }
+    }
+
+    private final class InvocationIterator extends StripeIterator<Invocation> {
+        @Override
+        void copy(Stripe stripe, List<Invocation> target) {
+            stripe.copyTo(target);
+        }
+    }
+
+    private final class EntryIterator extends StripeIterator<Map.Entry<Long, Invocation>> {
+        private Map.Entry<Long, Invocation> lastReturned;
+
+        @Override
+        void copy(Stripe stripe, List<Map.Entry<Long, Invocation>> target) {
+            stripe.copyEntriesTo(target);
+        }
+
+        @Override
+        public Map.Entry<Long, Invocation> next() {
+            lastReturned = super.next();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            long callId = lastReturned.getKey();
+            stripe(callId).remove(callId);
+            lastReturned = null;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Long, Invocation>> {
+        @Override
+        public Iterator<Map.Entry<Long, Invocation>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return InvocationRegistry.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (Stripe stripe : stripes) {
+                if (!stripe.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
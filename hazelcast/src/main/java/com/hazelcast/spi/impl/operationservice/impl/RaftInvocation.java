@@ -45,15 +45,28 @@ public class RaftInvocation extends Invocation<CPMember> {
 
     private final RaftInvocationContext raftInvocationContext;
     private final CPGroupId groupId;
+    private final CPMember preferredTarget;
+    private volatile boolean preferredTargetInvoked;
     private volatile MemberCursor memberCursor;
     private volatile CPMember lastInvocationEndpoint;
     private volatile Throwable indeterminateException;
 
     public RaftInvocation(Context context, RaftInvocationContext raftInvocationContext, CPGroupId groupId, Operation op,
                           int retryCount, long retryPauseMillis, long callTimeoutMillis) {
+        this(context, raftInvocationContext, groupId, op, retryCount, retryPauseMillis, callTimeoutMillis, null);
+    }
+
+    /**
+     * Creates an invocation which is sent to the given preferred target first,
+     * instead of the leader, and to the leader on retries. It is used for
+     * the queries which can be served by any member of the Raft group.
+     */
+    public RaftInvocation(Context context, RaftInvocationContext raftInvocationContext, CPGroupId groupId, Operation op,
+                          int retryCount, long retryPauseMillis, long callTimeoutMillis, CPMember preferredTarget) {
         super(context, op, null, retryCount, retryPauseMillis, callTimeoutMillis, DEFAULT_DESERIALIZE_RESULT, null);
         this.raftInvocationContext = raftInvocationContext;
         this.groupId = groupId;
+        this.preferredTarget = preferredTarget;
 
         int partitionId = raftInvocationContext.getCPGroupPartitionId(groupId);
         op.setPartitionId(partitionId);
@@ -84,7 +97,10 @@ public class RaftInvocation extends Invocation<CPMember> {
 
         super.notifyNormalResponse(value, expectedBackups);
         // TODO [basri] maybe we should update known leader only if the result is not an exception?
-        raftInvocationContext.setKnownLeader(groupId, lastInvocationEndpoint);
+        if (lastInvocationEndpoint != preferredTarget) {
+            // the preferred target is not necessarily the leader
+            raftInvocationContext.setKnownLeader(groupId, lastInvocationEndpoint);
+        }
     }
 
     @Override
@@ -141,6 +157,11 @@ public class RaftInvocation extends Invocation<CPMember> {
     }
 
     private CPMember getTargetEndpoint() {
+        if (preferredTarget != null && !preferredTargetInvoked) {
+            preferredTargetInvoked = true;
+            return preferredTarget;
+        }
+
         CPMember target = raftInvocationContext.getKnownLeader(groupId);
         if (target != null) {
             return target;
@@ -45,6 +45,7 @@ import java.util.Map;
 import java.util.function.Function;
 
 import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -158,6 +159,18 @@ public final class ClusterProperty {
     public static final HazelcastProperty EVENT_THREAD_COUNT
             = new HazelcastProperty("hazelcast.event.thread.count", 5);
 
+    /**
+     * The number of stripes of the {@link com.hazelcast.spi.impl.eventservice.impl.EventServiceImpl} executor.
+     * If set, the events are queued per stripe instead of per thread and an idle event thread steals whole stripes
+     * from the busy ones, so a slow listener does not hold back the events of the other stripes of its thread.
+     * The events with the same order key are still processed in order. Set it to a multiple of the
+     * {@link #EVENT_THREAD_COUNT} to give the idle threads a chance to steal.
+     * <p>
+     * The default value {@code 0} disables the work stealing and every event thread has its own queue.
+     */
+    public static final HazelcastProperty EVENT_STRIPE_COUNT
+            = new HazelcastProperty("hazelcast.event.stripe.count", 0);
+
     /**
      * The capacity of the {@link com.hazelcast.spi.impl.eventservice.impl.EventServiceImpl} executor.
      * The executor is responsible for executing the events. If the events are produced at a higher rate than they are
@@ -190,6 +203,24 @@ public final class ClusterProperty {
     public static final HazelcastProperty EVENT_SYNC_TIMEOUT_MILLIS
             = new HazelcastProperty("hazelcast.event.sync.timeout.millis", 5000, MILLISECONDS);
 
+    /**
+     * The maximum time the remote events are held back to be sent in batches. The events published to the same
+     * listener registration on a remote member are collected and sent in a single packet, which is processed as a
+     * single task on the receiving member. The events with the same order key are still delivered in order.
+     * A batch is sent once it reaches {@link #EVENT_BATCH_MAX_SIZE} or it is older than this delay.
+     * <p>
+     * The default value {@code 0} disables the batching and every remote event is sent on its own.
+     */
+    public static final HazelcastProperty EVENT_BATCH_MAX_DELAY_MILLIS
+            = new HazelcastProperty("hazelcast.event.batch.max.delay.millis", 0, MILLISECONDS);
+
+    /**
+     * The maximum number of remote events sent in a single batch when the event batching is enabled with
+     * {@link #EVENT_BATCH_MAX_DELAY_MILLIS}.
+     */
+    public static final HazelcastProperty EVENT_BATCH_MAX_SIZE
+            = new HazelcastProperty("hazelcast.event.batch.max.size", 100);
+
 
     public static final HazelcastProperty HEALTH_MONITORING_LEVEL
             = new HazelcastProperty("hazelcast.health.monitoring.level", HealthMonitorLevel.SILENT.toString());
@@ -286,6 +317,35 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.io.write.through", true);
 
+    /**
+     * Encodes the member to member packets into a pool of buffers which are
+     * written to the socket with a single gathering write, and doesn't copy
+     * the payload of large packets at all.
+     *
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_ENABLED
+            = new HazelcastProperty("hazelcast.io.write.gathering.enabled", false);
+
+    /**
+     * The number of bytes pending on a connection from which they are written
+     * to the socket without waiting for more frames, see
+     * {@link #IO_WRITE_FLUSH_DELAY_MICROS}.
+     */
+    public static final HazelcastProperty IO_WRITE_FLUSH_THRESHOLD_BYTES
+            = new HazelcastProperty("hazelcast.io.write.flush.threshold.bytes", 64 * 1024);
+
+    /**
+     * The maximum time in microseconds the frames written to a connection are
+     * held back while less than {@link #IO_WRITE_FLUSH_THRESHOLD_BYTES} are
+     * pending, so more frames are written with a single write. This trades
+     * latency for fewer writes under many small operations.
+     *
+     * It is 0 by default, so the frames are written as soon as possible.
+     */
+    public static final HazelcastProperty IO_WRITE_FLUSH_DELAY_MICROS
+            = new HazelcastProperty("hazelcast.io.write.flush.delay.micros", 0, MICROSECONDS);
+
     /**
      * Property needed for concurrency detection so that write through can be done correctly.
      * This property sets the window the concurrency detection will signalling
@@ -590,6 +650,107 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_EVICTION_BATCH_SIZE
             = new HazelcastProperty("hazelcast.map.eviction.batch.size", 1);
 
+    /**
+     * Comma separated list of IMap names whose records are kept in native
+     * memory by the off-heap storage instead of the on-heap storage. The
+     * names may contain wildcards and are matched the same way as map
+     * configurations. Only maps with {@link com.hazelcast.config.InMemoryFormat#BINARY}
+     * in-memory format are stored off-heap, other matching maps keep using
+     * the on-heap storage.
+     *
+     * Default: empty, all maps use the on-heap storage
+     */
+    public static final HazelcastProperty MAP_OFF_HEAP_STORAGE_MAP_NAMES
+            = new HazelcastProperty("hazelcast.map.off.heap.storage.map.names", "");
+
+    /**
+     * Comma separated list of IMap names whose records are kept in the
+     * compact on-heap storage, which stores keys, values and record metadata
+     * in primitive arrays instead of one record, one key and one map node
+     * object per entry. The names may contain wildcards and are matched the
+     * same way as map configurations. Only maps with
+     * {@link com.hazelcast.config.InMemoryFormat#BINARY} in-memory format
+     * are stored compactly. Maps matched by {@link #MAP_OFF_HEAP_STORAGE_MAP_NAMES}
+     * use the off-heap storage instead.
+     *
+     * Default: empty, all maps use the default on-heap storage
+     */
+    public static final HazelcastProperty MAP_COMPACT_STORAGE_MAP_NAMES
+            = new HazelcastProperty("hazelcast.map.compact.storage.map.names", "");
+
+    /**
+     * Comma separated list of IQueue names whose items are kept in a
+     * growable circular array, with primitive {@code long} keyed maps for
+     * the backup items and the transactional reservations, instead of a
+     * linked list and boxed hash maps. This avoids allocating a list or map
+     * node per offered item. The names may contain wildcards and are
+     * matched the same way as queue configurations.
+     *
+     * Default: empty, all queues use the linked list based storage
+     */
+    public static final HazelcastProperty QUEUE_ARRAY_STORAGE_QUEUE_NAMES
+            = new HazelcastProperty("hazelcast.queue.array.storage.queue.names", "");
+
+    /**
+     * Comma separated list of IQueue names whose offers and polls without
+     * timeout are coalesced on the member into batches, each mutating the
+     * queue and sending its backups once. This applies to the asynchronous
+     * offers and polls of the members and to the offers and polls of the
+     * clients. The names may contain wildcards and are matched the same way
+     * as queue configurations.
+     * <p>
+     * The batched offers and polls keep their order among themselves, but
+     * not with respect to the other operations on the queue.
+     *
+     * Default: empty, no operations are coalesced
+     */
+    public static final HazelcastProperty QUEUE_BATCHING_QUEUE_NAMES
+            = new HazelcastProperty("hazelcast.queue.batching.queue.names", "");
+
+    /**
+     * Maximum delay, in milliseconds, of the replication of a ReplicatedMap
+     * update to the other members. The updates of all the replicated maps
+     * made during this delay are sent to each member in a single operation
+     * instead of one operation per update and member.
+     *
+     * Default: 0, each update is sent as soon as it is made
+     */
+    public static final HazelcastProperty REPLICATED_MAP_REPLICATION_BATCH_DELAY_MILLIS
+            = new HazelcastProperty("hazelcast.replicatedmap.replication.batch.delay.millis", 0, MILLISECONDS);
+
+    /**
+     * Comma separated list of IMap names whose partitions keep the queried
+     * numeric attributes of their entries in primitive columns. Partition
+     * scans evaluate equality, comparison and between predicates, and their
+     * conjunctions, and the built-in numeric aggregations over these columns
+     * instead of extracting the attribute from each entry. A column is built
+     * on the first scan using its attribute, so that scan and the ones
+     * running until the column is built use the regular path. The names may
+     * contain wildcards and are matched the same way as map configurations.
+     *
+     * Default: empty, no map keeps columns
+     */
+    public static final HazelcastProperty MAP_COLUMNAR_PROJECTION_MAP_NAMES
+            = new HazelcastProperty("hazelcast.map.columnar.projection.map.names", "");
+
+    /**
+     * Maximum amount of native memory, in megabytes, the member-wide pooled
+     * native memory manager commits for off-heap data structures such as
+     * the off-heap IMap storage. Allocations beyond this limit fail with
+     * {@link com.hazelcast.memory.NativeOutOfMemoryError}.
+     */
+    public static final HazelcastProperty NATIVE_MEMORY_POOL_CAPACITY_MB
+            = new HazelcastProperty("hazelcast.native.memory.pool.capacity.mb", 512);
+
+    /**
+     * Period, in seconds, of the maintenance of the on-disk IMap partitions
+     * when Hot Restart persistence is enabled. It compacts the partition logs
+     * whose records are mostly overwritten, and resolves the restored
+     * partitions once the member has joined the cluster.
+     */
+    public static final HazelcastProperty MAP_PERSISTENCE_COMPACTION_INTERVAL_SECONDS
+            = new HazelcastProperty("hazelcast.map.persistence.compaction.interval.seconds", 10, SECONDS);
+
     /**
      * XML and system property for setting the hot restart required free space.
      * By default, hot restart requires at least 15% free HD space.
@@ -637,6 +798,50 @@ public final class ClusterProperty {
             = new HazelcastProperty("hazelcast.partition.migration.timeout", 300, SECONDS);
     public static final HazelcastProperty PARTITION_FRAGMENTED_MIGRATION_ENABLED
             = new HazelcastProperty("hazelcast.partition.migration.fragments.enabled", true);
+    /**
+     * Enables delta replication of partition replicas. When the member which
+     * receives a replica during a migration or a backup replica sync already
+     * holds a stale copy of it, only the entries which differ from the copy
+     * are transferred. The differences are found by comparing the digests of
+     * the replica fragments. Applies to the services which support it, the
+     * others always transfer the whole replica. Disabled by default.
+     */
+    public static final HazelcastProperty PARTITION_DELTA_REPLICATION_ENABLED
+            = new HazelcastProperty("hazelcast.partition.delta.replication.enabled", false);
+    /**
+     * Enables chunked migration of partition replica fragments. A fragment
+     * of a service which supports it is transferred in chunks of at most
+     * about {@link #PARTITION_MIGRATION_CHUNK_SIZE_KB} kilobytes, which the
+     * destination applies one after the other, instead of a single operation
+     * holding the whole fragment. Works only with
+     * {@link #PARTITION_FRAGMENTED_MIGRATION_ENABLED fragmented migration}.
+     * Disabled by default.
+     */
+    public static final HazelcastProperty PARTITION_CHUNKED_MIGRATION_ENABLED
+            = new HazelcastProperty("hazelcast.partition.migration.chunks.enabled", false);
+    /**
+     * The approximate maximum size of a migration chunk in kilobytes, see
+     * {@link #PARTITION_CHUNKED_MIGRATION_ENABLED}.
+     */
+    public static final HazelcastProperty PARTITION_MIGRATION_CHUNK_SIZE_KB
+            = new HazelcastProperty("hazelcast.partition.migration.chunk.size.kb", 1024);
+    /**
+     * The maximum number of chunks of a migrating replica fragment which
+     * are sent to the destination before it acknowledges them. Together with
+     * {@link #PARTITION_MIGRATION_CHUNK_SIZE_KB}, it bounds the migration data
+     * held in memory at a time.
+     */
+    public static final HazelcastProperty PARTITION_MIGRATION_MAX_IN_FLIGHT_CHUNKS
+            = new HazelcastProperty("hazelcast.partition.migration.chunks.max.in.flight", 4);
+    /**
+     * The maximum number of partition migrations the master runs at the same
+     * time during a repartitioning. Migrations run in parallel only if they
+     * do not share a member: a member is the partition owner, the source or
+     * the destination of at most one ongoing migration at a time. Setting it
+     * to {@code 1} executes the migrations one after the other.
+     */
+    public static final HazelcastProperty PARTITION_MAX_PARALLEL_MIGRATIONS
+            = new HazelcastProperty("hazelcast.partition.max.parallel.migrations", 10);
     public static final HazelcastProperty DISABLE_STALE_READ_ON_PARTITION_MIGRATION
             = new HazelcastProperty("hazelcast.partition.migration.stale.read.disabled", false);
 
@@ -942,6 +1147,31 @@ public final class ClusterProperty {
     public static final HazelcastProperty INDEX_COPY_BEHAVIOR
             = new HazelcastProperty("hazelcast.index.copy.behavior", IndexCopyBehavior.COPY_ON_READ.toString());
 
+    /**
+     * Comma separated list of names of sorted indexes which are kept in a
+     * B+tree with packed leaves instead of a skip list holding a hash map per
+     * distinct attribute value. The names may contain wildcards and are
+     * matched the same way as map configurations. Names of indexes without an
+     * explicitly configured name are generated from the map name, the index
+     * type and the attributes, e.g. {@code employees_sorted_age}.
+     *
+     * Default: empty, all sorted indexes use the skip list
+     */
+    public static final HazelcastProperty INDEX_PACKED_SORTED_INDEX_NAMES
+            = new HazelcastProperty("hazelcast.index.packed.sorted.index.names", "");
+
+    /**
+     * Enables keeping the integral values of single attribute hash indexes
+     * by primitive long, which neither boxes the values nor allocates a map
+     * for a value held by a single entry. Only the indexes of attributes
+     * having an integral type, i.e. bytes, shorts, ints and longs, use this
+     * representation, all the other hash indexes are kept as usual.
+     *
+     * Default: {@code false}
+     */
+    public static final HazelcastProperty INDEX_LONG_HASH_ENABLED
+            = new HazelcastProperty("hazelcast.index.long.hash.enabled", false);
+
     /**
      * Forces the JCache provider, which can have values client or server, to force the provider type.
      * If not provided, the provider will be client or server, whichever is found on the classpath first respectively.
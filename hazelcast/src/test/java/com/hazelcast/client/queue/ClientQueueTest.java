@@ -23,6 +23,7 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.collection.IQueue;
 import com.hazelcast.collection.ItemEvent;
 import com.hazelcast.collection.ItemListener;
+import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelJVMTest;
@@ -41,6 +42,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -58,13 +60,15 @@ public class ClientQueueTest extends HazelcastTestSupport {
 
     private static final int MAX_SIZE_FOR_QUEUE = 8;
     private static final String QUEUE_WITH_MAX_SIZE = "queueWithMaxSize*";
+    private static final String BATCHED_QUEUE = "batchedQueue*";
 
     private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
     private HazelcastInstance client;
 
     @Before
     public void setup() {
-        Config config = new Config();
+        Config config = new Config()
+                .setProperty(ClusterProperty.QUEUE_BATCHING_QUEUE_NAMES.getName(), BATCHED_QUEUE);
 
         QueueConfig queueConfig = config.getQueueConfig(QUEUE_WITH_MAX_SIZE);
         queueConfig.setMaxSize(MAX_SIZE_FOR_QUEUE);
@@ -98,6 +102,50 @@ public class ClientQueueTest extends HazelcastTestSupport {
         q.offer(null, 1, TimeUnit.SECONDS);
     }
 
+    @Test
+    public void testOfferAsync() {
+        IQueue<Integer> q = client.getQueue(randomString());
+        assertTrue(q.offerAsync(1).toCompletableFuture().join());
+        assertEquals(1, q.size());
+    }
+
+    @Test
+    public void testOfferAsync_whenBatched() {
+        IQueue<Integer> q = client.getQueue(BATCHED_QUEUE + randomString());
+        List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(q.offerAsync(i).toCompletableFuture());
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.join());
+        }
+        assertEquals(100, q.size());
+    }
+
+    @Test
+    public void testPollAsync() {
+        IQueue<Integer> q = client.getQueue(randomString());
+        q.offer(1);
+        assertEquals(1, (int) q.pollAsync().toCompletableFuture().join());
+        assertNull(q.pollAsync().toCompletableFuture().join());
+    }
+
+    @Test
+    public void testPollAsync_whenBatched() {
+        IQueue<Integer> q = client.getQueue(BATCHED_QUEUE + randomString());
+        for (int i = 0; i < 100; i++) {
+            q.offer(i);
+        }
+        List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(q.pollAsync().toCompletableFuture());
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) futures.get(i).join());
+        }
+        assertNull(q.poll());
+    }
+
     @Test
     public void testAdd() {
         IQueue<Integer> q = client.getQueue(randomString());
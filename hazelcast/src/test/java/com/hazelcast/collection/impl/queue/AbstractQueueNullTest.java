@@ -38,6 +38,7 @@ public abstract class AbstractQueueNullTest extends HazelcastTestSupport {
         assertThrowsNPE(q -> q.removeItemListener(null));
         assertThrowsNPE(q -> q.add(null));
         assertThrowsNPE(q -> q.offer(null));
+        assertThrowsNPE(q -> q.offerAsync(null));
         assertThrowsNPE(q -> q.put(null));
         assertThrowsNPE(q -> q.offer(null, -1, sampleTimeUnit));
         assertThrowsNPE(q -> q.offer("a", -1, null));
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue;
+
+import com.hazelcast.collection.IQueue;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.collection.Long2ObjectHashMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.transaction.TransactionContext;
+import com.hazelcast.transaction.TransactionalQueue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.hazelcast.collection.impl.CollectionTestUtil.getBackupQueue;
+import static com.hazelcast.spi.properties.ClusterProperty.QUEUE_ARRAY_STORAGE_QUEUE_NAMES;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class QueueArrayStorageTest extends HazelcastTestSupport {
+
+    private static final int ITEM_COUNT = 100;
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance[] instances;
+
+    @Before
+    public void setup() {
+        Config config = smallInstanceConfig()
+                .setProperty(QUEUE_ARRAY_STORAGE_QUEUE_NAMES.getName(), "array*,*array");
+        config.getQueueConfig("default").setBackupCount(1);
+        factory = createHazelcastInstanceFactory(2);
+        instances = factory.newInstances(config);
+    }
+
+    @Test
+    public void testStorageSelection() {
+        IQueue<Integer> arrayQueue = instances[0].getQueue("arrayQueue");
+        IQueue<Integer> linkedQueue = instances[0].getQueue("linkedQueue");
+        arrayQueue.offer(1);
+        linkedQueue.offer(1);
+
+        assertTrue(getContainer(arrayQueue).getItemQueue() instanceof ArrayDeque);
+        assertTrue(getContainer(linkedQueue).getItemQueue() instanceof LinkedList);
+    }
+
+    @Test
+    public void testStorageSelection_whenPatternsAmbiguous_thenLinkedStorage() {
+        // matches both patterns equally well
+        IQueue<Integer> queue = instances[0].getQueue("array-to-array");
+        queue.offer(1);
+
+        assertTrue(getContainer(queue).getItemQueue() instanceof LinkedList);
+        assertEquals(1, (int) queue.poll());
+    }
+
+    @Test
+    public void testOfferPoll_keepsOrder() {
+        IQueue<Integer> queue = instances[0].getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, (int) queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testBackups() {
+        IQueue<Integer> queue = instances[0].getQueue("arrayQueue");
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+            expected.add(i);
+        }
+        queue.poll();
+        expected.remove(0);
+
+        HazelcastInstance backupInstance = getBackupInstance(queue);
+        List<Integer> backupItems = new ArrayList<Integer>(getBackupQueue(backupInstance, queue.getName()));
+        assertEqualsStringFormat("Expected %d backup items, but found %d", expected.size(), backupItems.size());
+        assertContainsAll(backupItems, expected);
+        assertTrue(getContainer(backupInstance, queue.getName()).getBackupMap() instanceof Long2ObjectHashMap);
+    }
+
+    @Test
+    public void testBackupPromotion_keepsOrder() {
+        IQueue<Integer> queue = instances[0].getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+        }
+        HazelcastInstance backupInstance = getBackupInstance(queue);
+        for (HazelcastInstance instance : instances) {
+            if (instance != backupInstance) {
+                instance.getLifecycleService().terminate();
+            }
+        }
+
+        IQueue<Integer> promotedQueue = backupInstance.getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, (int) promotedQueue.poll());
+        }
+        assertNull(promotedQueue.poll());
+    }
+
+    @Test
+    public void testTransactionRollback_keepsOrder() {
+        IQueue<Integer> queue = instances[0].getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+        }
+
+        TransactionContext context = instances[0].newTransactionContext();
+        context.beginTransaction();
+        TransactionalQueue<Integer> txQueue = context.getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT / 2; i++) {
+            txQueue.poll();
+        }
+        txQueue.offer(ITEM_COUNT);
+        context.rollbackTransaction();
+
+        assertEquals(ITEM_COUNT, queue.size());
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, (int) queue.poll());
+        }
+    }
+
+    @Test
+    public void testDrainToAndRemove() {
+        IQueue<Integer> queue = instances[0].getQueue("arrayQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+        }
+        assertTrue(queue.remove(ITEM_COUNT - 1));
+        assertTrue(queue.removeAll(asList(1, 3, 5)));
+
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(asList(0, 2), drained);
+
+        Iterator<Integer> iterator = queue.iterator();
+        assertEquals(4, (int) iterator.next());
+        assertEquals(ITEM_COUNT - 6, queue.size());
+    }
+
+    private HazelcastInstance getBackupInstance(IQueue<Integer> queue) {
+        HazelcastInstance owner = getOwnerInstance(queue);
+        return owner == instances[0] ? instances[1] : instances[0];
+    }
+
+    private HazelcastInstance getOwnerInstance(IQueue<Integer> queue) {
+        for (HazelcastInstance instance : instances) {
+            if (getNodeEngineImpl(instance).getPartitionService()
+                    .getPartition(((QueueProxyImpl) queue).getPartitionId()).isLocal()) {
+                return instance;
+            }
+        }
+        throw new AssertionError("No owner found for " + queue.getName());
+    }
+
+    private QueueContainer getContainer(IQueue<Integer> queue) {
+        return getContainer(getOwnerInstance(queue), queue.getName());
+    }
+
+    private static QueueContainer getContainer(HazelcastInstance instance, String name) {
+        QueueService service = getNodeEngineImpl(instance).getService(QueueService.SERVICE_NAME);
+        return service.getOrCreateContainer(name, false);
+    }
+}
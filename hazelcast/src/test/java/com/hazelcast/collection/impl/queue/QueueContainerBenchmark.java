@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.QueueConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.QUEUE_ARRAY_STORAGE_QUEUE_NAMES;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+
+/**
+ * Compares the offer, poll and drain throughput of the linked list based
+ * {@link QueueContainer} storage with the array based one selected by
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUEUE_ARRAY_STORAGE_QUEUE_NAMES}.
+ * <p>
+ * The containers are used directly, without operations, and a second
+ * container receives the backup calls. Run with {@code -prof gc} to
+ * compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class QueueContainerBenchmark {
+
+    private static final String ARRAY_QUEUE = "arrayQueue";
+    private static final String LINKED_QUEUE = "linkedQueue";
+
+    @Param({ARRAY_QUEUE, LINKED_QUEUE})
+    private String queueName;
+
+    @Param({"10000"})
+    private int queueSize;
+
+    @Param({"100"})
+    private int drainSize;
+
+    private HazelcastInstance instance;
+    private QueueContainer container;
+    private QueueContainer backupContainer;
+    private Data item;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Config config = new Config()
+                .setProperty(QUEUE_ARRAY_STORAGE_QUEUE_NAMES.getName(), ARRAY_QUEUE);
+        instance = Hazelcast.newHazelcastInstance(config);
+        NodeEngineImpl nodeEngine = getNodeEngineImpl(instance);
+        QueueService service = nodeEngine.getService(QueueService.SERVICE_NAME);
+        QueueConfig queueConfig = nodeEngine.getConfig().findQueueConfig(queueName);
+        container = new QueueContainer(queueName, queueConfig, nodeEngine, service);
+        backupContainer = new QueueContainer(queueName, queueConfig, nodeEngine, service);
+        item = nodeEngine.getSerializationService().toData("item");
+
+        // the queue is kept at a steady size, as a consumer lagging behind the producers would
+        for (int i = 0; i < queueSize; i++) {
+            offer();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public QueueItem offerPoll() {
+        offer();
+        QueueItem polled = container.poll();
+        backupContainer.pollBackup(polled.getItemId());
+        return polled;
+    }
+
+    @Benchmark
+    public Map<Long, Data> offerDrain() {
+        for (int i = 0; i < drainSize; i++) {
+            offer();
+        }
+        Map<Long, Data> drained = container.drain(drainSize);
+        backupContainer.drainFromBackup(drained.keySet());
+        return drained;
+    }
+
+    private void offer() {
+        long itemId = container.offer(item);
+        backupContainer.offerBackup(item, itemId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(QueueContainerBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
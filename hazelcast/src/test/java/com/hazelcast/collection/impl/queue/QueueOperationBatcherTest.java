@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.collection.impl.queue;
+
+import com.hazelcast.collection.IQueue;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.impl.operationparker.impl.OperationParkerImpl;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.collection.impl.CollectionTestUtil.getBackupQueue;
+import static com.hazelcast.spi.properties.ClusterProperty.QUEUE_BATCHING_QUEUE_NAMES;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class QueueOperationBatcherTest extends HazelcastTestSupport {
+
+    private static final int ITEM_COUNT = 1000;
+    private static final int MAX_SIZE = 10;
+
+    private HazelcastInstance[] instances;
+    private HazelcastInstance local;
+
+    @Before
+    public void setup() {
+        Config config = smallInstanceConfig()
+                .setProperty(QUEUE_BATCHING_QUEUE_NAMES.getName(), "batched*,*batched");
+        config.getQueueConfig("default").setBackupCount(1);
+        config.getQueueConfig("batchedBounded*").setMaxSize(MAX_SIZE);
+        instances = createHazelcastInstanceFactory(2).newInstances(config);
+        local = instances[0];
+    }
+
+    @Test
+    public void testBatcherSelection() {
+        QueueService service = getNodeEngineImpl(local).getService(QueueService.SERVICE_NAME);
+
+        assertNotNull(service.getOperationBatcher("batchedQueue"));
+        assertNull(service.getOperationBatcher("queue"));
+    }
+
+    @Test
+    public void testBatcherSelection_whenPatternsAmbiguous_thenNoBatcher() {
+        QueueService service = getNodeEngineImpl(local).getService(QueueService.SERVICE_NAME);
+        // matches both patterns equally well
+        IQueue<Integer> queue = local.getQueue("batched-or-batched");
+
+        assertNull(service.getOperationBatcher(queue.getName()));
+        assertTrue(queue.offerAsync(1).toCompletableFuture().join());
+        assertEquals(1, (int) queue.pollAsync().toCompletableFuture().join());
+    }
+
+    @Test
+    public void testOfferAsync_keepsOrder() {
+        IQueue<Integer> queue = local.getQueue("batchedQueue");
+        List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            futures.add(queue.offerAsync(i).toCompletableFuture());
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.join());
+        }
+
+        assertEquals(ITEM_COUNT, queue.size());
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, (int) queue.poll());
+        }
+    }
+
+    @Test
+    public void testPollAsync_keepsOrder() {
+        IQueue<Integer> queue = local.getQueue("batchedQueue");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.offer(i);
+        }
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i <= ITEM_COUNT; i++) {
+            futures.add(queue.pollAsync().toCompletableFuture());
+        }
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, (int) futures.get(i).join());
+        }
+        assertNull(futures.get(ITEM_COUNT).join());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testOfferAsync_whenQueueIsFull() {
+        IQueue<Integer> queue = local.getQueue("batchedBoundedQueue");
+        List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+        for (int i = 0; i < 2 * MAX_SIZE; i++) {
+            futures.add(queue.offerAsync(i).toCompletableFuture());
+        }
+
+        for (int i = 0; i < 2 * MAX_SIZE; i++) {
+            assertEquals(i < MAX_SIZE, futures.get(i).join());
+        }
+        assertEquals(MAX_SIZE, queue.size());
+    }
+
+    @Test
+    public void testOfferAndPollAsync_areBackedUp() {
+        IQueue<Integer> queue = local.getQueue("batchedQueue");
+        List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            futures.add(queue.offerAsync(i).toCompletableFuture());
+            if (i % 2 == 0) {
+                futures.add(queue.pollAsync().toCompletableFuture());
+            }
+        }
+        for (CompletableFuture<?> future : futures) {
+            future.join();
+        }
+
+        assertEquals(ITEM_COUNT / 2, queue.size());
+        assertEquals(ITEM_COUNT / 2, getBackupQueue(instances, queue).size());
+    }
+
+    @Test
+    public void testOfferAsync_unblocksTake() throws Exception {
+        final IQueue<Integer> queue = local.getQueue("batchedQueue");
+        Future<Integer> take = spawn(queue::take);
+        assertTrueEventually(() -> assertEquals(1, getOperationParkerCount()));
+
+        assertTrue(queue.offerAsync(1).toCompletableFuture().join());
+
+        assertEquals(1, (int) take.get());
+    }
+
+    @Test
+    public void testPollAsync_unblocksPut() throws Exception {
+        final IQueue<Integer> queue = local.getQueue("batchedBoundedQueue");
+        for (int i = 0; i < MAX_SIZE; i++) {
+            queue.offer(i);
+        }
+        Future<?> put = spawn(() -> {
+            queue.put(MAX_SIZE);
+            return null;
+        });
+        assertTrueEventually(() -> assertEquals(1, getOperationParkerCount()));
+
+        assertEquals(0, (int) queue.pollAsync().toCompletableFuture().join());
+
+        put.get();
+        assertEquals(MAX_SIZE, queue.size());
+        assertFalse(queue.offer(MAX_SIZE + 1));
+    }
+
+    private int getOperationParkerCount() {
+        int count = 0;
+        for (HazelcastInstance instance : instances) {
+            OperationParkerImpl operationParker = (OperationParkerImpl) getNodeEngineImpl(instance).getOperationParker();
+            count += operationParker.getTotalParkedOperationCount();
+        }
+        return count;
+    }
+}
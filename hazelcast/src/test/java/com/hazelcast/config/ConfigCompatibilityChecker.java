@@ -697,6 +697,7 @@ public class ConfigCompatibilityChecker {
                             && r1.getMaxMissedLeaderHeartbeatCount() == r2.getMaxMissedLeaderHeartbeatCount()
                             && r1.getCommitIndexAdvanceCountToSnapshot() == r2.getCommitIndexAdvanceCountToSnapshot()
                             && r1.getAppendRequestBackoffTimeoutInMillis() == r2.getAppendRequestBackoffTimeoutInMillis()
+                            && r1.getAppendRequestMaxInflightCount() == r2.getAppendRequestMaxInflightCount()
                             && r1.getUncommittedEntryCountToRejectNewAppends() == r2.getUncommittedEntryCountToRejectNewAppends());
 
             if (!raftAlgorithmConfigEqual) {
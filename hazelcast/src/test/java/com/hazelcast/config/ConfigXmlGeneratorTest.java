@@ -1718,7 +1718,8 @@ public class ConfigXmlGeneratorTest extends HazelcastTestSupport {
                 .setAppendRequestMaxEntryCount(25)
                 .setAppendRequestMaxEntryCount(250)
                 .setUncommittedEntryCountToRejectNewAppends(75)
-                .setAppendRequestBackoffTimeoutInMillis(50);
+                .setAppendRequestBackoffTimeoutInMillis(50)
+                .setAppendRequestMaxInflightCount(8);
 
         config.getCPSubsystemConfig()
                 .addSemaphoreConfig(new SemaphoreConfig("sem1", true, 1))
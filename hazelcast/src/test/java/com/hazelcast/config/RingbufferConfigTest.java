@@ -193,11 +193,13 @@ public class RingbufferConfigTest {
         config.setInMemoryFormat(null);
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test
     public void setInMemoryFormat_whenNative() {
         RingbufferConfig config = new RingbufferConfig(NAME);
 
         config.setInMemoryFormat(InMemoryFormat.NATIVE);
+
+        assertEquals(InMemoryFormat.NATIVE, config.getInMemoryFormat());
     }
 
     @Test
@@ -3304,6 +3304,7 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
                 + "      commit-index-advance-count-to-snapshot: 250\n"
                 + "      uncommitted-entry-count-to-reject-new-appends: 75\n"
                 + "      append-request-backoff-timeout-in-millis: 50\n"
+                + "      append-request-max-inflight-count: 8\n"
                 + "    semaphores:\n"
                 + "      sem1:\n"
                 + "        jdk-compatible: true\n"
@@ -3335,6 +3336,7 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
         assertEquals(250, raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot());
         assertEquals(75, raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends());
         assertEquals(50, raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis());
+        assertEquals(8, raftAlgorithmConfig.getAppendRequestMaxInflightCount());
         SemaphoreConfig semaphoreConfig1 = cpSubsystemConfig.findSemaphoreConfig("sem1");
         SemaphoreConfig semaphoreConfig2 = cpSubsystemConfig.findSemaphoreConfig("sem2");
         assertNotNull(semaphoreConfig1);
@@ -16,9 +16,11 @@
 
 package com.hazelcast.cp.internal;
 
+import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.cp.CPGroupId;
 import com.hazelcast.cp.exception.NotLeaderException;
+import com.hazelcast.cp.internal.raft.impl.dataservice.RaftDataService;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.ParallelJVMTest;
 import com.hazelcast.test.annotation.QuickTest;
@@ -30,9 +32,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.cp.internal.raft.QueryPolicy.ANY_LOCAL;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LEASE;
 import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LOCAL;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LINEARIZABLE;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.READ_INDEX;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getReadIndexRound;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -136,4 +143,65 @@ public class RaftInvocationManagerQueryTest extends HazelcastRaftTestSupport {
         Future<Object> future = getRaftInvocationManager(leader).queryLocally(groupId, new RaftTestQueryOp(), LEADER_LOCAL);
         assertEquals(value, future.get());
     }
+
+    @Test
+    public void when_readIndexQueryFromFollower_onStableCluster_thenReadLatestValue() throws Exception {
+        int nodeCount = 3;
+        instances = newInstances(nodeCount);
+
+        RaftInvocationManager invocationService = getRaftInvocationManager(instances[0]);
+        CPGroupId groupId = invocationService.createRaftGroup("test", nodeCount).get();
+
+        String value = "value";
+        invocationService.invoke(groupId, new RaftTestApplyOp(value)).get();
+
+        HazelcastInstance follower = getRandomFollowerInstance(instances, groupId);
+        Future<Object> future = getRaftInvocationManager(follower).query(groupId, new RaftTestQueryOp(), READ_INDEX);
+
+        assertEquals(value, future.get());
+        assertTrue(getReadIndexRound(getRaftNode(follower, groupId)) > 0);
+    }
+
+    @Test
+    public void when_leaderLeaseQueryFromFollower_onStableCluster_thenReadLatestValue() throws Exception {
+        int nodeCount = 3;
+        instances = newInstances(nodeCount);
+
+        RaftInvocationManager invocationService = getRaftInvocationManager(instances[0]);
+        CPGroupId groupId = invocationService.createRaftGroup("test", nodeCount).get();
+
+        String value = "value";
+        invocationService.invoke(groupId, new RaftTestApplyOp(value)).get();
+
+        HazelcastInstance follower = getRandomFollowerInstance(instances, groupId);
+        Future<Object> future = getRaftInvocationManager(follower).query(groupId, new RaftTestQueryOp(), LEADER_LEASE);
+
+        assertEquals(value, future.get());
+        assertTrue(getReadIndexRound(getRaftNode(follower, groupId)) > 0);
+    }
+
+    @Test
+    public void when_linearizableQueryFromFollower_withReadIndexService_thenReadLatestValueOnFollower() throws Exception {
+        int nodeCount = 3;
+        instances = newInstances(nodeCount);
+
+        RaftInvocationManager invocationService = getRaftInvocationManager(instances[0]);
+        CPGroupId groupId = invocationService.createRaftGroup("test", nodeCount).get();
+
+        String value = "value";
+        invocationService.invoke(groupId, new RaftTestApplyOp(value)).get();
+
+        HazelcastInstance follower = getRandomFollowerInstance(instances, groupId);
+        Future<Object> future = getRaftInvocationManager(follower).query(groupId, new RaftTestQueryOp(), LINEARIZABLE);
+
+        assertEquals(value, future.get());
+        assertTrue(getReadIndexRound(getRaftNode(follower, groupId)) > 0);
+    }
+
+    @Override
+    protected Config createConfig(int cpNodeCount, int groupSize) {
+        Config config = super.createConfig(cpNodeCount, groupSize);
+        config.setProperty(RaftInvocationManager.READ_INDEX_QUERY_SERVICES.getName(), RaftDataService.SERVICE_NAME);
+        return config;
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.cp.internal.HazelcastRaftTestSupport;
+import com.hazelcast.cp.lock.FencedLock;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.test.Accessors.getAddress;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class LocalDiskCPPersistenceTest extends HazelcastRaftTestSupport {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void when_allCPMembersAreRestarted_then_CPStateIsRestored() {
+        HazelcastInstance[] instances = newInstances(3);
+        IAtomicLong atomicLong = instances[0].getCPSubsystem().getAtomicLong("long");
+        for (int i = 0; i < 100; i++) {
+            atomicLong.incrementAndGet();
+        }
+        FencedLock lock = instances[1].getCPSubsystem().getLock("lock");
+        long fence = lock.lockAndGetFence();
+        lock.unlock();
+        CPMember localCPMember = instances[2].getCPSubsystem().getLocalCPMember();
+
+        Address[] addresses = new Address[instances.length];
+        for (int i = 0; i < instances.length; i++) {
+            addresses[i] = getAddress(instances[i]);
+        }
+        factory.terminateAll();
+
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = factory.newHazelcastInstance(addresses[i], createConfig(3, 3));
+        }
+        assertClusterSizeEventually(3, instances);
+        waitUntilCPDiscoveryCompleted(instances);
+
+        assertEquals(localCPMember, instances[2].getCPSubsystem().getLocalCPMember());
+        assertEquals(100, instances[2].getCPSubsystem().getAtomicLong("long").get());
+        long newFence = instances[0].getCPSubsystem().getLock("lock").lockAndGetFence();
+        assertTrue(newFence > fence);
+    }
+
+    @Override
+    protected Config createConfig(int cpNodeCount, int groupSize) {
+        Config config = super.createConfig(cpNodeCount, groupSize);
+        config.getCPSubsystemConfig().setPersistenceEnabled(true).setBaseDir(tempFolder.getRoot());
+        return config;
+    }
+}
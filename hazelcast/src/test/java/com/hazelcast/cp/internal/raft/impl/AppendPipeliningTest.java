@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.RaftDataService;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getAppendBatchCount;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getAppendBatchEntryCount;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getCommitIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getInflightAppendRequestCount;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getLastLogOrSnapshotEntry;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getMatchIndex;
+import static com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder.newGroup;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AppendPipeliningTest extends HazelcastTestSupport {
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() {
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test
+    public void when_followerDoesNotRespond_then_leaderSendsAppendRequestsUpToMaxInflightCount() throws Exception {
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig()
+                .setAppendRequestMaxEntryCount(1)
+                .setAppendRequestMaxInflightCount(3)
+                .setAppendRequestBackoffTimeoutInMillis(8000);
+        group = newGroup(3, config);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl[] followers = group.getNodesExcept(leader.getLocalMember());
+        RaftNodeImpl slowFollower = followers[0];
+
+        leader.replicate(new ApplyRaftRunnable("val0")).get();
+        assertTrueEventually(() -> assertEquals(1, getMatchIndex(leader, slowFollower.getLocalMember())));
+
+        group.dropMessagesToMember(slowFollower.getLocalMember(), leader.getLocalMember(), AppendSuccessResponse.class);
+
+        for (int i = 1; i <= 20; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+
+        // the entries are replicated one by one, so each append request carries a single entry
+        assertTrueEventually(() -> assertEquals(3, getInflightAppendRequestCount(leader, slowFollower.getLocalMember())));
+        assertTrueAllTheTime(() -> assertEquals(4, getLastLogOrSnapshotEntry(slowFollower).index()), 2);
+        assertEquals(1, getMatchIndex(leader, slowFollower.getLocalMember()));
+
+        group.allowMessagesToMember(slowFollower.getLocalMember(), leader.getLocalMember(), AppendSuccessResponse.class);
+        leader.replicate(new ApplyRaftRunnable("val21")).get();
+
+        assertTrueEventually(() -> {
+            for (RaftNodeImpl node : group.getNodes()) {
+                assertEquals(22, getCommitIndex(node));
+                RaftDataService service = group.getIntegration(node.getLocalMember()).getService();
+                assertEquals(22, service.size());
+            }
+        });
+    }
+
+    @Test
+    public void when_pipelinedAppendRequestsAreLost_then_followerCatchesUp() throws Exception {
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig()
+                .setAppendRequestMaxEntryCount(2)
+                .setAppendRequestMaxInflightCount(4);
+        group = newGroup(3, config);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+
+        leader.replicate(new ApplyRaftRunnable("val0")).get();
+        assertTrueEventually(() -> assertEquals(1, getMatchIndex(leader, follower.getLocalMember())));
+
+        group.dropMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+        for (int i = 1; i <= 10; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+        group.allowMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        for (int i = 11; i <= 20; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+
+        assertTrueEventually(() -> {
+            assertEquals(21, getCommitIndex(follower));
+            RaftDataService service = group.getIntegration(follower.getLocalMember()).getService();
+            for (int i = 0; i <= 20; i++) {
+                assertEquals("val" + i, service.get(i + 1));
+            }
+            assertEquals(0, getInflightAppendRequestCount(leader, follower.getLocalMember()));
+        });
+    }
+
+    @Test
+    public void when_entriesAreReplicatedConcurrently_then_theyAreBroadcastInBatches() throws Exception {
+        group = newGroup(3);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        long initialBatchCount = getAppendBatchCount(leader);
+
+        // block the leader until all entries are submitted
+        CountDownLatch latch = new CountDownLatch(1);
+        leader.execute(() -> assertOpenEventually(latch));
+
+        int entryCount = 50;
+        List<Future> futures = new ArrayList<>();
+        for (int i = 0; i < entryCount; i++) {
+            futures.add(leader.replicate(new ApplyRaftRunnable("val" + i)));
+        }
+        latch.countDown();
+
+        for (Future future : futures) {
+            future.get();
+        }
+
+        long batchCount = getAppendBatchCount(leader) - initialBatchCount;
+        assertTrue("Batch count: " + batchCount, batchCount < entryCount);
+        assertEquals(entryCount, getAppendBatchEntryCount(leader));
+
+        assertTrueEventually(() -> {
+            for (RaftNodeImpl node : group.getNodes()) {
+                assertEquals(entryCount, getCommitIndex(node));
+            }
+        });
+    }
+}
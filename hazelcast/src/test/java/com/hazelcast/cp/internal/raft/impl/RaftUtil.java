@@ -86,6 +86,28 @@ public class RaftUtil {
         return readRaftState(leader, task);
     }
 
+    public static int getInflightAppendRequestCount(RaftNodeImpl leader, RaftEndpoint follower) {
+        Callable<Integer> task = () -> {
+            LeaderState leaderState = leader.state().leaderState();
+            return leaderState.getFollowerState(follower).inflightAppendRequestCount();
+        };
+
+        return readRaftState(leader, task);
+    }
+
+    public static long getAppendBatchCount(RaftNodeImpl leader) {
+        return readRaftState(leader, leader::appendBatchCount);
+    }
+
+    public static long getAppendBatchEntryCount(RaftNodeImpl leader) {
+        return readRaftState(leader, leader::appendBatchEntryCount);
+    }
+
+    public static long getReadIndexRound(RaftNodeImpl node) {
+        Callable<Long> task = () -> node.state().readIndexState().round();
+        return readRaftState(node, task);
+    }
+
     public static long getLeaderQueryRound(RaftNodeImpl leader) {
         Callable<Long> task = () -> {
             LeaderState leaderState = leader.state().leaderState();
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.exception.NotLeaderException;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.QueryRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.ReadIndexRequest;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LEASE;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LINEARIZABLE;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.READ_INDEX;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getLeaderQueryRound;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReadIndexQueryTest extends HazelcastTestSupport {
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() {
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test(timeout = 300_000)
+    public void when_readIndexQueryIsIssuedOnFollower_then_itReadsLastState() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        Object o1 = follower.query(new QueryRaftRunnable(), READ_INDEX).get();
+
+        assertEquals("value1", o1);
+        long leaderQueryRound1 = getLeaderQueryRound(leader);
+        assertTrue(leaderQueryRound1 > 0);
+
+        leader.replicate(new ApplyRaftRunnable("value2")).get();
+
+        Object o2 = follower.query(new QueryRaftRunnable(), READ_INDEX).get();
+
+        assertEquals("value2", o2);
+        assertEquals(leaderQueryRound1 + 1, getLeaderQueryRound(leader));
+    }
+
+    @Test(timeout = 300_000)
+    public void when_readIndexQueryIsIssuedOnLeader_then_itReadsLastState() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        Object o = leader.query(new QueryRaftRunnable(), READ_INDEX).get();
+
+        assertEquals("value1", o);
+        assertTrue(getLeaderQueryRound(leader) > 0);
+    }
+
+    @Test(timeout = 300_000)
+    public void when_followerIsBehindReadIndex_then_queryRunsAfterLogIsApplied() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig().setLeaderElectionTimeoutInMillis(5000));
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        group.dropMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+        leader.replicate(new ApplyRaftRunnable("value2")).get();
+
+        InternalCompletableFuture queryFuture = follower.query(new QueryRaftRunnable(), READ_INDEX);
+
+        assertTrueAllTheTime(() -> assertFalse(queryFuture.isDone()), 3);
+
+        group.allowMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        assertEquals("value2", queryFuture.get());
+    }
+
+    @Test(timeout = 300_000)
+    public void when_leaderLeaseIsValid_then_leaseQueryIsServedWithoutHeartbeatRound() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig().setLeaderElectionTimeoutInMillis(5000));
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+        leader.query(new QueryRaftRunnable(), LINEARIZABLE).get();
+        long leaderQueryRound = getLeaderQueryRound(leader);
+
+        assertEquals("value1", follower.query(new QueryRaftRunnable(), LEADER_LEASE).get());
+        assertEquals("value1", leader.query(new QueryRaftRunnable(), LEADER_LEASE).get());
+        assertEquals(leaderQueryRound, getLeaderQueryRound(leader));
+
+        assertEquals("value1", follower.query(new QueryRaftRunnable(), READ_INDEX).get());
+        assertEquals(leaderQueryRound + 1, getLeaderQueryRound(leader));
+    }
+
+    @Test(timeout = 300_000)
+    public void when_leaderLeaseExpires_then_leaseQueryIsNotServedWithoutMajority() throws Exception {
+        long leaderElectionTimeout = 5000;
+        group = newGroup(new RaftAlgorithmConfig().setLeaderElectionTimeoutInMillis(leaderElectionTimeout));
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+        leader.query(new QueryRaftRunnable(), LINEARIZABLE).get();
+
+        group.split(leader.getLocalMember());
+
+        assertEquals("value1", leader.query(new QueryRaftRunnable(), LEADER_LEASE).get());
+
+        sleepMillis((int) leaderElectionTimeout);
+
+        InternalCompletableFuture queryFuture = leader.query(new QueryRaftRunnable(), LEADER_LEASE);
+
+        assertTrueAllTheTime(() -> assertFalse(queryFuture.isDone()), 3);
+    }
+
+    @Test(timeout = 300_000)
+    public void when_leaderDoesNotRespondToReadIndexRequest_then_queryFailsWithNotLeaderException() {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        group.dropMessagesToMember(follower.getLocalMember(), leader.getLocalMember(), ReadIndexRequest.class);
+
+        try {
+            follower.query(new QueryRaftRunnable(), READ_INDEX).joinInternal();
+            fail();
+        } catch (NotLeaderException ignored) {
+        }
+    }
+
+    private LocalRaftGroup newGroup(RaftAlgorithmConfig config) {
+        return new LocalRaftGroupBuilder(5, config).setAppendNopEntryOnLeaderElection(true).build();
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.RaftEndpointImpl;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures how many entries per second the {@link OnDiskRaftStateStore} can
+ * make durable when the log is flushed after every entry, and when the
+ * flush is shared by a batch of entries the way Raft flushes them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OnDiskRaftStateStoreBenchmark {
+
+    private static final int PAYLOAD_SIZE = 100;
+
+    @Param({"1", "8", "32"})
+    private int entriesPerFlush;
+
+    private File dir;
+    private OnDiskRaftStateStore store;
+    private byte[] payload;
+    private long index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("raft-store-benchmark").toFile();
+        store = new OnDiskRaftStateStore(dir, new DefaultSerializationServiceBuilder().build(), null);
+        store.open();
+        RaftEndpoint endpoint = new RaftEndpointImpl(UUID.randomUUID());
+        store.persistInitialMembers(endpoint, singletonList(endpoint));
+        payload = new byte[PAYLOAD_SIZE];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        delete(dir);
+    }
+
+    @Benchmark
+    public long persistEntry() throws IOException {
+        store.persistEntry(new LogEntry(1, ++index, payload));
+        if (index % entriesPerFlush == 0) {
+            store.flushLogs();
+        }
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OnDiskRaftStateStoreBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.RaftEndpointImpl;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.listIndices;
+import static com.hazelcast.cp.internal.raft.impl.persistence.StateFiles.segmentName;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OnDiskRaftStateStoreTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final RaftEndpoint localEndpoint = newEndpoint();
+    private final List<RaftEndpoint> initialMembers = Arrays.asList(localEndpoint, newEndpoint(), newEndpoint());
+
+    private File dir;
+    private OnDiskRaftStateStore store;
+
+    @Before
+    public void setup() throws IOException {
+        dir = new File(tempFolder.getRoot(), "group");
+        store = openStore(null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testMembersAndTermAreRestored() throws IOException {
+        RaftEndpoint votedFor = initialMembers.get(1);
+        store.persistTerm(3, votedFor);
+
+        RestoredRaftState state = load().load();
+
+        assertEquals(localEndpoint, state.localEndpoint());
+        assertEquals(initialMembers, new ArrayList<>(state.initialMembers()));
+        assertEquals(3, state.term());
+        assertEquals(votedFor, state.votedFor());
+        assertNull(state.snapshot());
+        assertEquals(0, state.entries().length);
+    }
+
+    @Test
+    public void testFlushedEntriesAreRestored() throws IOException {
+        persistEntries(1, 10);
+        store.flushLogs();
+
+        assertEntries(load().load().entries(), 1, 10);
+    }
+
+    @Test
+    public void testEntriesAreNotWrittenBeforeFlush() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        persistEntries(6, 10);
+
+        assertEntries(load().load().entries(), 1, 5);
+    }
+
+    @Test
+    public void testDeletedEntriesAreNotRestored() throws IOException {
+        persistEntries(1, 10);
+        store.flushLogs();
+        store.deleteEntriesFrom(7);
+        persistEntries(7, 8);
+        store.flushLogs();
+
+        LogEntry[] entries = load().load().entries();
+
+        assertEntries(entries, 1, 8);
+    }
+
+    @Test
+    public void testBufferedEntriesAreDeleted() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        persistEntries(6, 10);
+        store.deleteEntriesFrom(4);
+        persistEntries(4, 6);
+        store.flushLogs();
+
+        assertEntries(load().load().entries(), 1, 6);
+    }
+
+    @Test
+    public void testEntriesAfterSnapshotAreRestored() throws IOException {
+        persistEntries(1, 10);
+        store.persistSnapshot(newSnapshot(8));
+        persistEntries(11, 15);
+        store.flushLogs();
+
+        RestoredRaftState state = load().load();
+
+        assertNotNull(state.snapshot());
+        assertEquals(8, state.snapshot().index());
+        assertEquals(initialMembers, new ArrayList<>(state.snapshot().groupMembers()));
+        assertEntries(state.entries(), 9, 15);
+    }
+
+    @Test
+    public void testObsoleteFilesAreDeletedAfterSnapshot() throws IOException {
+        persistEntries(1, 10);
+        store.persistSnapshot(newSnapshot(10));
+        persistEntries(11, 20);
+        store.persistSnapshot(newSnapshot(20));
+        persistEntries(21, 25);
+        store.flushLogs();
+
+        assertArrayEquals(new long[]{20}, listIndices(dir, SNAPSHOT_PREFIX));
+        assertArrayEquals(new long[]{21}, listIndices(dir, SEGMENT_PREFIX));
+        assertEntries(load().load().entries(), 21, 25);
+    }
+
+    @Test
+    public void testEntriesAfterInstalledSnapshotAreRestored() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        store.persistSnapshot(newSnapshot(50));
+        persistEntries(51, 55);
+        store.flushLogs();
+
+        RestoredRaftState state = load().load();
+
+        assertEquals(50, state.snapshot().index());
+        assertEntries(state.entries(), 51, 55);
+    }
+
+    @Test
+    public void testTornRecordIsIgnoredAndTruncated() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, segmentName(1)), "rw")) {
+            file.seek(file.length());
+            file.write(new byte[]{0, 0, 0, 100, 1, 2, 3});
+        }
+
+        OnDiskRaftStateLoader loader = load();
+        assertEntries(loader.load().entries(), 1, 5);
+
+        store = openStore(loader.logFileStructure());
+        persistEntries(6, 8);
+        store.flushLogs();
+
+        assertEntries(load().load().entries(), 1, 8);
+    }
+
+    @Test
+    public void testStoreContinuesRestoredLog() throws IOException {
+        persistEntries(1, 5);
+        store.flushLogs();
+        store.close();
+
+        OnDiskRaftStateLoader loader = load();
+        loader.load();
+        LogFileStructure structure = loader.logFileStructure();
+        assertNotNull(structure);
+        assertEquals(segmentName(1), structure.filename());
+        assertEquals(1, structure.indexOfFirstTailEntry());
+        assertEquals(5, structure.tailEntryOffsets().length);
+
+        store = openStore(structure);
+        store.deleteEntriesFrom(4);
+        persistEntries(4, 7);
+        store.flushLogs();
+
+        assertEntries(load().load().entries(), 1, 7);
+    }
+
+    @Test
+    public void testStoreContinuesLogWithoutStructure() throws IOException {
+        persistEntries(1, 5);
+        store.persistSnapshot(newSnapshot(3));
+        persistEntries(6, 8);
+        store.flushLogs();
+        store.close();
+
+        store = openStore(null);
+        store.deleteEntriesFrom(5);
+        persistEntries(5, 9);
+        store.flushLogs();
+
+        RestoredRaftState state = load().load();
+        assertEquals(3, state.snapshot().index());
+        assertEntries(state.entries(), 4, 9);
+    }
+
+    private OnDiskRaftStateStore openStore(LogFileStructure structure) throws IOException {
+        OnDiskRaftStateStore store = new OnDiskRaftStateStore(dir, serializationService, structure);
+        store.open();
+        store.persistInitialMembers(localEndpoint, initialMembers);
+        return store;
+    }
+
+    private OnDiskRaftStateLoader load() {
+        return new OnDiskRaftStateLoader(dir, serializationService);
+    }
+
+    private void persistEntries(int from, int to) throws IOException {
+        for (int i = from; i <= to; i++) {
+            store.persistEntry(new LogEntry(1, i, "op" + i));
+        }
+    }
+
+    private SnapshotEntry newSnapshot(long index) {
+        return new SnapshotEntry(1, index, singletonList("snapshot" + index), 0, initialMembers);
+    }
+
+    private static void assertEntries(LogEntry[] entries, int from, int to) {
+        assertEquals(to - from + 1, entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            assertEquals(from + i, entries[i].index());
+            assertEquals("op" + (from + i), entries[i].operation());
+        }
+    }
+
+    private static RaftEndpoint newEndpoint() {
+        return new RaftEndpointImpl(UUID.randomUUID());
+    }
+}
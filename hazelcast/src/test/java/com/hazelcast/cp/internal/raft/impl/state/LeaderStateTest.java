@@ -34,6 +34,7 @@ import java.util.Set;
 import static com.hazelcast.cp.internal.raft.impl.RaftUtil.newRaftMember;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -109,4 +110,31 @@ public class LeaderStateTest {
         }
     }
 
+    @Test
+    public void test_pipelinedAppendRequests() {
+        RaftEndpoint follower = remoteEndpoints.iterator().next();
+        FollowerState followerState = state.getFollowerState(follower);
+        followerState.matchIndex(lastLogIndex);
+
+        assertEquals(1, followerState.appendRequestPipelined(lastLogIndex + 10));
+        assertEquals(2, followerState.appendRequestPipelined(lastLogIndex + 20));
+        assertEquals(lastLogIndex + 21, followerState.nextIndex());
+        assertEquals(2, state.inflightAppendRequestCount());
+
+        followerState.matchIndex(lastLogIndex + 10);
+        followerState.pipelinedAppendRequestAcked(lastLogIndex + 10);
+        assertEquals(1, followerState.inflightAppendRequestCount());
+
+        assertTrue(followerState.resetPipeline());
+        assertEquals(lastLogIndex + 11, followerState.nextIndex());
+        assertEquals(0, state.inflightAppendRequestCount());
+        assertFalse(followerState.resetPipeline());
+
+        followerState.appendRequestPipelined(lastLogIndex + 20);
+        followerState.matchIndex(lastLogIndex + 20);
+        followerState.pipelinedAppendRequestAcked(lastLogIndex + 20);
+        assertEquals(0, followerState.inflightAppendRequestCount());
+        assertEquals(lastLogIndex + 21, followerState.nextIndex());
+    }
+
 }
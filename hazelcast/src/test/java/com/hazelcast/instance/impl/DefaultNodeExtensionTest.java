@@ -24,6 +24,7 @@ import com.hazelcast.internal.cluster.ClusterVersionListener;
 import com.hazelcast.internal.cluster.impl.ClusterStateManager;
 import com.hazelcast.internal.cluster.impl.JoinRequest;
 import com.hazelcast.internal.cluster.impl.VersionMismatchException;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -48,6 +49,7 @@ import static com.hazelcast.test.Accessors.getNode;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
@@ -233,6 +235,17 @@ public class DefaultNodeExtensionTest extends HazelcastTestSupport {
         assertFalse(failed.get());
     }
 
+    @Test
+    public void test_nativeMemoryNotReported_untilNativeMemoryManagerIsUsed() {
+        assertEquals(0, nodeExtension.getMemoryStats().getMaxNative());
+
+        MemoryManager memoryManager = nodeExtension.getNativeMemoryManager();
+        assumeTrue(memoryManager != null);
+
+        assertSame(memoryManager, nodeExtension.getNativeMemoryManager());
+        assertTrue(nodeExtension.getMemoryStats().getMaxNative() > 0);
+    }
+
     public static class HazelcastInstanceAwareVersionListener implements ClusterVersionListener, HazelcastInstanceAware {
 
         private HazelcastInstance instance;
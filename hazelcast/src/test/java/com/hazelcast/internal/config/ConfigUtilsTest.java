@@ -19,6 +19,7 @@ package com.hazelcast.internal.config;
 import com.hazelcast.config.ConfigPatternMatcher;
 import com.hazelcast.config.QueueConfig;
 import com.hazelcast.config.matcher.MatchingPointConfigPatternMatcher;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelJVMTest;
@@ -28,9 +29,12 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_STORAGE_MAP_NAMES;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -95,4 +99,40 @@ public class ConfigUtilsTest extends HazelcastTestSupport {
         assertEquals(1, queueConfigs.size());
         assertTrue(queueConfigs.containsKey("newConfig"));
     }
+
+    @Test
+    public void matchesNames_whenPropertyNotSet() {
+        HazelcastProperties properties = new HazelcastProperties(new Properties());
+
+        assertFalse(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "map"));
+    }
+
+    @Test
+    public void matchesNames_whenNameListed() {
+        HazelcastProperties properties = namesProperties("other, map");
+
+        assertTrue(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "map"));
+        assertFalse(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "map2"));
+    }
+
+    @Test
+    public void matchesNames_whenNamePatternListed() {
+        HazelcastProperties properties = namesProperties("compact*");
+
+        assertTrue(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "compactMap"));
+        assertFalse(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "map"));
+    }
+
+    @Test
+    public void matchesNames_whenNamePatternsAmbiguous() {
+        HazelcastProperties properties = namesProperties("comp*,*tMap");
+
+        assertFalse(ConfigUtils.matchesNames(configPatternMatcher, properties, MAP_COMPACT_STORAGE_MAP_NAMES, "compactMap"));
+    }
+
+    private static HazelcastProperties namesProperties(String names) {
+        Properties properties = new Properties();
+        properties.setProperty(MAP_COMPACT_STORAGE_MAP_NAMES.getName(), names);
+        return new HazelcastProperties(properties);
+    }
 }
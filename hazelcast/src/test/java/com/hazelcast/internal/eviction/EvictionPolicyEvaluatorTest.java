@@ -221,4 +221,72 @@ public class EvictionPolicyEvaluatorTest extends HazelcastTestSupport {
             assertEquals(expectedEvictedRecordValue, evictedRecord.getValue());
         }
     }
+
+    @Test
+    public void test_leastFrequentlyAccessedEntry_isSelected_when_evictionPolicy_is_TINY_LFU() {
+        test_evictionPolicyTinyLFU(false);
+    }
+
+    @Test
+    public void test_entryInWindow_isNotSelected_when_evictionPolicy_is_TINY_LFU() {
+        test_evictionPolicyTinyLFU(true);
+    }
+
+    private void test_evictionPolicyTinyLFU(boolean recentlyAccessedEntry) {
+        final int recordCount = 100;
+        final int leastFrequentRecordValue = recordCount / 2;
+        final int recentlyAccessedRecordValue = recordCount / 4;
+
+        EvictionConfiguration evictionConfig = new EvictionConfiguration() {
+            @Override
+            public EvictionStrategyType getEvictionStrategyType() {
+                return null;
+            }
+
+            @Override
+            public EvictionPolicy getEvictionPolicy() {
+                return EvictionPolicy.TINY_LFU;
+            }
+
+            @Override
+            public String getComparatorClassName() {
+                return null;
+            }
+
+            @Override
+            public EvictionPolicyComparator getComparator() {
+                return null;
+            }
+        };
+        EvictionPolicyEvaluator evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, null);
+        List<EvictionCandidate<Integer, CacheObjectRecord>> records = new ArrayList<>();
+
+        long baseTime = System.currentTimeMillis() - 10000;
+        for (int i = 0; i < recordCount; i++) {
+            CacheObjectRecord record = new CacheObjectRecord(i, baseTime, Long.MAX_VALUE);
+            record.setLastAccessTime(baseTime);
+            int accessCount = 2 + i % 10;
+            if (recentlyAccessedEntry && i == recentlyAccessedRecordValue) {
+                // the record is in the window, so it is protected even though it is the least frequently accessed one
+                record.setLastAccessTime(baseTime + 20000);
+                accessCount = 0;
+            } else if (i == leastFrequentRecordValue) {
+                accessCount = recentlyAccessedEntry ? 1 : 0;
+            }
+            for (int k = 0; k < accessCount; k++) {
+                evictionPolicyEvaluator.recordAccess(i, 10 * recordCount);
+            }
+            records.add(new SimpleEvictionCandidate<>(i, record));
+        }
+        // the window start moves to the time of the last accesses, after the last access time of the records
+        sleepAtLeastMillis(1);
+        for (int k = 0; k < 100; k++) {
+            evictionPolicyEvaluator.recordAccess(-1, 10 * recordCount);
+        }
+
+        EvictionCandidate<Integer, CacheObjectRecord> evictionCandidate = evictionPolicyEvaluator.evaluate(records);
+
+        assertNotNull(evictionCandidate);
+        assertEquals(leastFrequentRecordValue, evictionCandidate.getEvictable().getValue());
+    }
 }
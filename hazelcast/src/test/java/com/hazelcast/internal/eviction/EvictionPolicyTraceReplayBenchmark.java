@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.impl.strategy.sampling.SampleableEvictableStore;
+import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.ClockProperties;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator;
+
+/**
+ * Replays an access trace against the sampling based eviction of
+ * the on-heap stores and reports the hit ratio and eviction
+ * throughput of each built-in eviction policy.
+ * <p>
+ * Usage: {@code EvictionPolicyTraceReplayBenchmark [traceFile [capacity]]}
+ * where the trace file contains one key per line. Numeric keys are
+ * used as they are, other keys are replaced by their hash code.
+ * Without a trace file a synthetic Zipfian trace followed by a one-off
+ * scan and the Zipfian tail is replayed.
+ * <p>
+ * The benchmark installs a logical {@link Clock} which advances by one
+ * millisecond per replayed access, so that recency based policies see
+ * distinct access times regardless of the replay speed.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class EvictionPolicyTraceReplayBenchmark {
+
+    private static final EvictionPolicy[] POLICIES = {
+            EvictionPolicy.LRU, EvictionPolicy.LFU, EvictionPolicy.RANDOM, EvictionPolicy.TINY_LFU,
+    };
+
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final int KEY_SPACE = 200000;
+    private static final int TRACE_LENGTH = 2000000;
+    private static final double ZIPF_SKEW = 0.9;
+    private static final long SEED = 42;
+
+    private EvictionPolicyTraceReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // must be set before the first use of Clock
+        System.setProperty(ClockProperties.HAZELCAST_CLOCK_IMPL, LogicalClock.class.getName());
+
+        long[] trace = args.length > 0 ? readTrace(args[0]) : syntheticTrace();
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CAPACITY;
+
+        System.out.printf("trace length: %d, capacity: %d%n", trace.length, capacity);
+        System.out.printf("%-10s %10s %12s %16s%n", "policy", "hit ratio", "evictions", "evictions/sec");
+        for (EvictionPolicy policy : POLICIES) {
+            replay(policy, trace, capacity);
+        }
+    }
+
+    private static void replay(EvictionPolicy policy, long[] trace, int capacity) {
+        EvictionPolicyEvaluator<Long, TraceRecord> evaluator = getEvictionPolicyEvaluator(new TraceEvictionConfig(policy), null);
+        SamplingEvictionStrategy<Long, TraceRecord, TraceStore> strategy = SamplingEvictionStrategy.INSTANCE;
+        TraceStore store = new TraceStore(capacity);
+
+        long hits = 0;
+        long evictions = 0;
+        long evictionNanos = 0;
+        for (long key : trace) {
+            long now = LogicalClock.tick();
+            evaluator.recordAccess(key, store.size());
+            TraceRecord record = store.get(key);
+            if (record != null) {
+                record.onAccess(now);
+                hits++;
+                continue;
+            }
+            if (store.size() >= capacity) {
+                long start = System.nanoTime();
+                if (strategy.evict(store, evaluator, null, null)) {
+                    evictions++;
+                }
+                evictionNanos += System.nanoTime() - start;
+            }
+            store.put(key, new TraceRecord(now));
+        }
+
+        double hitRatio = (double) hits / trace.length;
+        double evictionsPerSecond = evictionNanos == 0 ? 0 : evictions * 1e9 / evictionNanos;
+        System.out.printf("%-10s %10.4f %12d %16.0f%n", policy, hitRatio, evictions, evictionsPerSecond);
+    }
+
+    private static long[] readTrace(String fileName) throws IOException {
+        long[] trace = new long[1024];
+        int length = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (length == trace.length) {
+                    trace = Arrays.copyOf(trace, length * 2);
+                }
+                trace[length++] = parseKey(line);
+            }
+        }
+        return Arrays.copyOf(trace, length);
+    }
+
+    private static long parseKey(String line) {
+        try {
+            return Long.parseLong(line);
+        } catch (NumberFormatException e) {
+            return line.hashCode();
+        }
+    }
+
+    /**
+     * Zipfian accesses, interrupted in the middle by a scan over keys
+     * which are never accessed again.
+     */
+    private static long[] syntheticTrace() {
+        double[] cdf = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_SKEW);
+            cdf[i] = sum;
+        }
+
+        Random random = new Random(SEED);
+        int scanLength = TRACE_LENGTH / 10;
+        int scanStart = (TRACE_LENGTH - scanLength) / 2;
+        long[] trace = new long[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            if (i >= scanStart && i < scanStart + scanLength) {
+                trace[i] = KEY_SPACE + i;
+            } else {
+                int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                trace[i] = index >= 0 ? index : -index - 1;
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Clock which advances only when an access is replayed.
+     */
+    public static final class LogicalClock extends Clock.ClockImpl {
+
+        private static volatile long time = 1;
+
+        static long tick() {
+            return ++time;
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return time;
+        }
+    }
+
+    private static final class TraceRecord implements Evictable<Object> {
+
+        private final long creationTime;
+        private long lastAccessTime;
+        private long hits;
+
+        TraceRecord(long creationTime) {
+            this.creationTime = creationTime;
+            this.lastAccessTime = creationTime;
+        }
+
+        void onAccess(long now) {
+            lastAccessTime = now;
+            hits++;
+        }
+
+        @Override
+        public Object getValue() {
+            return this;
+        }
+
+        @Override
+        public long getHits() {
+            return hits;
+        }
+
+        @Override
+        public long getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+    }
+
+    private static final class TraceStore extends SampleableConcurrentHashMap<Long, TraceRecord>
+            implements SampleableEvictableStore<Long, TraceRecord> {
+
+        TraceStore(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        protected <E extends SamplingEntry> E createSamplingEntry(Long key, TraceRecord value) {
+            return (E) new TraceSamplingEntry(key, value);
+        }
+
+        @Override
+        public <C extends EvictionCandidate<Long, TraceRecord>> boolean tryEvict(C evictionCandidate,
+                                                                              EvictionListener<Long, TraceRecord> listener) {
+            return evictionCandidate != null && remove(evictionCandidate.getAccessor()) != null;
+        }
+
+        @Override
+        public Iterable<TraceSamplingEntry> sample(int sampleCount) {
+            return getRandomSamples(sampleCount);
+        }
+    }
+
+    private static final class TraceSamplingEntry extends SampleableConcurrentHashMap.SamplingEntry<Long, TraceRecord>
+            implements EvictionCandidate<Long, TraceRecord> {
+
+        TraceSamplingEntry(Long key, TraceRecord value) {
+            super(key, value);
+        }
+
+        @Override
+        public Long getAccessor() {
+            return getEntryKey();
+        }
+
+        @Override
+        public TraceRecord getEvictable() {
+            return getEntryValue();
+        }
+
+        @Override
+        public Object getKey() {
+            return getEntryKey();
+        }
+
+        @Override
+        public Object getValue() {
+            return getEntryValue();
+        }
+
+        @Override
+        public long getCreationTime() {
+            return getEntryValue().getCreationTime();
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return getEntryValue().getLastAccessTime();
+        }
+
+        @Override
+        public long getHits() {
+            return getEntryValue().getHits();
+        }
+    }
+
+    private static final class TraceEvictionConfig implements EvictionConfiguration {
+
+        private final EvictionPolicy policy;
+
+        TraceEvictionConfig(EvictionPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public EvictionStrategyType getEvictionStrategyType() {
+            return EvictionStrategyType.SAMPLING_BASED_EVICTION;
+        }
+
+        @Override
+        public EvictionPolicy getEvictionPolicy() {
+            return policy;
+        }
+
+        @Override
+        public String getComparatorClassName() {
+            return null;
+        }
+
+        @Override
+        public EvictionPolicyComparator getComparator() {
+            return null;
+        }
+    }
+}
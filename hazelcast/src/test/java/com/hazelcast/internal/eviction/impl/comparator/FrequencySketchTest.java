@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.eviction.impl.comparator.FrequencySketch.MAX_TABLE_SIZE;
+import static com.hazelcast.internal.eviction.impl.comparator.FrequencySketch.MIN_TABLE_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FrequencySketchTest {
+
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    @Test
+    public void testFrequency_whenNotIncremented() {
+        assertEquals(0, sketch.frequency(42));
+    }
+
+    @Test
+    public void testIncrement() {
+        sketch.increment(42);
+        sketch.increment(42);
+        sketch.increment(43);
+
+        assertEquals(2, sketch.frequency(42));
+        assertEquals(1, sketch.frequency(43));
+    }
+
+    @Test
+    public void testIncrement_saturatesAt15() {
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(15, sketch.frequency(42));
+    }
+
+    @Test
+    public void testReset_halvesFrequencies() {
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(-1);
+        }
+        // increment distinct keys until the sample size is reached and the counters are halved
+        int key = 0;
+        while (sketch.frequency(-1) == 15) {
+            sketch.increment(key++);
+        }
+
+        assertEquals(7, sketch.frequency(-1));
+        assertTrue("keys incremented: " + key, key <= 10 * MIN_TABLE_SIZE);
+    }
+
+    @Test
+    public void testEnsureCapacity() {
+        sketch.ensureCapacity(1000);
+        assertEquals(1024, sketch.tableSize());
+
+        sketch.ensureCapacity(10);
+        assertEquals(1024, sketch.tableSize());
+
+        sketch.ensureCapacity(Long.MAX_VALUE);
+        assertEquals(MAX_TABLE_SIZE, sketch.tableSize());
+    }
+
+    @Test
+    public void testEnsureCapacity_keepsFrequencies() {
+        sketch.increment(42);
+        sketch.increment(42);
+
+        sketch.ensureCapacity(1000);
+
+        assertEquals(2, sketch.frequency(42));
+    }
+}
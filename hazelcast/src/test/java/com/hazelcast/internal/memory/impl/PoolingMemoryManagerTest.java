@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.impl.PoolingMemoryManager.MIN_BLOCK_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PoolingMemoryManagerTest extends HazelcastTestSupport {
+
+    @ClassRule
+    public static final TestIgnoreRuleAccordingToUnsafeAvailability UNSAFE_AVAILABILITY_RULE
+            = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private static final int PAGE_SIZE = 4096;
+    private static final int MAX_BLOCK_SIZE = PAGE_SIZE / 8;
+    private static final long CAPACITY = 4 * PAGE_SIZE;
+
+    private PoolingMemoryManager memoryManager;
+    private MemoryAccessor mem;
+
+    @Before
+    public void setUp() {
+        memoryManager = new PoolingMemoryManager(new UnsafeMalloc(), MEM, CAPACITY, PAGE_SIZE, 2);
+        mem = memoryManager.getAccessor();
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void sizeClass() {
+        assertEquals(0, PoolingMemoryManager.sizeClass(1));
+        assertEquals(0, PoolingMemoryManager.sizeClass(MIN_BLOCK_SIZE));
+        assertEquals(1, PoolingMemoryManager.sizeClass(MIN_BLOCK_SIZE + 1));
+        assertEquals(1, PoolingMemoryManager.sizeClass(2 * MIN_BLOCK_SIZE));
+        assertEquals(2, PoolingMemoryManager.sizeClass(2 * MIN_BLOCK_SIZE + 1));
+        assertEquals(4 * MIN_BLOCK_SIZE, PoolingMemoryManager.blockSize(2));
+    }
+
+    @Test
+    public void allocate_commitsPage_andTracksUsage() {
+        memoryManager.allocate(20);
+
+        assertEquals(PAGE_SIZE, memoryManager.getCommitted());
+        assertEquals(2 * MIN_BLOCK_SIZE, memoryManager.getUsed());
+        assertEquals(20, memoryManager.getAllocated());
+        assertEquals(PAGE_SIZE - 20, memoryManager.getFragmented());
+    }
+
+    @Test
+    public void free_makesBlockReusable() {
+        long address = memoryManager.allocate(64);
+        memoryManager.free(address, 64);
+
+        assertEquals(0, memoryManager.getUsed());
+        assertEquals(address, memoryManager.allocate(60));
+    }
+
+    @Test
+    public void allocate_returnsZeroedMemory_whenBlockIsReused() {
+        long address = memoryManager.allocate(32);
+        mem.putLong(address, -1);
+        mem.putLong(address + 8, -1);
+        memoryManager.free(address, 32);
+
+        long reused = memoryManager.allocate(32);
+
+        assertEquals(address, reused);
+        assertEquals(0, mem.getLong(reused));
+        assertEquals(0, mem.getLong(reused + 8));
+    }
+
+    @Test
+    public void reallocate_withinSizeClass_keepsAddress() {
+        long address = memoryManager.allocate(40);
+        mem.putLong(address, 42);
+
+        long reallocated = memoryManager.reallocate(address, 40, 60);
+
+        assertEquals(address, reallocated);
+        assertEquals(42, mem.getLong(reallocated));
+        assertEquals(60, memoryManager.getAllocated());
+    }
+
+    @Test
+    public void reallocate_toLargerSizeClass_copiesContents() {
+        long address = memoryManager.allocate(16);
+        mem.putLong(address, 42);
+        mem.putLong(address + 8, 43);
+
+        long reallocated = memoryManager.reallocate(address, 16, 100);
+
+        assertNotEquals(address, reallocated);
+        assertEquals(42, mem.getLong(reallocated));
+        assertEquals(43, mem.getLong(reallocated + 8));
+        assertEquals(0, mem.getLong(reallocated + 16));
+        assertEquals(8 * MIN_BLOCK_SIZE, memoryManager.getUsed());
+    }
+
+    @Test
+    public void largeAllocation_bypassesPool() {
+        long size = MAX_BLOCK_SIZE + 1;
+        long address = memoryManager.allocate(size);
+
+        assertEquals(size, memoryManager.getCommitted());
+        assertEquals(size, memoryManager.getUsed());
+
+        memoryManager.free(address, size);
+
+        assertEquals(0, memoryManager.getCommitted());
+        assertEquals(0, memoryManager.getUsed());
+    }
+
+    @Test
+    public void pageTail_isReused_whenNewPageIsNeeded() {
+        // leaves a tail of half a block in the first page
+        int blocksPerPage = PAGE_SIZE / MAX_BLOCK_SIZE;
+        for (int i = 0; i < blocksPerPage - 1; i++) {
+            memoryManager.allocate(MAX_BLOCK_SIZE);
+        }
+        long lastBlock = memoryManager.allocate(MAX_BLOCK_SIZE / 2);
+        assertEquals(PAGE_SIZE, memoryManager.getCommitted());
+
+        memoryManager.allocate(MAX_BLOCK_SIZE);
+        assertEquals(2 * PAGE_SIZE, memoryManager.getCommitted());
+
+        long tail = memoryManager.allocate(MAX_BLOCK_SIZE / 2);
+        assertEquals(lastBlock + MAX_BLOCK_SIZE / 2, tail);
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void allocate_failsBeyondCapacity() {
+        memoryManager.allocate(CAPACITY + 1);
+    }
+
+    @Test
+    public void allocate_failsBeyondCapacity_withPooledBlocks() {
+        int blockCount = (int) (CAPACITY / MAX_BLOCK_SIZE);
+        for (int i = 0; i < blockCount; i++) {
+            memoryManager.allocate(MAX_BLOCK_SIZE);
+        }
+        assertEquals(CAPACITY, memoryManager.getCommitted());
+
+        try {
+            memoryManager.allocate(MIN_BLOCK_SIZE);
+            fail("NativeOutOfMemoryError expected");
+        } catch (NativeOutOfMemoryError expected) {
+            ignore(expected);
+        }
+        assertEquals(CAPACITY, memoryManager.getCommitted());
+    }
+
+    @Test
+    public void dispose_releasesAllMemory() {
+        memoryManager.allocate(MIN_BLOCK_SIZE);
+        memoryManager.allocate(MAX_BLOCK_SIZE + 1);
+
+        memoryManager.dispose();
+
+        assertEquals(0, memoryManager.getCommitted());
+        assertEquals(0, memoryManager.getUsed());
+    }
+
+    @Test
+    public void memoryStats() {
+        PoolingMemoryStats stats = new PoolingMemoryStats(memoryManager);
+        memoryManager.allocate(20);
+
+        assertEquals(CAPACITY, stats.getMaxNative());
+        assertEquals(PAGE_SIZE, stats.getCommittedNative());
+        assertEquals(2 * MIN_BLOCK_SIZE, stats.getUsedNative());
+        assertEquals(CAPACITY - 2 * MIN_BLOCK_SIZE, stats.getFreeNative());
+        assertEquals(PAGE_SIZE - 20, stats.getFragmentedNative());
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.internal.nio.tcp.TcpIpConnection_AbstractTransferStressTest;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.OverridePropertyRule;
+import com.hazelcast.test.annotation.NightlyTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_FLUSH_DELAY_MICROS;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_GATHERING_ENABLED;
+import static com.hazelcast.test.OverridePropertyRule.set;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(NightlyTest.class)
+public class Gathering_TcpIpConnection_TransferStressTest extends TcpIpConnection_AbstractTransferStressTest {
+
+    @Rule
+    public final OverridePropertyRule gatheringEnabledRule = set(IO_WRITE_GATHERING_ENABLED.getName(), "true");
+    @Rule
+    public final OverridePropertyRule flushDelayRule = set(IO_WRITE_FLUSH_DELAY_MICROS.getName(), "100");
+
+    @Before
+    public void setup() throws Exception {
+        networkingFactory = new Gathering_NioNetworkingFactory();
+        super.setup();
+    }
+}
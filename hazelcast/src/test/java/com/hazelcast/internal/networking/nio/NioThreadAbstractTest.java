@@ -37,9 +37,15 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
@@ -174,6 +180,23 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
         verify(errorHandler).onError((Channel) isNull(), any(OutOfMemoryError.class));
     }
 
+    @Test
+    public void whenDelayedTaskAdded_thenExecutedAfterDeadline() {
+        startThread();
+        long deadlineNanos = System.nanoTime() + MILLISECONDS.toNanos(500);
+        AtomicLong executedNanos = new AtomicLong();
+
+        thread.addDelayedTask(() -> executedNanos.set(System.nanoTime()), deadlineNanos);
+
+        assertTrueEventually(() -> assertNotEquals(0, executedNanos.get()));
+        assertTrue(executedNanos.get() - deadlineNanos >= 0);
+        if (selectorMode() != SELECT_NOW) {
+            // the selector blocked until the deadline instead of spinning
+            assertTrue("select count: " + selector.selectCount.get(), selector.selectCount.get() < 10);
+        }
+        assertStillRunning();
+    }
+
     @Test
     public void testToString() {
         startThread();
@@ -200,6 +223,7 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
 
     class MockSelector extends Selector {
         final BlockingQueue<SelectorAction> actionQueue = new LinkedBlockingQueue<SelectorAction>();
+        final AtomicInteger selectCount = new AtomicInteger();
         Set<SelectionKey> pendingKeys;
 
         void scheduleSelectAction(SelectionKey selectionKey) {
@@ -250,6 +274,7 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
 
         @Override
         public int select(long timeout) throws IOException {
+            selectCount.incrementAndGet();
             try {
                 SelectorAction action = actionQueue.poll(timeout, TimeUnit.MILLISECONDS);
                 if (action == null) {
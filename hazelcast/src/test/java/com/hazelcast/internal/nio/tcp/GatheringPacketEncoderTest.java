@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketIOHelper;
+import com.hazelcast.internal.nio.tcp.PacketEncoderTest.PacketSupplier;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class GatheringPacketEncoderTest {
+
+    private static final int BUFFER_SIZE = 100;
+
+    private GatheringPacketEncoder encoder;
+    private PacketSupplier src;
+    private ByteBuffer sink;
+    private PacketIOHelper packetReader;
+
+    @Before
+    public void setup() {
+        encoder = new GatheringPacketEncoder();
+        encoder.initDstBuffers(BUFFER_SIZE, false);
+        src = new PacketSupplier();
+        encoder.src(src);
+        sink = ByteBuffer.allocate(1 << 16);
+        packetReader = new PacketIOHelper();
+    }
+
+    @Test
+    public void whenPacketsWritten() {
+        List<Packet> packets = new ArrayList<>();
+        packets.add(newPacket(10, 1));
+        packets.add(newPacket(0, 2));
+        packets.add(newPacket(2 * BUFFER_SIZE, 3));
+        packets.add(newPacket(BUFFER_SIZE - 20, 4));
+        src.queue.addAll(packets);
+
+        HandlerStatus result = encoder.onWrite();
+
+        assertEquals(CLEAN, result);
+        // the large payload isn't copied
+        assertSame(packets.get(2).toByteArray(), encoder.dst()[1].array());
+        assertEquals(packets, readPackets(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void whenBuffersFull_thenEncodedAfterWrite() {
+        List<Packet> packets = new ArrayList<>();
+        for (int k = 0; k < 100; k++) {
+            packets.add(newPacket(k % 3 == 0 ? BUFFER_SIZE : 30, k));
+        }
+        src.queue.addAll(packets);
+
+        List<Packet> read = new ArrayList<>();
+        assertEquals(DIRTY, encoder.onWrite());
+        for (int k = 0; k < 1000 && read.size() < packets.size(); k++) {
+            // partial writes of odd sizes, so buffers are left partially written
+            read.addAll(readPackets(37 + k % 150));
+            encoder.onWrite();
+        }
+
+        assertEquals(packets, read);
+        assertEquals(CLEAN, encoder.onWrite());
+    }
+
+    /**
+     * Consumes up to the given number of bytes from the dst buffers, like a
+     * gathering write does, and returns the packets completely consumed.
+     */
+    private List<Packet> readPackets(int maxBytes) {
+        int remaining = maxBytes;
+        for (ByteBuffer buffer : encoder.dst()) {
+            while (buffer.hasRemaining() && remaining > 0) {
+                sink.put(buffer.get());
+                remaining--;
+            }
+        }
+
+        List<Packet> packets = new ArrayList<>();
+        sink.flip();
+        for (Packet packet = packetReader.readFrom(sink); packet != null; packet = packetReader.readFrom(sink)) {
+            packets.add(packet);
+        }
+        sink.compact();
+        return packets;
+    }
+
+    private static Packet newPacket(int size, int partitionId) {
+        byte[] payload = new byte[size];
+        for (int k = 0; k < size; k++) {
+            payload[k] = (byte) (k + partitionId);
+        }
+        return new Packet(payload, partitionId);
+    }
+}
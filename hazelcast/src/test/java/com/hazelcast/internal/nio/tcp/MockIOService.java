@@ -61,6 +61,7 @@ import java.util.function.Consumer;
 import static com.hazelcast.internal.nio.Packet.Type.BIND;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_GATHERING_ENABLED;
 
 public class MockIOService implements IOService {
 
@@ -390,6 +391,9 @@ public class MockIOService implements IOService {
 
     @Override
     public OutboundHandler[] createOutboundHandlers(EndpointQualifier qualifier, TcpIpConnection connection) {
+        if (properties.getBoolean(IO_WRITE_GATHERING_ENABLED)) {
+            return new OutboundHandler[]{new GatheringPacketEncoder()};
+        }
         return new OutboundHandler[]{new PacketEncoder()};
     }
 
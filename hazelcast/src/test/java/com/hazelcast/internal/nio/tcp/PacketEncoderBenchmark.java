@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.tcp.PacketEncoderTest.PacketSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+
+/**
+ * Compares the {@link PacketEncoder} with the {@link GatheringPacketEncoder}
+ * writing a batch of packets to a loopback socket, the way the outbound
+ * pipeline drives them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacketEncoderBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+    private static final int SEND_BUFFER_SIZE = 128 * 1024;
+
+    @Param({"single", "gathering"})
+    private String encoderType;
+
+    @Param({"100", "32768"})
+    private int payloadSize;
+
+    private ServerSocketChannel serverChannel;
+    private SocketChannel writeChannel;
+    private SocketChannel readChannel;
+    private Thread reader;
+    private OutboundHandler encoder;
+    private PacketSupplier src;
+    private Packet packet;
+    private long writes;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+        writeChannel = SocketChannel.open(serverChannel.getLocalAddress());
+        readChannel = serverChannel.accept();
+        reader = new Thread(this::drain);
+        reader.start();
+
+        src = new PacketSupplier();
+        packet = new Packet(new byte[payloadSize]);
+        if ("gathering".equals(encoderType)) {
+            GatheringPacketEncoder gatheringEncoder = new GatheringPacketEncoder();
+            gatheringEncoder.initDstBuffers(SEND_BUFFER_SIZE / GatheringPacketEncoder.BUFFER_COUNT, false);
+            encoder = gatheringEncoder;
+        } else {
+            encoder = new PacketEncoder();
+            ByteBuffer dst = ByteBuffer.allocate(SEND_BUFFER_SIZE);
+            dst.flip();
+            encoder.dst(dst);
+        }
+        encoder.src(src);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        writeChannel.close();
+        reader.join();
+        readChannel.close();
+        serverChannel.close();
+        System.out.println("writes per batch: " + writes);
+    }
+
+    private void drain() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try {
+            while (readChannel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        } catch (IOException ignored) {
+            // the channel got closed
+        }
+    }
+
+    @Benchmark
+    public long writeBatch() throws Exception {
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            src.queue.add(packet);
+        }
+
+        long written = 0;
+        long writeCount = 0;
+        for (; ; ) {
+            HandlerStatus status = encoder.onWrite();
+            Object dst = encoder.dst();
+            if (dst instanceof ByteBuffer[]) {
+                written += writeChannel.write((ByteBuffer[]) dst);
+            } else {
+                written += writeChannel.write((ByteBuffer) dst);
+            }
+            writeCount++;
+            if (status == CLEAN && !hasRemaining(dst)) {
+                writes = writeCount;
+                return written;
+            }
+        }
+    }
+
+    private static boolean hasRemaining(Object dst) {
+        if (dst instanceof ByteBuffer) {
+            return ((ByteBuffer) dst).hasRemaining();
+        }
+        for (ByteBuffer buffer : (ByteBuffer[]) dst) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PacketEncoderBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
+import com.hazelcast.internal.partition.impl.MigrationStats;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_CHUNKED_MIGRATION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_MIGRATION_CHUNK_SIZE_KB;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_MIGRATION_MAX_IN_FLIGHT_CHUNKS;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ChunkedMigrationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 2000;
+    private static final int VALUE_SIZE = 100;
+
+    private TestHazelcastInstanceFactory factory;
+
+    @Before
+    public void setup() {
+        factory = createHazelcastInstanceFactory();
+    }
+
+    @Test
+    public void migration_transfersMapsInChunks() {
+        Config config = createConfig(true);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        fill(instance1.getMap("map"));
+        fill(instance1.getMap("other"));
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance3 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2, instance3);
+
+        instance1.shutdown();
+        waitAllForSafeState(instance2, instance3);
+        assertEntries(instance2.getMap("map"));
+        assertEntries(instance3.getMap("other"));
+        instance2.shutdown();
+        assertEntries(instance3.getMap("map"));
+
+        MigrationStats stats = getMigrationStats(instance3);
+        assertEquals(1024, stats.getMigrationChunkSize());
+        assertEquals(2, stats.getMaxInFlightMigrationChunks());
+    }
+
+    @Test
+    public void migration_sendsChunksOfBoundedSize() {
+        Config config = createConfig(true);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        fill(instance1.getMap("map"));
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2);
+
+        // each chunk holds about 8 entries and a replica of every partition is migrated to the new member
+        long sentChunks = getMigrationStats(instance1).getTotalSentMigrationChunks();
+        assertTrue("sentChunks: " + sentChunks, sentChunks >= ENTRY_COUNT / 10);
+        assertEntries(instance2.getMap("map"));
+    }
+
+    @Test
+    public void migration_whenChunksDisabled() {
+        Config config = createConfig(false);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        fill(instance1.getMap("map"));
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2);
+        assertEquals(0, getMigrationStats(instance1).getTotalSentMigrationChunks());
+        assertEquals(0, getMigrationStats(instance2).getMigrationChunkSize());
+        instance1.shutdown();
+
+        assertEntries(instance2.getMap("map"));
+    }
+
+    private static Config createConfig(boolean chunksEnabled) {
+        return smallInstanceConfig()
+                .setProperty(PARTITION_CHUNKED_MIGRATION_ENABLED.getName(), String.valueOf(chunksEnabled))
+                .setProperty(PARTITION_MIGRATION_CHUNK_SIZE_KB.getName(), "1")
+                .setProperty(PARTITION_MIGRATION_MAX_IN_FLIGHT_CHUNKS.getName(), "2");
+    }
+
+    private static MigrationStats getMigrationStats(HazelcastInstance instance) {
+        return ((InternalPartitionServiceImpl) getPartitionService(instance)).getMigrationManager().getStats();
+    }
+
+    private static void fill(IMap<Integer, String> map) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, value(i));
+        }
+    }
+
+    private static void assertEntries(IMap<Integer, String> map) {
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(value(i), map.get(i));
+        }
+    }
+
+    private static String value(int i) {
+        StringBuilder sb = new StringBuilder(VALUE_SIZE).append(i);
+        while (sb.length() < VALUE_SIZE) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+}
@@ -69,7 +69,8 @@ public class MasterSplitTest extends HazelcastTestSupport {
 
         int partitionStateVersion = getPartitionService(member1).getPartitionStateVersion();
 
-        Operation op = new MigrationRequestOperation(migration, Collections.<MigrationInfo>emptyList(), partitionStateVersion, true);
+        Operation op = new MigrationRequestOperation(migration, Collections.<MigrationInfo>emptyList(), partitionStateVersion,
+                true, false, 0, 1);
 
         InvocationBuilder invocationBuilder = getOperationService(member1)
                                                        .createInvocationBuilder(SERVICE_NAME, op, getAddress(member2))
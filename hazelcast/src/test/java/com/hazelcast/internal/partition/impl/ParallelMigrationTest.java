@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.MigrationInfo;
+import com.hazelcast.internal.partition.PartitionReplica;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_MAX_PARALLEL_MIGRATIONS;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ParallelMigrationTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT_VALUE = 71;
+    private static final int ENTRY_COUNT = 5000;
+
+    private TestHazelcastInstanceFactory factory;
+
+    @Before
+    public void setup() {
+        factory = createHazelcastInstanceFactory();
+    }
+
+    @Test
+    public void repartitioning_runsMigrationsOfDisjointMembersInParallel() {
+        ConcurrencyRecorder recorder = repartitionToFourMembers(4);
+
+        int maxOngoingMigrations = recorder.maxOngoingMigrations.get();
+        assertTrue("maxOngoingMigrations: " + maxOngoingMigrations, maxOngoingMigrations > 1);
+        assertTrue("maxOngoingMigrations: " + maxOngoingMigrations, maxOngoingMigrations <= 4);
+        assertFalse("Migrations sharing a member have run in parallel", recorder.sharedMember.get());
+    }
+
+    @Test
+    public void repartitioning_runsMigrationsSerially_whenParallelMigrationsDisabled() {
+        ConcurrencyRecorder recorder = repartitionToFourMembers(1);
+
+        assertEquals(1, recorder.maxOngoingMigrations.get());
+    }
+
+    /**
+     * Starts two members with data, lets two more members join while migrations are not allowed
+     * and then allows the migrations, so a single repartitioning plans migrations between all of them.
+     */
+    private ConcurrencyRecorder repartitionToFourMembers(int maxParallelMigrations) {
+        Config config = smallInstanceConfig()
+                .setProperty(PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT_VALUE))
+                .setProperty(PARTITION_MAX_PARALLEL_MIGRATIONS.getName(), String.valueOf(maxParallelMigrations));
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance1.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        waitAllForSafeState(instance1, instance2);
+
+        ConcurrencyRecorder recorder = new ConcurrencyRecorder();
+        ((InternalPartitionServiceImpl) getPartitionService(instance1)).setMigrationInterceptor(recorder);
+        instance1.getCluster().changeClusterState(ClusterState.NO_MIGRATION);
+        HazelcastInstance instance3 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance4 = factory.newHazelcastInstance(config);
+        assertClusterSizeEventually(4, instance1, instance2, instance3, instance4);
+        instance1.getCluster().changeClusterState(ClusterState.ACTIVE);
+        waitAllForSafeState(instance1, instance2, instance3, instance4);
+
+        assertEquals(0, recorder.ongoingMigrations.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) instance4.<Integer, Integer>getMap("map").get(i));
+        }
+        return recorder;
+    }
+
+    private static class ConcurrencyRecorder implements MigrationInterceptor {
+
+        final Set<MigrationInfo> ongoingMigrations = ConcurrentHashMap.newKeySet();
+        final AtomicInteger maxOngoingMigrations = new AtomicInteger();
+        final AtomicBoolean sharedMember = new AtomicBoolean();
+
+        @Override
+        public void onMigrationStart(MigrationParticipant participant, MigrationInfo migration) {
+            if (participant != MigrationParticipant.MASTER) {
+                return;
+            }
+            for (MigrationInfo ongoing : ongoingMigrations) {
+                if (shareMember(ongoing, migration)) {
+                    sharedMember.set(true);
+                }
+            }
+            ongoingMigrations.add(migration);
+            maxOngoingMigrations.accumulateAndGet(ongoingMigrations.size(), Math::max);
+        }
+
+        @Override
+        public void onMigrationComplete(MigrationParticipant participant, MigrationInfo migration, boolean success) {
+            if (participant == MigrationParticipant.MASTER) {
+                ongoingMigrations.remove(migration);
+            }
+        }
+
+        private static boolean shareMember(MigrationInfo migration1, MigrationInfo migration2) {
+            PartitionReplica source = migration1.getSource();
+            PartitionReplica destination = migration1.getDestination();
+            return (source != null && (source.equals(migration2.getSource()) || source.equals(migration2.getDestination())))
+                    || destination.equals(migration2.getSource()) || destination.equals(migration2.getDestination());
+        }
+    }
+}
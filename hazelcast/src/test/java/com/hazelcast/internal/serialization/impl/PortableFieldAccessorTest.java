@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.MorphingBasePortable;
+import com.hazelcast.nio.serialization.MorphingPortable;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.nio.serialization.TestSerializationConstants;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PortableFieldAccessorTest {
+
+    private static final int EMPLOYEE_CLASS_ID = 1000;
+    private static final int MEASUREMENT_CLASS_ID = 1001;
+
+    private static final String[] PRIMITIVE_FIELDS = {"byte", "boolean", "char", "short", "int", "long", "float", "double"};
+
+    @Test
+    public void read_matchesPortableReader() throws IOException {
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            assertReadsAsPortableReader(new DefaultSerializationServiceBuilder().setByteOrder(byteOrder).build());
+        }
+        assertReadsAsPortableReader(new DefaultSerializationServiceBuilder().setUseNativeByteOrder(true).build());
+    }
+
+    @Test
+    public void read_fieldAfterVariableLengthField() throws IOException {
+        InternalSerializationService ss = newEmployeeSerializationService();
+        Data data = ss.toData(new Employee("a", 42, 1.5d));
+        ClassDefinition classDefinition = ss.getPortableContext().lookupClassDefinition(data);
+        PortableFieldAccessor age = PortableFieldAccessor.compile(data, classDefinition, "age", ss.getByteOrder());
+        PortableFieldAccessor salary = PortableFieldAccessor.compile(data, classDefinition, "salary", ss.getByteOrder());
+
+        Data other = ss.toData(new Employee("a much longer name", 7, 1000d));
+
+        assertTrue(age.matches(other));
+        assertEquals(42, age.read(data));
+        assertEquals(7, age.read(other));
+        assertEquals(1000d, salary.read(other));
+    }
+
+    @Test
+    public void read_whenFieldNameNotAscii() throws IOException {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder()
+                .addPortableFactory(TestSerializationConstants.PORTABLE_FACTORY_ID, classId -> new Measurement())
+                .build();
+        Data data = ss.toData(new Measurement(42, 7L));
+        ClassDefinition classDefinition = ss.getPortableContext().lookupClassDefinition(data);
+        DefaultPortableReader reader = (DefaultPortableReader) ss.createPortableReader(data);
+
+        for (String field : new String[]{"gr\u00f6\u00dfe", "\u9577\u3055"}) {
+            PortableFieldAccessor accessor = PortableFieldAccessor.compile(data, classDefinition, field, ss.getByteOrder());
+            assertTrue(field, accessor.canRead());
+            assertEquals(field, reader.read(field), accessor.read(data));
+        }
+    }
+
+    @Test
+    public void compile_whenFieldMissingOrNotPrimitive_thenCannotRead() throws IOException {
+        InternalSerializationService ss = newEmployeeSerializationService();
+        Data data = ss.toData(new Employee("a", 42, 1.5d));
+        ClassDefinition classDefinition = ss.getPortableContext().lookupClassDefinition(data);
+
+        for (String field : new String[]{"name", "missing", "age.value"}) {
+            PortableFieldAccessor accessor = PortableFieldAccessor.compile(data, classDefinition, field, ss.getByteOrder());
+            assertTrue(field, accessor.matches(data));
+            assertFalse(field, accessor.canRead());
+        }
+    }
+
+    @Test
+    public void matches_whenOtherVersionOrClass_thenFalse() throws IOException {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder()
+                .addPortableFactory(TestSerializationConstants.PORTABLE_FACTORY_ID,
+                        classId -> classId == EMPLOYEE_CLASS_ID ? new Employee() : new MorphingBasePortable())
+                .build();
+        Data base = ss.toData(new MorphingBasePortable((byte) 1, true, (char) 2, (short) 3, 4, 5, 1f, 2d, "test"));
+        Data morphed = ss.toData(new MorphingPortable((byte) 1, true, (char) 2, (short) 3, 4, 5, 1f, 2d, "test"));
+        Data employee = ss.toData(new Employee("a", 4, 1.5d));
+
+        ClassDefinition classDefinition = ss.getPortableContext().lookupClassDefinition(base);
+        PortableFieldAccessor accessor = PortableFieldAccessor.compile(base, classDefinition, "int", ss.getByteOrder());
+
+        assertTrue(accessor.matches(base));
+        assertFalse(accessor.matches(morphed));
+        assertFalse(accessor.matches(employee));
+    }
+
+    private static void assertReadsAsPortableReader(InternalSerializationService ss) throws IOException {
+        Data data = ss.toData(new MorphingBasePortable((byte) -1, true, 'x', (short) -3, Integer.MIN_VALUE,
+                Long.MAX_VALUE, 1.25f, -2.5d, "test"));
+        ClassDefinition classDefinition = ss.getPortableContext().lookupClassDefinition(data);
+        DefaultPortableReader reader = (DefaultPortableReader) ss.createPortableReader(data);
+
+        for (String field : PRIMITIVE_FIELDS) {
+            PortableFieldAccessor accessor = PortableFieldAccessor.compile(data, classDefinition, field, ss.getByteOrder());
+            assertTrue(field, accessor.matches(data));
+            assertEquals(ss.getByteOrder() + " " + field, reader.read(field), accessor.read(data));
+        }
+    }
+
+    private static InternalSerializationService newEmployeeSerializationService() {
+        return new DefaultSerializationServiceBuilder()
+                .addPortableFactory(TestSerializationConstants.PORTABLE_FACTORY_ID, classId -> new Employee())
+                .build();
+    }
+
+    private static class Employee implements Portable {
+
+        private String name;
+        private int age;
+        private double salary;
+
+        Employee() {
+        }
+
+        Employee(String name, int age, double salary) {
+            this.name = name;
+            this.age = age;
+            this.salary = salary;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return TestSerializationConstants.PORTABLE_FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return EMPLOYEE_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("name", name);
+            writer.writeInt("age", age);
+            writer.writeDouble("salary", salary);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            name = reader.readUTF("name");
+            age = reader.readInt("age");
+            salary = reader.readDouble("salary");
+        }
+    }
+
+    private static class Measurement implements Portable {
+
+        private int size;
+        private long length;
+
+        Measurement() {
+        }
+
+        Measurement(int size, long length) {
+            this.size = size;
+            this.length = length;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return TestSerializationConstants.PORTABLE_FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return MEASUREMENT_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeInt("gr\u00f6\u00dfe", size);
+            writer.writeLong("\u9577\u3055", length);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            size = reader.readInt("gr\u00f6\u00dfe");
+            length = reader.readLong("\u9577\u3055");
+        }
+    }
+}
@@ -20,14 +20,25 @@ import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelJVMTest;
 import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.util.HashUtil.hashToIndex;
 import static com.hazelcast.logging.Logger.getLogger;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -36,6 +47,15 @@ public class StripedExecutorTest extends HazelcastTestSupport {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    private StripedExecutor executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void throws_illegalArgumentException_whenThreadCount_isNotPositive() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
@@ -61,6 +81,118 @@ public class StripedExecutorTest extends HazelcastTestSupport {
         assertEquals(maximumQueueCapacity, calculateWorkersTotalQueueCapacity(executor));
     }
 
+    @Test
+    public void workStealing_processesTasksOfSameKey_inOrder() {
+        executor = new StripedExecutor(getLogger(getClass()), "", 3, 100000, false, 12);
+        int keyCount = 50;
+        int taskCountPerKey = 200;
+        List<List<Integer>> processed = new ArrayList<>();
+        for (int key = 0; key < keyCount; key++) {
+            processed.add(new ArrayList<>());
+        }
+        AtomicInteger processedCount = new AtomicInteger();
+
+        for (int i = 0; i < taskCountPerKey; i++) {
+            for (int key = 0; key < keyCount; key++) {
+                List<Integer> values = processed.get(key);
+                int value = i;
+                executor.execute(new KeyedTask(key, () -> {
+                    values.add(value);
+                    processedCount.incrementAndGet();
+                }));
+            }
+        }
+
+        assertEqualsEventually(keyCount * taskCountPerKey, processedCount);
+        for (List<Integer> values : processed) {
+            for (int i = 0; i < taskCountPerKey; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+        assertEquals(keyCount * taskCountPerKey, totalQueueLatencyCount(executor));
+        assertEquals(0, executor.getWorkQueueSize());
+    }
+
+    @Test
+    public void workStealing_idleWorkerStealsStripe_ofBlockedWorker() throws Exception {
+        // stripes 0 and 2 have the same home worker
+        executor = new StripedExecutor(getLogger(getClass()), "", 2, 1000, false, 4);
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        CountDownLatch processedLatch = new CountDownLatch(1);
+
+        executor.execute(new KeyedTask(keyOfStripe(0, 4), () -> assertOpenEventually(blockLatch)));
+        executor.execute(new KeyedTask(keyOfStripe(2, 4), processedLatch::countDown));
+
+        assertOpenEventually(processedLatch);
+        blockLatch.countDown();
+        assertTrue(executor.stolenStripeCount() > 0);
+    }
+
+    @Test
+    public void workStealing_startsIdleWorker_toStealStripeOfBlockedWorker_whenThreadsAreLazy() {
+        // stripes 0 and 2 have the same home worker, the other worker is not started yet
+        executor = new StripedExecutor(getLogger(getClass()), "", 2, 1000, true, 4);
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        CountDownLatch processedLatch = new CountDownLatch(1);
+        AtomicReference<Thread> blockedThread = new AtomicReference<>();
+        AtomicReference<Thread> stealingThread = new AtomicReference<>();
+
+        executor.execute(new KeyedTask(keyOfStripe(0, 4), () -> {
+            blockedThread.set(Thread.currentThread());
+            startedLatch.countDown();
+            assertOpenEventually(blockLatch);
+        }));
+        assertOpenEventually(startedLatch);
+        executor.execute(new KeyedTask(keyOfStripe(2, 4), () -> {
+            stealingThread.set(Thread.currentThread());
+            processedLatch.countDown();
+        }));
+
+        assertOpenEventually(processedLatch);
+        blockLatch.countDown();
+        assertNotSame(blockedThread.get(), stealingThread.get());
+        assertTrue(executor.stolenStripeCount() > 0);
+    }
+
+    @Test
+    public void workStealing_rejectsTask_whenQueueCapacityIsExhausted() {
+        executor = new StripedExecutor(getLogger(getClass()), "", 1, 1, false, 4);
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        executor.execute(new KeyedTask(0, () -> {
+            startedLatch.countDown();
+            assertOpenEventually(blockLatch);
+        }));
+        assertOpenEventually(startedLatch);
+        executor.execute(new KeyedTask(1, () -> { }));
+
+        expectedException.expect(RejectedExecutionException.class);
+        try {
+            executor.execute(new KeyedTask(2, () -> { }));
+        } finally {
+            blockLatch.countDown();
+        }
+    }
+
+    private static int keyOfStripe(int stripe, int stripeCount) {
+        int key = 0;
+        while (hashToIndex(key, stripeCount) != stripe) {
+            key++;
+        }
+        return key;
+    }
+
+    private static long totalQueueLatencyCount(StripedExecutor executor) {
+        long count = 0;
+        for (QueueLatencyHistogram histogram : executor.getQueueLatencyHistograms()) {
+            for (int bucket = 0; bucket < histogram.bucketCount(); bucket++) {
+                count += histogram.count(bucket);
+            }
+        }
+        return count;
+    }
+
     private static int calculateWorkersTotalQueueCapacity(StripedExecutor executor) {
         int totalQueueCapacity = 0;
         StripedExecutor.Worker[] workers = executor.getWorkers();
@@ -69,4 +201,24 @@ public class StripedExecutorTest extends HazelcastTestSupport {
         }
         return totalQueueCapacity;
     }
+
+    private static class KeyedTask implements StripedRunnable {
+        private final int key;
+        private final Runnable runnable;
+
+        KeyedTask(int key, Runnable runnable) {
+            this.key = key;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public int getKey() {
+            return key;
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+    }
 }
@@ -629,6 +629,45 @@ public class EvictionTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testEvictionTinyLFU_keepsFrequentlyAccessedEntries_whenScanned() {
+        int size = 1000;
+        String mapName = randomMapName();
+
+        MapConfig mapConfig = newMapConfig(mapName);
+        mapConfig.getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(size);
+
+        Config config = getConfig()
+                .setProperty(ClusterProperty.PARTITION_COUNT.getName(), "1")
+                .addMapConfig(mapConfig);
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Object, Object> map = node.getMap(mapName);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+            for (int j = 0; j < 5; j++) {
+                map.get(i);
+            }
+        }
+        // a scan which would push the frequently accessed entries out of an LRU map
+        for (int i = 100; i < 10 * size; i++) {
+            map.put(i, i);
+        }
+
+        assertTrue(map.size() <= size);
+        // the frequencies are estimated, a few scanned keys may look as frequent as the hot ones
+        int retained = 0;
+        for (int i = 0; i < 100; i++) {
+            if (map.containsKey(i)) {
+                retained++;
+            }
+        }
+        assertTrue("retained: " + retained, retained >= 90);
+    }
+
     @Test
     public void testMapRecordEviction() {
         String mapName = randomMapName();
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.ReplicaDigest;
+import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_DELTA_REPLICATION_ENABLED;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static com.hazelcast.test.TestTaskExecutorUtil.runOnPartitionThread;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapDeltaReplicationTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "map";
+    private static final int PARTITION_ID = 0;
+    private static final int ENTRY_COUNT = 1000;
+
+    private HazelcastInstance primary;
+    private HazelcastInstance backup;
+    private SerializationService ss;
+
+    @Before
+    public void setUp() {
+        Config config = smallInstanceConfig()
+                .setProperty(PARTITION_COUNT.getName(), "1")
+                .setProperty(PARTITION_DELTA_REPLICATION_ENABLED.getName(), "true");
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(config);
+        warmUpPartitions(instances);
+        boolean firstIsOwner = getPartitionService(instances[0]).getPartition(PARTITION_ID).isLocal();
+        primary = firstIsOwner ? instances[0] : instances[1];
+        backup = firstIsOwner ? instances[1] : instances[0];
+        ss = getSerializationService(primary);
+
+        IMap<Integer, Integer> map = primary.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertTrueEventually(() -> assertEquals(ENTRY_COUNT, readEntries(backup).size()));
+    }
+
+    @Test
+    public void getDigestDepth() {
+        assertEquals(2, MapReplicaDigests.getDigestDepth(0));
+        assertEquals(2, MapReplicaDigests.getDigestDepth(16));
+        assertEquals(8, MapReplicaDigests.getDigestDepth(ENTRY_COUNT));
+        assertEquals(16, MapReplicaDigests.getDigestDepth(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void digestsOfSameEntries_areEqual() {
+        int depth = MapReplicaDigests.getDigestDepth(ENTRY_COUNT);
+        ReplicaDigest primaryDigest = createDigest(primary, depth);
+        ReplicaDigest backupDigest = createDigest(backup, depth);
+
+        assertEquals(0, primaryDigest.getDifferingLeafOrders(backupDigest).length);
+    }
+
+    @Test
+    public void digestsOfDifferentEntries_differInLeafOfKey() {
+        int depth = MapReplicaDigests.getDigestDepth(ENTRY_COUNT);
+        runOnPartitionThread(backup, () -> {
+            getRecordStore(backup).getRecord(ss.toData(1)).setValue(ss.toData(-1));
+            return null;
+        }, PARTITION_ID);
+
+        ReplicaDigest primaryDigest = createDigest(primary, depth);
+        ReplicaDigest backupDigest = createDigest(backup, depth);
+
+        int leafOrder = MapReplicaDigests.getLeafOrder(ss.toData(1), depth - 1);
+        assertArrayEquals(new int[]{leafOrder}, primaryDigest.getDifferingLeafOrders(backupDigest));
+    }
+
+    @Test
+    public void digestsOfEntriesWithSwappedValues_differInLeafOfKeys() {
+        // the values of two keys of the same leaf are swapped, which keeps the sum of the entry hashes of the leaf
+        int depth = 2;
+        int leafLevel = depth - 1;
+        Data key = ss.toData(0);
+        Data otherKey = null;
+        for (int i = 1; otherKey == null; i++) {
+            if (MapReplicaDigests.getLeafOrder(ss.toData(i), leafLevel) == MapReplicaDigests.getLeafOrder(key, leafLevel)) {
+                otherKey = ss.toData(i);
+            }
+        }
+        Data swappedKey = otherKey;
+        runOnPartitionThread(backup, () -> {
+            RecordStore<Record> recordStore = getRecordStore(backup);
+            Object value = recordStore.getRecord(key).getValue();
+            recordStore.getRecord(key).setValue(recordStore.getRecord(swappedKey).getValue());
+            recordStore.getRecord(swappedKey).setValue(value);
+            return null;
+        }, PARTITION_ID);
+
+        ReplicaDigest primaryDigest = createDigest(primary, depth);
+        ReplicaDigest backupDigest = createDigest(backup, depth);
+
+        assertArrayEquals(new int[]{MapReplicaDigests.getLeafOrder(key, leafLevel)},
+                primaryDigest.getDifferingLeafOrders(backupDigest));
+    }
+
+    @Test
+    public void replicaSync_replicatesDifferingEntriesOnly() {
+        Data untouchedKey = ss.toData(0);
+        Record untouchedRecord = runOnPartitionThread(backup, () -> getRecordStore(backup).getRecord(untouchedKey),
+                PARTITION_ID);
+        Data updatedKey = ss.toData(2);
+        Record updatedRecord = runOnPartitionThread(backup, () -> {
+            RecordStore<Record> recordStore = getRecordStore(backup);
+            DataRecordFactory recordFactory = new DataRecordFactory(recordStore.getMapContainer().getMapConfig(), ss);
+            recordStore.removeReplicatedRecord(ss.toData(1));
+            recordStore.getRecord(updatedKey).setValue(ss.toData(-2));
+            recordStore.putReplicatedRecord(ss.toData(ENTRY_COUNT), recordFactory.newRecord(ss.toData(ENTRY_COUNT)),
+                    0, false);
+            return recordStore.getRecord(updatedKey);
+        }, PARTITION_ID);
+
+        syncBackupReplica();
+
+        assertTrueEventually(() -> assertEquals(readEntries(primary), readEntries(backup)));
+        assertSame(untouchedRecord, runOnPartitionThread(backup, () -> getRecordStore(backup).getRecord(untouchedKey),
+                PARTITION_ID));
+        assertNotSame(updatedRecord, runOnPartitionThread(backup, () -> getRecordStore(backup).getRecord(updatedKey),
+                PARTITION_ID));
+    }
+
+    @Test
+    public void replicaSync_whenMapMissingOnPrimary_thenClearsBackup() {
+        runOnPartitionThread(primary, () -> {
+            getMapServiceContext(primary).removeRecordStoresFromPartitionMatchingWith(recordStore -> true, PARTITION_ID,
+                    false, true);
+            return null;
+        }, PARTITION_ID);
+
+        syncBackupReplica();
+
+        assertTrueEventually(() -> assertEquals(0, readEntries(backup).size()));
+    }
+
+    private void syncBackupReplica() {
+        InternalPartitionServiceImpl partitionService = (InternalPartitionServiceImpl) getPartitionService(backup);
+        runOnPartitionThread(backup, () -> {
+            partitionService.getReplicaManager().triggerPartitionReplicaSync(PARTITION_ID,
+                    singleton(MapService.getObjectNamespace(MAP_NAME)), 1);
+            return null;
+        }, PARTITION_ID);
+    }
+
+    private ReplicaDigest createDigest(HazelcastInstance instance, int depth) {
+        return runOnPartitionThread(instance, () -> MapReplicaDigests.createDigest(getRecordStore(instance), ss, depth),
+                PARTITION_ID);
+    }
+
+    private Map<Object, Object> readEntries(HazelcastInstance instance) {
+        return runOnPartitionThread(instance, () -> {
+            Map<Object, Object> entries = new HashMap<>();
+            RecordStore<Record> recordStore = getRecordStore(instance);
+            if (recordStore != null) {
+                recordStore.forEach((key, record) -> entries.put(ss.toObject(key), ss.toObject(record.getValue())),
+                        true, true);
+            }
+            return entries;
+        }, PARTITION_ID);
+    }
+
+    private static RecordStore<Record> getRecordStore(HazelcastInstance instance) {
+        return getMapServiceContext(instance).getExistingRecordStore(PARTITION_ID, MAP_NAME);
+    }
+
+    private static MapServiceContext getMapServiceContext(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.Serializable;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_PERSISTENCE_COMPACTION_INTERVAL_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_DELTA_REPLICATION_ENABLED;
+import static com.hazelcast.test.Accessors.getAddress;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapPersistenceTest extends HazelcastTestSupport {
+
+    private static final String PERSISTENT_MAP = "persistent";
+    private static final String NON_PERSISTENT_MAP = "transient";
+    private static final int ENTRY_COUNT = 1000;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private TestHazelcastInstanceFactory factory;
+    private File baseDir;
+
+    @Before
+    public void setUp() {
+        factory = createHazelcastInstanceFactory();
+        baseDir = new File(tempFolder.getRoot(), "hot-restart");
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void restart_restoresPersistentMaps() {
+        HazelcastInstance instance = factory.newHazelcastInstance(getConfig());
+        Address address = getAddress(instance);
+        fill(instance.getMap(PERSISTENT_MAP));
+        fill(instance.getMap(NON_PERSISTENT_MAP));
+        instance.getMap(PERSISTENT_MAP).remove(0);
+        instance.getMap(PERSISTENT_MAP).put(1, new Person("updated", -1));
+
+        instance.shutdown();
+        instance = factory.newHazelcastInstance(address, getConfig());
+
+        IMap<Integer, Person> map = instance.getMap(PERSISTENT_MAP);
+        assertEquals(ENTRY_COUNT - 1, map.size());
+        assertEquals("updated", map.get(1).getName());
+        assertEquals("name-2", map.get(2).getName());
+        assertEquals(0, instance.getMap(NON_PERSISTENT_MAP).size());
+    }
+
+    @Test
+    public void restart_populatesIndexes() {
+        HazelcastInstance instance = factory.newHazelcastInstance(getConfig());
+        Address address = getAddress(instance);
+        fill(instance.getMap(PERSISTENT_MAP));
+
+        instance.shutdown();
+        HazelcastInstance restarted = factory.newHazelcastInstance(address, getConfig());
+
+        IMap<Integer, Person> map = restarted.getMap(PERSISTENT_MAP);
+        assertTrueEventually(() -> assertEquals(10, map.values(Predicates.lessThan("age", 10)).size()));
+    }
+
+    @Test
+    public void restart_whenClusterFrozen_thenRestoresPartitionsOfMember() {
+        HazelcastInstance instance1 = factory.newHazelcastInstance(getConfig());
+        HazelcastInstance instance2 = factory.newHazelcastInstance(getConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+        fill(instance1.getMap(PERSISTENT_MAP));
+        waitAllForSafeState(instance1, instance2);
+
+        Address address = getAddress(instance2);
+        instance1.getCluster().changeClusterState(ClusterState.FROZEN);
+        instance2.shutdown();
+        instance2 = factory.newHazelcastInstance(address, getConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+        instance1.getCluster().changeClusterState(ClusterState.ACTIVE);
+        waitAllForSafeState(instance1, instance2);
+
+        IMap<Integer, Person> map = instance2.getMap(PERSISTENT_MAP);
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals("name-" + i, map.get(i).getName());
+        }
+        instance1.shutdown();
+        assertEquals(ENTRY_COUNT, instance2.getMap(PERSISTENT_MAP).size());
+    }
+
+    @Test
+    public void restart_whenClusterActive_thenMigratesChangedEntriesToRestoredMember() {
+        HazelcastInstance instance1 = factory.newHazelcastInstance(getDeltaReplicationConfig());
+        HazelcastInstance instance2 = factory.newHazelcastInstance(getDeltaReplicationConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+        fill(instance1.getMap(PERSISTENT_MAP));
+        waitAllForSafeState(instance1, instance2);
+
+        Address address = getAddress(instance2);
+        instance2.shutdown();
+        IMap<Integer, Person> map = instance1.getMap(PERSISTENT_MAP);
+        for (int i = 0; i < ENTRY_COUNT; i += 10) {
+            map.remove(i);
+            map.put(i + 1, new Person("updated", -1));
+        }
+        instance2 = factory.newHazelcastInstance(address, getDeltaReplicationConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+        waitAllForSafeState(instance1, instance2);
+
+        instance1.shutdown();
+        map = instance2.getMap(PERSISTENT_MAP);
+        assertEquals(ENTRY_COUNT - ENTRY_COUNT / 10, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Person person = map.get(i);
+            if (i % 10 == 0) {
+                assertNull(person);
+            } else {
+                assertEquals(i % 10 == 1 ? "updated" : "name-" + i, person.getName());
+            }
+        }
+        assertEquals(ENTRY_COUNT / 10, map.values(Predicates.lessThan("age", 0)).size());
+    }
+
+    @Test
+    public void compaction_shrinksLogOfOverwrittenEntries() {
+        Config config = getConfig().setProperty(MAP_PERSISTENCE_COMPACTION_INTERVAL_SECONDS.getName(), "1");
+        HazelcastInstance instance = factory.newHazelcastInstance(config);
+        Address address = getAddress(instance);
+        IMap<Integer, Person> map = instance.getMap(PERSISTENT_MAP);
+        int partitionId = getPartitionService(instance).getPartitionId(0);
+        for (int i = 0; i < 5000; i++) {
+            map.put(0, new Person("name", i));
+        }
+
+        File partitionDir = new File(new File(baseDir, MapPersistenceService.MEMBER_DIR_PREFIX
+                + address.getHost().replaceAll("[^\\w.-]", "_") + "-" + address.getPort()),
+                MapPersistenceService.PARTITION_DIR_PREFIX + partitionId);
+        assertTrueEventually(() -> {
+            File[] segments = partitionDir.listFiles();
+            assertTrue(segments != null && segments.length == 1);
+            assertTrue(segments[0].length() < 1024);
+        });
+
+        instance.shutdown();
+        instance = factory.newHazelcastInstance(address, config);
+        assertEquals(4999, instance.<Integer, Person>getMap(PERSISTENT_MAP).get(0).getAge());
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.getHotRestartPersistenceConfig()
+              .setEnabled(true)
+              .setBaseDir(baseDir);
+        MapConfig mapConfig = new MapConfig(PERSISTENT_MAP)
+                .addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        mapConfig.getHotRestartConfig().setEnabled(true);
+        return config.addMapConfig(mapConfig);
+    }
+
+    private Config getDeltaReplicationConfig() {
+        return getConfig().setProperty(PARTITION_DELTA_REPLICATION_ENABLED.getName(), "true");
+    }
+
+    private static void fill(IMap<Object, Object> map) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Person("name-" + i, i));
+        }
+    }
+
+    public static class Person implements Serializable {
+
+        private final String name;
+        private final int age;
+
+        Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
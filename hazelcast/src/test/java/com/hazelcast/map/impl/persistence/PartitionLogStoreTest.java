@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.persistence;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+import static com.hazelcast.map.impl.persistence.PartitionLogStore.SEGMENT_PREFIX;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PartitionLogStoreTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private InternalSerializationService ss;
+    private DataRecordFactory recordFactory;
+    private File dir;
+    private PartitionLogStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        ss = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig("map"), ss);
+        dir = new File(tempFolder.getRoot(), "partition-0");
+        store = new PartitionLogStore(dir, ss);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void load_whenNoSegments_thenEmpty() throws Exception {
+        assertTrue(store.load().isEmpty());
+        assertEquals(0, store.recordCount());
+    }
+
+    @Test
+    public void load_replaysPutsRemovesAndClears() throws Exception {
+        putEntry("map", "k1", "v1", 3);
+        putEntry("map", "k2", "v2", 0);
+        putEntry("map", "k1", "v1-updated", 4);
+        store.appendRemove("map", ss.toData("k2"), false);
+        putEntry("other", "k1", "v1", 0);
+        store.appendClear("other", false);
+        store.close();
+
+        PartitionLogStore reopened = new PartitionLogStore(dir, ss);
+        Map<String, Map<Data, Record>> maps = reopened.load();
+
+        assertEquals(6, reopened.recordCount());
+        assertFalse(maps.containsKey("other"));
+        Map<Data, Record> entries = maps.get("map");
+        assertEquals(1, entries.size());
+        Record record = entries.get(ss.toData("k1"));
+        assertEquals("v1-updated", ss.toObject(record.getValue()));
+        assertEquals(4, record.getVersion());
+        reopened.close();
+    }
+
+    @Test
+    public void load_ignoresTornRecordAtTheEndOfSegment() throws Exception {
+        putEntry("map", "k1", "v1", 0);
+        putEntry("map", "k2", "v2", 0);
+        store.close();
+
+        File segment = new File(dir, SEGMENT_PREFIX + 1);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        PartitionLogStore reopened = new PartitionLogStore(dir, ss);
+        Map<Data, Record> entries = reopened.load().get("map");
+
+        assertEquals(1, reopened.recordCount());
+        assertEquals(1, entries.size());
+        assertNull(entries.get(ss.toData("k2")));
+        reopened.close();
+    }
+
+    @Test
+    public void append_afterLoad_thenWritesNewSegment() throws Exception {
+        putEntry("map", "k1", "v1", 0);
+        store.close();
+
+        PartitionLogStore reopened = new PartitionLogStore(dir, ss);
+        reopened.load();
+        reopened.appendPut("map", ss.toData("k2"), recordFactory.newRecord("v2"), ss.toData("v2"), false);
+        reopened.close();
+
+        assertTrue(new File(dir, SEGMENT_PREFIX + 2).isFile());
+        PartitionLogStore loaded = new PartitionLogStore(dir, ss);
+        assertEquals(2, loaded.load().get("map").size());
+        loaded.close();
+    }
+
+    @Test
+    public void append_whenReplaying_thenNotAppended() throws Exception {
+        store.setReplaying(true);
+        putEntry("map", "k1", "v1", 0);
+        store.setReplaying(false);
+
+        assertEquals(0, store.recordCount());
+        assertFalse(dir.exists());
+    }
+
+    @Test
+    public void shouldCompact_whenMostRecordsAreOverwritten() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            putEntry("map", "k", "v" + i, i);
+        }
+
+        assertTrue(store.shouldCompact(1, 10));
+        assertFalse(store.shouldCompact(1, 11));
+        assertFalse(store.shouldCompact(5, 10));
+    }
+
+    private void putEntry(String mapName, String key, String value, long version) throws Exception {
+        Record record = recordFactory.newRecord(value);
+        record.setVersion(version);
+        store.appendPut(mapName, ss.toData(key), record, ss.toData(value), false);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.query.ColumnarScanTest.Employee;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.properties.ClusterProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a partition scan over a map keeping a columnar projection with
+ * the regular scan: a {@code salary > 1000} sum aggregation and a query
+ * selecting 1% of the entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ColumnarScanBenchmark {
+
+    private static final int BATCH_SIZE = 10000;
+
+    @Param({"regular", "columnar"})
+    private String mapName;
+
+    @Param({"1000000"})
+    private int entryCount;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Employee> map;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Config config = new Config();
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.setProperty(ClusterProperty.MAP_COLUMNAR_PROJECTION_MAP_NAMES.getName(), "columnar");
+        instance = Hazelcast.newHazelcastInstance(config);
+        map = instance.getMap(mapName);
+
+        Map<Integer, Employee> batch = new HashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            batch.put(i, new Employee(i, i % 100, i % 2000));
+            if (batch.size() == BATCH_SIZE) {
+                map.putAll(batch);
+                batch.clear();
+            }
+        }
+        map.putAll(batch);
+        // builds the columns
+        salarySum();
+        selectiveQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.shutdown();
+    }
+
+    @Benchmark
+    public Double salarySum() {
+        return map.aggregate(Aggregators.doubleSum("salary"), Predicates.greaterThan("salary", 1000));
+    }
+
+    @Benchmark
+    public Collection<Employee> selectiveQuery() {
+        return map.values(Predicates.and(Predicates.equal("age", 42), Predicates.lessThan("salary", 200)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ColumnarScanBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
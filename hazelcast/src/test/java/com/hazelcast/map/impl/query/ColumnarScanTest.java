@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.ColumnarProjection;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnarScanTest extends HazelcastTestSupport {
+
+    private static final List<Predicate<Integer, Employee>> PREDICATES = asList(
+            Predicates.alwaysTrue(),
+            Predicates.greaterThan("age", 30),
+            Predicates.lessEqual("this.age", 30),
+            Predicates.between("salary", 100.0d, 300),
+            Predicates.equal("id", 42L),
+            Predicates.equal("age", "25"),
+            Predicates.greaterThan("age", 30.5d),
+            Predicates.and(Predicates.greaterEqual("age", 20), Predicates.lessThan("salary", 400)),
+            Predicates.sql("age > 30 and salary <= 200"),
+            Predicates.notEqual("age", 25));
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Employee> columnar;
+    private IMap<Integer, Employee> regular;
+
+    @Before
+    public void setUp() {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.MAP_COLUMNAR_PROJECTION_MAP_NAMES.getName(), "columnar*");
+        instance = createHazelcastInstance(config);
+        columnar = instance.getMap("columnar");
+        regular = instance.getMap("regular");
+    }
+
+    @Test
+    public void aggregationsAndQueries_matchRegularScan() {
+        for (int i = 0; i < 1000; i++) {
+            put(i, new Employee(i, i % 60, i * 0.5d));
+        }
+        assertNull(getProjection(regular.getName(), 0));
+        awaitColumns("age", "salary", "id");
+        assertSameResults();
+
+        for (int i = 0; i < 1000; i += 3) {
+            columnar.remove(i);
+            regular.remove(i);
+        }
+        for (int i = 1; i < 1000; i += 5) {
+            put(i, new Employee(i + 7, (i + 11) % 60, i * 0.25d));
+        }
+        for (int i = 1000; i < 1200; i++) {
+            put(i, new Employee(i, i % 45, i * 0.75d));
+        }
+        regular.evict(2);
+        columnar.evict(2);
+        assertSameResults();
+
+        columnar.clear();
+        regular.clear();
+        assertSameResults();
+        put(1, new Employee(1, 40, 1000));
+        assertSameResults();
+    }
+
+    @Test
+    public void valueOfOtherClass_rejectsColumn() {
+        IMap<Integer, Object> map = instance.getMap("columnarObjects");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        int partitionId = instance.getPartitionService().getPartition(0).getPartitionId();
+        assertTrueEventually(() -> {
+            assertEquals(100, (long) map.aggregate(Aggregators.count(), Predicates.greaterEqual("this", 0)));
+            assertNotNull(getColumn(map.getName(), partitionId, "this"));
+        });
+        assertEquals(Integer.valueOf(99), map.aggregate(Aggregators.integerMax()));
+
+        map.put(0, 1000L);
+
+        assertNull(getColumn(map.getName(), partitionId, "this"));
+        assertEquals(Long.valueOf(1000L), map.aggregate(Aggregators.longMax(), Predicates.greaterThan("this", 98)));
+        assertEquals(new HashSet<>(asList(99, 1000L)), new HashSet<>(map.values(Predicates.greaterThan("this", 98))));
+        assertEquals(100, (long) map.aggregate(Aggregators.count()));
+        assertNull(getColumn(map.getName(), partitionId, "this"));
+    }
+
+    @Test
+    public void entriesWithTtl_useRegularScan() {
+        for (int i = 0; i < 100; i++) {
+            put(i, new Employee(i, i, i));
+        }
+        awaitColumns("age");
+        columnar.put(1000, new Employee(1000, 1000, 1000), 1, TimeUnit.HOURS);
+        regular.put(1000, new Employee(1000, 1000, 1000), 1, TimeUnit.HOURS);
+
+        assertSameResults();
+    }
+
+    @Test
+    public void sortable_ordersAsDoubleCompare() {
+        double[] values = {Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.5d, -Double.MIN_VALUE, -0.0d, 0.0d,
+                Double.MIN_VALUE, 1.0d, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN};
+        for (double lhs : values) {
+            for (double rhs : values) {
+                assertEquals(lhs + " " + rhs, Integer.signum(Double.compare(lhs, rhs)),
+                        Integer.signum(Long.compare(ColumnarScan.sortable(lhs), ColumnarScan.sortable(rhs))));
+            }
+        }
+        assertEquals(1, ColumnarScan.sortable(Double.MIN_VALUE) - ColumnarScan.sortable(0.0d));
+    }
+
+    private void put(int key, Employee employee) {
+        columnar.put(key, employee);
+        regular.put(key, employee);
+    }
+
+    private void awaitColumns(String... attributes) {
+        assertTrueEventually(() -> {
+            columnar.aggregate(Aggregators.count(), Predicates.greaterThan("age", 0));
+            int partitionCount = instance.getPartitionService().getPartitions().size();
+            for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+                for (String attribute : attributes) {
+                    assertNotNull(getColumn(columnar.getName(), partitionId, attribute));
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertSameResults() {
+        List<Aggregator<?, ?>> aggregators = Arrays.asList(
+                Aggregators.count(),
+                Aggregators.count("age"),
+                Aggregators.integerSum("age"),
+                Aggregators.integerAvg("age"),
+                Aggregators.longSum("id"),
+                Aggregators.longAvg("id"),
+                Aggregators.doubleSum("salary"),
+                Aggregators.doubleAvg("salary"),
+                Aggregators.doubleSum("age"),
+                Aggregators.numberAvg("age"),
+                Aggregators.numberAvg("salary"),
+                Aggregators.fixedPointSum("age"),
+                Aggregators.fixedPointSum("salary"),
+                Aggregators.floatingPointSum("salary"),
+                Aggregators.integerMin("age"),
+                Aggregators.integerMax("age"),
+                Aggregators.doubleMin("salary"),
+                Aggregators.doubleMax("salary"),
+                Aggregators.longMin("id"),
+                Aggregators.longMax("id"));
+
+        // twice, the first run requests the columns missing after a clear
+        for (int run = 0; run < 2; run++) {
+            for (Predicate<Integer, Employee> predicate : PREDICATES) {
+                for (Aggregator aggregator : aggregators) {
+                    assertEquals(aggregator + " " + predicate,
+                            (Object) regular.aggregate(aggregator, predicate),
+                            columnar.aggregate(aggregator, predicate));
+                }
+                assertEquals(predicate.toString(), new HashSet<>(regular.values(predicate)),
+                        new HashSet<>(columnar.values(predicate)));
+            }
+        }
+    }
+
+    private ColumnarProjection.Column getColumn(String mapName, int partitionId, String attribute) {
+        ColumnarProjection projection = getProjection(mapName, partitionId);
+        if (projection == null) {
+            return null;
+        }
+        Lock lock = projection.readLock();
+        lock.lock();
+        try {
+            return projection.getColumn(attribute);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ColumnarProjection getProjection(String mapName, int partitionId) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        RecordStore recordStore = mapServiceContext.getPartitionContainer(partitionId).getExistingRecordStore(mapName);
+        return recordStore == null ? null : recordStore.getColumnarProjection();
+    }
+
+    public static class Employee implements Serializable {
+
+        private final long id;
+        private final int age;
+        private final double salary;
+
+        Employee(long id, int age, double salary) {
+            this.id = id;
+            this.age = age;
+            this.salary = salary;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public double getSalary() {
+            return salary;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Employee employee = (Employee) o;
+            return id == employee.id && age == employee.age && Double.compare(employee.salary, salary) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) id;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the retained heap per entry of {@link CompactStorage} with
+ * the default {@link StorageImpl} holding records of a {@link DataRecordFactory},
+ * and the cost of materializing records on access.
+ * <p>
+ * The footprint is printed once per trial, after populating the storage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CompactStorageFootprintBenchmark {
+
+    @Param({"compact", "data"})
+    private String storageType;
+
+    @Param({"1000000"})
+    private int entryCount;
+
+    private SerializationService ss;
+    private Storage<Data, Record> storage;
+    private Data[] keys;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        MapConfig mapConfig = new MapConfig().setInMemoryFormat(InMemoryFormat.BINARY);
+        RecordFactory recordFactory;
+        if ("compact".equals(storageType)) {
+            recordFactory = new CompactRecordFactory(ss);
+            storage = new CompactStorage(ss);
+        } else {
+            recordFactory = new DataRecordFactory(mapConfig, ss);
+            storage = new StorageImpl(InMemoryFormat.BINARY, ss);
+        }
+
+        keys = new Data[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            keys[i] = ss.toData((long) i);
+        }
+
+        long before = usedHeap();
+        for (int i = 0; i < entryCount; i++) {
+            // a new key instance per entry, as it would arrive with an operation
+            Data key = ss.toData((long) i);
+            storage.put(key, recordFactory.newRecord(i));
+        }
+        long after = usedHeap();
+        System.out.printf("%n%s storage: %d entries, %.1f retained bytes per entry%n",
+                storageType, storage.size(), (after - before) / (double) entryCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Benchmark
+    public Object get() {
+        Record record = storage.get(keys[ThreadLocalRandom.current().nextInt(entryCount)]);
+        return record.getValue();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompactStorageFootprintBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the retained heap per key scheduled in an {@link ExpirationWheel}
+ * and the cost of rescheduling a key.
+ * <p>
+ * With {@code shared} keys the wheel holds the key instances the storage
+ * already holds, as with the {@link StorageImpl}. With {@code copied} keys
+ * it holds keys which are referenced by nothing else, as with the
+ * {@link OffHeapStorage} and the {@link CompactStorage}, which keep the key
+ * bytes in their own representation. The footprint is printed once per
+ * trial, after scheduling the keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExpirationWheelFootprintBenchmark {
+
+    private static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"shared", "copied"})
+    private String keys;
+
+    @Param({"1000000"})
+    private int keyCount;
+
+    private Data[] storedKeys;
+    private ExpirationWheel wheel;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SerializationService ss = new DefaultSerializationServiceBuilder().build();
+        storedKeys = new Data[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            storedKeys[i] = ss.toData((long) i);
+        }
+
+        now = System.currentTimeMillis();
+        long before = usedHeap();
+        wheel = new ExpirationWheel(now);
+        for (int i = 0; i < keyCount; i++) {
+            Data key = "shared".equals(keys) ? storedKeys[i] : ss.toData((long) i);
+            wheel.schedule(key, now + TTL_MILLIS + i);
+        }
+        long after = usedHeap();
+        System.out.printf("%n%s keys: %d keys, %.1f retained bytes per key%n",
+                keys, keyCount, (after - before) / (double) keyCount);
+    }
+
+    @Benchmark
+    public void reschedule() {
+        Data key = storedKeys[ThreadLocalRandom.current().nextInt(keyCount)];
+        wheel.remove(key);
+        wheel.schedule(key, now + TTL_MILLIS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ExpirationWheelFootprintBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
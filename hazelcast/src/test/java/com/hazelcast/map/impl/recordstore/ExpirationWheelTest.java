@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ExpirationWheelTest {
+
+    private static final long START = 1_000_000_000L;
+
+    private SerializationService ss;
+    private ExpirationWheel wheel;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        wheel = new ExpirationWheel(START);
+    }
+
+    @Test
+    public void testPollDue_returnsExpiredKeysOnly() {
+        wheel.schedule(key(1), START + 500);
+        wheel.schedule(key(2), START + 5000);
+
+        wheel.advance(START + 2000);
+
+        assertEquals(asList(key(1)), pollAll());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START + 6000);
+
+        assertEquals(asList(key(2)), pollAll());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testSchedule_alreadyExpired() {
+        wheel.schedule(key(1), START - 1);
+
+        assertEquals(asList(key(1)), pollAll());
+    }
+
+    @Test
+    public void testSchedule_earlierTimeMovesKey() {
+        wheel.schedule(key(1), START + TimeUnit.HOURS.toMillis(1));
+        wheel.schedule(key(1), START + 1000);
+
+        wheel.advance(START + 3000);
+
+        assertEquals(asList(key(1)), pollAll());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testSchedule_laterTimeKeepsKey() {
+        wheel.schedule(key(1), START + 1000);
+        wheel.schedule(key(1), START + TimeUnit.HOURS.toMillis(1));
+
+        wheel.advance(START + 3000);
+
+        assertEquals(asList(key(1)), pollAll());
+    }
+
+    @Test
+    public void testRemove() {
+        wheel.schedule(key(1), START + 1000);
+        wheel.schedule(key(2), START + 1000);
+        wheel.remove(key(1));
+
+        wheel.advance(START + 3000);
+
+        assertEquals(asList(key(2)), pollAll());
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(key(i), START + i * 100);
+        }
+        wheel.clear();
+
+        wheel.advance(START + 100_000);
+
+        assertNull(wheel.pollDue());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvance_cascadesFromHigherLevels() {
+        long[] delays = {
+                TimeUnit.SECONDS.toMillis(30),
+                TimeUnit.MINUTES.toMillis(10),
+                TimeUnit.HOURS.toMillis(5),
+                TimeUnit.DAYS.toMillis(2),
+                TimeUnit.DAYS.toMillis(30),
+        };
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule(key(i), START + delays[i]);
+        }
+
+        long now = START;
+        long step = TimeUnit.SECONDS.toMillis(10);
+        for (int i = 0; i < delays.length; i++) {
+            // not due a step before the expiration time
+            while (now + step < START + delays[i]) {
+                now += step;
+                wheel.advance(now);
+                assertNull("key " + i + " is due at " + (now - START), wheel.pollDue());
+            }
+            now = START + delays[i] + step;
+            wheel.advance(now);
+            assertEquals(asList(key(i)), pollAll());
+        }
+    }
+
+    private Data key(int i) {
+        return ss.toData(i);
+    }
+
+    private List<Data> pollAll() {
+        List<Data> keys = new ArrayList<>();
+        for (Data key = wheel.pollDue(); key != null; key = wheel.pollDue()) {
+            keys.add(key);
+        }
+        return keys;
+    }
+}
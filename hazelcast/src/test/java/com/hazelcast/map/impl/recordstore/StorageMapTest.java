@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.recordstore.StorageTest.StorageType;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.spi.properties.HazelcastProperty;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_STORAGE_MAP_NAMES;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_OFF_HEAP_STORAGE_MAP_NAMES;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static com.hazelcast.test.TestTaskExecutorUtil.runOnPartitionThread;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the storages of IMap records selected by the storage map name
+ * properties through the record stores of members.
+ */
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class StorageMapTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "storageMap";
+    private static final int PARTITION_COUNT_VALUE = 4;
+
+    @Parameterized.Parameter
+    public StorageType storageType;
+
+    @Parameterized.Parameters(name = "storageType:{0}")
+    public static Collection<Object[]> parameters() {
+        return asList(new Object[][]{
+                {StorageType.OFF_HEAP},
+                {StorageType.COMPACT},
+        });
+    }
+
+    @Test
+    public void recordStores_useConfiguredStorage() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        assumeStorage(instance);
+
+        fill(map, 100);
+
+        for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+            assertInstanceOf(storageClass(), getStorage(instance, partitionId));
+        }
+        assertEntries(map, 100);
+    }
+
+    @Test
+    public void eviction() {
+        Config config = getConfig();
+        config.getMapConfig(MAP_NAME).getEvictionConfig()
+              .setEvictionPolicy(EvictionPolicy.LRU)
+              .setMaxSizePolicy(MaxSizePolicy.PER_PARTITION)
+              .setSize(50);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        assumeStorage(instance);
+
+        fill(map, 1000);
+
+        // the eviction runs after the response of a put
+        assertTrueEventually(() -> {
+            for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+                assertEquals(50, getRecordStore(instance, partitionId).size());
+            }
+        });
+        for (int i = 0; i < 1000; i++) {
+            Integer value = map.get(i);
+            assertTrue(value == null || value == i);
+        }
+    }
+
+    @Test
+    public void expiry() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        assumeStorage(instance);
+
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i, 1, TimeUnit.SECONDS);
+        }
+        map.put(100, 100);
+
+        assertTrueEventually(() -> {
+            int size = 0;
+            for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+                size += getRecordStore(instance, partitionId).size();
+            }
+            assertEquals(1, size);
+        });
+        assertEquals(100, (int) map.get(100));
+    }
+
+    @Test
+    public void fetchKeys() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        assumeStorage(instance);
+        fill(map, 1000);
+
+        SerializationService ss = getSerializationService(instance);
+        Set<Integer> keys = new HashSet<>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+            RecordStore recordStore = getRecordStore(instance, partitionId);
+            IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+            do {
+                IterationPointer[] currentPointers = pointers;
+                MapKeysWithCursor cursor = runOnPartitionThread(instance,
+                        () -> recordStore.fetchKeys(currentPointers, 100), partitionId);
+                for (Data key : cursor.getBatch()) {
+                    keys.add(ss.toObject(key));
+                }
+                pointers = cursor.getIterationPointers();
+            } while (pointers[pointers.length - 1].getIndex() >= 0);
+        }
+
+        assertEquals(1000, keys.size());
+    }
+
+    @Test
+    public void migration() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = getConfig();
+        config.getMapConfig(MAP_NAME).setBackupCount(0);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance1.getMap(MAP_NAME);
+        assumeStorage(instance1);
+        fill(map, 1000);
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2);
+        assertEntries(instance2.getMap(MAP_NAME), 1000);
+
+        instance1.shutdown();
+        waitAllForSafeState(instance2);
+
+        assertEntries(instance2.getMap(MAP_NAME), 1000);
+        for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+            assertTrue(getPartitionService(instance2).getPartition(partitionId).isLocal());
+            assertInstanceOf(storageClass(), getStorage(instance2, partitionId));
+        }
+    }
+
+    @Test
+    public void whenMapNamePatternsAmbiguous_thenDefaultStorage() {
+        Config config = getConfig().setProperty(storageProperty().getName(), "stor*,*eMap");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+
+        fill(map, 100);
+
+        assertFalse(getMapContainer(instance).isOffHeapStorage());
+        assertFalse(getMapContainer(instance).isCompactStorage());
+        assertInstanceOf(StorageImpl.class, getStorage(instance, 0));
+        assertEntries(map, 100);
+    }
+
+    @Override
+    protected Config getConfig() {
+        return smallInstanceConfig()
+                .setProperty(PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT_VALUE))
+                .setProperty(storageProperty().getName(), MAP_NAME);
+    }
+
+    private HazelcastProperty storageProperty() {
+        return storageType == StorageType.OFF_HEAP ? MAP_OFF_HEAP_STORAGE_MAP_NAMES : MAP_COMPACT_STORAGE_MAP_NAMES;
+    }
+
+    private Class<? extends Storage> storageClass() {
+        return storageType == StorageType.OFF_HEAP ? OffHeapStorage.class : CompactStorage.class;
+    }
+
+    private void assumeStorage(HazelcastInstance instance) {
+        if (storageType == StorageType.OFF_HEAP) {
+            // native memory is not available on every JVM
+            assumeTrue(getMapContainer(instance).isOffHeapStorage());
+        } else {
+            assertTrue(getMapContainer(instance).isCompactStorage());
+        }
+    }
+
+    private static void fill(IMap<Integer, Integer> map, int count) {
+        for (int i = 0; i < count; i++) {
+            map.put(i, i);
+        }
+    }
+
+    private static void assertEntries(IMap<Integer, Integer> map, int count) {
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    private static Storage getStorage(HazelcastInstance instance, int partitionId) {
+        return getRecordStore(instance, partitionId).getStorage();
+    }
+
+    private static RecordStore getRecordStore(HazelcastInstance instance, int partitionId) {
+        return getMapServiceContext(instance).getPartitionContainer(partitionId).getRecordStore(MAP_NAME);
+    }
+
+    private static MapContainer getMapContainer(HazelcastInstance instance) {
+        return getMapServiceContext(instance).getMapContainer(MAP_NAME);
+    }
+
+    private static MapServiceContext getMapServiceContext(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext();
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.impl.PoolingMemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.CompactRecord;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
+import com.hazelcast.map.impl.record.CompactRecords;
+import com.hazelcast.map.impl.record.OffHeapRecord;
+import com.hazelcast.map.impl.record.OffHeapRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the storages which keep IMap records in their own representation
+ * instead of the record objects handed to them.
+ */
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class StorageTest {
+
+    @Parameterized.Parameter
+    public StorageType storageType;
+
+    private SerializationService ss;
+    private PoolingMemoryManager memoryManager;
+    private RecordFactory<Data> recordFactory;
+    private Storage<Data, Record> storage;
+
+    @Parameterized.Parameters(name = "storageType:{0}")
+    public static Collection<Object[]> parameters() {
+        return asList(new Object[][]{
+                {StorageType.OFF_HEAP},
+                {StorageType.COMPACT},
+        });
+    }
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        if (storageType == StorageType.OFF_HEAP) {
+            memoryManager = new PoolingMemoryManager(MemoryUnit.MEGABYTES.toBytes(64), 0);
+            recordFactory = new OffHeapRecordFactory(ss, memoryManager);
+            storage = new OffHeapStorage(ss, memoryManager);
+        } else {
+            recordFactory = new CompactRecordFactory(ss);
+            storage = new CompactStorage(ss);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+        if (memoryManager != null) {
+            memoryManager.dispose();
+        }
+    }
+
+    @Test
+    public void put_attachesRecord_andGetReturnsStoredState() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord("value");
+        record.setVersion(3);
+        record.setHits(7);
+        record.setTtl(5000);
+
+        storage.put(key, record);
+
+        assertTrue(isAttached(record));
+        Record stored = storage.get(key);
+        assertEquals("value", ss.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(7, stored.getHits());
+        assertEquals(5000, stored.getTtl());
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void mutationsAfterPut_areVisibleThroughStorage() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord("value");
+        storage.put(key, record);
+
+        record.setVersion(42);
+        storage.updateRecordValue(key, record, "newValue");
+
+        Record stored = storage.get(key);
+        assertEquals(42, stored.getVersion());
+        assertEquals("newValue", ss.toObject(stored.getValue()));
+    }
+
+    @Test
+    public void viewCreatedBeforeValueUpdate_seesNewValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        Record view = storage.get(key);
+
+        storage.updateRecordValue(key, storage.get(key), "newValue");
+        view.setHits(5);
+
+        assertEquals("newValue", ss.toObject(view.getValue()));
+        assertEquals(5, storage.get(key).getHits());
+    }
+
+    @Test
+    public void put_replacesExistingRecord() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value1"));
+        storage.put(key, recordFactory.newRecord("value2"));
+        storage.disposeDeferredBlocks();
+
+        assertEquals(1, storage.size());
+        assertEquals("value2", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void removeRecord() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+
+        Record record = storage.get(key);
+        storage.removeRecord(key, record);
+
+        // removed record is readable until deferred blocks are disposed
+        assertEquals("value", ss.toObject(record.getValue()));
+        storage.disposeDeferredBlocks();
+
+        assertNull(storage.get(key));
+        assertFalse(storage.containsKey(key));
+        assertTrue(storage.isEmpty());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void staleView_doesNotWriteIntoReusedEntry() {
+        // off-heap records point to freed memory once deferred blocks are disposed
+        assumeTrue(storageType == StorageType.COMPACT);
+
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        Record stale = storage.get(key);
+        storage.removeRecord(key, stale);
+        storage.disposeDeferredBlocks();
+
+        Data otherKey = ss.toData("otherKey");
+        storage.put(otherKey, recordFactory.newRecord("otherValue"));
+        stale.setVersion(99);
+
+        assertEquals("value", ss.toObject(stale.getValue()));
+        assertEquals(0, storage.get(otherKey).getVersion());
+    }
+
+    @Test
+    public void removals_keepRemainingKeysReachable() {
+        int count = 1000;
+        populate(count);
+
+        for (int i = 0; i < count; i += 2) {
+            Data key = ss.toData(i);
+            storage.removeRecord(key, storage.get(key));
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(count / 2, storage.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 1, storage.containsKey(ss.toData(i)));
+        }
+    }
+
+    @Test
+    public void entryCostEstimate_tracksFootprint() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+
+        Record record = storage.get(key);
+        assertTrue(record.getCost() > storageType.entryOverhead);
+        assertEquals(record.getCost(), storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void clear() {
+        populate(1000);
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertNull(storage.get(ss.toData(1)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void mutationTolerantIterator_acrossClear() {
+        int count = 1000;
+        populate(count);
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        Map.Entry<Data, Record> entry = iterator.next();
+        Object key = ss.toObject(entry.getKey());
+
+        storage.clear(false);
+        for (int i = count; i < count + 10; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        if (storageType == StorageType.COMPACT) {
+            // the records handed out before the clear stay readable and the iteration ends
+            assertEquals(key, ss.toObject(entry.getValue().getValue()));
+            assertEquals(0, entry.getValue().getVersion());
+            assertFalse(iterator.hasNext());
+        }
+        // the off-heap storage iterates its slots, so it returns the entries put after the clear
+        while (iterator.hasNext()) {
+            entry = iterator.next();
+            assertEquals((Integer) ss.toObject(entry.getKey()), ss.toObject(entry.getValue().getValue()));
+        }
+    }
+
+    @Test
+    public void mutationTolerantIterator_visitsAllEntries() {
+        int count = 1000;
+        populate(count);
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            assertEquals((Integer) ss.toObject(entry.getKey()), ss.toObject(entry.getValue().getValue()));
+            seen.add(ss.toObject(entry.getKey()));
+        }
+
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    public void mutationTolerantIterator_toleratesRemovals() {
+        int count = 1000;
+        populate(count);
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            seen.add(ss.toObject(entry.getKey()));
+            storage.removeRecord(entry.getKey(), entry.getValue());
+        }
+        storage.disposeDeferredBlocks();
+
+        if (storageType == StorageType.OFF_HEAP) {
+            // entries shifted between hash slots by a removal may be skipped,
+            // but every entry is either returned and removed or still stored
+            assertEquals(count, seen.size() + storage.size());
+        } else {
+            assertEquals(count, seen.size());
+            assertTrue(storage.isEmpty());
+        }
+    }
+
+    @Test
+    public void fetchKeys_returnsAllKeys() {
+        int count = 1000;
+        populate(count);
+
+        Set<Integer> keys = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        do {
+            MapKeysWithCursor cursor = storage.fetchKeys(pointers, 100);
+            for (Data key : cursor.getBatch()) {
+                keys.add(ss.toObject(key));
+            }
+            pointers = cursor.getIterationPointers();
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        assertEquals(count, keys.size());
+    }
+
+    @Test
+    public void fetchEntries_returnsAllEntries() {
+        int count = 100;
+        populate(count);
+
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        MapEntriesWithCursor cursor = storage.fetchEntries(pointers, count);
+
+        assertEquals(count, cursor.getBatch().size());
+        for (Map.Entry<Data, Data> entry : cursor.getBatch()) {
+            assertEquals((Integer) ss.toObject(entry.getKey()), ss.toObject(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void getRandomSamples() {
+        populate(100);
+
+        int sampleCount = 0;
+        for (EntryView view : storage.getRandomSamples(15)) {
+            Data key = storage.extractDataKeyFromLazy(view);
+            assertEquals(view.getKey(), view.getValue());
+            assertTrue(storage.containsKey(key));
+            sampleCount++;
+        }
+        if (storageType == StorageType.OFF_HEAP) {
+            assertTrue(sampleCount >= 15);
+        } else {
+            assertEquals(15, sampleCount);
+        }
+    }
+
+    private boolean isAttached(Record record) {
+        return storageType == StorageType.OFF_HEAP
+                ? ((OffHeapRecord) record).isAttached()
+                : ((CompactRecord) record).isAttached();
+    }
+
+    private void populate(int count) {
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+    }
+
+    public enum StorageType {
+        OFF_HEAP(OffHeapRecord.HEADER_SIZE),
+        COMPACT(CompactRecords.ENTRY_COST);
+
+        final int entryOverhead;
+
+        StorageType(int entryOverhead) {
+            this.entryOverhead = entryOverhead;
+        }
+    }
+}
@@ -25,12 +25,14 @@ import com.hazelcast.map.IMap;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.spi.properties.ClusterProperty;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -48,11 +50,17 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 10)
 public class CompositeIndexesBenchmark {
 
+    @Param({"false", "true"})
+    boolean packedSortedIndexes;
+
     IMap<Integer, Pojo> map;
 
     @Setup
     public void setup() {
         Config config = new Config();
+        if (packedSortedIndexes) {
+            config.setProperty(ClusterProperty.INDEX_PACKED_SORTED_INDEX_NAMES.getName(), "*");
+        }
         MapConfig mapConfig = config.getMapConfig("map");
 
         mapConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "f1"));
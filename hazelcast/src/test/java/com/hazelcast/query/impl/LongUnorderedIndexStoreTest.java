@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static com.hazelcast.query.impl.TypeConverters.DOUBLE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.IDENTITY_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.INTEGER_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.LONG_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.STRING_CONVERTER;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_LONG_HASH_ENABLED;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class LongUnorderedIndexStoreTest extends HazelcastTestSupport {
+
+    private InternalSerializationService ss;
+    private Extractors extractors;
+    private LongUnorderedIndexStore store;
+    private UnorderedIndexStore expected;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        extractors = Extractors.newBuilder(ss).build();
+    }
+
+    @Test
+    public void randomOperations_matchUnorderedIndexStore() {
+        for (IndexCopyBehavior copyBehavior : IndexCopyBehavior.values()) {
+            store = new LongUnorderedIndexStore(copyBehavior, () -> LONG_CONVERTER);
+            expected = new UnorderedIndexStore(copyBehavior);
+
+            Random random = new Random(42);
+            Map<Integer, Object> values = new HashMap<>();
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(3000);
+                Object oldValue = values.get(key);
+                if (oldValue != null && random.nextInt(3) == 0) {
+                    remove(key, oldValue);
+                    values.remove(key);
+                } else {
+                    Object newValue = randomValue(random);
+                    if (oldValue == null) {
+                        insert(key, newValue);
+                    } else {
+                        update(key, oldValue, newValue);
+                    }
+                    values.put(key, newValue);
+                }
+            }
+
+            for (int value = -1; value <= 101; value++) {
+                assertSameResults(copyBehavior, value);
+            }
+            assertSameResults(copyBehavior, 2.5d);
+            assertEquals(keys(expected.getRecords(NULL)), keys(store.getRecords(NULL)));
+        }
+    }
+
+    @Test
+    public void getRecords_whenMixedNumericTypes_thenComparedByValue() {
+        store = new LongUnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ, () -> LONG_CONVERTER);
+        expected = new UnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        insert(1, 1);
+        insert(2, 1L);
+        insert(3, (short) 1);
+        insert(4, 1.0d);
+        insert(5, 1.0f);
+        insert(6, 1.5d);
+        insert(7, Long.MAX_VALUE);
+
+        assertEquals(5, store.getRecords(1L).size());
+        assertEquals(5, store.getRecords(1.0f).size());
+        assertEquals(1, store.getRecords(1.5f).size());
+        assertEquals(1, store.getRecords(Long.MAX_VALUE).size());
+        assertEquals(2, store.getRecords(Comparison.GREATER, 1).size());
+        assertEquals(6, store.getRecords(1, true, 2, false).size());
+        assertEquals(6, in(1, 1L, 1.0d, 1.5d).size());
+    }
+
+    @Test
+    public void getRecords_whenNonNumericValues_thenStoredAsUsual() {
+        store = new LongUnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ, () -> LONG_CONVERTER);
+        expected = new UnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        insert(1, "a");
+        insert(2, "a");
+        insert(3, "b");
+
+        assertEquals(2, store.getRecords("a").size());
+        assertEquals(3, in("a", "b", "c").size());
+        assertEquals(1, store.getRecords(Comparison.GREATER, "a").size());
+    }
+
+    @Test
+    public void removeAll_thenEmpty() {
+        store = new LongUnorderedIndexStore(IndexCopyBehavior.COPY_ON_WRITE, () -> LONG_CONVERTER);
+        expected = new UnorderedIndexStore(IndexCopyBehavior.COPY_ON_WRITE);
+        for (int i = 0; i < 1000; i++) {
+            insert(i, i % 10);
+        }
+        Set<QueryableEntry> before = store.getRecords(5);
+        for (int i = 0; i < 1000; i++) {
+            remove(i, i % 10);
+        }
+
+        assertEquals(100, before.size());
+        assertTrue(store.getRecords(5).isEmpty());
+        assertTrue(store.getRecords(Comparison.GREATER_OR_EQUAL, 0).isEmpty());
+
+        insert(1, 5);
+        assertEquals(1, store.getRecords(5).size());
+        store.clear();
+        assertTrue(store.getRecords(5).isEmpty());
+    }
+
+    @Test
+    public void isIntegral() {
+        assertTrue(LongUnorderedIndexStore.isIntegral((byte) 1));
+        assertTrue(LongUnorderedIndexStore.isIntegral(1));
+        assertTrue(LongUnorderedIndexStore.isIntegral(1L));
+        assertTrue(LongUnorderedIndexStore.isIntegral(-1.0d));
+        assertTrue(LongUnorderedIndexStore.isIntegral(1e10f));
+        assertFalse(LongUnorderedIndexStore.isIntegral(0.5d));
+        assertFalse(LongUnorderedIndexStore.isIntegral(1e20d));
+        assertFalse(LongUnorderedIndexStore.isIntegral(Double.NaN));
+        assertFalse(LongUnorderedIndexStore.isIntegral("1"));
+        assertFalse(LongUnorderedIndexStore.isIntegral(NULL));
+    }
+
+    @Test
+    public void getRecords_whenConverterNotIntegral_thenStoredAsUsual() {
+        AtomicReference<TypeConverter> converter = new AtomicReference<>(DOUBLE_CONVERTER);
+        store = new LongUnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ, converter::get);
+        expected = new UnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        insert(1, 1.0d);
+        insert(2, 2.0d);
+        assertEquals(1, store.getRecords(1.0d).size());
+
+        // integral values are not kept by their long value, so they are
+        // not found by it once the converter is integral
+        converter.set(LONG_CONVERTER);
+        assertTrue(store.getRecords(1L).isEmpty());
+    }
+
+    @Test
+    public void isIntegral_converter() {
+        assertTrue(LongUnorderedIndexStore.isIntegral(LONG_CONVERTER));
+        assertTrue(LongUnorderedIndexStore.isIntegral(INTEGER_CONVERTER));
+        assertFalse(LongUnorderedIndexStore.isIntegral(DOUBLE_CONVERTER));
+        assertFalse(LongUnorderedIndexStore.isIntegral(STRING_CONVERTER));
+        assertFalse(LongUnorderedIndexStore.isIntegral(IDENTITY_CONVERTER));
+        assertFalse(LongUnorderedIndexStore.isIntegral(NULL_CONVERTER));
+        assertFalse(LongUnorderedIndexStore.isIntegral((TypeConverter) null));
+    }
+
+    @Test
+    public void createIndex_whenLongHashIndexesEnabled_thenSingleAttributeHashIndexesKeptByLong() {
+        DefaultIndexProvider provider = new DefaultIndexProvider(config -> false, true);
+
+        assertSame(LongUnorderedIndexStore.class, indexStore(provider, IndexType.HASH, "a").getClass());
+        assertSame(UnorderedIndexStore.class, indexStore(provider, IndexType.HASH, "a", "b").getClass());
+        assertSame(OrderedIndexStore.class, indexStore(provider, IndexType.SORTED, "a").getClass());
+    }
+
+    @Test
+    public void createIndex_whenLongHashIndexesDisabled_thenHashIndexesKeptAsUsual() {
+        DefaultIndexProvider provider = new DefaultIndexProvider(config -> false, false);
+
+        assertSame(UnorderedIndexStore.class, indexStore(provider, IndexType.HASH, "a").getClass());
+    }
+
+    @Test
+    public void inPredicate_onHashIndex() {
+        Config config = smallInstanceConfig();
+        config.setProperty(INDEX_LONG_HASH_ENABLED.getName(), "true");
+        config.getMapConfig("map").addIndexConfig(new IndexConfig(IndexType.HASH, "this"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Long> map = instance.getMap("map");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, (long) (i % 100));
+        }
+
+        assertEquals(10, map.values(Predicates.equal("this", 42)).size());
+        assertEquals(30, map.values(Predicates.in("this", 1, 2L, 3.0d, 3)).size());
+        assertEquals(100, map.values(Predicates.between("this", 10, 19)).size());
+    }
+
+    private IndexStore indexStore(DefaultIndexProvider provider, IndexType type, String... attributes) {
+        IndexConfig config = IndexUtils.validateAndNormalize("map", new IndexConfig(type, attributes));
+        InternalIndex index = provider.createIndex(config, extractors, ss, IndexCopyBehavior.COPY_ON_READ,
+                PerIndexStats.EMPTY, null);
+        return ((AbstractIndex) index).indexStore;
+    }
+
+    private void assertSameResults(IndexCopyBehavior copyBehavior, Comparable value) {
+        String message = copyBehavior + " " + value;
+        assertEquals(message, keys(expected.getRecords(value)), keys(store.getRecords(value)));
+        for (Comparison comparison : Comparison.values()) {
+            assertEquals(message + " " + comparison,
+                    keys(expected.getRecords(comparison, value)), keys(store.getRecords(comparison, value)));
+        }
+        assertEquals(message, keys(expected.getRecords(value, true, 50, false)),
+                keys(store.getRecords(value, true, 50, false)));
+        assertEquals(message, keys(expected.getRecords(value, true, value, true)),
+                keys(store.getRecords(value, true, value, true)));
+
+        Set<Comparable> in = new HashSet<>();
+        in.add(value);
+        in.add(7L);
+        in.add(7.0d);
+        in.add(2.5d);
+        in.add(NULL);
+        assertEquals(message, keys(getRecords(expected, in)), keys(getRecords(store, in)));
+    }
+
+    private static Set<QueryableEntry> getRecords(UnorderedIndexStore store, Set<Comparable> values) {
+        // canonicalized the way the index does for IN predicates
+        Set<Comparable> canonicalized = new HashSet<>();
+        for (Comparable value : values) {
+            canonicalized.add(store.canonicalizeQueryArgumentScalar(value));
+        }
+        return store.getRecords(canonicalized);
+    }
+
+    private Set<QueryableEntry> in(Comparable... values) {
+        return getRecords(store, new HashSet<>(asList(values)));
+    }
+
+    private static Object randomValue(Random random) {
+        int value = random.nextInt(100);
+        switch (random.nextInt(6)) {
+            case 0:
+                return null;
+            case 1:
+                return (long) value;
+            case 2:
+                return (double) value;
+            case 3:
+                return value + 0.5d;
+            default:
+                return value;
+        }
+    }
+
+    private void insert(int key, Object value) {
+        QueryableEntry entry = entry(key);
+        store.insert(value, entry, EMPTY);
+        expected.insert(value, entry, EMPTY);
+    }
+
+    private void update(int key, Object oldValue, Object newValue) {
+        QueryableEntry entry = entry(key);
+        store.update(oldValue, newValue, entry, EMPTY);
+        expected.update(oldValue, newValue, entry, EMPTY);
+    }
+
+    private void remove(int key, Object value) {
+        Data keyData = ss.toData(key);
+        store.remove(value, keyData, null, EMPTY);
+        expected.remove(value, keyData, null, EMPTY);
+    }
+
+    private QueryableEntry entry(int key) {
+        return new QueryEntry(ss, ss.toData(key), key, extractors);
+    }
+
+    private static Set<Data> keys(Set<QueryableEntry> entries) {
+        Set<Data> keys = new HashSet<>();
+        for (QueryableEntry entry : entries) {
+            keys.add(entry.getKeyData());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.getters.Extractors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+
+/**
+ * Compares the {@link OrderedIndexStore} with the {@link PackedOrderedIndexStore}:
+ * the retained heap per indexed entry, a range scan over 100 distinct values
+ * and the update of an entry to a new value.
+ * <p>
+ * The footprint is printed once per trial, after populating the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class OrderedIndexStoreBenchmark {
+
+    private static final int RANGE = 100;
+
+    @Param({"skiplist", "packed"})
+    private String storeType;
+
+    @Param({"1000000"})
+    private int entryCount;
+
+    @Param({"1", "100"})
+    private int entriesPerValue;
+
+    private IndexStore store;
+    private QueryableEntry[] entries;
+    private int[] values;
+    private int distinctValues;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+        Extractors extractors = Extractors.newBuilder(ss).build();
+        distinctValues = entryCount / entriesPerValue;
+
+        entries = new QueryableEntry[entryCount];
+        values = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] = new QueryEntry(ss, ss.toData(i), i, extractors);
+            values[i] = i % distinctValues;
+        }
+
+        long before = usedHeap();
+        if ("packed".equals(storeType)) {
+            store = new PackedOrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        } else {
+            store = new OrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        }
+        for (int i = 0; i < entryCount; i++) {
+            store.insert(values[i], entries[i], EMPTY);
+        }
+        long after = usedHeap();
+        System.out.printf("%n%s store: %d entries, %.1f retained bytes per entry%n",
+                storeType, entryCount, (after - before) / (double) entryCount);
+    }
+
+    @Benchmark
+    public Set<QueryableEntry> rangeScan() {
+        int from = ThreadLocalRandom.current().nextInt(distinctValues - RANGE);
+        return store.getRecords(from, true, from + RANGE, false);
+    }
+
+    @Benchmark
+    public void update() {
+        int i = ThreadLocalRandom.current().nextInt(entryCount);
+        int newValue = ThreadLocalRandom.current().nextInt(distinctValues);
+        store.update(values[i], newValue, entries[i], EMPTY);
+        values[i] = newValue;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OrderedIndexStoreBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PackedOrderedIndexStoreTest extends HazelcastTestSupport {
+
+    private InternalSerializationService ss;
+    private Extractors extractors;
+    private PackedOrderedIndexStore store;
+    private OrderedIndexStore expected;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        extractors = Extractors.newBuilder(ss).build();
+        store = new PackedOrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        expected = new OrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+    }
+
+    @Test
+    public void randomOperations_matchOrderedIndexStore() {
+        Random random = new Random(42);
+        Map<Integer, Object> values = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            Object oldValue = values.get(key);
+            if (oldValue != null && random.nextInt(3) == 0) {
+                remove(key, oldValue);
+                values.remove(key);
+            } else {
+                // few distinct values, so many entries share a value
+                Object newValue = randomValue(random);
+                if (oldValue == null) {
+                    insert(key, newValue);
+                } else {
+                    update(key, oldValue, newValue);
+                }
+                values.put(key, newValue);
+            }
+        }
+
+        for (int value = -1; value <= 101; value++) {
+            assertSameResults(value);
+        }
+        assertEquals(keys(expected.getRecords(NULL)), keys(store.getRecords(NULL)));
+    }
+
+    @Test
+    public void removeAll_thenStoreReusable() {
+        for (int i = 0; i < 10000; i++) {
+            insert(i, i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            remove(i, i);
+        }
+
+        assertTrue(store.getRecords(Comparison.GREATER_OR_EQUAL, 0).isEmpty());
+
+        for (int i = 0; i < 1000; i++) {
+            insert(i, i % 10);
+        }
+        assertEquals(100, store.getRecords(5).size());
+        assertEquals(500, store.getRecords(Comparison.LESS, 5).size());
+        assertSameResults(5);
+    }
+
+    @Test
+    public void getRecords_whenEmptyRange_thenEmpty() {
+        for (int i = 0; i < 100; i++) {
+            insert(i, i);
+        }
+
+        assertTrue(store.getRecords(10, true, 5, true).isEmpty());
+        assertTrue(store.getRecords(10, false, 10, true).isEmpty());
+        assertEquals(1, store.getRecords(10, true, 10, true).size());
+    }
+
+    @Test
+    public void getRecords_whenMixedNumericTypes_thenComparedByValue() {
+        insert(1, 1);
+        insert(2, 2L);
+        insert(3, 3.0d);
+
+        assertEquals(1, store.getRecords(2).size());
+        assertEquals(2, store.getRecords(Comparison.GREATER_OR_EQUAL, 2.0d).size());
+        assertEquals(2, store.getRecords(1L, true, 2.5f, false).size());
+    }
+
+    @Test
+    public void removedEntries_notReachableFromSeparators() {
+        List<WeakReference<QueryableEntry>> removedEntries = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            QueryableEntry entry = entry(i);
+            store.insert(i, entry, EMPTY);
+            if (i % 10 != 0) {
+                removedEntries.add(new WeakReference<>(entry));
+            }
+        }
+        // every leaf keeps some entries, so the separators of the inner nodes stay
+        for (int i = 0; i < 10000; i++) {
+            if (i % 10 != 0) {
+                store.remove(i, ss.toData(i), null, EMPTY);
+            }
+        }
+
+        assertTrueEventually(() -> {
+            System.gc();
+            for (WeakReference<QueryableEntry> removedEntry : removedEntries) {
+                assertNull(removedEntry.get());
+            }
+        });
+        assertEquals(1000, store.getRecords(Comparison.GREATER_OR_EQUAL, 0).size());
+    }
+
+    @Test
+    public void rangeQuery_whenPackedIndexSelectedByPattern() {
+        assertPackedIndexSelected("packed*", "packedIndex");
+    }
+
+    @Test
+    public void rangeQuery_whenPackedIndexSelectedByExactName() {
+        assertPackedIndexSelected("employees_sorted_age", "employees_sorted_age");
+    }
+
+    @Test
+    public void rangeQuery_whenIndexNamePatternsAmbiguous_thenDefaultIndex() {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.INDEX_PACKED_SORTED_INDEX_NAMES.getName(), "packed*,*dIndex");
+        config.getMapConfig("map")
+              .addIndexConfig(new IndexConfig(IndexType.SORTED, "this").setName("packedIndex"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(10, map.values(Predicates.between("this", 10, 19)).size());
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        Indexes indexes = mapService.getMapServiceContext().getMapContainer("map").getIndexes();
+        assertFalse(indexes.getIndex("packedIndex") instanceof PackedIndexImpl);
+    }
+
+    private void assertPackedIndexSelected(String indexNames, String indexName) {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.INDEX_PACKED_SORTED_INDEX_NAMES.getName(), indexNames);
+        config.getMapConfig("map")
+              .addIndexConfig(new IndexConfig(IndexType.SORTED, "this").setName(indexName));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i % 100);
+        }
+
+        Collection<Integer> values = map.values(Predicates.between("this", 10, 19));
+
+        assertEquals(100, values.size());
+        for (int value : values) {
+            assertTrue(value >= 10 && value <= 19);
+        }
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        Indexes indexes = mapService.getMapServiceContext().getMapContainer("map").getIndexes();
+        assertInstanceOf(PackedIndexImpl.class, indexes.getIndex(indexName));
+    }
+
+    private void assertSameResults(int value) {
+        assertEquals(keys(expected.getRecords(value)), keys(store.getRecords(value)));
+        for (Comparison comparison : Comparison.values()) {
+            assertEquals(comparison + " " + value,
+                    keys(expected.getRecords(comparison, value)), keys(store.getRecords(comparison, value)));
+        }
+        assertEquals(keys(expected.getRecords(value, true, value + 10, false)),
+                keys(store.getRecords(value, true, value + 10, false)));
+        assertEquals(keys(expected.getRecords(value, false, value + 10, true)),
+                keys(store.getRecords(value, false, value + 10, true)));
+
+        Set<Comparable> in = new HashSet<>();
+        in.add(value);
+        in.add(value + 7);
+        in.add(NULL);
+        assertEquals(keys(expected.getRecords(in)), keys(store.getRecords(in)));
+    }
+
+    private static Object randomValue(Random random) {
+        int value = random.nextInt(100);
+        switch (random.nextInt(4)) {
+            case 0:
+                return null;
+            case 1:
+                return (long) value;
+            default:
+                return value;
+        }
+    }
+
+    private void insert(int key, Object value) {
+        QueryableEntry entry = entry(key);
+        store.insert(value, entry, EMPTY);
+        expected.insert(value, entry, EMPTY);
+    }
+
+    private void update(int key, Object oldValue, Object newValue) {
+        QueryableEntry entry = entry(key);
+        store.update(oldValue, newValue, entry, EMPTY);
+        expected.update(oldValue, newValue, entry, EMPTY);
+    }
+
+    private void remove(int key, Object value) {
+        Data keyData = ss.toData(key);
+        store.remove(value, keyData, null, EMPTY);
+        expected.remove(value, keyData, null, EMPTY);
+    }
+
+    private QueryableEntry entry(int key) {
+        return new QueryEntry(ss, ss.toData(key), key, extractors);
+    }
+
+    private static Set<Data> keys(Set<QueryableEntry> entries) {
+        Set<Data> keys = new HashSet<>();
+        for (QueryableEntry entry : entries) {
+            keys.add(entry.getKeyData());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.getters.Extractors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+
+/**
+ * Compares the {@link UnorderedIndexStore} with the {@link LongUnorderedIndexStore}
+ * on long values: the retained heap per indexed entry, an equality lookup,
+ * an IN lookup of {@value #IN_SIZE} values and the update of an entry to
+ * a new value.
+ * <p>
+ * The footprint is printed once per trial, after populating the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class UnorderedIndexStoreBenchmark {
+
+    private static final int IN_SIZE = 8;
+    private static final int IN_SETS = 1024;
+
+    @Param({"unordered", "long"})
+    private String storeType;
+
+    @Param({"1000000"})
+    private int entryCount;
+
+    @Param({"1", "100"})
+    private int entriesPerValue;
+
+    private UnorderedIndexStore store;
+    private QueryableEntry[] entries;
+    private Long[] values;
+    private Set<Comparable>[] inSets;
+    private int distinctValues;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+        Extractors extractors = Extractors.newBuilder(ss).build();
+        distinctValues = entryCount / entriesPerValue;
+
+        // values are boxed upfront, as they would be by the attribute extraction
+        entries = new QueryableEntry[entryCount];
+        values = new Long[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] = new QueryEntry(ss, ss.toData(i), i, extractors);
+            values[i] = (long) (i % distinctValues);
+        }
+
+        long before = usedHeap();
+        if ("long".equals(storeType)) {
+            store = new LongUnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ, () -> TypeConverters.LONG_CONVERTER);
+        } else {
+            store = new UnorderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        }
+        for (int i = 0; i < entryCount; i++) {
+            store.insert(values[i], entries[i], EMPTY);
+        }
+        long after = usedHeap();
+        System.out.printf("%n%s store: %d entries, %.1f retained bytes per entry%n",
+                storeType, entryCount, (after - before) / (double) entryCount);
+
+        inSets = new Set[IN_SETS];
+        for (int i = 0; i < IN_SETS; i++) {
+            inSets[i] = new HashSet<>();
+            for (int j = 0; j < IN_SIZE; j++) {
+                inSets[i].add(store.canonicalizeQueryArgumentScalar(randomValue()));
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<QueryableEntry> equal() {
+        return store.getRecords(randomValue());
+    }
+
+    @Benchmark
+    public Set<QueryableEntry> in() {
+        return store.getRecords(inSets[ThreadLocalRandom.current().nextInt(IN_SETS)]);
+    }
+
+    @Benchmark
+    public void update() {
+        int i = ThreadLocalRandom.current().nextInt(entryCount);
+        Long newValue = randomValue();
+        store.update(values[i], newValue, entries[i], EMPTY);
+        values[i] = newValue;
+    }
+
+    private Long randomValue() {
+        return values[ThreadLocalRandom.current().nextInt(distinctValues)];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(UnorderedIndexStoreBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
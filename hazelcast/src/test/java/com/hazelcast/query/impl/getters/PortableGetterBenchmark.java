@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultPortableReader;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.MorphingBasePortable;
+import com.hazelcast.nio.serialization.TestSerializationConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares extracting a primitive Portable field through {@link Extractors},
+ * which reads it with a compiled field accessor, with reading it through a
+ * {@link DefaultPortableReader} as the extraction did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class PortableGetterBenchmark {
+
+    private InternalSerializationService ss;
+    private Extractors extractors;
+    private Data data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ss = new DefaultSerializationServiceBuilder()
+                .addPortableFactory(TestSerializationConstants.PORTABLE_FACTORY_ID, classId -> new MorphingBasePortable())
+                .build();
+        extractors = Extractors.newBuilder(ss).build();
+        data = ss.toData(new MorphingBasePortable((byte) 1, true, (char) 2, (short) 3, 4, 5, 1f, 2d, "test"));
+    }
+
+    @Benchmark
+    public Object extract() {
+        return extractors.extract(data, "double", null);
+    }
+
+    @Benchmark
+    public Object portableReader() throws IOException {
+        ss.getPortableContext().lookupClassDefinition(data);
+        return ((DefaultPortableReader) ss.createPortableReader(data)).read("double");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PortableGetterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
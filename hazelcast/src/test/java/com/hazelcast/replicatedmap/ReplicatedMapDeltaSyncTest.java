@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.replicatedmap;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.replicatedmap.impl.ReplicatedMapService;
+import com.hazelcast.replicatedmap.impl.record.InternalReplicatedMapStorage;
+import com.hazelcast.replicatedmap.impl.record.ReplicatedRecordStore;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReplicatedMapDeltaSyncTest extends ReplicatedMapAbstractTest {
+
+    private String mapName;
+    private HazelcastInstance owner;
+    private ReplicatedMap<String, String> replicaMap;
+    private String key;
+    private String otherKey;
+
+    @Before
+    public void setUp() {
+        mapName = randomMapName();
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(smallInstanceConfig());
+        owner = instances[0];
+        ReplicatedMap<String, String> ownerMap = owner.getReplicatedMap(mapName);
+        replicaMap = instances[1].getReplicatedMap(mapName);
+
+        int partitionId = getPartitionId(owner, generateKeyOwnedBy(owner));
+        key = generateKeyForPartition(owner, partitionId);
+        do {
+            otherKey = generateKeyForPartition(owner, partitionId);
+        } while (otherKey.equals(key));
+        ownerMap.put(key, "value1");
+        ownerMap.put(otherKey, "otherValue");
+        assertTrueEventually(() -> {
+            assertEquals("value1", replicaMap.get(key));
+            assertEquals("otherValue", replicaMap.get(otherKey));
+        });
+    }
+
+    @Test
+    public void testStaleReplica_receivesChangedRecords() throws Exception {
+        ReplicatedRecordStore replicaStore = getStore(replicaMap, key);
+        InternalReplicatedMapStorage replicaStorage = replicaStore.getStorage();
+
+        // an update whose replication is lost
+        getOwnerStore().put(key, "value2");
+        getService(owner).triggerAntiEntropy();
+
+        assertTrueEventually(() -> assertEquals("value2", replicaMap.get(key)));
+        assertSame(replicaStorage, replicaStore.getStorage());
+        assertEquals("otherValue", replicaMap.get(otherKey));
+        assertEquals(getOwnerStore().getVersion(), replicaStore.getVersion());
+    }
+
+    @Test
+    public void testStaleReplica_receivesAllRecords_whenRecordRemoved() throws Exception {
+        ReplicatedRecordStore replicaStore = getStore(replicaMap, key);
+        InternalReplicatedMapStorage replicaStorage = replicaStore.getStorage();
+
+        // a removal whose replication is lost
+        getOwnerStore().remove(otherKey);
+        getService(owner).triggerAntiEntropy();
+
+        assertTrueEventually(() -> assertNull(replicaMap.get(otherKey)));
+        assertNotSame(replicaStorage, replicaStore.getStorage());
+        assertEquals("value1", replicaMap.get(key));
+        assertEquals(getOwnerStore().getVersion(), replicaStore.getVersion());
+    }
+
+    private ReplicatedRecordStore getOwnerStore() {
+        return getService(owner).getReplicatedRecordStore(mapName, false, key);
+    }
+
+    private static ReplicatedMapService getService(HazelcastInstance instance) {
+        return getNodeEngineImpl(instance).getService(ReplicatedMapService.SERVICE_NAME);
+    }
+}
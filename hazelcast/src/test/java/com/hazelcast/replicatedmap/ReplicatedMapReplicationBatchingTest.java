@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.replicatedmap;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.replicatedmap.impl.ReplicatedMapService;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReplicatedMapReplicationBatchingTest extends ReplicatedMapAbstractTest {
+
+    private static final int ENTRY_COUNT = 2000;
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance[] instances;
+    private String mapName;
+
+    @Before
+    public void setUp() {
+        factory = createHazelcastInstanceFactory(4);
+        Config config = smallInstanceConfig()
+                .setProperty(ClusterProperty.REPLICATED_MAP_REPLICATION_BATCH_DELAY_MILLIS.getName(), "10");
+        instances = factory.newInstances(config, 3);
+        mapName = randomMapName();
+    }
+
+    @Test
+    public void testBatcherIsEnabled() {
+        for (HazelcastInstance instance : instances) {
+            ReplicatedMapService service = getNodeEngineImpl(instance).getService(ReplicatedMapService.SERVICE_NAME);
+            assertNotNull(service.getReplicationBatcher());
+        }
+    }
+
+    @Test
+    public void testBatcherIsDisabledByDefault() {
+        HazelcastInstance instance = factory.newHazelcastInstance(smallInstanceConfig());
+        ReplicatedMapService service = getNodeEngineImpl(instance).getService(ReplicatedMapService.SERVICE_NAME);
+
+        assertNull(service.getReplicationBatcher());
+    }
+
+    @Test
+    public void testPuts_areReplicated() {
+        ReplicatedMap<Integer, Integer> map = instances[0].getReplicatedMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        assertReplicatedEventually(ENTRY_COUNT, 0);
+    }
+
+    @Test
+    public void testUpdatesOfSameKey_areReplicatedInOrder() {
+        ReplicatedMap<Integer, Integer> map = instances[0].getReplicatedMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(0, i);
+        }
+
+        assertTrueEventually(() -> {
+            for (HazelcastInstance instance : instances) {
+                ReplicatedMap<Integer, Integer> replicatedMap = instance.getReplicatedMap(mapName);
+                assertEquals(ENTRY_COUNT - 1, (int) replicatedMap.get(0));
+            }
+        });
+    }
+
+    @Test
+    public void testPutAllAndRemoves_areReplicated() {
+        ReplicatedMap<Integer, Integer> map = instances[1].getReplicatedMap(mapName);
+        Map<Integer, Integer> entries = new HashMap<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            entries.put(i, i);
+        }
+        map.putAll(entries);
+        for (int i = 0; i < ENTRY_COUNT / 2; i++) {
+            map.remove(i);
+        }
+
+        assertReplicatedEventually(ENTRY_COUNT / 2, ENTRY_COUNT / 2);
+    }
+
+    private void assertReplicatedEventually(int size, int firstKey) {
+        assertTrueEventually(() -> {
+            for (HazelcastInstance instance : instances) {
+                ReplicatedMap<Integer, Integer> replicatedMap = instance.getReplicatedMap(mapName);
+                assertEquals(size, replicatedMap.size());
+                for (int i = firstKey; i < firstKey + size; i++) {
+                    assertEquals(i, (int) replicatedMap.get(i));
+                }
+            }
+        });
+    }
+}
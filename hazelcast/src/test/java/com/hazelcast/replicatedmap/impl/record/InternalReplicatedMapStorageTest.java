@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.replicatedmap.impl.record;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class InternalReplicatedMapStorageTest {
+
+    private InternalReplicatedMapStorage<String, String> storage;
+
+    @Before
+    public void setUp() {
+        storage = new InternalReplicatedMapStorage<>();
+    }
+
+    @Test
+    public void testConsistentVersion_whenUpdatesAreContiguous() {
+        storage.setVersion(1);
+        storage.setVersion(2);
+
+        assertFalse(storage.isStale(2));
+        assertEquals(2, storage.getConsistentVersion());
+    }
+
+    @Test
+    public void testConsistentVersion_whenUpdateIsMissed() {
+        storage.setVersion(1);
+        storage.setVersion(3);
+        storage.setVersion(4);
+
+        assertTrue(storage.isStale(4));
+        assertEquals(1, storage.getConsistentVersion());
+    }
+
+    @Test
+    public void testSyncDeltaVersion_clearsStale() {
+        storage.setVersion(1);
+        storage.setVersion(3);
+
+        storage.syncDeltaVersion(5);
+
+        assertFalse(storage.isStale(5));
+        assertEquals(5, storage.getConsistentVersion());
+    }
+
+    @Test
+    public void testDeltaSyncPossible_withoutRemovals() {
+        put("key1");
+        put("key2");
+        put("key1");
+
+        assertTrue(storage.isDeltaSyncPossible(0));
+        assertTrue(storage.isDeltaSyncPossible(3));
+        assertFalse(storage.isDeltaSyncPossible(4));
+    }
+
+    @Test
+    public void testDeltaSyncPossible_onlyAfterRemoval() {
+        put("key1");
+        put("key2");
+        storage.remove("key2", storage.get("key2"));
+        storage.incrementVersion();
+        put("key3");
+
+        assertFalse(storage.isDeltaSyncPossible(2));
+        assertTrue(storage.isDeltaSyncPossible(3));
+        assertTrue(storage.isDeltaSyncPossible(4));
+    }
+
+    @Test
+    public void testDeltaSyncPossible_onlyAfterClear() {
+        put("key1");
+        storage.clear();
+        storage.setVersion(2);
+
+        assertFalse(storage.isDeltaSyncPossible(1));
+        assertTrue(storage.isDeltaSyncPossible(2));
+    }
+
+    @Test
+    public void testDeltaSyncPossible_onlyAfterFullSync() {
+        storage.syncVersion(5);
+
+        assertFalse(storage.isDeltaSyncPossible(4));
+        assertTrue(storage.isDeltaSyncPossible(5));
+    }
+
+    @Test
+    public void testDeltaSyncNotPossible_whenStale() {
+        storage.setVersion(1);
+        storage.setVersion(3);
+
+        assertFalse(storage.isDeltaSyncPossible(1));
+    }
+
+    private void put(String key) {
+        storage.put(key, new ReplicatedRecord<>(key, "value", 0));
+        storage.incrementVersion();
+    }
+}
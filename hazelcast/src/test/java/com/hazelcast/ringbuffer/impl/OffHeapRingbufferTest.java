@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.ringbuffer.impl;
+
+import com.hazelcast.internal.memory.impl.PoolingMemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.ringbuffer.StaleSequenceException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.ringbuffer.impl.OffHeapRingbuffer.INDEX_SLOT_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OffHeapRingbufferTest {
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private PoolingMemoryManager memoryManager;
+
+    @Before
+    public void setup() {
+        memoryManager = new PoolingMemoryManager(MemoryUnit.MEGABYTES.toBytes(64), 0);
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test(expected = StaleSequenceException.class)
+    public void testReadStaleSequenceThrowsException() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+        rb.read(rb.headSequence() - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadFutureSequenceThrowsException() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+        rb.read(rb.tailSequence() + 1);
+    }
+
+    @Test
+    public void testIsEmpty() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        assertTrue(rb.isEmpty());
+        rb.add(toData(""));
+        assertFalse(rb.isEmpty());
+    }
+
+    @Test
+    public void testAddAndRead() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        for (int k = 0; k < 12; k++) {
+            assertEquals(k, rb.add(toData("item" + k)));
+        }
+
+        assertEquals(7, rb.headSequence());
+        assertEquals(11, rb.tailSequence());
+        for (long seq = rb.headSequence(); seq <= rb.tailSequence(); seq++) {
+            Data data = rb.read(seq);
+            assertEquals(toData("item" + seq), data);
+            assertEquals("item" + seq, serializationService.toObject(data));
+        }
+    }
+
+    @Test
+    public void testSetNull() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+        rb.set(rb.headSequence(), null);
+
+        assertNull(rb.read(rb.headSequence()));
+    }
+
+    @Test
+    public void testRead_whenSlotNotWrittenForSequence_thenNull() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+        rb.setTailSequence(rb.tailSequence() + 1);
+
+        assertNull(rb.read(rb.tailSequence()));
+    }
+
+    @Test
+    public void testRead_returnsCopy_whenItemOverwritten() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        rb.add(toData("item"));
+        Data copy = rb.read(0);
+
+        rb.set(0, toData("other item"));
+
+        assertEquals("item", serializationService.toObject(copy));
+    }
+
+    @Test
+    public void testItemMemoryFreed_whenItemsOverwritten() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(10);
+        for (int k = 0; k < 200; k++) {
+            rb.add(toData(payload(k, 1000)));
+        }
+
+        long itemBytes = 0;
+        for (long seq = rb.headSequence(); seq <= rb.tailSequence(); seq++) {
+            itemBytes += rb.read(seq).totalSize();
+            assertEquals(payload((int) seq, 1000), serializationService.toObject(rb.read(seq)));
+        }
+        assertEquals(10 * INDEX_SLOT_SIZE + itemBytes, memoryManager.getAllocated());
+    }
+
+    @Test
+    public void testItemMemoryFreed_whenSetNull() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        rb.add(toData("item"));
+
+        rb.set(0, null);
+
+        assertEquals(5 * INDEX_SLOT_SIZE, memoryManager.getAllocated());
+    }
+
+    @Test
+    public void testDispose() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+
+        rb.dispose();
+        rb.dispose();
+
+        assertEquals(0, memoryManager.getAllocated());
+    }
+
+    @Test
+    public void testGetItems() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        for (int k = 0; k < 7; k++) {
+            rb.add(toData(k));
+        }
+
+        Object[] items = rb.getItems();
+
+        assertEquals(5, items.length);
+        for (long seq = rb.headSequence(); seq <= rb.tailSequence(); seq++) {
+            assertEquals(toData((int) seq), items[(int) (seq % 5)]);
+        }
+    }
+
+    @Test
+    public void testClear() {
+        OffHeapRingbuffer<Data> rb = fullRingbuffer();
+        rb.clear();
+
+        assertEquals(-1, rb.tailSequence());
+        assertEquals(0, rb.headSequence());
+        rb.setTailSequence(3);
+        assertNull(rb.read(3));
+        assertEquals(5 * INDEX_SLOT_SIZE, memoryManager.getAllocated());
+    }
+
+    private OffHeapRingbuffer<Data> newRingbuffer(int capacity) {
+        return new OffHeapRingbuffer<Data>(capacity, memoryManager);
+    }
+
+    private OffHeapRingbuffer<Data> fullRingbuffer() {
+        OffHeapRingbuffer<Data> rb = newRingbuffer(5);
+        for (int i = 0; i < rb.getCapacity(); i++) {
+            rb.add(toData("item" + i));
+        }
+        return rb;
+    }
+
+    private Data toData(Object o) {
+        return serializationService.toData(o);
+    }
+
+    private static String payload(int id, int length) {
+        StringBuilder sb = new StringBuilder().append(id).append('-');
+        while (sb.length() < length) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+}
@@ -44,6 +44,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.ringbuffer.OverflowPolicy.FAIL;
 import static com.hazelcast.ringbuffer.OverflowPolicy.OVERWRITE;
@@ -86,6 +87,15 @@ public abstract class RingbufferAbstractTest extends HazelcastTestSupport {
         config.addRingBufferConfig(new RingbufferConfig("readManyAsync_whenEnoughItems_andObjectInMemoryFormat*")
                 .setCapacity(5)
                 .setInMemoryFormat(OBJECT));
+        config.addRingBufferConfig(new RingbufferConfig("readOne_whenNativeInMemoryFormat*")
+                .setCapacity(5)
+                .setInMemoryFormat(NATIVE));
+        config.addRingBufferConfig(new RingbufferConfig("readManyAsync_whenEnoughItems_andNativeInMemoryFormat*")
+                .setCapacity(5)
+                .setInMemoryFormat(NATIVE));
+        config.addRingBufferConfig(new RingbufferConfig("addAllAsync_manyTimesRoundTheRing_andNativeInMemoryFormat*")
+                .setCapacity(50)
+                .setInMemoryFormat(NATIVE));
         config.addRingBufferConfig(new RingbufferConfig("addAsync_whenOverwrite_andNoTTL*")
                 .setCapacity(300)
                 .setTimeToLiveSeconds(0));
@@ -474,6 +484,11 @@ public abstract class RingbufferAbstractTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void addAllAsync_manyTimesRoundTheRing_andNativeInMemoryFormat() throws Exception {
+        addAllAsync_manyTimesRoundTheRing();
+    }
+
     // ================== read ========================================
 
     @Test
@@ -506,6 +521,11 @@ public abstract class RingbufferAbstractTest extends HazelcastTestSupport {
         assertEquals(oldTail, ringbuffer.tailSequence());
     }
 
+    @Test
+    public void readOne_whenNativeInMemoryFormat() throws Exception {
+        readOne_whenObjectInMemoryFormat();
+    }
+
     @Test
     public void readOne_whenOneAfterTail_thenBlock() throws Exception {
         ringbuffer.add("1");
@@ -658,6 +678,11 @@ public abstract class RingbufferAbstractTest extends HazelcastTestSupport {
         readManyAsync_whenEnoughItems();
     }
 
+    @Test
+    public void readManyAsync_whenEnoughItems_andNativeInMemoryFormat() throws ExecutionException, InterruptedException {
+        readManyAsync_whenEnoughItems();
+    }
+
     public static class GoodStringFunction implements IFunction<String, Boolean>, Serializable {
         @Override
         public Boolean apply(String input) {
@@ -36,15 +36,18 @@ import org.junit.runner.RunWith;
 import java.io.IOException;
 
 import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
 import static com.hazelcast.test.Accessors.getNodeEngineImpl;
 import static com.hazelcast.test.Accessors.getSerializationService;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * This test verifies that the RingbufferContainer can serialize itself
@@ -92,6 +95,16 @@ public class RingbufferContainerSerializationTest extends HazelcastTestSupport {
         test(BINARY, 0);
     }
 
+    @Test
+    public void whenNativeInMemoryFormat_andTTLEnabled() {
+        testNative(100);
+    }
+
+    @Test
+    public void whenNativeInMemoryFormat_andTTLDisabled() {
+        testNative(0);
+    }
+
     public void test(InMemoryFormat inMemoryFormat, int ttlSeconds) {
         final RingbufferConfig config = new RingbufferConfig("foobar")
                 .setCapacity(3)
@@ -122,6 +135,41 @@ public class RingbufferContainerSerializationTest extends HazelcastTestSupport {
         }
     }
 
+    // the items of a NATIVE ringbuffer are read into an on-heap ringbuffer and moved off-heap once it is initialized
+    private void testNative(int ttlSeconds) {
+        final RingbufferConfig config = new RingbufferConfig("foobar")
+                .setCapacity(3)
+                .setInMemoryFormat(NATIVE)
+                .setTimeToLiveSeconds(ttlSeconds);
+        final RingbufferContainer original = getRingbufferContainer(config);
+        // native memory is not available on every JVM
+        assumeTrue(original.isOffHeap());
+        for (int k = 0; k < config.getCapacity() * 2; k++) {
+            original.add(toData("item" + k));
+        }
+
+        final RingbufferContainer replica = replicate(original);
+        assertFalse(replica.isOffHeap());
+        assertEquals(ttlSeconds != 0, replica.getExpirationPolicy() != null);
+        assertSameItems(original, replica);
+
+        replica.init(config, nodeEngine);
+        assertTrue(replica.isOffHeap());
+        assertSameItems(original, replica);
+
+        original.dispose();
+        replica.dispose();
+    }
+
+    private static void assertSameItems(RingbufferContainer expected, RingbufferContainer actual) {
+        assertEquals(expected.headSequence(), actual.headSequence());
+        assertEquals(expected.tailSequence(), actual.tailSequence());
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        for (long seq = expected.headSequence(); seq <= expected.tailSequence(); seq++) {
+            assertEquals(expected.getRingbuffer().read(seq), actual.getRingbuffer().read(seq));
+        }
+    }
+
     private RingbufferContainer getRingbufferContainer(RingbufferConfig config) {
         // partitionId is irrelevant for this test
         return new RingbufferContainer(RingbufferService.getRingbufferNamespace(config.getName()), config, nodeEngine, 0);
@@ -164,6 +212,24 @@ public class RingbufferContainerSerializationTest extends HazelcastTestSupport {
         }
     }
 
+    // mimics the ReplicationOperation, the namespace of the container is not part of its serialized form
+    private RingbufferContainer replicate(RingbufferContainer original) {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput(100000);
+        BufferObjectDataInput in = null;
+        try {
+            original.writeData(out);
+            in = serializationService.createObjectDataInput(out.toByteArray());
+            RingbufferContainer replica = new RingbufferContainer(original.getNamespace(), 0);
+            replica.readData(in);
+            return replica;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeResource(out);
+            closeResource(in);
+        }
+    }
+
     private RingbufferContainer clone(RingbufferContainer original) {
         BufferObjectDataOutput out = serializationService.createObjectDataOutput(100000);
         BufferObjectDataInput in = null;
@@ -16,7 +16,11 @@
 
 package com.hazelcast.ringbuffer.impl;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.RingbufferConfig;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.memory.MemoryStats;
+import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.ringbuffer.Ringbuffer;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -28,9 +32,12 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.internal.partition.MigrationEndpoint.DESTINATION;
 import static com.hazelcast.test.Accessors.getNodeEngineImpl;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -41,7 +48,9 @@ public class RingbufferServiceTest extends HazelcastTestSupport {
 
     @Before
     public void setup() {
-        hz = createHazelcastInstance();
+        Config config = new Config()
+                .addRingBufferConfig(new RingbufferConfig("native*").setInMemoryFormat(NATIVE));
+        hz = createHazelcastInstance(config);
         service = getNodeEngineImpl(hz).getService(RingbufferService.SERVICE_NAME);
     }
 
@@ -73,4 +82,42 @@ public class RingbufferServiceTest extends HazelcastTestSupport {
 
         assertEquals(0, service.getContainers().size());
     }
+
+    @Test
+    public void destroy_whenNativeInMemoryFormat_thenNativeMemoryReleased() {
+        Ringbuffer<String> ringbuffer = hz.getRingbuffer("native");
+        ringbuffer.add("item");
+        int partitionId = service.getRingbufferPartitionId(ringbuffer.getName());
+        ObjectNamespace namespace = RingbufferService.getRingbufferNamespace(ringbuffer.getName());
+        // native memory is not available on every JVM
+        assumeTrue(service.getContainerOrNull(partitionId, namespace).isOffHeap());
+        MemoryStats memoryStats = getNodeEngineImpl(hz).getNode().getNodeExtension().getMemoryStats();
+        assertTrue(memoryStats.getUsedNative() > 0);
+
+        ringbuffer.destroy();
+
+        // the native memory is released by the partition thread
+        assertTrueEventually(() -> assertEquals(0, memoryStats.getUsedNative()));
+    }
+
+    @Test
+    public void merge_whenNativeInMemoryFormat_thenNativeMemoryReturnsToBaseline() throws Exception {
+        Ringbuffer<String> ringbuffer = hz.getRingbuffer("native-merged");
+        for (int i = 0; i < 10; i++) {
+            ringbuffer.add("item" + i);
+        }
+        int partitionId = service.getRingbufferPartitionId(ringbuffer.getName());
+        ObjectNamespace namespace = RingbufferService.getRingbufferNamespace(ringbuffer.getName());
+        // native memory is not available on every JVM
+        assumeTrue(service.getContainerOrNull(partitionId, namespace).isOffHeap());
+        MemoryStats memoryStats = getNodeEngineImpl(hz).getNode().getNodeExtension().getMemoryStats();
+        long baseline = memoryStats.getUsedNative();
+
+        // the merged items are put into a new container, the collected one is destroyed
+        service.prepareMergeRunnable().run();
+
+        assertEquals(10, ringbuffer.size());
+        assertEquals("item9", ringbuffer.readOne(ringbuffer.tailSequence()));
+        assertTrueEventually(() -> assertEquals(baseline, memoryStats.getUsedNative()));
+    }
 }
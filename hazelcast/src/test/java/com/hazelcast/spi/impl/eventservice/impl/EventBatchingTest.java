@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.eventservice.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class EventBatchingTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 100;
+    private static final int UPDATE_COUNT = 20;
+
+    @Test
+    public void remoteEvents_areDeliveredInBatches_inPublishOrder() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(newConfig());
+        HazelcastInstance instance2 = factory.newHazelcastInstance(newConfig());
+
+        AtomicInteger eventCount = new AtomicInteger();
+        Map<Integer, List<Integer>> valuesByKey = new ConcurrentHashMap<>();
+        IMap<Integer, Integer> map = instance1.getMap(randomMapName());
+        instance2.<Integer, Integer>getMap(map.getName()).addEntryListener(new RecordingListener(eventCount, valuesByKey), true);
+
+        for (int value = 0; value < UPDATE_COUNT; value++) {
+            for (int key = 0; key < KEY_COUNT; key++) {
+                map.set(key, value);
+            }
+        }
+
+        assertEqualsEventually(KEY_COUNT * UPDATE_COUNT, eventCount);
+        for (List<Integer> values : valuesByKey.values()) {
+            for (int i = 0; i < UPDATE_COUNT; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+
+        long batchesSent = readMetric(instance1, "event.batchesSent");
+        long batchedEventsSent = readMetric(instance1, "event.batchedEventsSent");
+        assertTrue("Batches sent: " + batchesSent, batchesSent > 0);
+        assertTrue("Batched events sent: " + batchedEventsSent + ", batches sent: " + batchesSent,
+                batchedEventsSent > batchesSent);
+        assertEquals(batchedEventsSent, readMetric(instance2, "event.batchedEventsReceived"));
+    }
+
+    @Test
+    public void remoteEvents_areNotBatched_byDefault() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(smallInstanceConfig());
+        HazelcastInstance instance2 = factory.newHazelcastInstance(smallInstanceConfig());
+
+        AtomicInteger eventCount = new AtomicInteger();
+        IMap<Integer, Integer> map = instance1.getMap(randomMapName());
+        instance2.<Integer, Integer>getMap(map.getName())
+                 .addEntryListener(new RecordingListener(eventCount, new ConcurrentHashMap<>()), true);
+
+        for (int key = 0; key < KEY_COUNT; key++) {
+            map.set(key, key);
+        }
+
+        assertEqualsEventually(KEY_COUNT, eventCount);
+        assertEquals(0, readMetric(instance1, "event.batchesSent"));
+    }
+
+    private Config newConfig() {
+        return smallInstanceConfig()
+                .setProperty(ClusterProperty.EVENT_BATCH_MAX_DELAY_MILLIS.getName(), "50")
+                .setProperty(ClusterProperty.EVENT_BATCH_MAX_SIZE.getName(), "16");
+    }
+
+    private static long readMetric(HazelcastInstance instance, String name) {
+        MetricsRegistry metricsRegistry = getNodeEngineImpl(instance).getMetricsRegistry();
+        return metricsRegistry.newLongGauge(name).read();
+    }
+
+    private static class RecordingListener implements EntryAddedListener<Integer, Integer>,
+            EntryUpdatedListener<Integer, Integer> {
+
+        private final AtomicInteger eventCount;
+        private final Map<Integer, List<Integer>> valuesByKey;
+
+        RecordingListener(AtomicInteger eventCount, Map<Integer, List<Integer>> valuesByKey) {
+            this.eventCount = eventCount;
+            this.valuesByKey = valuesByKey;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<Integer, Integer> event) {
+            record(event);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Integer, Integer> event) {
+            record(event);
+        }
+
+        private void record(EntryEvent<Integer, Integer> event) {
+            valuesByKey.computeIfAbsent(event.getKey(), key -> new CopyOnWriteArrayList<>()).add(event.getValue());
+            eventCount.incrementAndGet();
+        }
+    }
+}
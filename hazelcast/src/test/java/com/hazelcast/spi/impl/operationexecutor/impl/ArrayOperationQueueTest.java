@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestThread;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ArrayOperationQueueTest extends HazelcastTestSupport {
+
+    private ArrayOperationQueue queue = newQueue(null);
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() {
+        queue.add(null, false);
+    }
+
+    @Test
+    public void add_whenNormal() {
+        queue.add("task", false);
+
+        assertEquals(1, queue.normalSize());
+        assertEquals(0, queue.prioritySize());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void add_whenPriority() {
+        queue.add("task", true);
+
+        assertEquals(0, queue.normalSize());
+        assertEquals(1, queue.prioritySize());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void take_whenNormal_thenFifo() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            queue.add(i, false);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, queue.take(false));
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void take_whenPriorityAddedAfterBatchDrained_thenPriorityFirst() throws InterruptedException {
+        queue.add("normal1", false);
+        queue.add("normal2", false);
+        assertSame("normal1", queue.take(false));
+
+        queue.add("priority", true);
+
+        assertSame("priority", queue.take(false));
+        assertSame("normal2", queue.take(false));
+    }
+
+    @Test
+    public void take_whenArrayFull_thenOverflowKeepsOrder() throws InterruptedException {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            queue.add(i, false);
+        }
+        assertEquals(count, queue.normalSize());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, queue.take(false));
+        }
+        assertEquals(0, queue.normalSize());
+    }
+
+    @Test
+    public void take_whenPriorityOnly_thenNormalIgnored() throws InterruptedException {
+        queue.add("normal", false);
+        queue.add("priority", true);
+
+        assertSame("priority", queue.take(true));
+        assertEquals(1, queue.normalSize());
+    }
+
+    @Test
+    public void take_whenBlocked_thenWokenUpByAdd() {
+        assertTakeUnblocked(newQueue(null));
+    }
+
+    @Test
+    public void take_whenIdling_thenWokenUpByAdd() {
+        assertTakeUnblocked(newQueue(new BackoffIdleStrategy(10, 10, 1, MICROSECONDS.toNanos(100))));
+    }
+
+    @Test
+    public void take_whenManyProducers_thenAllTasksTaken() {
+        final ArrayOperationQueue queue = newQueue(null);
+        final int producerCount = 4;
+        final int tasksPerProducer = 10000;
+        final List<Integer> taken = new ArrayList<Integer>();
+        TestThread consumer = new TestThread() {
+            @Override
+            public void doRun() throws Throwable {
+                for (int i = 0; i < producerCount * tasksPerProducer; i++) {
+                    taken.add((Integer) queue.take(false));
+                }
+            }
+        };
+        queue.setConsumerThread(consumer);
+        consumer.start();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<TestThread> producers = new ArrayList<TestThread>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            TestThread producerThread = new TestThread() {
+                @Override
+                public void doRun() throws Throwable {
+                    start.await();
+                    for (int i = 0; i < tasksPerProducer; i++) {
+                        queue.add(producer * tasksPerProducer + i, i % 10 == 0);
+                    }
+                }
+            };
+            producerThread.start();
+            producers.add(producerThread);
+        }
+        start.countDown();
+
+        for (TestThread producer : producers) {
+            producer.assertSucceedsEventually();
+        }
+        consumer.assertSucceedsEventually();
+        assertEquals(producerCount * tasksPerProducer, taken.size());
+    }
+
+    private void assertTakeUnblocked(final ArrayOperationQueue queue) {
+        TestThread consumer = new TestThread() {
+            @Override
+            public void doRun() throws Throwable {
+                assertSame("task", queue.take(false));
+            }
+        };
+        queue.setConsumerThread(consumer);
+        consumer.start();
+
+        sleepMillis(100);
+        queue.add("task", false);
+
+        consumer.assertSucceedsEventually();
+    }
+
+    private static ArrayOperationQueue newQueue(BackoffIdleStrategy idleStrategy) {
+        // a small array, so the tests also exercise the overflow queue
+        return new ArrayOperationQueue(16, 4, idleStrategy);
+    }
+}
@@ -59,6 +59,29 @@ public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecuto
         });
     }
 
+    @Test
+    public void whenPartitionSpecific_andArrayQueue() {
+        config.setProperty("hazelcast.operation.partitionthread.queue", "array");
+        initExecutor();
+
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+
+        Operation op = new Operation() {
+            @Override
+            public void run() throws Exception {
+                executingThread.set(Thread.currentThread());
+            }
+        };
+        executor.execute(op.setPartitionId(0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(PartitionOperationThread.class, executingThread.get());
+            }
+        });
+    }
+
     @Test
     public void whenGeneric() {
         initExecutor();
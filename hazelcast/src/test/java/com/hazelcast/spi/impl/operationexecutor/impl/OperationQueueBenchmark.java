@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.MPSCQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of a partition thread queue with several
+ * producers and a single consumer, comparing the linked
+ * {@link OperationQueueImpl} with the {@link ArrayOperationQueue}.
+ * <p>
+ * Every producer has a bounded number of tasks in flight, so the queue
+ * doesn't grow without limit when the consumer falls behind. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class OperationQueueBenchmark {
+
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    @Param({"linked", "array"})
+    private String queueType;
+
+    private OperationQueue queue;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        running = true;
+        consumer = new Thread(this::consume, "consumer");
+        if ("array".equals(queueType)) {
+            ArrayOperationQueue arrayQueue = new ArrayOperationQueue(16384, 64, null);
+            arrayQueue.setConsumerThread(consumer);
+            queue = arrayQueue;
+        } else {
+            queue = new OperationQueueImpl(new MPSCQueue<>(consumer, null), new ConcurrentLinkedQueue<>());
+        }
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.interrupt();
+        consumer.join();
+    }
+
+    @Benchmark
+    public void offer(Producer producer) {
+        while (producer.produced - producer.consumed.get() >= MAX_IN_FLIGHT) {
+            Thread.yield();
+        }
+        producer.produced++;
+        queue.add(producer, false);
+    }
+
+    private void consume() {
+        try {
+            while (running) {
+                Producer producer = (Producer) queue.take(false);
+                producer.consumed.lazySet(producer.consumed.get() + 1);
+            }
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        final AtomicLong consumed = new AtomicLong();
+        long produced;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OperationQueueBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.operationservice.impl.Invocation.Context;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.sequence.CallIdSequenceWithoutBackpressure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registering, looking up and deregistering an invocation in the
+ * {@link InvocationRegistry} from several threads, with a fixed number of
+ * other invocations pending. Run with {@code -prof gc} to see the
+ * allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class InvocationRegistryBenchmark {
+
+    private static final int PENDING_INVOCATIONS = 10000;
+
+    private InvocationRegistry registry;
+
+    @Setup
+    public void setup() {
+        ILogger logger = Logger.getLogger(InvocationRegistryBenchmark.class);
+        registry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        for (int i = 0; i < PENDING_INVOCATIONS; i++) {
+            registry.register(newInvocation(registry, logger));
+        }
+    }
+
+    @Benchmark
+    public Invocation registerAndDeregister(InvocationState state) {
+        Invocation invocation = state.invocation;
+        registry.register(invocation);
+        Invocation found = registry.get(invocation.op.getCallId());
+        registry.deregister(invocation);
+        return found;
+    }
+
+    @State(Scope.Thread)
+    public static class InvocationState {
+        Invocation invocation;
+
+        @Setup
+        public void setup(InvocationRegistryBenchmark benchmark) {
+            invocation = newInvocation(benchmark.registry, Logger.getLogger(InvocationRegistryBenchmark.class));
+        }
+    }
+
+    private static Invocation newInvocation(InvocationRegistry registry, ILogger logger) {
+        Context context = new Context(null, null, null, null, null,
+                1000, registry, null, logger, null, null, null, null, null, null, null, null, null, null);
+        return new PartitionInvocation(context, new Backup(), 0, 0, 0, false, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(InvocationRegistryBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
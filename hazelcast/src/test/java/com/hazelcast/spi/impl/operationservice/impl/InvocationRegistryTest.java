@@ -23,6 +23,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.impl.operationservice.impl.Invocation.Context;
 import com.hazelcast.spi.impl.sequence.CallIdSequenceWithBackpressure;
+import com.hazelcast.spi.impl.sequence.CallIdSequenceWithoutBackpressure;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.QuickTest;
@@ -32,12 +33,19 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -151,6 +159,90 @@ public class InvocationRegistryTest extends HazelcastTestSupport {
     }
 
 
+    // ====================== iteration ===============================
+
+    @Test
+    public void iterator_whenManyInvocations_thenAllVisited() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        List<Invocation> invocations = registerInvocations(1000);
+
+        Set<Invocation> visited = new HashSet<>();
+        for (Invocation invocation : invocationRegistry) {
+            visited.add(invocation);
+        }
+
+        assertEquals(new HashSet<>(invocations), visited);
+        for (Invocation invocation : invocations) {
+            assertSame(invocation, invocationRegistry.get(invocation.op.getCallId()));
+        }
+    }
+
+    @Test
+    public void iterator_whenDeregisteredWhileIterating_thenNoFailure() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        registerInvocations(1000);
+
+        int visited = 0;
+        for (Invocation invocation : invocationRegistry) {
+            invocationRegistry.deregister(invocation);
+            visited++;
+        }
+
+        assertEquals(1000, visited);
+        assertEquals(0, invocationRegistry.size());
+    }
+
+    @Test
+    public void entrySet_containsAllInvocations() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        List<Invocation> invocations = registerInvocations(100);
+
+        Set<Map.Entry<Long, Invocation>> entries = invocationRegistry.entrySet();
+
+        assertEquals(invocations.size(), entries.size());
+        for (Map.Entry<Long, Invocation> entry : entries) {
+            assertEquals(entry.getKey().longValue(), entry.getValue().op.getCallId());
+        }
+    }
+
+    @Test
+    public void entrySet_reflectsLaterRegistrations() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        Set<Map.Entry<Long, Invocation>> entries = invocationRegistry.entrySet();
+        assertTrue(entries.isEmpty());
+
+        registerInvocations(10);
+
+        assertFalse(entries.isEmpty());
+        assertEquals(10, entries.size());
+    }
+
+    @Test
+    public void entrySet_whenRemovedThroughIterator_thenRemovedFromRegistry() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        registerInvocations(100);
+
+        Iterator<Map.Entry<Long, Invocation>> iterator = invocationRegistry.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Invocation> entry = iterator.next();
+            iterator.remove();
+            assertNull(invocationRegistry.get(entry.getKey()));
+        }
+
+        assertEquals(0, invocationRegistry.size());
+        assertTrue(invocationRegistry.entrySet().isEmpty());
+    }
+
+    private List<Invocation> registerInvocations(int count) {
+        List<Invocation> invocations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Invocation invocation = newInvocation();
+            invocationRegistry.register(invocation);
+            invocations.add(invocation);
+        }
+        return invocations;
+    }
+
     // ===================== reset ============================
 
     @Test
@@ -32,6 +32,7 @@ import com.hazelcast.internal.dynamicconfig.DynamicConfigListener;
 import com.hazelcast.internal.hotrestart.InternalHotRestartService;
 import com.hazelcast.internal.jmx.ManagementService;
 import com.hazelcast.internal.management.TimedMemberStateFactory;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.memory.MemoryStats;
 import com.hazelcast.internal.networking.ChannelInitializerProvider;
 import com.hazelcast.internal.networking.InboundHandler;
@@ -157,6 +158,11 @@ public class SamplingNodeExtension implements NodeExtension {
         return nodeExtension.getMemoryStats();
     }
 
+    @Override
+    public MemoryManager getNativeMemoryManager() {
+        return nodeExtension.getNativeMemoryManager();
+    }
+
     @Override
     public void validateJoinRequest(JoinMessage joinMessage) {
         nodeExtension.validateJoinRequest(joinMessage);